@@ -0,0 +1,678 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock client that coalesces concurrent lock requests into batches. Requests are queued
+ * and completed through futures; a small number of worker threads, each using a single
+ * connection at a time, drain the queue and execute all of the requests of a kind that
+ * are waiting as a single JDBC batch (or a single query, for lock queries). Requests for
+ * the same resource are always executed in the order in which they were submitted.
+ */
+public class BatchLockClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchLockClient.class);
+
+    private static final String INSERT_SQL = "INSERT INTO pooling.locks (resourceId, host, owner, expirationTime) "
+                    + "values (?, ?, ?, timestampadd(second, ?, now()))";
+
+    private static final String GRAB_EXPIRED_SQL = "UPDATE pooling.locks SET host = ?, owner = ?, "
+                    + "expirationTime = timestampadd(second, ?, now()) "
+                    + "WHERE resourceId = ? AND expirationTime < now()";
+
+    private static final String REFRESH_SQL = "UPDATE pooling.locks SET host = ?, owner = ?, "
+                    + "expirationTime = timestampadd(second, ?, now()) "
+                    + "WHERE resourceId = ? AND owner = ? AND expirationTime >= now()";
+
+    private static final String DELETE_SQL = "DELETE FROM pooling.locks WHERE resourceId = ? AND owner = ? AND host = ?";
+
+    private static final String SELECT_SQL = "SELECT resourceId, host, owner FROM pooling.locks "
+                    + "WHERE expirationTime >= now() AND resourceId IN (";
+
+    /**
+     * Data source used to connect to the DB containing locks.
+     */
+    private final BasicDataSource dataSource;
+
+    /**
+     * Host identifier stored with the locks taken by this client.
+     */
+    private final String host;
+
+    /**
+     * Number of worker threads.
+     */
+    private final int nthreads;
+
+    /**
+     * Maximum number of requests processed in a single batch.
+     */
+    private final int maxBatch;
+
+    /**
+     * Requests waiting to be processed.
+     */
+    private final BlockingQueue<Request> requests = new LinkedBlockingQueue<>();
+
+    /**
+     * Worker threads, empty when not running.
+     */
+    private final List<Thread> workers = new ArrayList<>();
+
+    /**
+     * {@code true} if the client is running, {@code false} otherwise.
+     */
+    private volatile boolean running = false;
+
+    /**
+     * Constructs the object.
+     *
+     * @param dataSource data source used to connect to the DB containing locks
+     * @param host host identifier stored with the locks taken by this client
+     * @param nthreads number of worker threads, which is also the maximum number of
+     *        connections used at once
+     * @param maxBatch maximum number of requests processed in a single batch
+     * @throws IllegalArgumentException if invalid parameters are passed in
+     */
+    public BatchLockClient(BasicDataSource dataSource, String host, int nthreads, int maxBatch) {
+        if (nthreads <= 0) {
+            throw new IllegalArgumentException("invalid number of threads: " + nthreads);
+        }
+
+        if (maxBatch <= 0) {
+            throw new IllegalArgumentException("invalid batch size: " + maxBatch);
+        }
+
+        this.dataSource = dataSource;
+        this.host = host;
+        this.nthreads = nthreads;
+        this.maxBatch = maxBatch;
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        for (int index = 0; index < nthreads; ++index) {
+            Thread thread = new Thread(this::run, "distributed-locking-batch-" + index);
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads. Requests that are still queued are denied.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+
+        for (Thread thread : workers) {
+            thread.interrupt();
+        }
+
+        workers.clear();
+
+        List<Request> discarded = new ArrayList<>();
+        requests.drainTo(discarded);
+        completeAll(discarded, false);
+    }
+
+    /**
+     * Determines if the client is running.
+     *
+     * @return {@code true} if the client is running, {@code false} otherwise
+     */
+    public boolean isAlive() {
+        return running;
+    }
+
+    /**
+     * Requests a lock on a resource.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @param holdSec the amount of time, in seconds, that the lock should be held
+     * @return a future that is completed with {@code true} if the resource was locked,
+     *         {@code false} otherwise
+     */
+    public CompletableFuture<Boolean> lock(String resourceId, String owner, int holdSec) {
+        return submit(new Request(Operation.LOCK, resourceId, owner, holdSec));
+    }
+
+    /**
+     * Requests that a lock be refreshed.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @param holdSec the amount of time, in seconds, that the lock should be held
+     * @return a future that is completed with {@code true} if the lock was refreshed,
+     *         {@code false} if the resource is not currently locked by the given owner
+     */
+    public CompletableFuture<Boolean> refresh(String resourceId, String owner, int holdSec) {
+        return submit(new Request(Operation.REFRESH, resourceId, owner, holdSec));
+    }
+
+    /**
+     * Requests that a lock be released.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @return a future that is completed with {@code true} if the lock was released,
+     *         {@code false} if this host and owner did not hold the lock
+     */
+    public CompletableFuture<Boolean> unlock(String resourceId, String owner) {
+        return submit(new Request(Operation.UNLOCK, resourceId, owner, 0));
+    }
+
+    /**
+     * Determines if a resource is locked by the given owner, on this host.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @return a future that is completed with {@code true} if the resource is locked by
+     *         the owner, {@code false} otherwise
+     */
+    public CompletableFuture<Boolean> isActive(String resourceId, String owner) {
+        return submit(new Request(Operation.IS_ACTIVE, resourceId, owner, 0));
+    }
+
+    /**
+     * Determines if a resource is locked by anyone.
+     *
+     * @param resourceId resource id
+     * @return a future that is completed with {@code true} if the resource is locked,
+     *         {@code false} otherwise
+     */
+    public CompletableFuture<Boolean> isLocked(String resourceId) {
+        return submit(new Request(Operation.IS_LOCKED, resourceId, null, 0));
+    }
+
+    /**
+     * Queues a request.
+     *
+     * @param request request to be queued
+     * @return the request's future
+     */
+    private CompletableFuture<Boolean> submit(Request request) {
+        if (!running) {
+            logger.warn("lock client is not running - denying {} {}", request.operation, request.resourceId);
+            request.future.complete(false);
+            return request.future;
+        }
+
+        requests.add(request);
+
+        // in case it was stopped while the request was being added
+        if (!running && requests.remove(request)) {
+            request.future.complete(false);
+        }
+
+        return request.future;
+    }
+
+    /**
+     * Worker thread body: takes whatever requests are waiting, up to the maximum batch
+     * size, and processes them together.
+     */
+    private void run() {
+        List<Request> batch = new ArrayList<>(maxBatch);
+
+        while (running) {
+            try {
+                batch.add(requests.take());
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+
+            requests.drainTo(batch, maxBatch - 1);
+
+            try {
+                process(batch);
+
+            } catch (RuntimeException e) {
+                logger.error("lock batch failed", e);
+
+            } finally {
+                // anything that wasn't decided is denied
+                completeAll(batch, false);
+                batch.clear();
+            }
+        }
+
+        completeAll(batch, false);
+    }
+
+    /**
+     * Processes a batch of requests.
+     *
+     * @param batch requests to be processed
+     */
+    protected void process(List<Request> batch) {
+        logger.debug("processing lock batch of {}", batch.size());
+
+        try (Connection conn = dataSource.getConnection()) {
+            for (List<Request> round : splitRounds(batch)) {
+                processRound(conn, round);
+            }
+
+        } catch (SQLException e) {
+            logger.error("error processing lock batch of {}", batch.size(), e);
+        }
+    }
+
+    /**
+     * Splits a batch into rounds, each containing at most one request for any given
+     * resource. The n-th request for a resource goes into the n-th round, thus executing
+     * the rounds in sequence preserves the order in which the requests for each resource
+     * were submitted, regardless of how the requests within a round are grouped.
+     * Typically, there is only one round.
+     *
+     * @param batch requests to be split
+     * @return the rounds, in the order in which they are to be executed
+     */
+    protected static List<List<Request>> splitRounds(List<Request> batch) {
+        Map<String, Integer> resource2count = new HashMap<>();
+        List<List<Request>> rounds = new ArrayList<>();
+
+        for (Request req : batch) {
+            int iround = resource2count.merge(req.resourceId, 1, Integer::sum) - 1;
+            if (iround == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+
+            rounds.get(iround).add(req);
+        }
+
+        return rounds;
+    }
+
+    /**
+     * Processes a round of requests, none of which are for the same resource.
+     *
+     * @param conn DB connection
+     * @param round requests to be processed
+     * @throws SQLException if a DB error occurs
+     */
+    private void processRound(Connection conn, List<Request> round) throws SQLException {
+        Map<Operation, List<Request>> op2reqs = new HashMap<>();
+        for (Request req : round) {
+            op2reqs.computeIfAbsent(req.operation, key -> new ArrayList<>()).add(req);
+        }
+
+        grabLocks(conn, op2reqs.get(Operation.LOCK));
+        refreshLocks(conn, op2reqs.get(Operation.REFRESH));
+        deleteLocks(conn, op2reqs.get(Operation.UNLOCK));
+
+        List<Request> queries = new ArrayList<>();
+        queries.addAll(op2reqs.getOrDefault(Operation.IS_LOCKED, new ArrayList<>()));
+        queries.addAll(op2reqs.getOrDefault(Operation.IS_ACTIVE, new ArrayList<>()));
+        queryLocks(conn, queries);
+    }
+
+    /**
+     * Grabs locks by inserting new records. Those that fail, because the resource is
+     * already locked, attempt to take over the lock, in case it has expired. Those that
+     * still fail try one last insert, in case the record was deleted in the meantime.
+     *
+     * @param conn DB connection
+     * @param reqs lock requests, or {@code null}
+     * @throws SQLException if a DB error occurs
+     */
+    private void grabLocks(Connection conn, List<Request> reqs) throws SQLException {
+        if (reqs == null) {
+            return;
+        }
+
+        int[] inserted = executeBatch(conn, INSERT_SQL, reqs, true, (stmt, req) -> {
+            stmt.setString(1, req.resourceId);
+            stmt.setString(2, host);
+            stmt.setString(3, req.owner);
+            stmt.setInt(4, req.holdSec);
+        });
+
+        List<Request> expired = completeSuccesses(reqs, inserted);
+        if (expired.isEmpty()) {
+            return;
+        }
+
+        int[] grabbed = executeBatch(conn, GRAB_EXPIRED_SQL, expired, false, (stmt, req) -> {
+            stmt.setString(1, host);
+            stmt.setString(2, req.owner);
+            stmt.setInt(3, req.holdSec);
+            stmt.setString(4, req.resourceId);
+        });
+
+        // the lock either hasn't expired or was removed - try one last insert
+        List<Request> removed = completeSuccesses(expired, grabbed);
+        if (removed.isEmpty()) {
+            return;
+        }
+
+        int[] reinserted = executeBatch(conn, INSERT_SQL, removed, true, (stmt, req) -> {
+            stmt.setString(1, req.resourceId);
+            stmt.setString(2, host);
+            stmt.setString(3, req.owner);
+            stmt.setInt(4, req.holdSec);
+        });
+
+        complete(removed, reinserted);
+    }
+
+    /**
+     * Refreshes locks.
+     *
+     * @param conn DB connection
+     * @param reqs refresh requests, or {@code null}
+     * @throws SQLException if a DB error occurs
+     */
+    private void refreshLocks(Connection conn, List<Request> reqs) throws SQLException {
+        if (reqs == null) {
+            return;
+        }
+
+        int[] updated = executeBatch(conn, REFRESH_SQL, reqs, false, (stmt, req) -> {
+            stmt.setString(1, host);
+            stmt.setString(2, req.owner);
+            stmt.setInt(3, req.holdSec);
+            stmt.setString(4, req.resourceId);
+            stmt.setString(5, req.owner);
+        });
+
+        complete(reqs, updated);
+    }
+
+    /**
+     * Deletes locks.
+     *
+     * @param conn DB connection
+     * @param reqs unlock requests, or {@code null}
+     * @throws SQLException if a DB error occurs
+     */
+    private void deleteLocks(Connection conn, List<Request> reqs) throws SQLException {
+        if (reqs == null) {
+            return;
+        }
+
+        int[] deleted = executeBatch(conn, DELETE_SQL, reqs, false, (stmt, req) -> {
+            stmt.setString(1, req.resourceId);
+            stmt.setString(2, req.owner);
+            stmt.setString(3, host);
+        });
+
+        complete(reqs, deleted);
+    }
+
+    /**
+     * Answers lock queries with a single query for all of the resources involved.
+     *
+     * @param conn DB connection
+     * @param reqs query requests
+     * @throws SQLException if a DB error occurs
+     */
+    private void queryLocks(Connection conn, List<Request> reqs) throws SQLException {
+        if (reqs.isEmpty()) {
+            return;
+        }
+
+        Set<String> resourceIds = new LinkedHashSet<>();
+        for (Request req : reqs) {
+            resourceIds.add(req.resourceId);
+        }
+
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        for (int index = 0; index < resourceIds.size(); ++index) {
+            sql.append(index == 0 ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        // maps a resource id to its current [host, owner]
+        Map<String, String[]> resource2holder = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String resourceId : resourceIds) {
+                stmt.setString(index++, resourceId);
+            }
+
+            try (ResultSet result = stmt.executeQuery()) {
+                while (result.next()) {
+                    resource2holder.put(result.getString(1), new String[] {result.getString(2), result.getString(3)});
+                }
+            }
+        }
+
+        for (Request req : reqs) {
+            String[] holder = resource2holder.get(req.resourceId);
+            if (req.operation == Operation.IS_LOCKED) {
+                req.future.complete(holder != null);
+            } else {
+                req.future.complete(holder != null && host.equals(holder[0]) && req.owner.equals(holder[1]));
+            }
+        }
+    }
+
+    /**
+     * Executes a statement, as a batch, once for each request.
+     *
+     * @param conn DB connection
+     * @param sql statement to be executed
+     * @param reqs requests for which the statement is to be executed
+     * @param noInfoIsSuccess {@code true} if a {@link Statement#SUCCESS_NO_INFO} result
+     *        means that one record was affected (i.e., the statement is an insert),
+     *        {@code false} if the actual count must be determined
+     * @param setter sets the statement parameters for a given request
+     * @return the number of records affected, for each request
+     * @throws SQLException if a DB error occurs
+     */
+    private int[] executeBatch(Connection conn, String sql, List<Request> reqs, boolean noInfoIsSuccess,
+                    ParameterSetter setter) throws SQLException {
+
+        int[] counts;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Request req : reqs) {
+                setter.set(stmt, req);
+                stmt.addBatch();
+            }
+
+            try {
+                counts = stmt.executeBatch();
+
+            } catch (BatchUpdateException e) {
+                // expected when some of the inserts are rejected as duplicates
+                logger.debug("lock batch partially failed: {}", e.getMessage());
+                counts = e.getUpdateCounts();
+            }
+
+            if (counts == null) {
+                counts = new int[0];
+            }
+        }
+
+        int[] results = new int[reqs.size()];
+
+        for (int index = 0; index < results.length; ++index) {
+            int count = (index < counts.length ? counts[index] : Statement.SUCCESS_NO_INFO);
+
+            if (count == Statement.EXECUTE_FAILED) {
+                results[index] = 0;
+
+            } else if (count >= 0) {
+                results[index] = count;
+
+            } else if (noInfoIsSuccess && index < counts.length) {
+                results[index] = 1;
+
+            } else {
+                // the driver didn't execute it, or didn't say what happened - do it again, alone
+                results[index] = executeOne(conn, sql, reqs.get(index), setter);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Executes a statement for a single request.
+     *
+     * @param conn DB connection
+     * @param sql statement to be executed
+     * @param req request for which the statement is to be executed
+     * @param setter sets the statement parameters for the request
+     * @return the number of records affected
+     * @throws SQLException if the statement cannot be prepared
+     */
+    private int executeOne(Connection conn, String sql, Request req, ParameterSetter setter) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            setter.set(stmt, req);
+            return stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            logger.debug("lock {} {} failed: {}", req.operation, req.resourceId, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Completes the requests, each with {@code true} if exactly one record was
+     * affected on its behalf.
+     *
+     * @param reqs requests to be completed
+     * @param counts number of records affected, for each request
+     */
+    private static void complete(List<Request> reqs, int[] counts) {
+        for (int index = 0; index < counts.length; ++index) {
+            reqs.get(index).future.complete(counts[index] == 1);
+        }
+    }
+
+    /**
+     * Completes, with {@code true}, the requests on whose behalf exactly one record was
+     * affected.
+     *
+     * @param reqs requests to be examined
+     * @param counts number of records affected, for each request
+     * @return the requests that were not completed
+     */
+    private static List<Request> completeSuccesses(List<Request> reqs, int[] counts) {
+        List<Request> failed = new ArrayList<>();
+
+        for (int index = 0; index < counts.length; ++index) {
+            Request req = reqs.get(index);
+            if (counts[index] == 1) {
+                req.future.complete(true);
+            } else {
+                failed.add(req);
+            }
+        }
+
+        return failed;
+    }
+
+    /**
+     * Completes requests that have not already been completed.
+     *
+     * @param reqs requests to be completed
+     * @param result value with which to complete them
+     */
+    private static void completeAll(List<Request> reqs, boolean result) {
+        for (Request req : reqs) {
+            req.future.complete(result);
+        }
+    }
+
+    /**
+     * Lock operations.
+     */
+    protected enum Operation {
+        LOCK, REFRESH, UNLOCK, IS_LOCKED, IS_ACTIVE
+    }
+
+    /**
+     * Sets the parameters of a statement from a request.
+     */
+    @FunctionalInterface
+    private interface ParameterSetter {
+        void set(PreparedStatement stmt, Request req) throws SQLException;
+    }
+
+    /**
+     * A queued lock request.
+     */
+    protected static class Request {
+        private final Operation operation;
+        private final String resourceId;
+        private final String owner;
+        private final int holdSec;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        /**
+         * Constructs the object.
+         *
+         * @param operation lock operation
+         * @param resourceId resource id
+         * @param owner owner, or {@code null} for operations that don't need it
+         * @param holdSec the amount of time, in seconds, that the lock should be held
+         */
+        protected Request(Operation operation, String resourceId, String owner, int holdSec) {
+            this.operation = operation;
+            this.resourceId = resourceId;
+            this.owner = owner;
+            this.holdSec = holdSec;
+        }
+
+        protected CompletableFuture<Boolean> getFuture() {
+            return future;
+        }
+    }
+}
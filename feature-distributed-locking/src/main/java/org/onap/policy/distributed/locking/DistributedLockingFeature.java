@@ -25,9 +25,12 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.BasicDataSourceFactory;
 import org.onap.policy.common.utils.properties.exception.PropertyException;
+import org.onap.policy.drools.core.lock.LockRefreshCallback;
 import org.onap.policy.drools.core.lock.PolicyResourceLockFeatureApi;
 import org.onap.policy.drools.features.PolicyEngineFeatureAPI;
 import org.onap.policy.drools.persistence.SystemPersistence;
@@ -57,6 +60,21 @@ public class DistributedLockingFeature implements PolicyEngineFeatureAPI, Policy
      */
     private BasicDataSource dataSource;
 
+    /**
+     * Client through which lock requests are batched.
+     */
+    private BatchLockClient lockClient;
+
+    /**
+     * Locks held by this host.
+     */
+    private LockOwnershipCache lockCache;
+
+    /**
+     * Refreshes locks that are registered to be refreshed automatically.
+     */
+    private LockRefresher lockRefresher;
+
     /**
      * UUID. 
      */
@@ -70,38 +88,106 @@ public class DistributedLockingFeature implements PolicyEngineFeatureAPI, Policy
     @Override
     public OperResult beforeLock(String resourceId, String owner, int holdSec) {
 
-        TargetLock lock = new TargetLock(resourceId, uuid, owner, dataSource);
+        long tstart = lockCache.currentTime();
+
+        OperResult result = toResult(lockClient.lock(resourceId, owner, holdSec));
+        if (result == OperResult.OPER_ACCEPTED) {
+            lockCache.put(resourceId, owner, tstart, holdSec);
+        }
 
-        return (lock.lock(holdSec) ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+        return result;
     }
 
     @Override
     public OperResult beforeRefresh(String resourceId, String owner, int holdSec) {
 
-        TargetLock lock = new TargetLock(resourceId, uuid, owner, dataSource);
+        long tstart = lockCache.currentTime();
 
-        return (lock.refresh(holdSec) ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);                
+        OperResult result = toResult(lockClient.refresh(resourceId, owner, holdSec));
+        if (result == OperResult.OPER_ACCEPTED) {
+            lockCache.put(resourceId, owner, tstart, holdSec);
+        } else {
+            lockCache.remove(resourceId);
+        }
+
+        return result;
     }
 
     @Override
     public OperResult beforeUnlock(String resourceId, String owner) {
-        TargetLock lock = new TargetLock(resourceId, uuid, owner, dataSource);
 
-        return (lock.unlock() ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+        // forget it first, so nothing answers from the cache while it's being released
+        lockRefresher.unregister(resourceId, owner);
+        lockCache.remove(resourceId);
+
+        return toResult(lockClient.unlock(resourceId, owner));
+    }
+
+    @Override
+    public OperResult beforeAutoRefresh(String resourceId, String owner, int holdSec,
+                    LockRefreshCallback callback) {
+
+        long tstart = lockCache.currentTime();
+
+        // refresh it now, which also verifies that the owner holds it
+        OperResult result = toResult(lockClient.refresh(resourceId, owner, holdSec));
+        if (result == OperResult.OPER_ACCEPTED) {
+            lockCache.put(resourceId, owner, tstart, holdSec);
+            lockRefresher.register(resourceId, owner, holdSec, tstart, callback);
+        } else {
+            lockCache.remove(resourceId);
+        }
+
+        return result;
+    }
+
+    @Override
+    public OperResult beforeCancelAutoRefresh(String resourceId, String owner) {
+
+        return (lockRefresher.unregister(resourceId, owner) ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
     }
 
     @Override
     public OperResult beforeIsLockedBy(String resourceId, String owner) {
-        TargetLock lock = new TargetLock(resourceId, uuid, owner, dataSource);
 
-        return (lock.isActive() ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+        String cachedOwner = lockCache.getOwner(resourceId);
+        if (cachedOwner != null) {
+            return (cachedOwner.equals(owner) ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+        }
+
+        return toResult(lockClient.isActive(resourceId, owner));
     }
 
     @Override
     public OperResult beforeIsLocked(String resourceId) {
-        TargetLock lock = new TargetLock(resourceId, uuid, "dummyOwner", dataSource);
 
-        return (lock.isLocked() ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+        if (lockCache.getOwner(resourceId) != null) {
+            return OperResult.OPER_ACCEPTED;
+        }
+
+        return toResult(lockClient.isLocked(resourceId));
+    }
+
+    /**
+     * Waits for a lock request to complete.
+     *
+     * @param future lock request future
+     * @return {@link OperResult#OPER_ACCEPTED} if the request succeeded,
+     *         {@link OperResult#OPER_DENIED} otherwise
+     */
+    private OperResult toResult(Future<Boolean> future) {
+        try {
+            return (future.get() ? OperResult.OPER_ACCEPTED : OperResult.OPER_DENIED);
+
+        } catch (InterruptedException e) {
+            logger.warn("DistributedLockingFeature interrupted waiting for lock request");
+            Thread.currentThread().interrupt();
+            return OperResult.OPER_DENIED;
+
+        } catch (ExecutionException e) {
+            logger.error("DistributedLockingFeature lock request failed", e);
+            return OperResult.OPER_DENIED;
+        }
     }
 
     @Override
@@ -125,9 +211,34 @@ public class DistributedLockingFeature implements PolicyEngineFeatureAPI, Policy
 
         cleanLockTable();
 
+        this.lockCache = new LockOwnershipCache(lockProps.getCacheMarginMs());
+
+        if (this.lockRefresher != null) {
+            this.lockRefresher.stop();
+        }
+
+        if (this.lockClient != null) {
+            this.lockClient.stop();
+        }
+
+        this.lockClient = makeLockClient();
+        this.lockClient.start();
+
+        this.lockRefresher = new LockRefresher(lockClient, lockCache, lockProps.getRefreshIntervalMs());
+        this.lockRefresher.start();
+
         return false;
     }
 
+    /**
+     * Make lock client.
+     *
+     * @return a new client through which lock requests are batched
+     */
+    protected BatchLockClient makeLockClient() {
+        return new BatchLockClient(dataSource, uuid.toString(), lockProps.getBatchThreads(), lockProps.getBatchSize());
+    }
+
     /**
      * Make data source.
      * 
@@ -154,6 +265,18 @@ public class DistributedLockingFeature implements PolicyEngineFeatureAPI, Policy
      */
     @Override
     public boolean beforeShutdown(PolicyEngine engine) {
+        if (lockRefresher != null) {
+            lockRefresher.stop();
+        }
+
+        if (lockClient != null) {
+            lockClient.stop();
+        }
+
+        if (lockCache != null) {
+            lockCache.clear();
+        }
+
         cleanLockTable();
         return false;
     }
@@ -38,6 +38,11 @@ public class DistributedLockingProperties {
     public static final String DB_USER = "javax.persistence.jdbc.user";
     public static final String DB_PWD = "javax.persistence.jdbc.password";
 
+    public static final String BATCH_THREADS = PREFIX + "batch.threads";
+    public static final String BATCH_SIZE = PREFIX + "batch.size";
+    public static final String CACHE_MARGIN_MS = PREFIX + "cache.margin.ms";
+    public static final String REFRESH_INTERVAL_MS = PREFIX + "refresh.interval.ms";
+
     /**
      * Properties from which this was constructed.
      */
@@ -67,6 +72,32 @@ public class DistributedLockingProperties {
     @Property(name = DB_PWD)
     private String dbPwd;
 
+    /**
+     * Number of threads, and thus DB connections, used to process lock requests.
+     */
+    @Property(name = BATCH_THREADS, defaultValue = "2")
+    private int batchThreads;
+
+    /**
+     * Maximum number of lock requests combined into a single batch.
+     */
+    @Property(name = BATCH_SIZE, defaultValue = "100")
+    private int batchSize;
+
+    /**
+     * How long, in milliseconds, before a lock held by this host expires that its
+     * ownership must be checked in the DB rather than in memory.
+     */
+    @Property(name = CACHE_MARGIN_MS, defaultValue = "1000")
+    private long cacheMarginMs;
+
+    /**
+     * How often, in milliseconds, locks that are refreshed automatically are checked.
+     * Should be well under half of the shortest time for which such locks are held.
+     */
+    @Property(name = REFRESH_INTERVAL_MS, defaultValue = "1000")
+    private long refreshIntervalMs;
+
     /**
      * Constructs the object, populating fields from the properties.
      *
@@ -105,6 +136,26 @@ public class DistributedLockingProperties {
     }
 
 
+    public int getBatchThreads() {
+        return batchThreads;
+    }
+
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+
+    public long getCacheMarginMs() {
+        return cacheMarginMs;
+    }
+
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+
     public void setDbDriver(String dbDriver) {
         this.dbDriver = dbDriver;
     }
@@ -124,4 +175,24 @@ public class DistributedLockingProperties {
         this.dbPwd = dbPwd;
     }
 
+
+    public void setBatchThreads(int batchThreads) {
+        this.batchThreads = batchThreads;
+    }
+
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+
+    public void setCacheMarginMs(long cacheMarginMs) {
+        this.cacheMarginMs = cacheMarginMs;
+    }
+
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
 }
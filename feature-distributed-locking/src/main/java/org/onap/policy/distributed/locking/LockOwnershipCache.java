@@ -0,0 +1,144 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the locks held by this host, along with their expiration times, so that
+ * ownership checks for those locks can be answered without going to the DB. As
+ * resources are locked exclusively, a resource locked by this host cannot be locked
+ * by anyone else until the lock expires or is released.
+ *
+ * <p/>Expiration times are computed from the time the lock request was submitted, thus
+ * they are never later than those recorded in the DB. Entries that are within the
+ * configured margin of expiring are treated as unknown, leaving it to the DB to decide.
+ */
+public class LockOwnershipCache {
+
+    /**
+     * How long, in milliseconds, before an entry expires that it is no longer trusted.
+     */
+    private final long marginMs;
+
+    /**
+     * Maps a resource id to the lock this host holds on it.
+     */
+    private final ConcurrentMap<String, Entry> resource2entry = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the object.
+     *
+     * @param marginMs how long, in milliseconds, before an entry expires that it is no
+     *        longer trusted
+     * @throws IllegalArgumentException if the margin is negative
+     */
+    public LockOwnershipCache(long marginMs) {
+        if (marginMs < 0) {
+            throw new IllegalArgumentException("invalid cache margin: " + marginMs);
+        }
+
+        this.marginMs = marginMs;
+    }
+
+    /**
+     * Gets the current time, in milliseconds. Should be invoked before the lock request
+     * whose outcome is to be recorded is submitted.
+     *
+     * @return the current time
+     */
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Records a lock held by this host.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @param tstart time, in milliseconds, at which the lock request was submitted
+     * @param holdSec the amount of time, in seconds, that the lock is to be held
+     */
+    public void put(String resourceId, String owner, long tstart, int holdSec) {
+        resource2entry.put(resourceId, new Entry(owner, tstart + holdSec * 1000L));
+    }
+
+    /**
+     * Forgets about a lock.
+     *
+     * @param resourceId resource id
+     */
+    public void remove(String resourceId) {
+        resource2entry.remove(resourceId);
+    }
+
+    /**
+     * Forgets about all locks.
+     */
+    public void clear() {
+        resource2entry.clear();
+    }
+
+    /**
+     * Gets the number of locks that are recorded, whether or not they're still trusted.
+     *
+     * @return the number of locks recorded
+     */
+    public int size() {
+        return resource2entry.size();
+    }
+
+    /**
+     * Gets the owner of a lock held by this host.
+     *
+     * @param resourceId resource id
+     * @return the owner of the lock, or {@code null} if this host is not known to hold a
+     *         lock on the resource, or the lock is about to expire
+     */
+    public String getOwner(String resourceId) {
+        Entry entry = resource2entry.get(resourceId);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.expireMs - marginMs <= currentTime()) {
+            // only remove it if it hasn't been replaced in the meantime
+            resource2entry.remove(resourceId, entry);
+            return null;
+        }
+
+        return entry.owner;
+    }
+
+    /**
+     * A lock held by this host.
+     */
+    private static class Entry {
+        private final String owner;
+        private final long expireMs;
+
+        public Entry(String owner, long expireMs) {
+            this.owner = owner;
+            this.expireMs = expireMs;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.onap.policy.drools.core.lock.LockRefreshCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Refreshes registered locks in the background. A single thread periodically checks
+ * the registered locks and submits a refresh for each one that has used up half of
+ * its holding time; as the refreshes are all submitted at once, the lock client
+ * combines them into batches. Locks that cannot be refreshed are unregistered and
+ * reported to their callbacks.
+ */
+public class LockRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LockRefresher.class);
+
+    /**
+     * Client through which locks are refreshed.
+     */
+    private final BatchLockClient lockClient;
+
+    /**
+     * Locks held by this host, updated as locks are refreshed.
+     */
+    private final LockOwnershipCache lockCache;
+
+    /**
+     * How often, in milliseconds, the registered locks are checked.
+     */
+    private final long intervalMs;
+
+    /**
+     * Maps a resource id to its registration.
+     */
+    private final ConcurrentMap<String, Registration> resource2reg = new ConcurrentHashMap<>();
+
+    /**
+     * Used to prevent a lock from being put back into the cache, by a refresh that
+     * completes, after the lock has been unregistered.
+     */
+    private final Object regLocker = new Object();
+
+    /**
+     * Checks the registered locks, {@code null} when not running.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs the object.
+     *
+     * @param lockClient client through which locks are refreshed
+     * @param lockCache locks held by this host, updated as locks are refreshed
+     * @param intervalMs how often, in milliseconds, the registered locks are checked
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public LockRefresher(BatchLockClient lockClient, LockOwnershipCache lockCache, long intervalMs) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("invalid refresh interval: " + intervalMs);
+        }
+
+        this.lockClient = lockClient;
+        this.lockCache = lockCache;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Starts the background thread.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+
+        scheduler = makeScheduler();
+        scheduler.scheduleWithFixedDelay(this::refreshLocks, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background thread and discards all registrations.
+     */
+    public synchronized void stop() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdownNow();
+        scheduler = null;
+
+        resource2reg.clear();
+    }
+
+    /**
+     * Determines if the background thread is running.
+     *
+     * @return {@code true} if running, {@code false} otherwise
+     */
+    public synchronized boolean isAlive() {
+        return (scheduler != null);
+    }
+
+    /**
+     * Registers a lock to be refreshed. Replaces any previous registration for the
+     * resource.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @param holdSec the amount of time, in seconds, that the lock should be held after
+     *        each refresh
+     * @param tlastMs time, in milliseconds, at which the lock was last refreshed
+     * @param callback invoked if the lock subsequently fails to be refreshed
+     */
+    public void register(String resourceId, String owner, int holdSec, long tlastMs, LockRefreshCallback callback) {
+        resource2reg.put(resourceId, new Registration(resourceId, owner, holdSec, tlastMs, callback));
+    }
+
+    /**
+     * Unregisters a lock. Once this returns, a refresh that is still in progress will no
+     * longer update the cache, thus the caller may safely remove the lock from it.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @return {@code true} if the lock was registered by the given owner, {@code false}
+     *         otherwise
+     */
+    public boolean unregister(String resourceId, String owner) {
+        synchronized (regLocker) {
+            Registration reg = resource2reg.get(resourceId);
+            return (reg != null && reg.owner.equals(owner) && resource2reg.remove(resourceId, reg));
+        }
+    }
+
+    /**
+     * Gets the number of registered locks.
+     *
+     * @return the number of registered locks
+     */
+    public int getRegistered() {
+        return resource2reg.size();
+    }
+
+    /**
+     * Refreshes all of the registered locks that are due, waiting for the results.
+     */
+    protected void refreshLocks() {
+        try {
+            long tcur = currentTime();
+
+            List<Registration> due = new ArrayList<>();
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+            for (Registration reg : resource2reg.values()) {
+                if (reg.isDue(tcur)) {
+                    due.add(reg);
+                    futures.add(lockClient.refresh(reg.resourceId, reg.owner, reg.holdSec));
+                }
+            }
+
+            if (due.isEmpty()) {
+                return;
+            }
+
+            logger.debug("refreshing {} locks", due.size());
+
+            for (int index = 0; index < due.size(); ++index) {
+                Registration reg = due.get(index);
+
+                if (isRefreshed(futures.get(index))) {
+                    updateRefreshed(reg, tcur);
+
+                } else if (resource2reg.remove(reg.resourceId, reg)) {
+                    // still registered, thus the failure wasn't due to an unlock
+                    lockCache.remove(reg.resourceId);
+                    notifyFailure(reg);
+                }
+            }
+
+        } catch (InterruptedException e) {
+            logger.warn("lock refresher interrupted");
+            Thread.currentThread().interrupt();
+
+        } catch (RuntimeException e) {
+            logger.error("lock refresher failed", e);
+        }
+    }
+
+    /**
+     * Records a successful refresh, provided the lock is still registered. Otherwise, it
+     * was unlocked while the refresh was in progress, and must not be put back into the
+     * cache.
+     *
+     * @param reg registration whose lock was refreshed
+     * @param tcur time, in milliseconds, at which the refresh was started
+     */
+    private void updateRefreshed(Registration reg, long tcur) {
+        synchronized (regLocker) {
+            if (resource2reg.get(reg.resourceId) == reg) {
+                reg.tlastMs = tcur;
+                lockCache.put(reg.resourceId, reg.owner, tcur, reg.holdSec);
+            }
+        }
+    }
+
+    /**
+     * Waits for a refresh to complete.
+     *
+     * @param future refresh future
+     * @return {@code true} if the lock was refreshed, {@code false} otherwise
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private boolean isRefreshed(CompletableFuture<Boolean> future) throws InterruptedException {
+        try {
+            return future.get();
+
+        } catch (ExecutionException e) {
+            logger.error("lock refresh failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Notifies a callback that its lock could not be refreshed.
+     *
+     * @param reg registration whose lock could not be refreshed
+     */
+    private void notifyFailure(Registration reg) {
+        logger.warn("failed to refresh lock on {} for {}", reg.resourceId, reg.owner);
+
+        try {
+            reg.callback.refreshFailed(reg.resourceId, reg.owner);
+
+        } catch (RuntimeException e) {
+            logger.warn("lock refresh callback for {} threw an exception", reg.resourceId, e);
+        }
+    }
+
+    // these may be overridden by junit tests
+
+    protected long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    protected ScheduledExecutorService makeScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "distributed-locking-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A lock that is registered to be refreshed.
+     */
+    private static class Registration {
+        private final String resourceId;
+        private final String owner;
+        private final int holdSec;
+        private final LockRefreshCallback callback;
+
+        /**
+         * Time, in milliseconds, at which the lock was last refreshed. Only updated by
+         * the refresher thread.
+         */
+        private volatile long tlastMs;
+
+        public Registration(String resourceId, String owner, int holdSec, long tlastMs,
+                        LockRefreshCallback callback) {
+            this.resourceId = resourceId;
+            this.owner = owner;
+            this.holdSec = holdSec;
+            this.tlastMs = tlastMs;
+            this.callback = callback;
+        }
+
+        /**
+         * Determines if the lock is due to be refreshed, which is once half of its
+         * holding time has passed.
+         *
+         * @param tcur current time, in milliseconds
+         * @return {@code true} if the lock is due to be refreshed, {@code false}
+         *         otherwise
+         */
+        public boolean isDue(long tcur) {
+            return (tcur - tlastMs >= holdSec * 500L);
+        }
+    }
+}
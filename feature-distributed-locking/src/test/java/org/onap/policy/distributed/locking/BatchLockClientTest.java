@@ -0,0 +1,340 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onap.policy.distributed.locking.BatchLockClient.Operation;
+import org.onap.policy.distributed.locking.BatchLockClient.Request;
+
+public class BatchLockClientTest {
+    private static final int MAX_AGE_SEC = 4 * 60;
+    private static final String DB_CONNECTION =
+            "jdbc:h2:mem:batchlock;INIT=CREATE SCHEMA IF NOT EXISTS pooling\\;SET SCHEMA pooling";
+    private static final String DB_USER = "user";
+    private static final String DB_PASSWORD = "password";
+    private static final String EXPECTED = "expected exception";
+    private static final String HOST = "my-host";
+    private static final String RESOURCE = "resource1";
+    private static final String RESOURCE2 = "resource2";
+    private static final String OWNER1 = "owner1";
+    private static final String OWNER2 = "owner2";
+
+    /**
+     * Keeps the in-memory DB alive between tests.
+     */
+    private static Connection conn;
+
+    private static BasicDataSource dataSource;
+
+    private BatchLockClient client;
+
+    /**
+     * Creates the DB.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() throws SQLException {
+        conn = DriverManager.getConnection(DB_CONNECTION, DB_USER, DB_PASSWORD);
+
+        try (PreparedStatement stmt = conn.prepareStatement("create table if not exists pooling.locks "
+                        + "(resourceId VARCHAR(128), host VARCHAR(128), owner VARCHAR(128), "
+                        + "expirationTime TIMESTAMP DEFAULT 0, PRIMARY KEY (resourceId))")) {
+            stmt.executeUpdate();
+        }
+
+        dataSource = new BasicDataSource();
+        dataSource.setDriverClassName("org.h2.Driver");
+        dataSource.setUrl(DB_CONNECTION);
+        dataSource.setUsername(DB_USER);
+        dataSource.setPassword(DB_PASSWORD);
+    }
+
+    @AfterClass
+    public static void tearDownAfterClass() throws SQLException {
+        dataSource.close();
+        conn.close();
+    }
+
+    /**
+     * Wipes the DB and starts the client.
+     */
+    @Before
+    public void setUp() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM pooling.locks")) {
+            stmt.executeUpdate();
+        }
+
+        client = new BatchLockClient(dataSource, HOST, 2, 50);
+        client.start();
+    }
+
+    @After
+    public void tearDown() {
+        client.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLockClient_InvalidThreads() {
+        new BatchLockClient(dataSource, HOST, 0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBatchLockClient_InvalidBatch() {
+        new BatchLockClient(dataSource, HOST, 1, 0);
+    }
+
+    @Test
+    public void testStartStop() throws Exception {
+        assertTrue(client.isAlive());
+
+        // already started
+        client.start();
+        assertTrue(client.isAlive());
+
+        client.stop();
+        assertFalse(client.isAlive());
+
+        // already stopped
+        client.stop();
+        assertFalse(client.isAlive());
+
+        // requests are denied while stopped
+        assertFalse(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+
+        client.start();
+        assertTrue(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+    }
+
+    @Test
+    public void testLock() throws Exception {
+        assertFalse(get(client.isLocked(RESOURCE)));
+
+        assertTrue(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+        assertTrue(get(client.isLocked(RESOURCE)));
+        assertTrue(get(client.isActive(RESOURCE, OWNER1)));
+        assertFalse(get(client.isActive(RESOURCE, OWNER2)));
+
+        // cannot re-lock, even by the same owner
+        assertFalse(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+        assertFalse(get(client.lock(RESOURCE, OWNER2, MAX_AGE_SEC)));
+
+        // expired locks can be taken over
+        expireLocks();
+        assertFalse(get(client.isLocked(RESOURCE)));
+        assertTrue(get(client.lock(RESOURCE, OWNER2, MAX_AGE_SEC)));
+        assertTrue(get(client.isActive(RESOURCE, OWNER2)));
+    }
+
+    @Test
+    public void testLock_Concurrent() throws Exception {
+        final int nresources = 10;
+        final int nowners = 20;
+
+        // all of these are queued before any of them is processed
+        Map<String, List<CompletableFuture<Boolean>>> resource2futures = new HashMap<>();
+        for (int owner = 0; owner < nowners; ++owner) {
+            for (int resource = 0; resource < nresources; ++resource) {
+                resource2futures.computeIfAbsent("resource-" + resource, key -> new ArrayList<>())
+                                .add(client.lock("resource-" + resource, "owner-" + owner, MAX_AGE_SEC));
+            }
+        }
+
+        // exactly one owner gets each resource
+        for (List<CompletableFuture<Boolean>> futures : resource2futures.values()) {
+            int nlocked = 0;
+            for (CompletableFuture<Boolean> future : futures) {
+                if (get(future)) {
+                    ++nlocked;
+                }
+            }
+
+            assertEquals(1, nlocked);
+        }
+
+        List<CompletableFuture<Boolean>> queries = new ArrayList<>();
+        for (int resource = 0; resource < nresources; ++resource) {
+            queries.add(client.isLocked("resource-" + resource));
+        }
+
+        for (CompletableFuture<Boolean> future : queries) {
+            assertTrue(get(future));
+        }
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        // not locked yet
+        assertFalse(get(client.refresh(RESOURCE, OWNER1, MAX_AGE_SEC)));
+
+        assertTrue(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+        assertTrue(get(client.refresh(RESOURCE, OWNER1, MAX_AGE_SEC)));
+
+        // wrong owner
+        assertFalse(get(client.refresh(RESOURCE, OWNER2, MAX_AGE_SEC)));
+
+        // expired
+        expireLocks();
+        assertFalse(get(client.refresh(RESOURCE, OWNER1, MAX_AGE_SEC)));
+    }
+
+    @Test
+    public void testUnlock() throws Exception {
+        // not locked yet
+        assertFalse(get(client.unlock(RESOURCE, OWNER1)));
+
+        assertTrue(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+
+        // wrong owner
+        assertFalse(get(client.unlock(RESOURCE, OWNER2)));
+
+        assertTrue(get(client.unlock(RESOURCE, OWNER1)));
+        assertFalse(get(client.isLocked(RESOURCE)));
+
+        // already unlocked
+        assertFalse(get(client.unlock(RESOURCE, OWNER1)));
+    }
+
+    @Test
+    public void testLock_RemovedBeforeGrab() throws Exception {
+        PreparedStatement insert = mock(PreparedStatement.class);
+        when(insert.executeBatch()).thenReturn(new int[] {Statement.EXECUTE_FAILED}).thenReturn(new int[] {1});
+
+        // lock is deleted after the insert fails, thus there's nothing to grab
+        PreparedStatement grab = mock(PreparedStatement.class);
+        when(grab.executeBatch()).thenReturn(new int[] {0});
+
+        Connection mockConn = mock(Connection.class);
+        when(mockConn.prepareStatement(anyString()))
+                        .thenAnswer(args -> (args.getArguments()[0].toString().startsWith("INSERT") ? insert : grab));
+
+        BasicDataSource mockSource = mock(BasicDataSource.class);
+        when(mockSource.getConnection()).thenReturn(mockConn);
+
+        BatchLockClient mockClient = new BatchLockClient(mockSource, HOST, 1, 10);
+        mockClient.start();
+
+        try {
+            // re-inserted
+            assertTrue(get(mockClient.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+            verify(insert, times(2)).executeBatch();
+            verify(grab).executeBatch();
+
+        } finally {
+            mockClient.stop();
+        }
+    }
+
+    @Test
+    public void testProcess_SubmissionOrder() throws Exception {
+        assertTrue(get(client.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+
+        // unlocked by one owner, then locked by another, in the same batch
+        Request unlock = new Request(Operation.UNLOCK, RESOURCE, OWNER1, 0);
+        Request lock = new Request(Operation.LOCK, RESOURCE, OWNER2, MAX_AGE_SEC);
+        Request query = new Request(Operation.IS_ACTIVE, RESOURCE, OWNER2, 0);
+        client.process(Arrays.asList(query, unlock, lock));
+
+        assertFalse(get(query.getFuture()));
+        assertTrue(get(unlock.getFuture()));
+        assertTrue(get(lock.getFuture()));
+        assertTrue(get(client.isActive(RESOURCE, OWNER2)));
+
+        // locked, then unlocked, in the same batch
+        lock = new Request(Operation.LOCK, RESOURCE2, OWNER1, MAX_AGE_SEC);
+        unlock = new Request(Operation.UNLOCK, RESOURCE2, OWNER1, 0);
+        client.process(Arrays.asList(lock, unlock));
+
+        assertTrue(get(lock.getFuture()));
+        assertTrue(get(unlock.getFuture()));
+        assertFalse(get(client.isLocked(RESOURCE2)));
+    }
+
+    @Test
+    public void testSplitRounds() {
+        Request req1 = new Request(Operation.UNLOCK, RESOURCE, OWNER1, 0);
+        Request req2 = new Request(Operation.LOCK, RESOURCE2, OWNER1, MAX_AGE_SEC);
+        Request req3 = new Request(Operation.LOCK, RESOURCE, OWNER2, MAX_AGE_SEC);
+        Request req4 = new Request(Operation.IS_LOCKED, RESOURCE, null, 0);
+
+        List<List<Request>> rounds = BatchLockClient.splitRounds(Arrays.asList(req1, req2, req3, req4));
+
+        assertEquals(3, rounds.size());
+        assertEquals(Arrays.asList(req1, req2), rounds.get(0));
+        assertEquals(Arrays.asList(req3), rounds.get(1));
+        assertEquals(Arrays.asList(req4), rounds.get(2));
+
+        // distinct resources all go into a single round
+        assertEquals(1, BatchLockClient.splitRounds(Arrays.asList(req1, req2)).size());
+    }
+
+    @Test
+    public void testProcess_DbException() throws Exception {
+        BasicDataSource badSource = mock(BasicDataSource.class);
+        when(badSource.getConnection()).thenThrow(new SQLException(EXPECTED));
+
+        BatchLockClient badClient = new BatchLockClient(badSource, HOST, 1, 10);
+        badClient.start();
+
+        try {
+            assertFalse(get(badClient.lock(RESOURCE, OWNER1, MAX_AGE_SEC)));
+            assertFalse(get(badClient.isLocked(RESOURCE)));
+
+        } finally {
+            badClient.stop();
+        }
+    }
+
+    private boolean get(CompletableFuture<Boolean> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private void expireLocks() throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                        "UPDATE pooling.locks SET expirationTime = timestampadd(second, -1, now())")) {
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -21,39 +21,38 @@
 package org.onap.policy.distributed.locking;
 
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.UUID;
 import java.util.concurrent.ExecutionException;
-import org.apache.commons.dbcp2.BasicDataSource;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.onap.policy.drools.core.lock.LockRefreshCallback;
 import org.onap.policy.drools.core.lock.PolicyResourceLockFeatureApi.OperResult;
 import org.onap.policy.drools.persistence.SystemPersistence;
+import org.powermock.reflect.Whitebox;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class TargetLockTest {
-    private static final Logger logger = LoggerFactory.getLogger(TargetLockTest.class);
+/**
+ * Tests DistributedLockingFeature against an in-memory DB.
+ */
+public class DistributedLockingFeatureDbTest {
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLockingFeatureDbTest.class);
     private static final int MAX_AGE_SEC = 4 * 60;
     private static final String DB_CONNECTION =
             "jdbc:h2:mem:pooling;INIT=CREATE SCHEMA IF NOT EXISTS pooling\\;SET SCHEMA pooling";
     private static final String DB_USER = "user";
     private static final String DB_PASSWORD = "password";
-    private static final String EXPECTED = "expected exception";
-    private static final String MY_RESOURCE = "my-resource-id";
-    private static final String MY_OWNER = "my-owner";
-    private static final UUID MY_UUID = UUID.randomUUID();
     private static Connection conn = null;
     private static DistributedLockingFeature distLockFeat;
 
@@ -78,7 +77,7 @@ public class TargetLockTest {
         try {
             conn.close();
         } catch (SQLException e) {
-            logger.error("Error in TargetLockTest.cleanUp()", e);
+            logger.error("Error in DistributedLockingFeatureDbTest.cleanUp()", e);
         }
     }
 
@@ -90,9 +89,12 @@ public class TargetLockTest {
         try (PreparedStatement lockDelete = conn.prepareStatement("DELETE FROM pooling.locks"); ) {
             lockDelete.executeUpdate();
         } catch (SQLException e) {
-            logger.error("Error in TargetLockTest.wipeDb()", e);
+            logger.error("Error in DistributedLockingFeatureDbTest.wipeDb()", e);
             throw new RuntimeException(e);
         }
+
+        // the records were removed behind the feature's back
+        clearLockCache();
     }
 
     @Test
@@ -108,7 +110,7 @@ public class TargetLockTest {
             updateStatement.executeUpdate();
 
         } catch (SQLException e) {
-            logger.error("Error in TargetLockTest.testGrabLockSuccess()", e);
+            logger.error("Error in DistributedLockingFeatureDbTest.testGrabLockSuccess()", e);
             throw new RuntimeException(e);
         }
 
@@ -149,63 +151,6 @@ public class TargetLockTest {
                 OperResult.OPER_DENIED, distLockFeat.beforeLock("resource1", "owner2", MAX_AGE_SEC));
     }
 
-    @Test
-    public void testSecondGrab_UpdateOk() throws Exception {
-        PreparedStatement grabLockInsert = mock(PreparedStatement.class);
-        when(grabLockInsert.executeUpdate()).thenThrow(new SQLException(EXPECTED));
-
-        PreparedStatement secondGrabUpdate = mock(PreparedStatement.class);
-        when(secondGrabUpdate.executeUpdate()).thenReturn(1);
-
-        Connection connMock = mock(Connection.class);
-        when(connMock.prepareStatement(anyString())).thenReturn(grabLockInsert, secondGrabUpdate);
-
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenReturn(connMock);
-
-        assertTrue(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).lock(MAX_AGE_SEC));
-    }
-
-    @Test
-    public void testSecondGrab_UpdateFail_InsertOk() throws Exception {
-        PreparedStatement grabLockInsert = mock(PreparedStatement.class);
-        when(grabLockInsert.executeUpdate()).thenThrow(new SQLException(EXPECTED));
-
-        PreparedStatement secondGrabUpdate = mock(PreparedStatement.class);
-        when(secondGrabUpdate.executeUpdate()).thenReturn(0);
-
-        PreparedStatement secondGrabInsert = mock(PreparedStatement.class);
-        when(secondGrabInsert.executeUpdate()).thenReturn(1);
-
-        Connection connMock = mock(Connection.class);
-        when(connMock.prepareStatement(anyString())).thenReturn(grabLockInsert, secondGrabUpdate, secondGrabInsert);
-
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenReturn(connMock);
-
-        assertTrue(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).lock(MAX_AGE_SEC));
-    }
-
-    @Test
-    public void testSecondGrab_UpdateFail_InsertFail() throws Exception {
-        PreparedStatement grabLockInsert = mock(PreparedStatement.class);
-        when(grabLockInsert.executeUpdate()).thenThrow(new SQLException(EXPECTED));
-
-        PreparedStatement secondGrabUpdate = mock(PreparedStatement.class);
-        when(secondGrabUpdate.executeUpdate()).thenReturn(0);
-
-        PreparedStatement secondGrabInsert = mock(PreparedStatement.class);
-        when(secondGrabInsert.executeUpdate()).thenReturn(0);
-
-        Connection connMock = mock(Connection.class);
-        when(connMock.prepareStatement(anyString())).thenReturn(grabLockInsert, secondGrabUpdate, secondGrabInsert);
-
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenReturn(connMock);
-
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).lock(MAX_AGE_SEC));
-    }
-
     @Test
     public void testUpdateLock() throws Exception {
         // not locked yet - refresh should fail
@@ -235,11 +180,6 @@ public class TargetLockTest {
                 OperResult.OPER_DENIED, distLockFeat.beforeRefresh("resource1", "owner1", MAX_AGE_SEC));
 
         assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
-
-        // test exception case
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenThrow(new SQLException(EXPECTED));
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).refresh(MAX_AGE_SEC));
     }
 
     @Test
@@ -249,11 +189,6 @@ public class TargetLockTest {
         assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeUnlock("resource1", "owner1"));
         assertEquals(
                 OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner2", MAX_AGE_SEC));
-
-        // test exception case
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenThrow(new SQLException(EXPECTED));
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).unlock());
     }
 
     @Test
@@ -271,26 +206,110 @@ public class TargetLockTest {
             updateStatement.executeUpdate();
         }
 
+        // still held, as far as this host is concerned
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+
+        clearLockCache();
         assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
 
         distLockFeat.beforeLock("resource1", "owner1", MAX_AGE_SEC);
         // Unlock record, next isActive attempt should fail
         distLockFeat.beforeUnlock("resource1", "owner1");
         assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+    }
+
+    @Test
+    public void testIsLockedBy_Cached() throws Exception {
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner1", MAX_AGE_SEC));
 
-        // test exception case for outer "try"
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenThrow(new SQLException(EXPECTED));
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).isActive());
-
-        // test exception case for inner "try"
-        PreparedStatement stmt = mock(PreparedStatement.class);
-        when(stmt.executeQuery()).thenThrow(new SQLException(EXPECTED));
-        Connection connMock = mock(Connection.class);
-        when(connMock.prepareStatement(anyString())).thenReturn(stmt);
-        dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenReturn(connMock);
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).isActive());
+        // remove the record - ownership checks should still be answered from memory
+        try (PreparedStatement lockDelete = conn.prepareStatement("DELETE FROM pooling.locks")) {
+            lockDelete.executeUpdate();
+        }
+
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner2"));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLocked("resource1"));
+
+        // failed refresh invalidates the entry
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeRefresh("resource1", "owner1", MAX_AGE_SEC));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLocked("resource1"));
+
+        // unlock invalidates the entry, even though the record is gone
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner1", MAX_AGE_SEC));
+        try (PreparedStatement lockDelete = conn.prepareStatement("DELETE FROM pooling.locks")) {
+            lockDelete.executeUpdate();
+        }
+
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeUnlock("resource1", "owner1"));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+
+        // locks held by other hosts are not cached
+        try (PreparedStatement lockInsert = conn.prepareStatement(
+                        "INSERT INTO pooling.locks (resourceId, host, owner, expirationTime) "
+                                        + "values ('resource2', 'other-host', 'owner1', "
+                                        + "timestampadd(second, 60, now()))")) {
+            lockInsert.executeUpdate();
+        }
+
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLockedBy("resource2", "owner1"));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLocked("resource2"));
+    }
+
+    @Test
+    public void testAutoRefresh() throws Exception {
+        LockRefreshCallback callback = mock(LockRefreshCallback.class);
+
+        // not locked
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeAutoRefresh("resource1", "owner1", 1, callback));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner1"));
+
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner1", 1));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeAutoRefresh("resource1", "owner1", 1, callback));
+
+        // wrong owner
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner2"));
+
+        // still held, well after it would have expired
+        Thread.sleep(2500);
+        clearLockCache();
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLockedBy("resource1", "owner1"));
+        verify(callback, never()).refreshFailed(anyString(), anyString());
+
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner1"));
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner1"));
+    }
+
+    @Test
+    public void testAutoRefresh_Lost() throws Exception {
+        LockRefreshCallback callback = mock(LockRefreshCallback.class);
+
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner1", 1));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeAutoRefresh("resource1", "owner1", 1, callback));
+
+        // taken away behind the feature's back
+        try (PreparedStatement lockDelete = conn.prepareStatement("DELETE FROM pooling.locks")) {
+            lockDelete.executeUpdate();
+        }
+
+        verify(callback, timeout(5000)).refreshFailed("resource1", "owner1");
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner1"));
+    }
+
+    @Test
+    public void testAutoRefresh_Unlocked() throws Exception {
+        LockRefreshCallback callback = mock(LockRefreshCallback.class);
+
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeLock("resource1", "owner1", 1));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeAutoRefresh("resource1", "owner1", 1, callback));
+        assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeUnlock("resource1", "owner1"));
+
+        // unlocking it unregistered it
+        assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeCancelAutoRefresh("resource1", "owner1"));
+
+        Thread.sleep(1500);
+        verify(callback, never()).refreshFailed(anyString(), anyString());
     }
 
     @Test
@@ -306,27 +325,18 @@ public class TargetLockTest {
         assertEquals(OperResult.OPER_DENIED, distLockFeat.beforeIsLocked("resource1"));
         distLockFeat.beforeLock("resource1", "owner1", MAX_AGE_SEC);
         assertEquals(OperResult.OPER_ACCEPTED, distLockFeat.beforeIsLocked("resource1"));
+    }
 
-        // test exception case for outer "try"
-        BasicDataSource dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenThrow(new SQLException(EXPECTED));
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).isLocked());
-
-        // test exception case for inner "try"
-        PreparedStatement stmt = mock(PreparedStatement.class);
-        when(stmt.executeQuery()).thenThrow(new SQLException(EXPECTED));
-        Connection connMock = mock(Connection.class);
-        when(connMock.prepareStatement(anyString())).thenReturn(stmt);
-        dataSrc = mock(BasicDataSource.class);
-        when(dataSrc.getConnection()).thenReturn(connMock);
-        assertFalse(new TargetLock(MY_RESOURCE, MY_UUID, MY_OWNER, dataSrc).isLocked());
+    private static void clearLockCache() {
+        LockOwnershipCache cache = Whitebox.getInternalState(distLockFeat, "lockCache");
+        cache.clear();
     }
 
     private static void getDbConnection() {
         try {
             conn = DriverManager.getConnection(DB_CONNECTION, DB_USER, DB_PASSWORD);
         } catch (SQLException e) {
-            logger.error("Error in TargetLockTest.getDBConnection()", e);
+            logger.error("Error in DistributedLockingFeatureDbTest.getDBConnection()", e);
         }
     }
 
@@ -339,7 +349,7 @@ public class TargetLockTest {
             createStmt.executeUpdate();
 
         } catch (SQLException e) {
-            logger.error("Error in TargetLockTest.createTable()", e);
+            logger.error("Error in DistributedLockingFeatureDbTest.createTable()", e);
         }
     }
 }
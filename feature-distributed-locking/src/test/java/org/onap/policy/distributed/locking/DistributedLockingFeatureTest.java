@@ -34,7 +34,7 @@ import org.onap.policy.drools.persistence.SystemPersistence;
 
 /**
  * Partially tests DistributedLockingFeature; most of the methods are tested via
- * {@link TargetLockTest}.
+ * {@link DistributedLockingFeatureDbTest}.
  */
 public class DistributedLockingFeatureTest {
     private static final String EXPECTED = "expected exception";
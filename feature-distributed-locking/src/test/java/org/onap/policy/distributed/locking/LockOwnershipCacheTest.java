@@ -0,0 +1,136 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LockOwnershipCacheTest {
+    private static final long MARGIN_MS = 1000L;
+    private static final int HOLD_SEC = 10;
+    private static final String RESOURCE1 = "resource1";
+    private static final String RESOURCE2 = "resource2";
+    private static final String OWNER1 = "owner1";
+    private static final String OWNER2 = "owner2";
+
+    private long tcur;
+    private LockOwnershipCache cache;
+
+    /**
+     * Initializes the cache, with a controllable clock.
+     */
+    @Before
+    public void setUp() {
+        tcur = 100000L;
+
+        cache = new LockOwnershipCache(MARGIN_MS) {
+            @Override
+            protected long currentTime() {
+                return tcur;
+            }
+        };
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLockOwnershipCache_InvalidMargin() {
+        new LockOwnershipCache(-1);
+    }
+
+    @Test
+    public void testPutGetOwner() {
+        assertNull(cache.getOwner(RESOURCE1));
+
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        cache.put(RESOURCE2, OWNER2, tcur, HOLD_SEC);
+        assertEquals(OWNER1, cache.getOwner(RESOURCE1));
+        assertEquals(OWNER2, cache.getOwner(RESOURCE2));
+        assertEquals(2, cache.size());
+
+        // replaced
+        cache.put(RESOURCE1, OWNER2, tcur, HOLD_SEC);
+        assertEquals(OWNER2, cache.getOwner(RESOURCE1));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testGetOwner_NearExpiry() {
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+
+        // just inside the margin
+        tcur += HOLD_SEC * 1000L - MARGIN_MS - 1;
+        assertEquals(OWNER1, cache.getOwner(RESOURCE1));
+
+        // reached the margin - no longer trusted, and discarded
+        ++tcur;
+        assertNull(cache.getOwner(RESOURCE1));
+        assertEquals(0, cache.size());
+
+        // refreshed
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        assertEquals(OWNER1, cache.getOwner(RESOURCE1));
+    }
+
+    @Test
+    public void testGetOwner_ZeroMargin() {
+        cache = new LockOwnershipCache(0) {
+            @Override
+            protected long currentTime() {
+                return tcur;
+            }
+        };
+
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+
+        tcur += HOLD_SEC * 1000L - 1;
+        assertEquals(OWNER1, cache.getOwner(RESOURCE1));
+
+        ++tcur;
+        assertNull(cache.getOwner(RESOURCE1));
+    }
+
+    @Test
+    public void testRemove() {
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        cache.put(RESOURCE2, OWNER2, tcur, HOLD_SEC);
+
+        cache.remove(RESOURCE1);
+        assertNull(cache.getOwner(RESOURCE1));
+        assertEquals(OWNER2, cache.getOwner(RESOURCE2));
+
+        // not there
+        cache.remove(RESOURCE1);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        cache.put(RESOURCE2, OWNER2, tcur, HOLD_SEC);
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getOwner(RESOURCE1));
+        assertNull(cache.getOwner(RESOURCE2));
+    }
+}
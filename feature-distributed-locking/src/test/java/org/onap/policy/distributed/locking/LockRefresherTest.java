@@ -0,0 +1,328 @@
+/*
+ * ============LICENSE_START=======================================================
+ * feature-distributed-locking
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.distributed.locking;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.drools.core.lock.LockRefreshCallback;
+
+public class LockRefresherTest {
+    private static final String EXPECTED = "expected exception";
+    private static final long INTERVAL_MS = 100L;
+    private static final int HOLD_SEC = 10;
+    private static final long HALF_HOLD_MS = HOLD_SEC * 500L;
+    private static final String RESOURCE1 = "resource1";
+    private static final String RESOURCE2 = "resource2";
+    private static final String OWNER1 = "owner1";
+    private static final String OWNER2 = "owner2";
+
+    private long tcur;
+    private BatchLockClient client;
+    private LockOwnershipCache cache;
+    private LockRefreshCallback callback;
+    private ScheduledExecutorService scheduler;
+    private LockRefresher refresher;
+
+    /**
+     * Initializes the refresher, with a controllable clock and a mock lock client.
+     */
+    @Before
+    public void setUp() {
+        tcur = 100000L;
+
+        client = mock(BatchLockClient.class);
+        when(client.refresh(anyString(), anyString(), anyInt())).thenReturn(CompletableFuture.completedFuture(true));
+
+        cache = new LockOwnershipCache(0) {
+            @Override
+            protected long currentTime() {
+                return tcur;
+            }
+        };
+        callback = mock(LockRefreshCallback.class);
+        scheduler = mock(ScheduledExecutorService.class);
+
+        refresher = new LockRefresherImpl();
+    }
+
+    @After
+    public void tearDown() {
+        refresher.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLockRefresher_InvalidInterval() {
+        new LockRefresher(client, cache, 0);
+    }
+
+    @Test
+    public void testStartStop() {
+        assertFalse(refresher.isAlive());
+
+        refresher.start();
+        assertTrue(refresher.isAlive());
+        verify(scheduler).scheduleWithFixedDelay(any(Runnable.class), anyLong(), anyLong(), any(TimeUnit.class));
+
+        // already started
+        refresher.start();
+        assertTrue(refresher.isAlive());
+
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+
+        refresher.stop();
+        assertFalse(refresher.isAlive());
+        verify(scheduler).shutdownNow();
+        assertEquals(0, refresher.getRegistered());
+
+        // already stopped
+        refresher.stop();
+        assertFalse(refresher.isAlive());
+    }
+
+    @Test
+    public void testMakeScheduler() {
+        ScheduledExecutorService real = new LockRefresher(client, cache, INTERVAL_MS).makeScheduler();
+        assertFalse(real.isShutdown());
+        real.shutdownNow();
+    }
+
+    @Test
+    public void testRegisterUnregister() {
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+        refresher.register(RESOURCE2, OWNER2, HOLD_SEC, tcur, callback);
+        assertEquals(2, refresher.getRegistered());
+
+        // wrong owner
+        assertFalse(refresher.unregister(RESOURCE1, OWNER2));
+
+        assertTrue(refresher.unregister(RESOURCE1, OWNER1));
+        assertEquals(1, refresher.getRegistered());
+
+        // already unregistered
+        assertFalse(refresher.unregister(RESOURCE1, OWNER1));
+
+        // replaced
+        refresher.register(RESOURCE2, OWNER1, HOLD_SEC, tcur, callback);
+        assertFalse(refresher.unregister(RESOURCE2, OWNER2));
+        assertTrue(refresher.unregister(RESOURCE2, OWNER1));
+    }
+
+    @Test
+    public void testRefreshLocks() {
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+        refresher.register(RESOURCE2, OWNER2, HOLD_SEC, tcur + HALF_HOLD_MS / 2, callback);
+
+        // nothing due yet
+        tcur += HALF_HOLD_MS - 1;
+        refresher.refreshLocks();
+        verify(client, never()).refresh(anyString(), anyString(), anyInt());
+
+        // first is due
+        ++tcur;
+        refresher.refreshLocks();
+        verify(client).refresh(RESOURCE1, OWNER1, HOLD_SEC);
+        verify(client, never()).refresh(RESOURCE2, OWNER2, HOLD_SEC);
+        assertEquals(OWNER1, cache.getOwner(RESOURCE1));
+
+        // second is due, first isn't, as it was just refreshed
+        tcur += HALF_HOLD_MS / 2;
+        refresher.refreshLocks();
+        verify(client).refresh(RESOURCE1, OWNER1, HOLD_SEC);
+        verify(client).refresh(RESOURCE2, OWNER2, HOLD_SEC);
+
+        // both are due
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+        verify(client, times(2)).refresh(RESOURCE1, OWNER1, HOLD_SEC);
+        verify(client, times(2)).refresh(RESOURCE2, OWNER2, HOLD_SEC);
+
+        assertEquals(2, refresher.getRegistered());
+        verify(callback, never()).refreshFailed(anyString(), anyString());
+    }
+
+    @Test
+    public void testRefreshLocks_Failed() {
+        when(client.refresh(RESOURCE1, OWNER1, HOLD_SEC)).thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        future.completeExceptionally(new IllegalStateException(EXPECTED));
+        when(client.refresh(RESOURCE2, OWNER2, HOLD_SEC)).thenReturn(future);
+
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+        refresher.register(RESOURCE2, OWNER2, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+
+        verify(callback).refreshFailed(RESOURCE1, OWNER1);
+        verify(callback).refreshFailed(RESOURCE2, OWNER2);
+        assertEquals(0, refresher.getRegistered());
+        assertNull(cache.getOwner(RESOURCE1));
+
+        // no longer refreshed
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+        verify(client).refresh(RESOURCE1, OWNER1, HOLD_SEC);
+    }
+
+    @Test
+    public void testRefreshLocks_UnregisteredWhileRefreshing() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        when(client.refresh(RESOURCE1, OWNER1, HOLD_SEC)).thenAnswer(args -> {
+            // unlocked while the refresh is in progress
+            refresher.unregister(RESOURCE1, OWNER1);
+            future.complete(false);
+            return future;
+        });
+
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+
+        verify(callback, never()).refreshFailed(anyString(), anyString());
+    }
+
+    @Test
+    public void testRefreshLocks_UnlockedWhileRefreshSucceeds() {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        when(client.refresh(RESOURCE1, OWNER1, HOLD_SEC)).thenAnswer(args -> {
+            // unlocked, as the feature does it, while the refresh is in progress
+            refresher.unregister(RESOURCE1, OWNER1);
+            cache.remove(RESOURCE1);
+            future.complete(true);
+            return future;
+        });
+
+        cache.put(RESOURCE1, OWNER1, tcur, HOLD_SEC);
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+
+        // must not be put back into the cache
+        assertNull(cache.getOwner(RESOURCE1));
+        assertEquals(0, refresher.getRegistered());
+        verify(callback, never()).refreshFailed(anyString(), anyString());
+
+        // re-locked while the refresh is in progress
+        when(client.refresh(RESOURCE2, OWNER2, HOLD_SEC)).thenAnswer(args -> {
+            refresher.unregister(RESOURCE2, OWNER2);
+            cache.remove(RESOURCE2);
+            cache.put(RESOURCE2, OWNER1, tcur, HOLD_SEC);
+            refresher.register(RESOURCE2, OWNER1, HOLD_SEC, tcur, callback);
+            return CompletableFuture.completedFuture(true);
+        });
+
+        refresher.register(RESOURCE2, OWNER2, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+
+        // the new owner is retained
+        assertEquals(OWNER1, cache.getOwner(RESOURCE2));
+        assertEquals(1, refresher.getRegistered());
+    }
+
+    @Test
+    public void testRefreshLocks_CallbackEx() {
+        when(client.refresh(anyString(), anyString(), anyInt())).thenReturn(CompletableFuture.completedFuture(false));
+        doThrow(new IllegalStateException(EXPECTED)).when(callback).refreshFailed(RESOURCE1, OWNER1);
+
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+        refresher.register(RESOURCE2, OWNER2, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+        refresher.refreshLocks();
+
+        // the second is still reported
+        verify(callback).refreshFailed(RESOURCE1, OWNER1);
+        verify(callback).refreshFailed(RESOURCE2, OWNER2);
+    }
+
+    @Test
+    public void testRefreshLocks_Interrupted() {
+        when(client.refresh(anyString(), anyString(), anyInt())).thenReturn(new CompletableFuture<>());
+
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+
+        Thread.currentThread().interrupt();
+        refresher.refreshLocks();
+
+        assertTrue(Thread.interrupted());
+        verify(callback, never()).refreshFailed(anyString(), anyString());
+    }
+
+    @Test
+    public void testRefreshLocks_RuntimeEx() {
+        when(client.refresh(anyString(), anyString(), anyInt())).thenThrow(new IllegalStateException(EXPECTED));
+
+        refresher.register(RESOURCE1, OWNER1, HOLD_SEC, tcur, callback);
+
+        tcur += HALF_HOLD_MS;
+
+        // should not throw
+        refresher.refreshLocks();
+        assertEquals(1, refresher.getRegistered());
+    }
+
+    /**
+     * Refresher with a controllable clock and a mock scheduler.
+     */
+    private class LockRefresherImpl extends LockRefresher {
+
+        public LockRefresherImpl() {
+            super(client, cache, INTERVAL_MS);
+        }
+
+        @Override
+        protected long currentTime() {
+            return tcur;
+        }
+
+        @Override
+        protected ScheduledExecutorService makeScheduler() {
+            return scheduler;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling;
+
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.function.Predicate;
+import org.onap.policy.drools.pooling.message.Forward;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of events that are waiting to be routed, because bucket assignments are not
+ * available yet. The queue is bounded both in size and in age: when it is full, the
+ * oldest event is discarded to make room for the new one, and events older than the
+ * maximum age are discarded rather than being returned. Events are returned in the order
+ * in which they were added.
+ */
+public class EventQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventQueue.class);
+
+    /**
+     * Maximum number of events allowed in the queue.
+     */
+    private final int maxEvents;
+
+    /**
+     * Maximum age, in milliseconds, of events in the queue.
+     */
+    private final long maxAgeMs;
+
+    /**
+     * The events.
+     */
+    private final Deque<Forward> events = new LinkedList<>();
+
+    /**
+     * Number of events in the queue. Kept separately so that it may be examined without
+     * acquiring the lock.
+     */
+    private volatile int count = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param maxEvents maximum number of events to hold in the queue
+     * @param maxAgeMs maximum age of events in the queue
+     */
+    public EventQueue(int maxEvents, long maxAgeMs) {
+        this.maxEvents = maxEvents;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Determines if the queue is empty. This does not acquire the lock, thus the result
+     * may already be stale by the time it is returned.
+     *
+     * @return {@code true} if the queue is empty, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return (count == 0);
+    }
+
+    /**
+     * Gets the number of events in the queue, some of which may have expired.
+     *
+     * @return the number of events in the queue
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Clears the queue.
+     *
+     * @return the number of events that were discarded
+     */
+    public synchronized int clear() {
+        int ndiscarded = events.size();
+
+        events.clear();
+        count = 0;
+
+        return ndiscarded;
+    }
+
+    /**
+     * Adds an event to the queue. If the queue is full, then the oldest event is
+     * discarded.
+     *
+     * @param event event to be added
+     */
+    public synchronized void add(Forward event) {
+        if (maxEvents <= 0) {
+            logger.warn("discarded event for request {} as the event queue is disabled", event.getRequestId());
+            return;
+        }
+
+        discardExpired();
+
+        if (events.size() >= maxEvents) {
+            Forward oldest = events.remove();
+            logger.warn("event queue full - discarded event for request {}", oldest.getRequestId());
+        }
+
+        events.add(event);
+        count = events.size();
+    }
+
+    /**
+     * Adds an event to the queue, but only if the queue is not empty, so that the event
+     * is not handled before those that preceded it.
+     *
+     * @param event event to be added
+     * @return {@code true} if the event was added, {@code false} if the queue was empty
+     */
+    public synchronized boolean addIfNotEmpty(Forward event) {
+        if (events.isEmpty()) {
+            return false;
+        }
+
+        add(event);
+        return true;
+    }
+
+    /**
+     * Gets the oldest event that has not expired, removing it from the queue. Any
+     * expired events that precede it are discarded.
+     *
+     * @return the oldest event, or {@code null} if the queue contains no unexpired
+     *         events
+     */
+    public synchronized Forward poll() {
+        discardExpired();
+
+        Forward event = events.poll();
+        count = events.size();
+
+        return event;
+    }
+
+    /**
+     * Gets the oldest event that has not expired, removing it from the queue, but only
+     * if it is ready to be routed. Any expired events that precede it are discarded.
+     *
+     * @param ready determines if an event is ready to be routed
+     * @return the oldest event, or {@code null} if the queue contains no unexpired
+     *         events or if the oldest is not ready
+     */
+    public synchronized Forward poll(Predicate<Forward> ready) {
+        discardExpired();
+
+        Forward event = events.peek();
+        if (event == null || !ready.test(event)) {
+            return null;
+        }
+
+        events.remove();
+        count = events.size();
+
+        return event;
+    }
+
+    /**
+     * Determines if the oldest event that has not expired is ready to be routed. Any
+     * expired events that precede it are discarded.
+     *
+     * @param ready determines if an event is ready to be routed
+     * @return {@code true} if the oldest event is ready, {@code false} if it is not or
+     *         if the queue contains no unexpired events
+     */
+    public synchronized boolean hasReady(Predicate<Forward> ready) {
+        discardExpired();
+
+        Forward event = events.peek();
+        return (event != null && ready.test(event));
+    }
+
+    /**
+     * Discards expired events from the front of the queue. Events are generally added in
+     * the order in which they were created, thus the scan stops at the first unexpired
+     * event; any older event behind it is discarded once it reaches the front.
+     */
+    private void discardExpired() {
+        long minCreateTimeMs = System.currentTimeMillis() - maxAgeMs;
+
+        Forward event;
+        while ((event = events.peek()) != null && event.isExpired(minCreateTimeMs)) {
+            events.remove();
+            logger.warn("discarded expired event for request {}", event.getRequestId());
+        }
+
+        count = events.size();
+    }
+}
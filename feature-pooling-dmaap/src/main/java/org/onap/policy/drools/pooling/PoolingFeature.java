@@ -285,6 +285,11 @@ public class PoolingFeature implements PolicyEngineFeatureAPI, PolicyControllerF
         // clear any stored arguments
         offerArgs.set(null);
 
+        PoolingManagerImpl mgr = ctlr2pool.get(controller.getName());
+        if (mgr != null) {
+            mgr.afterOffer(event);
+        }
+
         return false;
     }
 
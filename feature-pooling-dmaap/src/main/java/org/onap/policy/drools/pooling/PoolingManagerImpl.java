@@ -21,21 +21,28 @@
 package org.onap.policy.drools.pooling;
 
 import com.google.gson.JsonParseException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
 import org.onap.policy.common.endpoints.event.comm.TopicListener;
 import org.onap.policy.common.utils.properties.SpecProperties;
 import org.onap.policy.drools.controller.DroolsController;
 import org.onap.policy.drools.pooling.extractor.ClassExtractors;
+import org.onap.policy.drools.pooling.extractor.TopicExtractors;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
 import org.onap.policy.drools.pooling.message.Forward;
+import org.onap.policy.drools.pooling.message.ForwardBatch;
 import org.onap.policy.drools.pooling.message.Leader;
 import org.onap.policy.drools.pooling.message.Message;
 import org.onap.policy.drools.pooling.message.Offline;
@@ -97,6 +104,19 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
      */
     private final Serializer serializer;
 
+    /**
+     * Used to encode messages while every host is known to decode compact messages.
+     */
+    private final Serializer compactSerializer;
+
+    /**
+     * {@code True} if messages are to be encoded compactly. Set when new assignments show
+     * that every assigned host can decode compact messages, and cleared as soon as a
+     * message arrives from any other host, as it may predate the compact encoding. Only
+     * changed while {@link #curLocker} is held.
+     */
+    private volatile boolean compact = false;
+
     /**
      * Internal DMaaP topic used by this controller.
      */
@@ -113,11 +133,30 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
     private final ClassExtractors extractors;
 
     /**
-     * Lock used while updating {@link #current}. In general, public methods must use
-     * this, while private methods assume the lock is already held.
+     * Used to extract the request id directly from the event text, without decoding it.
+     */
+    private final TopicExtractors topicExtractors;
+
+    /**
+     * Events waiting to be routed, because bucket assignments are not available yet.
+     */
+    private final EventQueue eventq;
+
+    /**
+     * Lock used while updating {@link #current}. In general, public methods that affect
+     * the state machine must use this, while private methods assume the lock is already
+     * held. Events from external topics are routed without it, using the
+     * {@link #assignments} snapshot, so that they may be routed on all of the source
+     * threads in parallel.
      */
     private final Object curLocker = new Object();
 
+    /**
+     * Lock used while updating {@link #target2forwards}. When both are needed, this
+     * must be acquired after {@link #curLocker}.
+     */
+    private final Object fwdLocker = new Object();
+
     /**
      * Current state.
      * 
@@ -129,20 +168,53 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
     private State current;
 
     /**
-     * Current bucket assignments or {@code null}.
+     * Current bucket assignments or {@code null}. The assignments are never modified once
+     * they have been distributed; they are replaced as a whole, thus they may be read
+     * without holding any lock.
      */
-    private BucketAssignments assignments = null;
+    private volatile BucketAssignments assignments = null;
 
     /**
      * Pool used to execute timers.
      */
-    private ScheduledThreadPoolExecutor scheduler = null;
+    private volatile ScheduledThreadPoolExecutor scheduler = null;
+
+    /**
+     * {@code True} if events should be queued, rather than handled locally, while there
+     * are no bucket assignments. This is the case while the host is joining the pool,
+     * i.e., while it is in the {@link StartState} or the {@link QueryState}.
+     */
+    private volatile boolean queueing = false;
+
+    /**
+     * {@code True} while a thread is routing the events in {@link #eventq}. Only one
+     * thread drains the queue at a time, so that the queued events are routed in order.
+     * While set, new events are queued behind the ones being drained, even if the queue
+     * is empty, as the last event removed from the queue may not have been routed yet.
+     */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
 
     /**
-     * {@code True} if events offered by the controller should be intercepted,
-     * {@code false} otherwise.
+     * Events waiting to be forwarded, in a single batch, to each target host. Guarded by
+     * {@link #fwdLocker}.
      */
-    private boolean intercept = true;
+    private final Map<String, List<Forward>> target2forwards = new HashMap<>();
+
+    /**
+     * Events that have been injected into the controller, but not yet offered, and thus
+     * must not be intercepted again, ordered by injection time. Guarded by itself.
+     * <p/>
+     * Events are marked by their text, rather than by thread, so the marker still applies
+     * if the controller offers the event on one of its own threads. An identical event arriving from the topic
+     * while the marker is present is not intercepted either; as it has the same request
+     * id, it belongs to the bucket that was just found to be assigned to this host.
+     * <p/>
+     * Markers are removed by {@link #afterOffer(String)}, which the controller invokes
+     * however the offer ends. Markers older than the offline age are discarded, in case
+     * the controller drops an event without invoking it, e.g., when it is stopped with
+     * events still waiting to be dispatched.
+     */
+    private final LinkedHashMap<String, Injection> injected = new LinkedHashMap<>();
 
     /**
      * Constructs the manager, initializing all of the data structures.
@@ -163,9 +235,12 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         try {
             this.listener = (TopicListener) controller;
             this.serializer = new Serializer();
+            this.compactSerializer = new Serializer(true);
             this.topic = props.getPoolingTopic();
             this.extractors = makeClassExtractors(makeExtractorProps(controller, props.getSource()));
+            this.topicExtractors = makeTopicExtractors(makeTopicExtractorProps(controller, props.getSource()));
             this.dmaapMgr = makeDmaapManager(props.getPoolingTopic());
+            this.eventq = new EventQueue(props.getOfflineLimit(), props.getOfflineAgeMs());
             this.current = new IdleState(this);
 
             logger.info("allocating host {} to controller {} for topic {}", host, controller.getName(), topic);
@@ -217,6 +292,17 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         return new SpecProperties(PoolingProperties.PROP_EXTRACTOR_PREFIX, controller.getName(), source);
     }
 
+    /**
+     * Makes properties for configuring topic extractors.
+     * 
+     * @param controller the controller for which the extractors will be configured
+     * @param source properties from which to get the extractor properties
+     * @return topic extractor properties
+     */
+    private Properties makeTopicExtractorProps(PolicyController controller, Properties source) {
+        return new SpecProperties(PoolingProperties.PROP_TOPIC_EXTRACTOR_PREFIX, controller.getName(), source);
+    }
+
     /**
      * Indicates that the controller is about to start. Starts the publisher for the
      * internal topic, and creates a thread pool for the timers.
@@ -263,8 +349,27 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         ScheduledThreadPoolExecutor sched;
 
         synchronized (curLocker) {
-            sched = scheduler;
-            scheduler = null;
+            /*
+             * send any partial batches before the other hosts are told we're gone. The
+             * scheduler is cleared under the same lock so that any event forwarded from
+             * here on is published right away instead of being added to a batch
+             */
+            synchronized (fwdLocker) {
+                flushAllForwards();
+
+                sched = scheduler;
+                scheduler = null;
+            }
+
+            // forget events that were injected, but never offered
+            synchronized (injected) {
+                injected.clear();
+            }
+
+            int ndiscarded = eventq.clear();
+            if (ndiscarded > 0) {
+                logger.warn("discarded {} queued events for topic {}", ndiscarded, getTopic());
+            }
 
             if (!(current instanceof IdleState)) {
                 changeState(new IdleState(this));
@@ -273,11 +378,17 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
             }
 
             assignments = null;
+            compact = false;
         }
 
         if (sched != null) {
             logger.debug("stop scheduler for topic {}", getTopic());
             sched.shutdownNow();
+
+            // publish any batch whose timer was discarded by the shutdown
+            synchronized (fwdLocker) {
+                flushAllForwards();
+            }
         }
     }
 
@@ -334,7 +445,12 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
 
             // set the filter before starting the state
             setFilter(newState.getFilter());
+
+            queueing = (newState instanceof StartState || newState instanceof QueryState);
             newState.start();
+
+            // the new state may no longer require events to be queued
+            drainEventQueue();
         }
     }
 
@@ -389,7 +505,7 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
             // ensure it's valid before we send it
             msg.checkValidity();
 
-            String txt = serializer.encodeMsg(msg);
+            String txt = (compact ? compactSerializer : serializer).encodeMsg(msg);
             dmaapMgr.publish(txt);
 
         } catch (JsonParseException e) {
@@ -423,10 +539,13 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
 
     /**
      * Called by the PolicyController before it offers the event to the DroolsController.
-     * If the controller is locked, then it isn't processing events. However, they still
-     * need to be forwarded, thus in that case, they are decoded and forwarded.
+     * If a topic extractor has been configured for the topic, then the request id is
+     * extracted directly from the event text and the event is routed without decoding
+     * it, thus events belonging to other hosts are never decoded by this host.
      * 
-     * <p>On the other hand, if the controller is not locked, then we just return immediately
+     * <p>Otherwise, if the controller is locked, then it isn't processing events. However,
+     * they still need to be forwarded, thus in that case, they are decoded and forwarded.
+     * On the other hand, if the controller is not locked, then we just return immediately
      * and let {@link #beforeInsert(Object, String, String, Object) beforeInsert()} handle
      * it instead, as it already has the decoded message.
      * 
@@ -438,8 +557,17 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
      */
     public boolean beforeOffer(CommInfrastructure protocol, String topic2, String event) {
 
-        if (!controller.isLocked() || !intercept) {
-            // we should NOT intercept this message - let the invoker handle it
+        if (isInjected(event)) {
+            // already routed - let the invoker handle it
+            return false;
+        }
+
+        if (topicExtractors.hasExtractor(topic2)) {
+            return handleExternal(protocol, topic2, event, topicExtractors.extract(topic2, event));
+        }
+
+        if (!controller.isLocked()) {
+            // let beforeInsert() handle it, once it has been decoded
             return false;
         }
 
@@ -448,6 +576,9 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
 
     /**
      * Called by the DroolsController before it inserts the event into the rule engine.
+     * Events received on topics having a topic extractor have already been routed by
+     * {@link #beforeOffer(CommInfrastructure, String, String) beforeOffer()}, thus they
+     * are not routed again.
      * 
      * @param protocol protocol
      * @param topic2 topic
@@ -458,7 +589,7 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
      */
     public boolean beforeInsert(CommInfrastructure protocol, String topic2, String event, Object event2) {
 
-        if (!intercept) {
+        if (isInjected(event) || topicExtractors.hasExtractor(topic2)) {
             // we should NOT intercept this message - let the invoker handle it
             return false;
         }
@@ -466,6 +597,69 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         return handleExternal(protocol, topic2, event, extractRequestId(event2));
     }
 
+    /**
+     * Called by the controller once it is done with an event, whether or not the event
+     * was actually offered to the rule engine. Forgets one injection of the event, if it
+     * had been injected.
+     * 
+     * @param event original event text, as received from the Bus
+     */
+    public void afterOffer(String event) {
+        synchronized (injected) {
+            Injection inj = injected.get(event);
+            if (inj != null && --inj.count <= 0) {
+                injected.remove(event);
+            }
+        }
+    }
+
+    /**
+     * Determines if an event has been injected into the controller, but not yet offered.
+     * 
+     * @param event original event text, as received from the Bus
+     * @return {@code true} if the event has been injected, {@code false} otherwise
+     */
+    private boolean isInjected(String event) {
+        synchronized (injected) {
+            return injected.containsKey(event);
+        }
+    }
+
+    /**
+     * Marks an event as having been injected into the controller. Also discards any
+     * markers that have outlived the offline age.
+     * 
+     * @param event event text, as it will be offered to the controller
+     */
+    private void markInjected(String event) {
+        long now = System.currentTimeMillis();
+        long oldest = now - props.getOfflineAgeMs();
+
+        synchronized (injected) {
+            int ndiscarded = 0;
+            Iterator<Injection> iter = injected.values().iterator();
+            while (iter.hasNext() && iter.next().injectMs < oldest) {
+                iter.remove();
+                ++ndiscarded;
+            }
+
+            if (ndiscarded > 0) {
+                logger.warn("discarded {} injected events that were never offered for topic {}", ndiscarded,
+                                getTopic());
+            }
+
+            // re-insert the marker, so that the map remains ordered by injection time
+            Injection inj = injected.remove(event);
+            if (inj == null) {
+                inj = new Injection();
+            }
+
+            ++inj.count;
+            inj.injectMs = now;
+            injected.put(event, inj);
+        }
+    }
+
     /**
      * Handles an event from an external topic.
      * 
@@ -496,20 +690,67 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
             return true;
         }
 
-        synchronized (curLocker) {
-            return handleExternal(ev);
-        }
+        return handleExternal(ev);
     }
 
     /**
-     * Handles an event from an external topic.
+     * Handles an event from an external topic. Does not require any lock, as the routing
+     * decision is based on a snapshot of the current assignments.
      * 
      * @param event event
      * @return {@code true} if the event was handled, {@code false} if the invoker should
      *         handle it
      */
     private boolean handleExternal(Forward event) {
-        if (assignments == null) {
+        BucketAssignments asgn = assignments;
+
+        if (mustQueue(asgn, event)) {
+            logger.info("queue event for request {}", event.getRequestId());
+            enqueue(event);
+
+            // we've consumed the event
+            return true;
+        }
+
+        if (!eventq.isEmpty() && eventq.addIfNotEmpty(event)) {
+            // earlier events are still waiting - this one must follow them
+            logger.info("queue event for request {} behind earlier events", event.getRequestId());
+            return true;
+        }
+
+        if (draining.get()) {
+            // the queue is empty, but the events just removed from it may not have been routed yet
+            logger.info("queue event for request {} behind events being drained", event.getRequestId());
+            enqueue(event);
+            return true;
+        }
+
+        return routeEvent(asgn, event);
+    }
+
+    /**
+     * Adds an event to the queue, and then drains the queue, in case the event can
+     * already be routed.
+     *
+     * @param event event to be added
+     */
+    private void enqueue(Forward event) {
+        eventq.add(event);
+
+        // assignments may have arrived, or the drainer finished, while the event was being added
+        drainEventQueue();
+    }
+
+    /**
+     * Routes an event, using the given bucket assignments.
+     * 
+     * @param asgn bucket assignments used to route the event, or {@code null}
+     * @param event event
+     * @return {@code true} if the event was handled, {@code false} if the invoker should
+     *         handle it
+     */
+    private boolean routeEvent(BucketAssignments asgn, Forward event) {
+        if (asgn == null) {
             // no bucket assignments yet - handle locally
             logger.info("handle event locally for request {}", event.getRequestId());
 
@@ -517,27 +758,22 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
             return false;
 
         } else {
-            return handleEvent(event);
+            return handleEvent(asgn, event);
         }
     }
 
     /**
-     * Handles a {@link Forward} event, possibly forwarding it again.
+     * Handles a {@link Forward} event, possibly forwarding it again. The event's bucket
+     * must already be assigned, which {@link #mustQueue(BucketAssignments, Forward)
+     * mustQueue()} has verified, using the same assignments.
      * 
+     * @param asgn bucket assignments used to route the event
      * @param event event
      * @return {@code true} if the event was handled, {@code false} if the invoker should
      *         handle it
      */
-    private boolean handleEvent(Forward event) {
-        String target = assignments.getAssignedHost(event.getRequestId().hashCode());
-
-        if (target == null) {
-            /*
-             * This bucket has no assignment - just discard the event
-             */
-            logger.warn("discarded event for unassigned bucket from topic {}", event.getTopic());
-            return true;
-        }
+    private boolean handleEvent(BucketAssignments asgn, Forward event) {
+        String target = asgn.getAssignedHost(event.getRequestId().hashCode());
 
         if (target.equals(host)) {
             /*
@@ -555,13 +791,180 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         } else {
             logger.info("forward event hop-count={} from topic {}", event.getNumHops(), event.getTopic());
             event.bumpNumHops();
-            publish(target, event);
+            forward(target, event);
         }
 
         // either way, consume the event
         return true;
     }
 
+    /**
+     * Determines if an event must be queued, rather than routed. This is the case while
+     * the host is joining the pool, and while the event's bucket has not been assigned,
+     * which includes buckets left unassigned while the pool is being rebalanced.
+     * 
+     * @param asgn current bucket assignments, or {@code null}
+     * @param event event to be routed
+     * @return {@code true} if the event must be queued, {@code false} if it can be routed
+     */
+    private boolean mustQueue(BucketAssignments asgn, Forward event) {
+        if (asgn == null) {
+            // nothing to route with - queue only if we're joining the pool
+            return queueing;
+        }
+
+        // wait for the bucket to be assigned
+        return (asgn.size() == 0 || asgn.getAssignedHost(event.getRequestId().hashCode()) == null);
+    }
+
+    /**
+     * Routes the queued events, in order, until reaching one that must still be queued.
+     * Only one thread drains the queue at a time; if another thread is already doing so,
+     * then this returns immediately, leaving that thread to route any events that have
+     * been added.
+     */
+    private void drainEventQueue() {
+        while (!eventq.isEmpty() && draining.compareAndSet(false, true)) {
+            try {
+                drainRoutable();
+
+            } finally {
+                draining.set(false);
+            }
+
+            // events added, or made routable, just before the flag was cleared would be stranded
+            if (!eventq.hasReady(ev -> !mustQueue(assignments, ev))) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Routes the queued events, in order, until reaching one that must still be queued.
+     * Assumes that {@link #draining} has been set by the current thread.
+     */
+    private void drainRoutable() {
+        for (;;) {
+            // route each event with the same assignments that made it routable
+            BucketAssignments asgn = assignments;
+
+            Forward event = eventq.poll(ev -> !mustQueue(asgn, ev));
+            if (event == null) {
+                return;
+            }
+
+            if (!routeEvent(asgn, event)) {
+                // this host should handle it - inject it
+                inject(event);
+            }
+        }
+    }
+
+    /**
+     * Forwards an event to another host. If batching is enabled, the event is added to
+     * the target's batch, which is published once it is full or once it has waited for
+     * the configured time, whichever comes first.
+     * 
+     * @param target host to which the event should be forwarded
+     * @param event event to be forwarded
+     */
+    private void forward(String target, Forward event) {
+        ScheduledThreadPoolExecutor sched = scheduler;
+        int maxSize = props.getForwardBatchSize();
+
+        if (maxSize <= 1 || sched == null) {
+            publish(target, event);
+            return;
+        }
+
+        event.setChannel(target);
+
+        synchronized (fwdLocker) {
+            if (scheduler == null) {
+                // stopped after the scheduler was read - nothing would flush the batch
+                flushForwards(target);
+                publish(target, event);
+                return;
+            }
+
+            List<Forward> batch = target2forwards.get(target);
+            boolean timed = true;
+
+            if (batch == null) {
+                batch = new ArrayList<>(maxSize);
+                target2forwards.put(target, batch);
+
+                // publish the batch even if it never fills up
+                timed = scheduleFlush(sched, target, batch);
+            }
+
+            batch.add(event);
+
+            if (!timed || batch.size() >= maxSize) {
+                flushForwards(target);
+            }
+        }
+    }
+
+    /**
+     * Schedules a timer to publish a batch of events.
+     * 
+     * @param sched scheduler with which to schedule the timer
+     * @param target host to which the events should be forwarded
+     * @param batch batch of events to be published
+     * @return {@code true} if the timer was scheduled, {@code false} if the scheduler
+     *         has been shut down
+     */
+    private boolean scheduleFlush(ScheduledThreadPoolExecutor sched, String target, List<Forward> batch) {
+        try {
+            sched.schedule(() -> {
+                synchronized (fwdLocker) {
+                    // only if it hasn't already been published
+                    if (target2forwards.get(target) == batch) {
+                        flushForwards(target);
+                    }
+                }
+            }, props.getForwardBatchMs(), TimeUnit.MILLISECONDS);
+
+            return true;
+
+        } catch (RejectedExecutionException e) {
+            logger.info("cannot batch events for topic {}, as the scheduler has stopped", getTopic(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Publishes the events waiting to be forwarded to a host. Assumes that
+     * {@link #fwdLocker} is held.
+     * 
+     * @param target host to which the events should be forwarded
+     */
+    private void flushForwards(String target) {
+        List<Forward> batch = target2forwards.remove(target);
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+
+        if (batch.size() == 1) {
+            // no point in wrapping a single event
+            publish(target, batch.get(0));
+
+        } else {
+            publish(target, new ForwardBatch(getHost(), batch));
+        }
+    }
+
+    /**
+     * Publishes the events waiting to be forwarded to every host. Assumes that
+     * {@link #fwdLocker} is held.
+     */
+    private void flushAllForwards() {
+        for (String target : new ArrayList<>(target2forwards.keySet())) {
+            flushForwards(target);
+        }
+    }
+
     /**
      * Extract the request id from an event object.
      * 
@@ -635,11 +1038,9 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
 
     @Override
     public void handle(Forward event) {
-        synchronized (curLocker) {
-            if (!handleExternal(event)) {
-                // this host should handle it - inject it
-                inject(event);
-            }
+        if (!handleExternal(event)) {
+            // this host should handle it - inject it
+            inject(event);
         }
     }
 
@@ -651,19 +1052,22 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
     private void inject(Forward event) {
         logger.info("inject event for request {} from topic {}", event.getRequestId(), event.getTopic());
 
+        String payload = event.getPayload();
+        markInjected(payload);
+
         try {
-            intercept = false;
-            listener.onTopicEvent(event.getProtocol(), event.getTopic(), event.getPayload());
+            listener.onTopicEvent(event.getProtocol(), event.getTopic(), payload);
 
-        } finally {
-            intercept = true;
+        } catch (RuntimeException e) {
+            // the controller did not take the event, thus it will never be offered
+            afterOffer(payload);
+            throw e;
         }
     }
 
     /**
-     * Handles an event from the internal topic. This uses reflection to identify the
-     * appropriate process() method to invoke, based on the type of Message that was
-     * decoded.
+     * Handles an event from the internal topic. The decoded {@link Message} is dispatched
+     * to the current state's process() method that is specific to the message's type.
      * 
      * @param event the serialized {@link Message} read from the internal topic
      */
@@ -678,27 +1082,45 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
 
             msg.checkValidity();
 
-            Method meth = current.getClass().getMethod("process", msg.getClass());
-            changeState((State) meth.invoke(current, msg));
+            checkCompact(msg.getSource());
+
+            changeState(msg.dispatch(current));
 
         } catch (JsonParseException e) {
             logger.warn("failed to decode message for topic {}", topic, e);
 
-        } catch (NoSuchMethodException | SecurityException e) {
+        } catch (UnsupportedOperationException e) {
             logger.error("no processor for message {} for topic {}", clazz, topic, e);
 
-        } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException
-                        | PoolingFeatureException e) {
+        } catch (RuntimeException | PoolingFeatureException e) {
             logger.error("failed to process message {} for topic {}", clazz, topic, e);
         }
     }
 
+    /**
+     * Stops encoding messages compactly if a message arrives from a host that is not
+     * known to decode them. Compact encoding resumes once new assignments show that every
+     * host can decode them.
+     * 
+     * @param source the message's source host
+     */
+    private void checkCompact(String source) {
+        if (compact && !host.equals(source) && !assignments.isCompact(source)) {
+            logger.info("stop compact encoding on topic {}, as host {} may not support it", getTopic(), source);
+            compact = false;
+        }
+    }
+
     @Override
     public void startDistributing(BucketAssignments asgn) {
         synchronized (curLocker) {
             int sz = (asgn == null ? 0 : asgn.getAllHosts().size());
             logger.info("new assignments for {} hosts on topic {}", sz, getTopic());
             assignments = asgn;
+            compact = (asgn != null && asgn.isCompact());
+
+            // route any events that were waiting for the assignments
+            drainEventQueue();
         }
     }
 
@@ -728,6 +1150,23 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
         return new InactiveState(this);
     }
 
+    /**
+     * Marker for an event that has been injected into the controller, but not yet
+     * offered. Guarded by {@link PoolingManagerImpl#injected}.
+     */
+    private static class Injection {
+
+        /**
+         * Number of injections of the event that have not been offered yet.
+         */
+        private int count = 0;
+
+        /**
+         * Time, in milliseconds, at which the event was last injected.
+         */
+        private long injectMs;
+    }
+
     /**
      * Action to run a timer task. Only runs the task if the machine is still in the state
      * that it was in when the timer was created.
@@ -779,6 +1218,16 @@ public class PoolingManagerImpl implements PoolingManager, TopicListener {
                         PoolingProperties.EXTRACTOR_TYPE);
     }
 
+    /**
+     * Creates topic extractors.
+     * 
+     * @param props properties used to configure the extractors
+     * @return a new set of topic extractors
+     */
+    protected TopicExtractors makeTopicExtractors(Properties props) {
+        return new TopicExtractors(props, PoolingProperties.PROP_TOPIC_EXTRACTOR_PREFIX);
+    }
+
     /**
      * Creates a DMaaP manager.
      * 
@@ -51,6 +51,22 @@ public class PoolingProperties {
     public static final String IDENTIFICATION_MS = PREFIX + "identification.milliseconds";
     public static final String ACTIVE_HEARTBEAT_MS = PREFIX + "active.heartbeat.milliseconds";
     public static final String INTER_HEARTBEAT_MS = PREFIX + "inter.heartbeat.milliseconds";
+    public static final String ASSIGNMENT_STRATEGY = PREFIX + "assignment.strategy";
+    public static final String HOST_WEIGHT = PREFIX + "host.weight";
+    public static final String FORWARD_BATCH_SIZE = PREFIX + "forward.batch.size";
+    public static final String FORWARD_BATCH_MS = PREFIX + "forward.batch.milliseconds";
+
+    /**
+     * Assignment strategy that keeps the current assignments and moves buckets from the
+     * hosts having the most to those having the fewest.
+     */
+    public static final String STRATEGY_BALANCED = "balanced";
+
+    /**
+     * Assignment strategy that assigns each bucket to a host via weighted rendezvous
+     * hashing.
+     */
+    public static final String STRATEGY_RENDEZVOUS = "rendezvous";
 
     /**
      * Type of item that the extractors will be extracting.
@@ -62,6 +78,12 @@ public class PoolingProperties {
      */
     public static final String PROP_EXTRACTOR_PREFIX = "extractor." + EXTRACTOR_TYPE;
 
+    /**
+     * Prefix for properties of extractors that operate directly on the event text
+     * received on a topic.
+     */
+    public static final String PROP_TOPIC_EXTRACTOR_PREFIX = "extractor.topic." + EXTRACTOR_TYPE;
+
     /**
      * Properties from which this was constructed.
      */
@@ -129,6 +151,36 @@ public class PoolingProperties {
     @Property(name = INTER_HEARTBEAT_MS, defaultValue = "15000")
     private long interHeartbeatMs;
 
+    /**
+     * Strategy used by the leader to assign buckets to hosts, either
+     * {@link #STRATEGY_BALANCED} or {@link #STRATEGY_RENDEZVOUS}.
+     */
+    @Property(name = ASSIGNMENT_STRATEGY, defaultValue = STRATEGY_BALANCED)
+    private String assignmentStrategy;
+
+    /**
+     * Relative weight of this host, used by the rendezvous strategy to determine its share
+     * of the buckets.
+     */
+    @Property(name = HOST_WEIGHT, defaultValue = "1")
+    private int hostWeight;
+
+    /**
+     * Maximum number of events to be combined into a single message when
+     * forwarding them to another host. A value of one, or less, disables
+     * batching, which is necessary while any host in the pool does not yet
+     * understand batched messages.
+     */
+    @Property(name = FORWARD_BATCH_SIZE, defaultValue = "1")
+    private int forwardBatchSize;
+
+    /**
+     * Maximum time, in milliseconds, that an event may wait for a batch to
+     * fill before the batch is forwarded anyway.
+     */
+    @Property(name = FORWARD_BATCH_MS, defaultValue = "5")
+    private long forwardBatchMs;
+
     /**
      * Constructor.
      *
@@ -183,6 +235,22 @@ public class PoolingProperties {
         return interHeartbeatMs;
     }
 
+    public String getAssignmentStrategy() {
+        return assignmentStrategy;
+    }
+
+    public int getHostWeight() {
+        return hostWeight;
+    }
+
+    public int getForwardBatchSize() {
+        return forwardBatchSize;
+    }
+
+    public long getForwardBatchMs() {
+        return forwardBatchMs;
+    }
+
     public void setPoolingTopic(String poolingTopic) {
         this.poolingTopic = poolingTopic;
     }
@@ -218,4 +286,20 @@ public class PoolingProperties {
     public void setInterHeartbeatMs(long interHeartbeatMs) {
         this.interHeartbeatMs = interHeartbeatMs;
     }
+
+    public void setAssignmentStrategy(String assignmentStrategy) {
+        this.assignmentStrategy = assignmentStrategy;
+    }
+
+    public void setHostWeight(int hostWeight) {
+        this.hostWeight = hostWeight;
+    }
+
+    public void setForwardBatchSize(int forwardBatchSize) {
+        this.forwardBatchSize = forwardBatchSize;
+    }
+
+    public void setForwardBatchMs(long forwardBatchMs) {
+        this.forwardBatchMs = forwardBatchMs;
+    }
 }
@@ -23,9 +23,18 @@ package org.onap.policy.drools.pooling;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.onap.policy.drools.pooling.codec.CompactAssignmentsCodec;
+import org.onap.policy.drools.pooling.codec.CompactForwardCodec;
+import org.onap.policy.drools.pooling.codec.MessageCodec;
 import org.onap.policy.drools.pooling.message.Forward;
+import org.onap.policy.drools.pooling.message.ForwardBatch;
 import org.onap.policy.drools.pooling.message.Heartbeat;
 import org.onap.policy.drools.pooling.message.Identification;
 import org.onap.policy.drools.pooling.message.Leader;
@@ -34,7 +43,10 @@ import org.onap.policy.drools.pooling.message.Offline;
 import org.onap.policy.drools.pooling.message.Query;
 
 /**
- * Serialization helper functions.
+ * Serialization helper functions. Messages are encoded as plain JSON, unless a compact
+ * codec has been enabled for the message's type. Messages are always decoded according
+ * to the type recorded within them, thus a host can decode compact messages regardless of
+ * which codecs it has enabled for encoding.
  */
 public class Serializer {
 
@@ -61,6 +73,7 @@ public class Serializer {
 
     static {
         class2type.put(Forward.class, "forward");
+        class2type.put(ForwardBatch.class, "forwardBatch");
         class2type.put(Heartbeat.class, "heartbeat");
         class2type.put(Identification.class, "identification");
         class2type.put(Leader.class, "leader");
@@ -70,6 +83,30 @@ public class Serializer {
         class2type.forEach((clazz, type) -> type2class.put(type, clazz));
     }
 
+    /**
+     * Compact codecs that may be used in place of plain JSON.
+     */
+    private static final List<MessageCodec<?>> codecs = new ArrayList<>();
+
+    /**
+     * Maps a compact message type to the codec that decodes it.
+     */
+    private static final Map<String, MessageCodec<?>> type2codec = new HashMap<>();
+
+    static {
+        codecs.add(new CompactForwardCodec("forward.compact"));
+        codecs.add(new CompactAssignmentsCodec<>(Identification.class, "identification.compact"));
+        codecs.add(new CompactAssignmentsCodec<>(Leader.class, "leader.compact"));
+
+        codecs.forEach(codec -> type2codec.put(codec.getType(), codec));
+    }
+
+    /**
+     * Maps a message subclass to the compact codec to be used to encode it. Subclasses
+     * that do not appear here are encoded as plain JSON.
+     */
+    private final Map<Class<? extends Message>, MessageCodec<?>> class2codec = new HashMap<>();
+
     /**
      * Constructor.
      */
@@ -77,6 +114,20 @@ public class Serializer {
         super();
     }
 
+    /**
+     * Constructor.
+     * 
+     * @param compact {@code true} if message types having a compact codec are to be
+     *        encoded using it, {@code false} if all messages are to be encoded as plain
+     *        JSON. Compact messages can only be decoded by hosts that support them, thus
+     *        this should only be enabled once every host in the pool does
+     */
+    public Serializer(boolean compact) {
+        if (compact) {
+            codecs.forEach(codec -> class2codec.put(codec.getMessageClass(), codec));
+        }
+    }
+
     /**
      * Encodes a filter.
      * 
@@ -94,6 +145,14 @@ public class Serializer {
      * @return the message, serialized as a JSON string
      */
     public String encodeMsg(Message msg) {
+        MessageCodec<?> codec = class2codec.get(msg.getClass());
+        if (codec != null) {
+            String text = encodeMsg(codec, msg);
+            if (text != null) {
+                return text;
+            }
+        }
+
         JsonElement jsonEl = gson.toJsonTree(msg);
 
         String type = class2type.get(msg.getClass());
@@ -107,26 +166,66 @@ public class Serializer {
     }
 
     /**
-     * Decodes a JSON string into a Message.
+     * Decodes a JSON string into a Message, using a compact codec if the message's type
+     * indicates that it was encoded by one. The message is parsed directly into the
+     * message class, or by the codec, rather than into an intermediate JSON tree.
      * 
      * @param msg JSON string representing the message
      * @return the message
      */
     public Message decodeMsg(String msg) {
-        JsonElement jsonEl = gson.fromJson(msg, JsonElement.class);
+        String type = peekType(msg);
 
-        JsonElement typeEl = jsonEl.getAsJsonObject().get(TYPE_FIELD);
-        if (typeEl == null) {
-            throw new JsonParseException("cannot deserialize " + Message.class
-                            + " because it does not contain a field named " + TYPE_FIELD);
+        Class<? extends Message> clazz = type2class.get(type);
+        if (clazz != null) {
+            return gson.fromJson(msg, clazz);
+        }
 
+        MessageCodec<?> codec = type2codec.get(type);
+        if (codec == null) {
+            throw new JsonParseException("cannot deserialize \"" + type + "\"");
         }
 
-        Class<? extends Message> clazz = type2class.get(typeEl.getAsString());
-        if (clazz == null) {
-            throw new JsonParseException("cannot deserialize " + typeEl);
+        return codec.decode(msg);
+    }
+
+    /**
+     * Gets the type of a message. The fields preceding the type are skipped, without
+     * being parsed, and the fields following it are not examined at all.
+     * 
+     * @param msg JSON string representing the message
+     * @return the message's type
+     * @throws JsonParseException if the type cannot be extracted
+     */
+    private String peekType(String msg) {
+        try (JsonReader reader = new JsonReader(new StringReader(msg))) {
+            reader.setLenient(true);
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                if (TYPE_FIELD.equals(reader.nextName())) {
+                    return reader.nextString();
+                }
+
+                reader.skipValue();
+            }
+
+        } catch (IOException | IllegalStateException e) {
+            throw new JsonParseException("cannot deserialize " + Message.class, e);
         }
 
-        return gson.fromJson(jsonEl, clazz);
+        throw new JsonParseException("cannot deserialize " + Message.class
+                        + " because it does not contain a field named " + TYPE_FIELD);
+    }
+
+    /**
+     * Encodes a message using a compact codec.
+     * 
+     * @param codec codec to use to encode the message
+     * @param msg message to be encoded
+     * @return the encoded message, or {@code null} if the codec cannot encode it
+     */
+    private <T extends Message> String encodeMsg(MessageCodec<T> codec, Message msg) {
+        return codec.encode(codec.getMessageClass().cast(msg), TYPE_FIELD);
     }
 }
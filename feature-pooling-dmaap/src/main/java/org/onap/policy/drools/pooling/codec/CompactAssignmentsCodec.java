@@ -0,0 +1,239 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.onap.policy.drools.pooling.message.MessageWithAssignments;
+
+/**
+ * Codec for messages containing bucket assignments. The bucket array, which otherwise
+ * repeats each host name once for every bucket assigned to it, is dictionary-encoded:
+ * the distinct host names are listed once, in the "hosts" field, and the "buckets" field
+ * contains the base64 encoding of each bucket's index into that list, using one byte per
+ * bucket when there are no more than 256 hosts, and two bytes per bucket otherwise.
+ *
+ * @param <T> type of message handled by the codec
+ */
+public class CompactAssignmentsCodec<T extends MessageWithAssignments> implements MessageCodec<T> {
+
+    /**
+     * Field containing the distinct host names.
+     */
+    public static final String HOSTS_FIELD = "hosts";
+
+    /**
+     * Field containing the encoded bucket indices.
+     */
+    public static final String BUCKETS_FIELD = "buckets";
+
+    private static final String ASSIGNMENTS_FIELD = "assignments";
+    private static final String HOST_ARRAY_FIELD = "hostArray";
+
+    /**
+     * Maximum number of hosts whose indices fit within a single byte.
+     */
+    private static final int MAX_BYTE_HOSTS = 1 << 8;
+
+    /**
+     * Maximum number of hosts whose indices fit within two bytes.
+     */
+    private static final int MAX_SHORT_HOSTS = 1 << 16;
+
+    private static final int BYTE_MASK = 0xff;
+    private static final int BITS_PER_BYTE = 8;
+
+    /**
+     * Used to encode and decode everything other than the bucket array.
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * Class of message handled by this codec.
+     */
+    private final Class<T> clazz;
+
+    /**
+     * Type that identifies messages encoded by this codec.
+     */
+    private final String type;
+
+    /**
+     * Constructor.
+     *
+     * @param clazz class of message handled by this codec
+     * @param type type that identifies messages encoded by this codec
+     */
+    public CompactAssignmentsCodec(Class<T> clazz, String type) {
+        this.clazz = clazz;
+        this.type = type;
+    }
+
+    @Override
+    public Class<T> getMessageClass() {
+        return clazz;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String encode(T msg, String typeField) {
+        JsonObject json = gson.toJsonTree(msg).getAsJsonObject();
+
+        JsonElement asgnEl = json.get(ASSIGNMENTS_FIELD);
+        if (asgnEl != null && asgnEl.isJsonObject() && msg.getAssignments().getHostArray() != null) {
+            if (!encodeHosts(msg.getAssignments().getHostArray(), asgnEl.getAsJsonObject())) {
+                return null;
+            }
+        }
+
+        json.addProperty(typeField, type);
+
+        return gson.toJson(json);
+    }
+
+    @Override
+    public T decode(String text) {
+        JsonObject json = gson.fromJson(text, JsonObject.class);
+        if (json == null) {
+            throw new JsonParseException("empty message");
+        }
+
+        JsonElement asgnEl = json.get(ASSIGNMENTS_FIELD);
+
+        if (asgnEl != null && asgnEl.isJsonObject()) {
+            JsonObject asgn = asgnEl.getAsJsonObject();
+
+            JsonElement hostsEl = asgn.remove(HOSTS_FIELD);
+            JsonElement bucketsEl = asgn.remove(BUCKETS_FIELD);
+
+            if (hostsEl != null || bucketsEl != null) {
+                asgn.add(HOST_ARRAY_FIELD, decodeHosts(hostsEl, bucketsEl));
+            }
+        }
+
+        return gson.fromJson(json, clazz);
+    }
+
+    /**
+     * Replaces the bucket array, within the JSON assignments, with the dictionary-encoded
+     * form.
+     *
+     * @param hostArray bucket array to be encoded
+     * @param asgn JSON assignments into which the encoded form should be placed
+     * @return {@code true} if the array was encoded, {@code false} if it cannot be
+     *         encoded (e.g., because it contains {@code null} entries)
+     */
+    private boolean encodeHosts(String[] hostArray, JsonObject asgn) {
+        Map<String, Integer> host2index = new LinkedHashMap<>();
+        int[] indices = new int[hostArray.length];
+
+        for (int bucket = 0; bucket < hostArray.length; ++bucket) {
+            String host = hostArray[bucket];
+            if (host == null) {
+                return false;
+            }
+
+            indices[bucket] = host2index.computeIfAbsent(host, key -> host2index.size());
+        }
+
+        if (host2index.size() > MAX_SHORT_HOSTS) {
+            return false;
+        }
+
+        int width = (host2index.size() <= MAX_BYTE_HOSTS ? 1 : 2);
+        byte[] data = new byte[indices.length * width];
+
+        for (int bucket = 0; bucket < indices.length; ++bucket) {
+            if (width == 1) {
+                data[bucket] = (byte) indices[bucket];
+
+            } else {
+                data[2 * bucket] = (byte) (indices[bucket] >>> BITS_PER_BYTE);
+                data[2 * bucket + 1] = (byte) indices[bucket];
+            }
+        }
+
+        JsonArray hosts = new JsonArray();
+        host2index.keySet().forEach(hosts::add);
+
+        asgn.remove(HOST_ARRAY_FIELD);
+        asgn.add(HOSTS_FIELD, hosts);
+        asgn.addProperty(BUCKETS_FIELD, Base64.getEncoder().encodeToString(data));
+
+        return true;
+    }
+
+    /**
+     * Decodes the dictionary-encoded form of a bucket array.
+     *
+     * @param hostsEl JSON element containing the distinct host names
+     * @param bucketsEl JSON element containing the encoded bucket indices
+     * @return the bucket array, as a JSON array
+     * @throws JsonParseException if the encoded form is invalid
+     */
+    private JsonArray decodeHosts(JsonElement hostsEl, JsonElement bucketsEl) {
+        if (hostsEl == null || !hostsEl.isJsonArray() || bucketsEl == null || !bucketsEl.isJsonPrimitive()) {
+            throw new JsonParseException("invalid compact bucket assignments");
+        }
+
+        JsonArray hosts = hostsEl.getAsJsonArray();
+
+        byte[] data;
+        try {
+            data = Base64.getDecoder().decode(bucketsEl.getAsString());
+
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException("invalid compact bucket indices", e);
+        }
+
+        int width = (hosts.size() <= MAX_BYTE_HOSTS ? 1 : 2);
+        if (data.length % width != 0) {
+            throw new JsonParseException("truncated compact bucket indices");
+        }
+
+        JsonArray hostArray = new JsonArray();
+
+        for (int offset = 0; offset < data.length; offset += width) {
+            int index = data[offset] & BYTE_MASK;
+            if (width == 2) {
+                index = (index << BITS_PER_BYTE) | (data[offset + 1] & BYTE_MASK);
+            }
+
+            if (index >= hosts.size()) {
+                throw new JsonParseException("invalid compact bucket index " + index);
+            }
+
+            hostArray.add(hosts.get(index));
+        }
+
+        return hostArray;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.StringReader;
+import org.onap.policy.drools.pooling.message.Forward;
+
+/**
+ * Codec for {@link Forward} messages whose payload is itself a JSON object or array. The
+ * payload is appended, verbatim, as the value of the last field of the message, rather
+ * than being embedded as an escaped string. The length of the payload is recorded in a
+ * separate field so that the receiver can extract the exact text of the payload without
+ * re-serializing it. Messages whose payload is not JSON cannot be encoded by this codec.
+ */
+public class CompactForwardCodec implements MessageCodec<Forward> {
+
+    /**
+     * Field containing the payload, which must be the last field in the message.
+     */
+    public static final String RAW_PAYLOAD_FIELD = "rawPayload";
+
+    /**
+     * Field containing the length of the payload.
+     */
+    public static final String PAYLOAD_LENGTH_FIELD = "payloadLength";
+
+    /**
+     * Text that precedes the payload.
+     */
+    private static final String PAYLOAD_PREFIX = ",\"" + RAW_PAYLOAD_FIELD + "\":";
+
+    private static final String PAYLOAD_FIELD = "payload";
+
+    /**
+     * Used to encode and decode everything other than the payload.
+     */
+    private final Gson gson = new Gson();
+
+    /**
+     * Used to parse the fields preceding the payload, and to verify that a payload is
+     * strictly valid JSON.
+     */
+    private final TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+
+    /**
+     * Type that identifies messages encoded by this codec.
+     */
+    private final String type;
+
+    /**
+     * Constructor.
+     *
+     * @param type type that identifies messages encoded by this codec
+     */
+    public CompactForwardCodec(String type) {
+        this.type = type;
+    }
+
+    @Override
+    public Class<Forward> getMessageClass() {
+        return Forward.class;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String encode(Forward msg, String typeField) {
+        String payload = msg.getPayload();
+        if (!isJsonStructure(payload)) {
+            return null;
+        }
+
+        JsonObject json = gson.toJsonTree(msg).getAsJsonObject();
+        json.remove(PAYLOAD_FIELD);
+        json.addProperty(PAYLOAD_LENGTH_FIELD, payload.length());
+        json.addProperty(typeField, type);
+
+        // the encoded object always ends with "}", which is replaced by the payload field
+        String text = gson.toJson(json);
+
+        return text.substring(0, text.length() - 1) + PAYLOAD_PREFIX + payload + "}";
+    }
+
+    @Override
+    public Forward decode(String text) {
+        JsonObject json = parseHeader(text);
+
+        JsonElement lengthEl = json.remove(PAYLOAD_LENGTH_FIELD);
+
+        if (lengthEl == null || !lengthEl.isJsonPrimitive()) {
+            throw new JsonParseException("missing " + PAYLOAD_LENGTH_FIELD);
+        }
+
+        int length;
+        try {
+            length = lengthEl.getAsInt();
+
+        } catch (NumberFormatException e) {
+            throw new JsonParseException("invalid " + PAYLOAD_LENGTH_FIELD, e);
+        }
+
+        String trimmed = text.trim();
+
+        // payload lies between the prefix and the final "}"
+        int end = trimmed.length() - 1;
+        int start = end - length;
+
+        if (length < 0 || start < PAYLOAD_PREFIX.length()
+                        || !trimmed.startsWith(PAYLOAD_PREFIX, start - PAYLOAD_PREFIX.length())) {
+            throw new JsonParseException("cannot locate " + RAW_PAYLOAD_FIELD);
+        }
+
+        Forward msg = gson.fromJson(json, Forward.class);
+        msg.setPayload(trimmed.substring(start, end));
+
+        return msg;
+    }
+
+    /**
+     * Parses the fields that precede the payload. The payload, itself, is not parsed, as
+     * it is extracted verbatim from the text.
+     *
+     * @param text the encoded message
+     * @return the fields that precede the payload
+     * @throws JsonParseException if the fields cannot be parsed
+     */
+    private JsonObject parseHeader(String text) {
+        JsonObject json = new JsonObject();
+
+        try (JsonReader reader = new JsonReader(new StringReader(text))) {
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (RAW_PAYLOAD_FIELD.equals(name)) {
+                    // the payload is always the last field
+                    break;
+                }
+
+                json.add(name, elementAdapter.read(reader));
+            }
+
+        } catch (IOException | RuntimeException e) {
+            throw new JsonParseException("cannot parse " + type + " message", e);
+        }
+
+        return json;
+    }
+
+    /**
+     * Determines if some text is a strictly valid JSON object or array, with nothing
+     * following it.
+     *
+     * @param text text to be examined
+     * @return {@code true} if the text is a JSON object or array, {@code false} otherwise
+     */
+    private boolean isJsonStructure(String text) {
+        if (text == null) {
+            return false;
+        }
+
+        try (JsonReader reader = new JsonReader(new StringReader(text))) {
+            reader.setLenient(false);
+
+            JsonElement element = elementAdapter.read(reader);
+
+            return ((element.isJsonObject() || element.isJsonArray()) && reader.peek() == JsonToken.END_DOCUMENT);
+
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+}
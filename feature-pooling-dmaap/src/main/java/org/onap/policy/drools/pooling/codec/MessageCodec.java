@@ -0,0 +1,69 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.codec;
+
+import org.onap.policy.drools.pooling.message.Message;
+
+/**
+ * Codec that encodes and decodes a particular type of {@link Message} using a format
+ * other than the plain JSON that is used by default. Encoded messages must still be JSON
+ * objects having the "type" field and the message's "channel" field at the top level, so
+ * that the server-side filters continue to work and so that a receiver can determine
+ * which codec to use to decode a message.
+ *
+ * @param <T> type of message handled by the codec
+ */
+public interface MessageCodec<T extends Message> {
+
+    /**
+     * Gets the class of message handled by this codec.
+     *
+     * @return the class of message handled by this codec
+     */
+    Class<T> getMessageClass();
+
+    /**
+     * Gets the type that identifies messages encoded by this codec. This must differ
+     * from the type used when the message is encoded as plain JSON.
+     *
+     * @return the type that identifies messages encoded by this codec
+     */
+    String getType();
+
+    /**
+     * Encodes a message.
+     *
+     * @param msg message to be encoded
+     * @param typeField name of the field in which the type is to be stored
+     * @return the encoded message, or {@code null} if this codec cannot encode this
+     *         particular message, in which case it should be encoded as plain JSON
+     */
+    String encode(T msg, String typeField);
+
+    /**
+     * Decodes a message. The codec parses only as much of the text as it needs.
+     *
+     * @param text the encoded message
+     * @return the decoded message
+     * @throws com.google.gson.JsonParseException if the message cannot be decoded
+     */
+    T decode(String text);
+}
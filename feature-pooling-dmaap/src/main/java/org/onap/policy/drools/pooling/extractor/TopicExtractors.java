@@ -0,0 +1,166 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.extractor;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import org.onap.policy.drools.protocol.coders.JsonProtocolFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Extractors for each topic, which extract a data item directly from the event text,
+ * using a JsonPath expression, without decoding the event into an object. Properties
+ * define the expression to be used for a given topic, where the properties are similar
+ * to the following:
+ *
+ * <pre>
+ * <code>&lt;a.prefix>.&lt;topic.name> = $.event.reqid</code>
+ * </pre>
+ */
+public class TopicExtractors {
+
+    private static final Logger logger = LoggerFactory.getLogger(TopicExtractors.class);
+
+    /**
+     * Properties that specify the expression to be used for a given topic.
+     */
+    private final Properties properties;
+
+    /**
+     * Property prefix, including a trailing ".".
+     */
+    private final String prefix;
+
+    /**
+     * Maps the topic name to its extractor. Topics that have no extractor are mapped to
+     * an empty value so that the properties need only be examined once per topic.
+     */
+    private final ConcurrentHashMap<String, Optional<JsonProtocolFilter>> topic2extractor =
+                    new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param props properties that specify the expression to be used for a given topic
+     * @param prefix property name prefix, prepended before the topic name
+     */
+    public TopicExtractors(Properties props, String prefix) {
+        this.properties = props;
+        this.prefix = (prefix.endsWith(".") ? prefix : prefix + ".");
+    }
+
+    /**
+     * Gets the number of extractors in the map.
+     *
+     * @return gets the number of extractors in the map
+     */
+    protected int size() {
+        return topic2extractor.size();
+    }
+
+    /**
+     * Determines if an extractor has been configured for a topic.
+     *
+     * @param topic topic of interest
+     * @return {@code true} if an extractor has been configured for the topic,
+     *         {@code false} otherwise
+     */
+    public boolean hasExtractor(String topic) {
+        return getExtractor(topic).isPresent();
+    }
+
+    /**
+     * Extracts the desired data item from an event.
+     *
+     * @param topic topic on which the event was received
+     * @param event event text from which to extract the data item
+     * @return the first item that was extracted, or {@code null} if no extractor has
+     *         been configured for the topic or the item could not be extracted
+     */
+    public String extract(String topic, String event) {
+        if (event == null) {
+            return null;
+        }
+
+        Optional<JsonProtocolFilter> ext = getExtractor(topic);
+        if (!ext.isPresent()) {
+            return null;
+        }
+
+        try {
+            // matches are not necessarily strings (e.g., numeric ids)
+            List<?> matches = ext.get().filter(event);
+            if (matches == null || matches.isEmpty()) {
+                return null;
+            }
+
+            Object value = matches.get(0);
+            return (value != null ? value.toString() : null);
+
+        } catch (RuntimeException e) {
+            logger.warn("cannot extract data from event on topic {}", topic, e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets the extractor for the given topic, creating one if it doesn't exist yet.
+     *
+     * @param topic topic whose extractor is desired
+     * @return the topic's extractor, or an empty value if no extractor has been
+     *         configured for the topic
+     */
+    private Optional<JsonProtocolFilter> getExtractor(String topic) {
+        Optional<JsonProtocolFilter> ext = topic2extractor.get(topic);
+
+        if (ext == null) {
+            // allocate a new extractor, if another thread doesn't beat us to it
+            ext = topic2extractor.computeIfAbsent(topic, xxx -> buildExtractor(topic));
+        }
+
+        return ext;
+    }
+
+    /**
+     * Builds an extractor for the topic.
+     *
+     * @param topic topic for which the extractor should be built
+     * @return a new extractor, or an empty value if no extractor has been configured for
+     *         the topic or the configured expression is invalid
+     */
+    private Optional<JsonProtocolFilter> buildExtractor(String topic) {
+        String value = properties.getProperty(prefix + topic, null);
+        if (value == null || value.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new JsonProtocolFilter(value));
+
+        } catch (RuntimeException e) {
+            logger.warn("ignoring invalid extractor expression {} for topic {}", value, topic, e);
+            return Optional.empty();
+        }
+    }
+}
@@ -22,13 +22,17 @@ package org.onap.policy.drools.pooling.message;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import org.onap.policy.drools.pooling.PoolingFeatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Bucket assignments, which is simply an array of host names.
+ * Bucket assignments, which is simply an array of host names. May also include the
+ * relative weight of each host, so that the weights survive a change of leader, and the
+ * hosts that can decode compact messages.
  */
 public class BucketAssignments {
 
@@ -49,11 +53,26 @@ public class BucketAssignments {
      */
     private static final int MAX_BUCKETS_MASK = MAX_BUCKETS - 1;
 
+    /**
+     * Weight of a host whose weight is unknown.
+     */
+    public static final int DEFAULT_WEIGHT = 1;
+
     /**
      * Identifies the host serving a particular bucket.
      */
     private String[] hostArray = null;
 
+    /**
+     * Maps a host to its relative weight, or {@code null} if the hosts are not weighted.
+     */
+    private Map<String, Integer> hostWeights = null;
+
+    /**
+     * Hosts that can decode compact messages, or {@code null} if none are known to.
+     */
+    private Set<String> compactHosts = null;
+
     /**
      * Constructor.
      */
@@ -79,6 +98,59 @@ public class BucketAssignments {
         this.hostArray = hostArray;
     }
 
+    public Map<String, Integer> getHostWeights() {
+        return hostWeights;
+    }
+
+    public void setHostWeights(Map<String, Integer> hostWeights) {
+        this.hostWeights = hostWeights;
+    }
+
+    public Set<String> getCompactHosts() {
+        return compactHosts;
+    }
+
+    public void setCompactHosts(Set<String> compactHosts) {
+        this.compactHosts = compactHosts;
+    }
+
+    /**
+     * Determines if a host can decode compact messages.
+     * 
+     * @param host host of interest
+     * @return {@code true} if the host can decode compact messages, {@code false} if it
+     *         cannot or if its support is unknown
+     */
+    public boolean isCompact(String host) {
+        return (compactHosts != null && compactHosts.contains(host));
+    }
+
+    /**
+     * Determines if every host having an assignment can decode compact messages.
+     * 
+     * @return {@code true} if every assigned host can decode compact messages,
+     *         {@code false} otherwise
+     */
+    public boolean isCompact() {
+        return (hostArray != null && hostArray.length > 0 && compactHosts != null
+                        && compactHosts.containsAll(getAllHosts()));
+    }
+
+    /**
+     * Gets the relative weight of a host.
+     * 
+     * @param host host of interest
+     * @return the host's weight, or {@link #DEFAULT_WEIGHT} if its weight is unknown
+     */
+    public int getWeight(String host) {
+        if (hostWeights == null) {
+            return DEFAULT_WEIGHT;
+        }
+
+        Integer weight = hostWeights.get(host);
+        return (weight != null && weight > 0 ? weight : DEFAULT_WEIGHT);
+    }
+
     /**
      * Gets the leader, which is the host with the minimum UUID.
      * 
@@ -185,6 +257,14 @@ public class BucketAssignments {
                 throw new PoolingFeatureException("bucket " + x + " has no assignment");
             }
         }
+
+        if (hostWeights != null) {
+            for (Map.Entry<String, Integer> ent : hostWeights.entrySet()) {
+                if (ent.getValue() == null || ent.getValue() <= 0) {
+                    throw new PoolingFeatureException("host " + ent.getKey() + " has an invalid weight");
+                }
+            }
+        }
     }
 
     @Override
@@ -192,6 +272,8 @@ public class BucketAssignments {
         final int prime = 31;
         int result = 1;
         result = prime * result + Arrays.hashCode(hostArray);
+        result = prime * result + Objects.hashCode(hostWeights);
+        result = prime * result + Objects.hashCode(compactHosts);
         return result;
     }
 
@@ -207,6 +289,7 @@ public class BucketAssignments {
             return false;
         }
         BucketAssignments other = (BucketAssignments) obj;
-        return Arrays.equals(hostArray, other.hostArray);
+        return Arrays.equals(hostArray, other.hostArray) && Objects.equals(hostWeights, other.hostWeights)
+                        && Objects.equals(compactHosts, other.compactHosts);
     }
 }
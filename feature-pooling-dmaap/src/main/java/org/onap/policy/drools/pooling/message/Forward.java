@@ -176,4 +176,9 @@ public class Forward extends Message {
         }
     }
 
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
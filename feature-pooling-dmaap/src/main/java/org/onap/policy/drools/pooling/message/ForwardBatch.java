@@ -0,0 +1,91 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.message;
+
+import java.util.List;
+import org.onap.policy.drools.pooling.PoolingFeatureException;
+
+/**
+ * Message to forward several events to another host at once. The events are handled by
+ * the target host in the order in which they appear within the message.
+ */
+public class ForwardBatch extends Message {
+
+    /**
+     * Events to be forwarded, each of which has the same channel as this message.
+     */
+    private List<Forward> forwards;
+
+    /**
+     * Constructor.
+     */
+    public ForwardBatch() {
+        super();
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param source host on which the message originated
+     * @param forwards events to be forwarded
+     */
+    public ForwardBatch(String source, List<Forward> forwards) {
+        super(source);
+
+        this.forwards = forwards;
+    }
+
+    public List<Forward> getForwards() {
+        return forwards;
+    }
+
+    public void setForwards(List<Forward> forwards) {
+        this.forwards = forwards;
+    }
+
+    @Override
+    public void checkValidity() throws PoolingFeatureException {
+
+        super.checkValidity();
+
+        if (forwards == null || forwards.isEmpty()) {
+            throw new PoolingFeatureException("missing forwarded events");
+        }
+
+        for (Forward fwd : forwards) {
+            if (fwd == null) {
+                throw new PoolingFeatureException("missing forwarded event");
+            }
+
+            if (!getChannel().equals(fwd.getChannel())) {
+                throw new PoolingFeatureException("forwarded event has a different channel");
+            }
+
+            fwd.checkValidity();
+        }
+    }
+
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
+}
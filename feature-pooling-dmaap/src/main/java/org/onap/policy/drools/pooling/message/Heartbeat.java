@@ -58,4 +58,9 @@ public class Heartbeat extends Message {
         this.timestampMs = timestampMs;
     }
 
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
@@ -21,10 +21,22 @@
 package org.onap.policy.drools.pooling.message;
 
 /**
- * Identifies the source host and the bucket assignments which it knows about.
+ * Identifies the source host, its weight, and the bucket assignments which it knows
+ * about.
  */
 public class Identification extends MessageWithAssignments {
 
+    /**
+     * Relative weight of the source host, or zero if it was not specified.
+     */
+    private int weight;
+
+    /**
+     * {@code True} if the source host can decode compact messages. Hosts that predate
+     * the compact encoding do not send this, thus it defaults to {@code false}.
+     */
+    private boolean compact;
+
     /**
      * Constructor.
      */
@@ -43,4 +55,25 @@ public class Identification extends MessageWithAssignments {
         super(source, assignments);
     }
 
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
@@ -71,4 +71,9 @@ public class Leader extends MessageWithAssignments {
         }
     }
 
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
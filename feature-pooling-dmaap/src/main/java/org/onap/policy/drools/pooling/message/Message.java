@@ -91,4 +91,17 @@ public class Message {
         }
     }
 
+    /**
+     * Dispatches the message to the visitor's method that is specific to the message's
+     * type.
+     * 
+     * @param visitor visitor to which the message should be dispatched
+     * @return the value returned by the visitor
+     * @throws UnsupportedOperationException if the visitor has no method for this type
+     *         of message
+     */
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        throw new UnsupportedOperationException("cannot dispatch " + getClass().getName());
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.message;
+
+/**
+ * Visitor that processes each type of {@link Message}. A message is passed to the method
+ * specific to its type via {@link Message#dispatch(MessageVisitor)}, which avoids the
+ * need to discover the appropriate method via reflection.
+ *
+ * @param <T> type of value returned by the processing methods
+ */
+public interface MessageVisitor<T> {
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Forward msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(ForwardBatch msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Heartbeat msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Identification msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Leader msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Offline msg);
+
+    /**
+     * Processes a message.
+     * 
+     * @param msg message to be processed
+     * @return the result of processing the message
+     */
+    T process(Query msg);
+}
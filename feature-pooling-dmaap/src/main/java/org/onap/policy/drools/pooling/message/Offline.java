@@ -43,4 +43,9 @@ public class Offline extends Message {
         super(source);
     }
 
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
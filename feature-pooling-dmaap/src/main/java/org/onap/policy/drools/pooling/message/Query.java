@@ -42,4 +42,9 @@ public class Query extends Message {
         super(source);
     }
 
+    @Override
+    public <T> T dispatch(MessageVisitor<T> visitor) {
+        return visitor.process(this);
+    }
+
 }
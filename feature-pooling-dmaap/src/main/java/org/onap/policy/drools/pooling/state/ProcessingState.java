@@ -27,8 +27,10 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import org.onap.policy.drools.pooling.PoolingManager;
+import org.onap.policy.drools.pooling.PoolingProperties;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
 import org.onap.policy.drools.pooling.message.Leader;
 import org.onap.policy.drools.pooling.message.Query;
@@ -153,7 +155,14 @@ public class ProcessingState extends State {
      * @return a new message
      */
     private Leader makeLeader(Set<String> alive) {
-        return new Leader(getHost(), makeAssignments(alive));
+        BucketAssignments asgn = makeAssignments(alive);
+
+        // record which of the assigned hosts can decode compact messages
+        TreeSet<String> compactHosts = new TreeSet<>();
+        asgn.getAllHosts().stream().filter(this::isCompact).forEach(compactHosts::add);
+        asgn.setCompactHosts(compactHosts);
+
+        return new Leader(getHost(), asgn);
     }
 
     /**
@@ -165,6 +174,10 @@ public class ProcessingState extends State {
      */
     private BucketAssignments makeAssignments(Set<String> alive) {
 
+        if (PoolingProperties.STRATEGY_RENDEZVOUS.equals(getProperties().getAssignmentStrategy())) {
+            return makeRendezvousAssignments(alive);
+        }
+
         // make a working array from the CURRENT assignments
         String[] bucket2host = makeBucketArray();
 
@@ -189,6 +202,63 @@ public class ProcessingState extends State {
         return new BucketAssignments(bucket2host);
     }
 
+    /**
+     * Makes a set of bucket assignments using weighted rendezvous hashing. Unlike the
+     * balanced strategy, this does not depend on the current assignments, only on the
+     * hosts and their weights.
+     * 
+     * @param alive hosts that are known to be alive
+     * 
+     * @return a new set of bucket assignments
+     */
+    private BucketAssignments makeRendezvousAssignments(Set<String> alive) {
+        Map<String, Integer> host2weight = new TreeMap<>();
+        alive.forEach(host -> host2weight.put(host, getWeight(host)));
+
+        BucketAssignments asgn =
+                        new BucketAssignments(RendezvousAssigner.assign(BucketAssignments.MAX_BUCKETS, host2weight));
+
+        // only keep the weights of the hosts that were assigned buckets
+        host2weight.keySet().retainAll(asgn.getAllHosts());
+        asgn.setHostWeights(host2weight);
+
+        return asgn;
+    }
+
+    /**
+     * Gets the relative weight of a host. This host's weight comes from its properties,
+     * while the weights of the other hosts come from the current assignments.
+     * 
+     * @param host host of interest
+     * @return the host's weight
+     */
+    protected int getWeight(String host) {
+        if (host.equals(getHost())) {
+            int weight = getProperties().getHostWeight();
+            return (weight > 0 ? weight : BucketAssignments.DEFAULT_WEIGHT);
+        }
+
+        BucketAssignments asgn = getAssignments();
+        return (asgn != null ? asgn.getWeight(host) : BucketAssignments.DEFAULT_WEIGHT);
+    }
+
+    /**
+     * Determines if a host can decode compact messages. This host always can, while the
+     * other hosts' support comes from the current assignments.
+     * 
+     * @param host host of interest
+     * @return {@code true} if the host can decode compact messages, {@code false}
+     *         otherwise
+     */
+    protected boolean isCompact(String host) {
+        if (host.equals(getHost())) {
+            return true;
+        }
+
+        BucketAssignments asgn = getAssignments();
+        return (asgn != null && asgn.isCompact(host));
+    }
+
     /**
      * Makes a bucket array, copying the current assignments, if available.
      * 
@@ -20,6 +20,8 @@
 
 package org.onap.policy.drools.pooling.state;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.TreeSet;
 import org.onap.policy.drools.pooling.PoolingManager;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
@@ -50,6 +52,17 @@ public class QueryState extends ProcessingState {
      */
     private boolean sawSelfIdent = false;
 
+    /**
+     * Maps a host to the weight it reported in its "Identification" message.
+     */
+    private Map<String, Integer> host2weight = new HashMap<>();
+
+    /**
+     * Maps a host to whether or not its "Identification" message indicated that it can
+     * decode compact messages.
+     */
+    private Map<String, Boolean> host2compact = new HashMap<>();
+
     /**
      * Constructor.
      * 
@@ -114,6 +127,8 @@ public class QueryState extends ProcessingState {
 
         } else {
             logger.info("received Ident message from {} on topic {}", msg.getSource(), getTopic());
+            recordWeight(msg.getSource(), msg.getWeight());
+            host2compact.put(msg.getSource(), msg.isCompact());
             recordInfo(msg.getSource(), msg.getAssignments());
         }
 
@@ -156,6 +171,8 @@ public class QueryState extends ProcessingState {
         if (host != null && !host.equals(getHost())) {
             logger.warn("host {} offline on topic {}", host, getTopic());
             alive.remove(host);
+            host2weight.remove(host);
+            host2compact.remove(host);
             setLeader(alive.first());
 
         } else {
@@ -165,6 +182,38 @@ public class QueryState extends ProcessingState {
         return null;
     }
 
+    /**
+     * Records the weight reported by a host.
+     * 
+     * @param source the message's source host
+     * @param weight the weight reported by the host, or zero if it did not report one
+     */
+    private void recordWeight(String source, int weight) {
+        if (source != null && weight > 0) {
+            host2weight.put(source, weight);
+        }
+    }
+
+    /**
+     * Uses the weight reported by the host, if any, otherwise uses the weight from the
+     * assignments.
+     */
+    @Override
+    protected int getWeight(String host) {
+        Integer weight = host2weight.get(host);
+        return (weight != null && !host.equals(getHost()) ? weight : super.getWeight(host));
+    }
+
+    /**
+     * Uses the support reported by the host, if any, otherwise uses the support recorded
+     * in the assignments.
+     */
+    @Override
+    protected boolean isCompact(String host) {
+        Boolean compact = host2compact.get(host);
+        return (compact != null && !host.equals(getHost()) ? compact : super.isCompact(host));
+    }
+
     /**
      * Records info from a message, adding the source host name to {@link #alive}, and
      * updating the bucket assignments.
@@ -0,0 +1,163 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.state;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Assigns buckets to hosts using weighted rendezvous (i.e., highest random weight)
+ * hashing. Each bucket goes to the host having the highest score for that bucket, where
+ * the score is derived from a hash of the host and bucket, scaled by the host's weight.
+ * As a host's scores do not depend on the other hosts, adding a host only moves the
+ * buckets that the new host wins, and removing a host only moves the buckets that it
+ * held. In addition, the assignments depend solely on the hosts and their weights, thus
+ * any leader computes the same assignments, whether or not it knows the previous ones.
+ */
+public class RendezvousAssigner {
+
+    /**
+     * Seed for the FNV-1a hash.
+     */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /**
+     * Multiplier for the FNV-1a hash.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Used to spread the bucket numbers across the 64-bit space.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Used to convert the high 53 bits of a hash into a double in [0, 1).
+     */
+    private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+    /**
+     * Constructor.
+     */
+    private RendezvousAssigner() {
+        // do nothing
+    }
+
+    /**
+     * Assigns buckets to hosts.
+     *
+     * @param nbuckets number of buckets to be assigned
+     * @param host2weight maps each host to its relative weight. Hosts whose weight is not
+     *        positive are not assigned any buckets
+     * @return an array mapping each bucket to its host. Entries are {@code null} if there
+     *         are no hosts having a positive weight
+     */
+    public static String[] assign(int nbuckets, Map<String, Integer> host2weight) {
+        String[] hosts = new String[host2weight.size()];
+        long[] hashes = new long[hosts.length];
+        int[] weights = new int[hosts.length];
+
+        int nhosts = 0;
+        for (Entry<String, Integer> ent : host2weight.entrySet()) {
+            Integer weight = ent.getValue();
+            if (weight != null && weight > 0) {
+                hosts[nhosts] = ent.getKey();
+                hashes[nhosts] = hashHost(ent.getKey());
+                weights[nhosts] = weight;
+                ++nhosts;
+            }
+        }
+
+        String[] bucket2host = new String[nbuckets];
+
+        for (int bucket = 0; bucket < nbuckets; ++bucket) {
+            String best = null;
+            double bestScore = 0;
+
+            for (int x = 0; x < nhosts; ++x) {
+                double score = score(hashes[x], bucket, weights[x]);
+
+                // break ties by host name, so the outcome never depends on map order
+                if (best == null || score > bestScore || (score == bestScore && hosts[x].compareTo(best) < 0)) {
+                    best = hosts[x];
+                    bestScore = score;
+                }
+            }
+
+            bucket2host[bucket] = best;
+        }
+
+        return bucket2host;
+    }
+
+    /**
+     * Computes a host's score for a bucket.
+     *
+     * @param hostHash hash of the host, see {@link #hashHost(String)}
+     * @param bucket bucket number
+     * @param weight host's weight, which must be positive
+     * @return the host's score for the bucket, always positive
+     */
+    protected static double score(long hostHash, int bucket, int weight) {
+        long hash = mix(hostHash ^ (bucket * GOLDEN_GAMMA));
+
+        // uniform in (0, 1), thus the log is always negative
+        double unit = ((hash >>> 11) + 0.5) * DOUBLE_UNIT;
+
+        return -weight / Math.log(unit);
+    }
+
+    /**
+     * Computes the hash of a host name. Uses FNV-1a, rather than
+     * {@link String#hashCode()}, so that similar host names yield dissimilar hashes.
+     *
+     * @param host host name
+     * @return the hash of the host name
+     */
+    protected static long hashHost(String host) {
+        long hash = FNV_OFFSET;
+
+        for (int x = 0; x < host.length(); ++x) {
+            hash ^= host.charAt(x);
+            hash *= FNV_PRIME;
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * Mixes the bits of a hash, using the MurmurHash3 finalizer.
+     *
+     * @param value value to be mixed
+     * @return the mixed value
+     */
+    private static long mix(long value) {
+        long hash = value;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+}
@@ -32,10 +32,12 @@ import org.onap.policy.drools.pooling.PoolingManager;
 import org.onap.policy.drools.pooling.PoolingProperties;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
 import org.onap.policy.drools.pooling.message.Forward;
+import org.onap.policy.drools.pooling.message.ForwardBatch;
 import org.onap.policy.drools.pooling.message.Heartbeat;
 import org.onap.policy.drools.pooling.message.Identification;
 import org.onap.policy.drools.pooling.message.Leader;
 import org.onap.policy.drools.pooling.message.Message;
+import org.onap.policy.drools.pooling.message.MessageVisitor;
 import org.onap.policy.drools.pooling.message.Offline;
 import org.onap.policy.drools.pooling.message.Query;
 import org.slf4j.Logger;
@@ -47,7 +49,7 @@ import org.slf4j.LoggerFactory;
  * <p>A state may have several timers associated with it, which must be cancelled whenever
  * the state is changed. Assumes that timers are not continuously added to the same state.
  */
-public abstract class State {
+public abstract class State implements MessageVisitor<State> {
 
     private static final Logger logger = LoggerFactory.getLogger(State.class);
 
@@ -148,6 +150,7 @@ public abstract class State {
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Forward msg) {
         if (!getHost().equals(msg.getChannel())) {
             logger.info("discard Forward message to {} from {} on topic {}", msg.getChannel(), msg.getSource(),
@@ -160,12 +163,38 @@ public abstract class State {
         return null;
     }
 
+    /**
+     * Processes a message. The default method passes each of the forwarded events, in
+     * order, to the manager to handle and returns {@code null}.
+     * 
+     * @param msg message to be processed
+     * @return the new state, or {@code null} if the state is unchanged
+     */
+    @Override
+    public State process(ForwardBatch msg) {
+        if (!getHost().equals(msg.getChannel())) {
+            logger.info("discard ForwardBatch message to {} from {} on topic {}", msg.getChannel(), msg.getSource(),
+                            getTopic());
+            return null;
+        }
+
+        logger.info("received ForwardBatch message with {} events from {} on topic {}", msg.getForwards().size(),
+                        msg.getSource(), getTopic());
+
+        for (Forward fwd : msg.getForwards()) {
+            mgr.handle(fwd);
+        }
+
+        return null;
+    }
+
     /**
      * Processes a message. The default method just returns {@code null}.
      * 
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Heartbeat msg) {
         logger.info("ignored heartbeat message from {} on topic {}", msg.getSource(), getTopic());
         return null;
@@ -177,6 +206,7 @@ public abstract class State {
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Identification msg) {
         logger.info("ignored ident message from {} on topic {}", msg.getSource(), getTopic());
         return null;
@@ -189,6 +219,7 @@ public abstract class State {
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Leader msg) {
         if (isValid(msg)) {
             logger.info("extract assignments from Leader message from {} on topic {}", msg.getSource(), getTopic());
@@ -204,6 +235,7 @@ public abstract class State {
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Offline msg) {
         logger.info("ignored offline message from {} on topic {}", msg.getSource(), getTopic());
         return null;
@@ -215,6 +247,7 @@ public abstract class State {
      * @param msg message to be processed
      * @return the new state, or {@code null} if the state is unchanged
      */
+    @Override
     public State process(Query msg) {
         logger.info("ignored Query message from {} on topic {}", msg.getSource(), getTopic());
         return null;
@@ -381,7 +414,11 @@ public abstract class State {
      * @return a new message
      */
     protected Identification makeIdentification() {
-        return new Identification(getHost(), getAssignments());
+        Identification msg = new Identification(getHost(), getAssignments());
+        msg.setWeight(getProperties().getHostWeight());
+        msg.setCompact(true);
+
+        return msg;
     }
 
     /**
@@ -618,6 +618,7 @@ public class EndToEndFeatureTest {
             String event = args.getArgument(index++);
 
             if (host.beforeOffer(commType, topic, event)) {
+                host.afterOffer(commType, topic, event, false);
                 return null;
             }
 
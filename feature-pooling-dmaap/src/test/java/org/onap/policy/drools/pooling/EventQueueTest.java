@@ -0,0 +1,239 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+import org.onap.policy.drools.pooling.message.Forward;
+
+public class EventQueueTest {
+
+    private static final int MAX_SIZE = 5;
+    private static final long MAX_AGE_MS = 3000L;
+
+    private static final String MY_SOURCE = "my.source";
+    private static final CommInfrastructure MY_PROTO = CommInfrastructure.UEB;
+    private static final String MY_TOPIC = "my.topic";
+    private static final String MY_PAYLOAD = "my.payload";
+    private static final String MY_REQID = "my.request.id";
+
+    private EventQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new EventQueue(MAX_SIZE, MAX_AGE_MS);
+    }
+
+    @Test
+    public void testClear() {
+        // add some items
+        queue.add(makeActive());
+        queue.add(makeActive());
+
+        assertFalse(queue.isEmpty());
+
+        assertEquals(2, queue.clear());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+
+        // should be able to add again
+        Forward evnew = makeActive();
+        queue.add(evnew);
+        assertEquals(evnew, queue.poll());
+    }
+
+    @Test
+    public void testIsEmpty_testSize() {
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+
+        queue.add(makeActive());
+        assertFalse(queue.isEmpty());
+        assertEquals(1, queue.size());
+
+        queue.add(makeActive());
+        assertEquals(2, queue.size());
+
+        queue.poll();
+        queue.poll();
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testAdd_testPoll() {
+        Forward ev1 = makeActive();
+        Forward ev2 = makeActive();
+        Forward ev3 = makeActive();
+
+        queue.add(ev1);
+        queue.add(ev2);
+        queue.add(ev3);
+
+        // should come back in order
+        assertSame(ev1, queue.poll());
+        assertSame(ev2, queue.poll());
+        assertSame(ev3, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testAdd_Full() {
+        Forward[] events = new Forward[MAX_SIZE + 2];
+        for (int x = 0; x < events.length; ++x) {
+            events[x] = makeActive();
+            queue.add(events[x]);
+        }
+
+        assertEquals(MAX_SIZE, queue.size());
+
+        // the oldest ones should have been discarded
+        for (int x = events.length - MAX_SIZE; x < events.length; ++x) {
+            assertSame(events[x], queue.poll());
+        }
+
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testAdd_Disabled() {
+        queue = new EventQueue(0, MAX_AGE_MS);
+
+        queue.add(makeActive());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testAdd_DiscardsExpired() {
+        // fill the queue with expired events
+        for (int x = 0; x < MAX_SIZE; ++x) {
+            queue.add(makeExpired());
+        }
+
+        // adding an active one should discard all of the expired ones
+        Forward active = makeActive();
+        queue.add(active);
+
+        assertEquals(1, queue.size());
+        assertSame(active, queue.poll());
+    }
+
+    @Test
+    public void testAddIfNotEmpty() {
+        Forward ev1 = makeActive();
+        Forward ev2 = makeActive();
+
+        // empty - should not be added
+        assertFalse(queue.addIfNotEmpty(ev1));
+        assertTrue(queue.isEmpty());
+
+        queue.add(ev1);
+
+        // not empty - should be added behind the other
+        assertTrue(queue.addIfNotEmpty(ev2));
+        assertSame(ev1, queue.poll());
+        assertSame(ev2, queue.poll());
+    }
+
+    @Test
+    public void testPoll_Expired() {
+        Forward ev1 = makeActive();
+        Forward ev2 = makeActive();
+
+        queue.add(makeExpired());
+        queue.add(ev1);
+        queue.add(makeExpired());
+        queue.add(ev2);
+
+        // leading expired event should be skipped
+        assertSame(ev1, queue.poll());
+
+        // expired event between them should also be skipped
+        assertSame(ev2, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void testPollPredicate() {
+        Forward ev1 = makeActive();
+        Forward ev2 = makeActive();
+
+        assertNull(queue.poll(event -> true));
+        assertFalse(queue.hasReady(event -> true));
+
+        queue.add(makeExpired());
+        queue.add(ev1);
+        queue.add(ev2);
+
+        // oldest isn't ready - nothing should be returned, even though the next one is
+        assertFalse(queue.hasReady(event -> event == ev2));
+        assertNull(queue.poll(event -> event == ev2));
+        assertEquals(2, queue.size());
+
+        // expired event should be skipped
+        assertTrue(queue.hasReady(event -> true));
+        assertSame(ev1, queue.poll(event -> true));
+        assertSame(ev2, queue.poll(event -> true));
+        assertNull(queue.poll(event -> true));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPoll_AllExpired() {
+        queue.add(makeActive());
+        queue.poll();
+
+        queue.add(makeExpired());
+        queue.add(makeExpired());
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Makes an event that has not expired.
+     *
+     * @return a new event
+     */
+    private Forward makeActive() {
+        return new Forward(MY_SOURCE, MY_PROTO, MY_TOPIC, MY_PAYLOAD, MY_REQID);
+    }
+
+    /**
+     * Makes an event that has expired.
+     *
+     * @return a new event
+     */
+    private Forward makeExpired() {
+        Forward event = makeActive();
+        event.setCreateTimeMs(System.currentTimeMillis() - MAX_AGE_MS - 1000);
+
+        return event;
+    }
+}
@@ -638,6 +638,7 @@ public class FeatureTest {
             String event = args.getArgument(index++);
 
             if (host.beforeOffer(commType, topic, event)) {
+                host.afterOffer(commType, topic, event, false);
                 return null;
             }
 
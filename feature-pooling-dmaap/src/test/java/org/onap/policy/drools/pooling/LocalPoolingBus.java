@@ -0,0 +1,555 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.onap.policy.common.endpoints.event.comm.FilterableTopicSource;
+import org.onap.policy.common.endpoints.event.comm.Topic;
+import org.onap.policy.common.endpoints.event.comm.TopicListener;
+import org.onap.policy.common.endpoints.event.comm.TopicSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory stand-in for the internal DMaaP topic, allowing several pooling managers to
+ * communicate within a single JVM. Each manager is given its own {@link Source} and
+ * {@link Sink}. A message sent to any sink is delivered, after a fixed latency, to every
+ * registered source whose filter accepts the message, unless the message is "lost".
+ * Sources honor the same server-side filters that DMaaP does, thus a manager only sees
+ * the messages it would see on a real topic. Losses are decided independently for each
+ * source, using a seeded generator, so that runs can be repeated.
+ */
+public class LocalPoolingBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalPoolingBus.class);
+
+    // filter element names, as generated by FilterUtils
+    private static final String JSON_CLASS = "class";
+    private static final String JSON_FILTERS = "filters";
+    private static final String JSON_FIELD = "field";
+    private static final String JSON_VALUE = "value";
+
+    // values of the "class" element
+    private static final String CLASS_OR = "Or";
+    private static final String CLASS_AND = "And";
+    private static final String CLASS_EQUALS = "Equals";
+
+    /**
+     * Used to decode messages and filters.
+     */
+    private static final Gson gson = new Gson();
+
+    /**
+     * Name of the topic.
+     */
+    private final String topic;
+
+    /**
+     * Time, in milliseconds, between a message being sent and it being delivered.
+     */
+    private final long latencyMs;
+
+    /**
+     * Probability, between 0 and 1, that a message is lost on its way to a given source.
+     */
+    private final double lossRate;
+
+    /**
+     * Decides which messages are lost. Guarded by itself.
+     */
+    private final Random random;
+
+    /**
+     * Sources that currently have a registered listener.
+     */
+    private final List<Source> sources = new CopyOnWriteArrayList<>();
+
+    // statistics
+    private final AtomicLong numSent = new AtomicLong(0);
+    private final AtomicLong numDelivered = new AtomicLong(0);
+    private final AtomicLong numFiltered = new AtomicLong(0);
+    private final AtomicLong numLost = new AtomicLong(0);
+
+    /**
+     * Constructs the bus.
+     *
+     * @param topic name of the topic
+     * @param latencyMs time, in milliseconds, between a message being sent and it being
+     *        delivered
+     * @param lossRate probability, between 0 and 1, that a message is lost on its way to
+     *        a given source
+     * @param seed seed used to decide which messages are lost
+     */
+    public LocalPoolingBus(String topic, long latencyMs, double lossRate, long seed) {
+        this.topic = topic;
+        this.latencyMs = latencyMs;
+        this.lossRate = lossRate;
+        this.random = new Random(seed);
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public long getSent() {
+        return numSent.get();
+    }
+
+    public long getDelivered() {
+        return numDelivered.get();
+    }
+
+    public long getFiltered() {
+        return numFiltered.get();
+    }
+
+    public long getLost() {
+        return numLost.get();
+    }
+
+    /**
+     * Makes a new source, which receives nothing until a listener is registered with it.
+     *
+     * @return a new source
+     */
+    public Source makeSource() {
+        return new Source();
+    }
+
+    /**
+     * Makes a new sink.
+     *
+     * @return a new sink
+     */
+    public Sink makeSink() {
+        return new Sink();
+    }
+
+    /**
+     * Stops all of the sources, discarding any messages that have not been delivered.
+     */
+    public void shutdown() {
+        sources.forEach(Source::shutdown);
+    }
+
+    /**
+     * Sends a message to every registered source whose filter accepts it.
+     *
+     * @param message message to be sent
+     */
+    private void send(String message) {
+        numSent.incrementAndGet();
+
+        JsonObject json = toJsonObject(message);
+        long deliverNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyMs);
+
+        for (Source source : sources) {
+            if (!source.accepts(json)) {
+                numFiltered.incrementAndGet();
+
+            } else if (isLost()) {
+                numLost.incrementAndGet();
+
+            } else {
+                source.enqueue(new Delivery(deliverNs, message));
+            }
+        }
+    }
+
+    /**
+     * Determines if the next message should be lost.
+     *
+     * @return {@code true} if the message should be lost, {@code false} otherwise
+     */
+    private boolean isLost() {
+        if (lossRate <= 0) {
+            return false;
+        }
+
+        synchronized (random) {
+            return (random.nextDouble() < lossRate);
+        }
+    }
+
+    /**
+     * Decodes a message or filter into a JSON object.
+     *
+     * @param text text to be decoded
+     * @return the decoded object, or {@code null} if the text is not a JSON object
+     */
+    private static JsonObject toJsonObject(String text) {
+        try {
+            JsonElement json = gson.fromJson(text, JsonElement.class);
+            return (json != null && json.isJsonObject() ? json.getAsJsonObject() : null);
+
+        } catch (JsonParseException e) {
+            logger.warn("cannot decode {}", text, e);
+            return null;
+        }
+    }
+
+    /**
+     * Determines if a message satisfies a filter.
+     *
+     * @param filter filter to be applied
+     * @param message message to be checked
+     * @return {@code true} if the message satisfies the filter, {@code false} otherwise
+     * @throws IllegalArgumentException if the filter is invalid
+     */
+    protected static boolean matches(JsonObject filter, JsonObject message) {
+        String clazz = getString(filter, JSON_CLASS);
+
+        if (CLASS_EQUALS.equals(clazz)) {
+            String value = getString(filter, JSON_VALUE);
+            return (value != null && value.equals(getString(message, getString(filter, JSON_FIELD))));
+        }
+
+        JsonElement filters = filter.get(JSON_FILTERS);
+        if (filters == null || !filters.isJsonArray()) {
+            throw new IllegalArgumentException("invalid filter: " + filter);
+        }
+
+        JsonArray items = filters.getAsJsonArray();
+
+        if (CLASS_OR.equals(clazz)) {
+            for (JsonElement item : items) {
+                if (matches(item.getAsJsonObject(), message)) {
+                    return true;
+                }
+            }
+
+            return false;
+
+        } else if (CLASS_AND.equals(clazz)) {
+            for (JsonElement item : items) {
+                if (!matches(item.getAsJsonObject(), message)) {
+                    return false;
+                }
+            }
+
+            return true;
+
+        } else {
+            throw new IllegalArgumentException("unknown filter class: " + clazz);
+        }
+    }
+
+    /**
+     * Gets the value of a primitive field within an object.
+     *
+     * @param json object containing the field, or {@code null}
+     * @param field name of the field, or {@code null}
+     * @return the field's value, as a string, or {@code null} if the field does not exist
+     *         or is not a primitive
+     */
+    private static String getString(JsonObject json, String field) {
+        if (json == null || field == null) {
+            return null;
+        }
+
+        JsonElement value = json.get(field);
+        return (value != null && value.isJsonPrimitive() ? value.getAsString() : null);
+    }
+
+    /**
+     * Message awaiting delivery to a source.
+     */
+    private static class Delivery {
+
+        /**
+         * Time, as returned by {@link System#nanoTime()}, at which the message should be
+         * delivered.
+         */
+        private final long deliverNs;
+
+        private final String message;
+
+        public Delivery(long deliverNs, String message) {
+            this.deliverNs = deliverNs;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Source, from which a single listener consumes the messages that pass its filter.
+     * Messages are delivered, in the order they were sent, by a thread dedicated to the
+     * listener.
+     */
+    public class Source extends BaseTopic implements FilterableTopicSource {
+
+        /**
+         * Current filter, or {@code null} if all messages are accepted.
+         */
+        private volatile JsonObject filter = null;
+
+        /**
+         * Messages awaiting delivery to the current listener.
+         */
+        private volatile BlockingQueue<Delivery> queue = null;
+
+        /**
+         * Thread delivering messages to the current listener, or {@code null} if no
+         * listener is registered.
+         */
+        private Thread consumer = null;
+
+        @Override
+        public void setFilter(String filter) {
+            JsonObject json = null;
+
+            if (filter != null) {
+                json = toJsonObject(filter);
+                if (json == null) {
+                    throw new IllegalArgumentException("invalid filter: " + filter);
+                }
+
+                // verify that the filter can be applied
+                matches(json, new JsonObject());
+            }
+
+            this.filter = json;
+        }
+
+        @Override
+        public boolean offer(String event) {
+            throw new UnsupportedOperationException("offer topic source");
+        }
+
+        /**
+         * Registers a listener, replacing any listener that was previously registered.
+         */
+        @Override
+        public synchronized void register(TopicListener listener) {
+            unregister(null);
+
+            BlockingQueue<Delivery> newq = new LinkedBlockingQueue<>();
+            queue = newq;
+
+            consumer = new Thread(() -> deliver(listener, newq), "local-bus-" + topic);
+            consumer.setDaemon(true);
+            consumer.start();
+
+            sources.add(this);
+        }
+
+        /**
+         * Unregisters the current listener, discarding any messages that have not yet
+         * been delivered to it.
+         */
+        @Override
+        public synchronized void unregister(TopicListener listener) {
+            sources.remove(this);
+            queue = null;
+
+            if (consumer == null) {
+                return;
+            }
+
+            consumer.interrupt();
+
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(2));
+
+            } catch (InterruptedException e) {
+                logger.warn("consumer for topic {} may still be running", topic, e);
+                Thread.currentThread().interrupt();
+            }
+
+            consumer = null;
+        }
+
+        @Override
+        public synchronized boolean stop() {
+            unregister(null);
+            return super.stop();
+        }
+
+        /**
+         * Determines if this source accepts a message.
+         *
+         * @param message message to be checked, or {@code null} if it could not be
+         *        decoded
+         * @return {@code true} if the message is accepted, {@code false} otherwise
+         */
+        private boolean accepts(JsonObject message) {
+            JsonObject filt = filter;
+
+            if (filt == null) {
+                return true;
+            }
+
+            return (message != null && matches(filt, message));
+        }
+
+        /**
+         * Adds a message to the queue for the current listener.
+         *
+         * @param delivery message to be delivered
+         */
+        private void enqueue(Delivery delivery) {
+            BlockingQueue<Delivery> curq = queue;
+            if (curq != null) {
+                curq.add(delivery);
+            }
+        }
+
+        /**
+         * Delivers messages to a listener, once their time has come, until interrupted.
+         *
+         * @param listener listener to which messages should be delivered
+         * @param queue queue from which to take the messages
+         */
+        private void deliver(TopicListener listener, BlockingQueue<Delivery> queue) {
+            try {
+                for (;;) {
+                    Delivery delivery = queue.take();
+
+                    long waitNs = delivery.deliverNs - System.nanoTime();
+                    if (waitNs > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNs);
+                    }
+
+                    numDelivered.incrementAndGet();
+
+                    try {
+                        listener.onTopicEvent(CommInfrastructure.UEB, topic, delivery.message);
+
+                    } catch (RuntimeException e) {
+                        logger.warn("listener for topic {} threw an exception", topic, e);
+                    }
+                }
+
+            } catch (InterruptedException e) {
+                logger.info("stopped delivering messages for topic {}", topic);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Sink, which sends messages to all of the sources.
+     */
+    public class Sink extends BaseTopic implements TopicSink {
+
+        @Override
+        public boolean send(String message) {
+            if (!isAlive()) {
+                return false;
+            }
+
+            LocalPoolingBus.this.send(message);
+            return true;
+        }
+    }
+
+    /**
+     * Topic implementation shared by the sources and sinks. Topics are alive from the
+     * time they are created until they are stopped.
+     */
+    private class BaseTopic implements Topic {
+
+        private volatile boolean alive = true;
+
+        @Override
+        public String getTopic() {
+            return topic;
+        }
+
+        @Override
+        public String getEffectiveTopic() {
+            return topic;
+        }
+
+        @Override
+        public CommInfrastructure getTopicCommInfrastructure() {
+            return CommInfrastructure.UEB;
+        }
+
+        @Override
+        public List<String> getServers() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String[] getRecentEvents() {
+            return new String[0];
+        }
+
+        @Override
+        public void register(TopicListener topicListener) {
+            throw new UnsupportedOperationException("register topic");
+        }
+
+        @Override
+        public void unregister(TopicListener topicListener) {
+            throw new UnsupportedOperationException("unregister topic");
+        }
+
+        @Override
+        public boolean start() {
+            alive = true;
+            return true;
+        }
+
+        @Override
+        public boolean stop() {
+            alive = false;
+            return true;
+        }
+
+        @Override
+        public void shutdown() {
+            stop();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return alive;
+        }
+
+        @Override
+        public boolean lock() {
+            return false;
+        }
+
+        @Override
+        public boolean unlock() {
+            return false;
+        }
+
+        @Override
+        public boolean isLocked() {
+            return false;
+        }
+    }
+}
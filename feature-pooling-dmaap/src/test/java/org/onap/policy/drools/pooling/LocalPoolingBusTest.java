@@ -0,0 +1,252 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.onap.policy.drools.pooling.state.FilterUtils.MSG_CHANNEL;
+import static org.onap.policy.drools.pooling.state.FilterUtils.MSG_TIMESTAMP;
+import static org.onap.policy.drools.pooling.state.FilterUtils.makeAnd;
+import static org.onap.policy.drools.pooling.state.FilterUtils.makeEquals;
+import static org.onap.policy.drools.pooling.state.FilterUtils.makeOr;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+import org.onap.policy.common.endpoints.event.comm.TopicListener;
+import org.onap.policy.drools.pooling.LocalPoolingBus.Sink;
+import org.onap.policy.drools.pooling.LocalPoolingBus.Source;
+import org.onap.policy.drools.pooling.message.Message;
+
+public class LocalPoolingBusTest {
+
+    private static final String TOPIC = "my.topic";
+    private static final String HOST1 = "hostA";
+    private static final String HOST2 = "hostB";
+
+    private static final String MSG_ADMIN = makeMessage(Message.ADMIN);
+    private static final String MSG_HOST1 = makeMessage(HOST1);
+    private static final String MSG_HOST2 = makeMessage(HOST2);
+
+    private static final long WAIT_MS = 2000;
+
+    private final Serializer serializer = new Serializer();
+
+    private LocalPoolingBus bus;
+
+    /**
+     * Setup.
+     */
+    @Before
+    public void setUp() {
+        bus = new LocalPoolingBus(TOPIC, 0, 0.0, 1);
+    }
+
+    @After
+    public void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    public void testSend() throws Exception {
+        BlockingQueue<String> queue1 = new LinkedBlockingQueue<>();
+        BlockingQueue<String> queue2 = new LinkedBlockingQueue<>();
+
+        bus.makeSource().register(makeListener(queue1));
+        bus.makeSource().register(makeListener(queue2));
+
+        assertTrue(bus.makeSink().send(MSG_HOST1));
+
+        assertEquals(MSG_HOST1, queue1.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(MSG_HOST1, queue2.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+
+        assertEquals(1, bus.getSent());
+        assertEquals(2, bus.getDelivered());
+    }
+
+    @Test
+    public void testSend_InOrder() throws Exception {
+        bus = new LocalPoolingBus(TOPIC, 5, 0.0, 1);
+
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        bus.makeSource().register(makeListener(queue));
+
+        Sink sink = bus.makeSink();
+        sink.send(MSG_ADMIN);
+        sink.send(MSG_HOST1);
+        sink.send(MSG_HOST2);
+
+        assertEquals(MSG_ADMIN, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(MSG_HOST1, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(MSG_HOST2, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSend_Latency() throws Exception {
+        bus = new LocalPoolingBus(TOPIC, 100, 0.0, 1);
+
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        bus.makeSource().register(makeListener(queue));
+
+        long tbegin = System.currentTimeMillis();
+        bus.makeSink().send(MSG_HOST1);
+
+        assertEquals(MSG_HOST1, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(System.currentTimeMillis() - tbegin >= 100);
+    }
+
+    @Test
+    public void testSend_Loss() throws Exception {
+        assertEquals(countReceived(0.5, 7), countReceived(0.5, 7));
+
+        int nreceived = countReceived(0.5, 7);
+        assertTrue("received=" + nreceived, nreceived > 0 && nreceived < 100);
+
+        assertEquals(0, countReceived(1.0, 7));
+        assertEquals(100, countReceived(0.0, 7));
+    }
+
+    @Test
+    public void testSend_NoListener() throws Exception {
+        Source source = bus.makeSource();
+
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        source.register(makeListener(queue));
+        source.unregister(null);
+
+        // sent while unregistered - should not be delivered
+        bus.makeSink().send(MSG_HOST1);
+
+        source.register(makeListener(queue));
+        bus.makeSink().send(MSG_HOST2);
+
+        assertEquals(MSG_HOST2, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testSend_Stopped() {
+        Sink sink = bus.makeSink();
+        assertTrue(sink.isAlive());
+
+        sink.stop();
+        assertFalse(sink.isAlive());
+        assertFalse(sink.send(MSG_HOST1));
+        assertEquals(0, bus.getSent());
+
+        sink.start();
+        assertTrue(sink.send(MSG_HOST1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSetFilter() throws Exception {
+        BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+
+        Source source = bus.makeSource();
+        source.setFilter(serializer.encodeFilter(makeOr(makeEquals(MSG_CHANNEL, Message.ADMIN),
+                        makeAnd(makeEquals(MSG_CHANNEL, HOST1), makeEquals(MSG_TIMESTAMP, "10")))));
+        source.register(makeListener(queue));
+
+        Sink sink = bus.makeSink();
+        sink.send(MSG_HOST2);
+        sink.send(MSG_HOST1.replace("10", "20"));
+        sink.send("not json");
+        sink.send(MSG_ADMIN);
+        sink.send(MSG_HOST1);
+
+        assertEquals(MSG_ADMIN, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertEquals(MSG_HOST1, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertTrue(queue.isEmpty());
+        assertEquals(3, bus.getFiltered());
+
+        // remove the filter
+        source.setFilter(null);
+        sink.send(MSG_HOST2);
+        assertEquals(MSG_HOST2, queue.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSetFilter_Invalid() {
+        Source source = bus.makeSource();
+
+        assertThatThrownBy(() -> source.setFilter("not json")).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> source.setFilter("{\"class\":\"Unknown\",\"filters\":[]}"))
+                        .isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> source.setFilter("{\"class\":\"Or\"}"))
+                        .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Counts the number of messages received by a source, out of 100 that were sent.
+     *
+     * @param lossRate loss rate of the bus
+     * @param seed seed for the bus' random number generator
+     * @return the number of messages received
+     * @throws InterruptedException if interrupted
+     */
+    private int countReceived(double lossRate, long seed) throws InterruptedException {
+        LocalPoolingBus bus2 = new LocalPoolingBus(TOPIC, 0, lossRate, seed);
+
+        try {
+            BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+            bus2.makeSource().register(makeListener(queue));
+
+            Sink sink = bus2.makeSink();
+            for (int x = 0; x < 100; ++x) {
+                sink.send(MSG_HOST1);
+            }
+
+            // everything is either delivered or lost
+            long tend = System.currentTimeMillis() + WAIT_MS;
+            while (bus2.getDelivered() + bus2.getLost() < 100 && System.currentTimeMillis() < tend) {
+                Thread.sleep(5);
+            }
+
+            assertEquals(100, bus2.getDelivered() + bus2.getLost());
+
+            return (int) bus2.getDelivered();
+
+        } finally {
+            bus2.shutdown();
+        }
+    }
+
+    private TopicListener makeListener(BlockingQueue<String> queue) {
+        return (commType, topic, event) -> {
+            assertEquals(CommInfrastructure.UEB, commType);
+            assertEquals(TOPIC, topic);
+            queue.add(event);
+        };
+    }
+
+    private static String makeMessage(String channel) {
+        return "{\"channel\":\"" + channel + "\",\"timestampMs\":10}";
+    }
+}
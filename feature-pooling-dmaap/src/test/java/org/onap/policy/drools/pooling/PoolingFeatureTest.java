@@ -422,6 +422,7 @@ public class PoolingFeatureTest {
 
         // this should clear them
         assertFalse(pool.afterOffer(controller1, CommInfrastructure.UEB, TOPIC2, EVENT2, true));
+        verify(mgr1).afterOffer(EVENT2);
 
         assertFalse(pool.beforeInsert(drools1, OBJECT1));
         verify(mgr1, never()).beforeInsert(any(), any(), any(), any());
@@ -0,0 +1,498 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+import org.onap.policy.common.endpoints.event.comm.TopicListener;
+import org.onap.policy.common.endpoints.event.comm.TopicSink;
+import org.onap.policy.common.endpoints.event.comm.TopicSource;
+import org.onap.policy.common.utils.properties.exception.PropertyException;
+import org.onap.policy.drools.controller.DroolsController;
+import org.onap.policy.drools.pooling.message.BucketAssignments;
+import org.onap.policy.drools.system.PolicyController;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load harness for the pooling feature. Runs several pooling managers, each simulating a
+ * separate host, within a single JVM, communicating via a {@link LocalPoolingBus} rather
+ * than a real DMaaP topic. Measures the time for the hosts to agree on the bucket
+ * assignments, both at start-up and as hosts join and leave, the throughput with which
+ * external events are routed to their assigned hosts, and the number of events that are
+ * lost along the way.
+ *
+ * <p>The tests are skipped unless requested via -Dpooling.load.run=true. The defaults keep
+ * the run short. Larger runs may be requested via system properties, for example:
+ *
+ * <pre>
+ * <code>mvn test -Dtest=PoolingLoadTest -Dpooling.load.run=true -Dpooling.load.hosts=8
+ *      -Dpooling.load.events=100000 -Dpooling.load.latency.milliseconds=20 -Dpooling.load.loss=0.001</code>
+ * </pre>
+ *
+ * <p>The heart beat and reactivation intervals may be overridden in the same way, using
+ * the feature's own property names (e.g., -Dpooling.inter.heartbeat.milliseconds=100).
+ */
+public class PoolingLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PoolingLoadTest.class);
+
+    private static final String LOAD_PREFIX = "pooling.load.";
+
+    private static final String INTERNAL_TOPIC = "my.internal.topic";
+    private static final String EXTERNAL_TOPIC = "my.external.topic";
+    private static final String CONTROLLER1 = "controller.one";
+
+    private static final int NHOSTS = Integer.getInteger(LOAD_PREFIX + "hosts", 3);
+    private static final int NEVENTS = Integer.getInteger(LOAD_PREFIX + "events", 2000);
+    private static final long LATENCY_MS = Long.getLong(LOAD_PREFIX + "latency.milliseconds", 1);
+    private static final double LOSS_RATE = Double.parseDouble(System.getProperty(LOAD_PREFIX + "loss", "0"));
+    private static final long SEED = Long.getLong(LOAD_PREFIX + "seed", 1);
+
+    /**
+     * Maximum time, in milliseconds, to wait for the hosts to agree on the assignments,
+     * or for the events to be processed.
+     */
+    private static final long MAX_WAIT_MS = Long.getLong(LOAD_PREFIX + "wait.milliseconds", 20000);
+
+    /**
+     * Time, in milliseconds, between checks of the hosts' assignments.
+     */
+    private static final long POLL_MS = 2;
+
+    /**
+     * Feature properties, used by every host. The intervals are those used by
+     * {@link FeatureTest}, unless overridden via system properties.
+     */
+    private static final Properties featProps = new Properties();
+
+    static {
+        featProps.setProperty(PoolingProperties.POOLING_TOPIC, INTERNAL_TOPIC);
+        featProps.setProperty(PoolingProperties.PROP_TOPIC_EXTRACTOR_PREFIX + "." + EXTERNAL_TOPIC, "$.reqid");
+
+        setProperty(PoolingProperties.OFFLINE_LIMIT, "10000");
+        setProperty(PoolingProperties.OFFLINE_AGE_MS, "1000000");
+        setProperty(PoolingProperties.OFFLINE_PUB_WAIT_MS, "2");
+        setProperty(PoolingProperties.START_HEARTBEAT_MS, "60");
+        setProperty(PoolingProperties.REACTIVATE_MS, "200");
+        setProperty(PoolingProperties.IDENTIFICATION_MS, "60");
+        setProperty(PoolingProperties.ACTIVE_HEARTBEAT_MS, "50");
+        setProperty(PoolingProperties.INTER_HEARTBEAT_MS, "5");
+        setProperty(PoolingProperties.ASSIGNMENT_STRATEGY, PoolingProperties.STRATEGY_BALANCED);
+        setProperty(PoolingProperties.FORWARD_BATCH_SIZE, "1");
+        setProperty(PoolingProperties.FORWARD_BATCH_MS, "5");
+    }
+
+    /**
+     * Bus connecting the hosts.
+     */
+    private LocalPoolingBus bus;
+
+    /**
+     * Hosts that have been started, and not yet stopped.
+     */
+    private List<Host> hosts;
+
+    /**
+     * Number of hosts created so far, used to name the next host.
+     */
+    private int nextHost;
+
+    /**
+     * Maps an event to the number of times it has been processed.
+     */
+    private ConcurrentMap<String, AtomicInteger> event2count;
+
+    /**
+     * Counts down as each event is processed for the first time.
+     */
+    private CountDownLatch remaining;
+
+    /**
+     * Skips the load tests unless they were requested, as they take too long to be run
+     * by every build.
+     */
+    @BeforeClass
+    public static void setUpBeforeClass() {
+        assumeTrue("load tests not requested via -D" + LOAD_PREFIX + "run=true",
+                        Boolean.getBoolean(LOAD_PREFIX + "run"));
+    }
+
+    /**
+     * Setup.
+     */
+    @Before
+    public void setUp() {
+        bus = new LocalPoolingBus(INTERNAL_TOPIC, LATENCY_MS, LOSS_RATE, SEED);
+        hosts = new ArrayList<>();
+        nextHost = 0;
+        event2count = new ConcurrentHashMap<>();
+        remaining = new CountDownLatch(0);
+
+        logger.info("load: hosts={} events={} latency={}ms loss={}", NHOSTS, NEVENTS, LATENCY_MS, LOSS_RATE);
+    }
+
+    /**
+     * Tear down.
+     */
+    @After
+    public void tearDown() {
+        hosts.forEach(Host::stop);
+        bus.shutdown();
+    }
+
+    @Test
+    public void testStartup() throws Exception {
+        long elapsed = startHosts(NHOSTS);
+        logger.info("load: {} hosts agreed on assignments after {}ms", NHOSTS, elapsed);
+
+        assertTrue("hosts never agreed", elapsed >= 0 || LOSS_RATE > 0);
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        startHosts(NHOSTS);
+
+        long elapsed = routeEvents(NEVENTS);
+        long processed = NEVENTS - remaining.getCount();
+
+        logger.info("load: processed {} of {} events in {}ms ({} events/s), {} duplicates, {} bus messages",
+                        processed, NEVENTS, elapsed, processed * 1000 / Math.max(1, elapsed), countDuplicates(),
+                        bus.getSent());
+
+        if (LOSS_RATE <= 0) {
+            assertEquals(NEVENTS, processed);
+            assertEquals(0, countDuplicates());
+        }
+    }
+
+    @Test
+    public void testRebalance() throws Exception {
+        startHosts(NHOSTS);
+
+        // add a host
+        Host added = addHost();
+        long joined = awaitAgreement();
+        logger.info("load: assignments rebalanced {}ms after {} joined", joined, added.getName());
+
+        // remove the first host, which is likely the leader
+        Host removed = hosts.remove(0);
+        removed.stop();
+        long left = awaitAgreement();
+        logger.info("load: assignments rebalanced {}ms after {} left", left, removed.getName());
+
+        // events should still reach the remaining hosts
+        long elapsed = routeEvents(NEVENTS);
+        logger.info("load: processed {} of {} events in {}ms after rebalancing", NEVENTS - remaining.getCount(),
+                        NEVENTS, elapsed);
+
+        if (LOSS_RATE <= 0) {
+            assertTrue("no agreement after join", joined >= 0);
+            assertTrue("no agreement after leave", left >= 0);
+            assertEquals(0, remaining.getCount());
+        }
+    }
+
+    /**
+     * Sets a feature property, allowing it to be overridden by a system property having
+     * the same name.
+     *
+     * @param name property name
+     * @param value default value
+     */
+    private static void setProperty(String name, String value) {
+        featProps.setProperty(name, System.getProperty(name, value));
+    }
+
+    /**
+     * Creates and starts hosts, and waits for them to agree on the bucket assignments.
+     *
+     * @param count number of hosts to start
+     * @return the time, in milliseconds, for the hosts to agree, or -1 if they didn't
+     * @throws InterruptedException if interrupted
+     */
+    private long startHosts(int count) throws InterruptedException {
+        for (int x = 0; x < count; ++x) {
+            addHost();
+        }
+
+        return awaitAgreement();
+    }
+
+    /**
+     * Creates and starts a new host.
+     *
+     * @return the new host
+     */
+    private Host addHost() {
+        Host host = new Host(String.format("host-%03d", nextHost++));
+        hosts.add(host);
+        host.start();
+
+        return host;
+    }
+
+    /**
+     * Waits for all of the hosts to agree on the bucket assignments, where every bucket
+     * is assigned to one of the hosts that is running.
+     *
+     * @return the time, in milliseconds, for the hosts to agree, or -1 if they didn't
+     * @throws InterruptedException if interrupted
+     */
+    private long awaitAgreement() throws InterruptedException {
+        long tbegin = System.currentTimeMillis();
+        long tend = tbegin + MAX_WAIT_MS;
+
+        for (long tcur = tbegin; tcur < tend; tcur = System.currentTimeMillis()) {
+            if (hostsAgree()) {
+                return (tcur - tbegin);
+            }
+
+            Thread.sleep(POLL_MS);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Determines if all of the hosts agree on the bucket assignments.
+     *
+     * @return {@code true} if the hosts agree, {@code false} otherwise
+     */
+    private boolean hostsAgree() {
+        Set<String> names = new HashSet<>();
+        hosts.forEach(host -> names.add(host.getName()));
+
+        String[] expected = null;
+
+        for (Host host : hosts) {
+            BucketAssignments asgn = host.getAssignments();
+            if (asgn == null || asgn.size() == 0) {
+                return false;
+            }
+
+            String[] actual = asgn.getHostArray();
+            if (!names.equals(asgn.getAllHosts()) || Arrays.asList(actual).contains(null)) {
+                return false;
+            }
+
+            if (expected != null && !Arrays.equals(expected, actual)) {
+                return false;
+            }
+
+            expected = actual;
+        }
+
+        return true;
+    }
+
+    /**
+     * Offers events to the hosts, as an external topic would, dividing them among the
+     * hosts, each of which receives its share on its own thread. Waits for all of the
+     * events to be processed.
+     *
+     * @param count number of events to offer
+     * @return the time, in milliseconds, until all of the events were processed, or until
+     *         the wait was abandoned
+     * @throws InterruptedException if interrupted
+     */
+    private long routeEvents(int count) throws InterruptedException {
+        event2count.clear();
+        remaining = new CountDownLatch(count);
+
+        int nthreads = hosts.size();
+        List<Thread> threads = new ArrayList<>(nthreads);
+
+        for (int x = 0; x < nthreads; ++x) {
+            Host host = hosts.get(x);
+            int first = x;
+
+            threads.add(new Thread(() -> {
+                for (int reqnum = first; reqnum < count; reqnum += nthreads) {
+                    host.offer("{\"reqid\":\"req" + reqnum + "\", \"data\":\"hello " + reqnum + "\"}");
+                }
+            }));
+        }
+
+        long tbegin = System.currentTimeMillis();
+
+        threads.forEach(Thread::start);
+        remaining.await(MAX_WAIT_MS, TimeUnit.MILLISECONDS);
+
+        long elapsed = System.currentTimeMillis() - tbegin;
+
+        for (Thread thread : threads) {
+            thread.join(MAX_WAIT_MS);
+        }
+
+        return elapsed;
+    }
+
+    /**
+     * Records that an event has been processed by one of the hosts.
+     *
+     * @param event event that was processed
+     */
+    private void processed(String event) {
+        if (event2count.computeIfAbsent(event, key -> new AtomicInteger(0)).incrementAndGet() == 1) {
+            remaining.countDown();
+        }
+    }
+
+    /**
+     * Counts the number of times events were processed more than once.
+     *
+     * @return the number of duplicates
+     */
+    private int countDuplicates() {
+        return event2count.values().stream().mapToInt(count -> count.get() - 1).sum();
+    }
+
+    /**
+     * Simulates a single host, consisting of a controller and its pooling manager.
+     */
+    private class Host {
+
+        private final ListenerController controller = mock(ListenerController.class);
+        private final PoolingManagerImpl mgr;
+
+        /**
+         * Constructor.
+         *
+         * @param name host name
+         */
+        public Host(String name) {
+            DroolsController drools = mock(DroolsController.class);
+
+            when(controller.getName()).thenReturn(CONTROLLER1);
+            when(controller.getDrools()).thenReturn(drools);
+
+            // events injected by the manager are processed by this host
+            doAnswer(args -> {
+                String event = args.getArgument(2);
+                processed(event);
+                mgr.afterOffer(event);
+                return null;
+            }).when(controller).onTopicEvent(any(), any(), any());
+
+            try {
+                mgr = new BusPoolingManager(name, controller, new PoolingProperties(CONTROLLER1, featProps));
+
+            } catch (PropertyException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        public String getName() {
+            return mgr.getHost();
+        }
+
+        public BucketAssignments getAssignments() {
+            return mgr.getAssignments();
+        }
+
+        public void start() {
+            mgr.beforeStart();
+            mgr.afterStart();
+        }
+
+        public void stop() {
+            mgr.beforeStop();
+            mgr.afterStop();
+        }
+
+        /**
+         * Offers an event from the external topic, processing it locally if the manager
+         * does not route it elsewhere.
+         *
+         * @param event event
+         */
+        public void offer(String event) {
+            if (!mgr.beforeOffer(CommInfrastructure.UEB, EXTERNAL_TOPIC, event)) {
+                processed(event);
+            }
+        }
+    }
+
+    /**
+     * Pooling manager whose DMaaP manager is connected to the {@link #bus}.
+     */
+    private class BusPoolingManager extends PoolingManagerImpl {
+
+        public BusPoolingManager(String host, PolicyController controller, PoolingProperties props) {
+            super(host, controller, props, new CountDownLatch(1));
+        }
+
+        @Override
+        protected DmaapManager makeDmaapManager(String topic) throws PoolingFeatureException {
+            return new BusDmaapManager(topic);
+        }
+    }
+
+    /**
+     * DMaaP manager that uses a source and sink connected to the {@link #bus}.
+     */
+    private class BusDmaapManager extends DmaapManager {
+
+        public BusDmaapManager(String topic) throws PoolingFeatureException {
+            super(topic);
+        }
+
+        @Override
+        protected List<TopicSource> getTopicSources() {
+            return Arrays.asList(bus.makeSource());
+        }
+
+        @Override
+        protected List<TopicSink> getTopicSinks() {
+            return Arrays.asList(bus.makeSink());
+        }
+    }
+
+    /**
+     * Controller that also implements the {@link TopicListener} interface.
+     */
+    private static interface ListenerController extends PolicyController, TopicListener {
+
+    }
+}
@@ -29,22 +29,28 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
 import org.onap.policy.common.endpoints.event.comm.TopicListener;
 import org.onap.policy.drools.controller.DroolsController;
@@ -70,6 +76,8 @@ public class PoolingManagerImplTest {
     protected static final long STD_ACTIVE_HEARTBEAT_MS = STD_IDENTIFICATION_MS + 1;
     protected static final long STD_INTER_HEARTBEAT_MS = STD_ACTIVE_HEARTBEAT_MS + 1;
     protected static final long STD_OFFLINE_PUB_WAIT_MS = STD_INTER_HEARTBEAT_MS + 1;
+    protected static final int STD_OFFLINE_LIMIT = 5;
+    protected static final long STD_OFFLINE_AGE_MS = 60000L;
 
     private static final String MY_HOST = "my.host";
     private static final String HOST2 = "other.host";
@@ -84,6 +92,8 @@ public class PoolingManagerImplTest {
     private static final Object DECODED_EVENT = new Object();
     private static final String REQUEST_ID = "my.request.id";
 
+    private static final String JSON_EVENT = "{\"reqid\":\"" + REQUEST_ID + "\"}";
+
     /**
      * Number of dmaap.publish() invocations that should be issued when the manager is
      * started.
@@ -127,6 +137,8 @@ public class PoolingManagerImplTest {
         when(poolProps.getActiveHeartbeatMs()).thenReturn(STD_ACTIVE_HEARTBEAT_MS);
         when(poolProps.getInterHeartbeatMs()).thenReturn(STD_INTER_HEARTBEAT_MS);
         when(poolProps.getOfflinePubWaitMs()).thenReturn(STD_OFFLINE_PUB_WAIT_MS);
+        when(poolProps.getOfflineLimit()).thenReturn(STD_OFFLINE_LIMIT);
+        when(poolProps.getOfflineAgeMs()).thenReturn(STD_OFFLINE_AGE_MS);
 
         futures = new LinkedList<>();
         ser = new Serializer();
@@ -618,6 +630,172 @@ public class PoolingManagerImplTest {
         assertEquals(0, latch.getCount());
     }
 
+    @Test
+    public void testBeforeOffer_Locked_InjectedOnOtherThread() throws Exception {
+        startMgr();
+        lockMgr();
+        when(controller.isLocked()).thenReturn(true);
+
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        // the controller hands the injected event off to one of its own threads
+        List<Boolean> intercepted = new ArrayList<>();
+        doAnswer(args -> {
+            String event = args.getArgument(2);
+
+            // the bucket moves to the *OTHER* host before the event is offered
+            mgr.startDistributing(makeAssignments(false));
+
+            Thread thread = new Thread(() -> {
+                intercepted.add(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, event));
+                intercepted.add(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, event, DECODED_EVENT));
+                mgr.afterOffer(event);
+            });
+            thread.start();
+            thread.join(5000);
+
+            return null;
+        }).when(controller).onTopicEvent(any(), any(), any());
+
+        Forward msg = new Forward(mgr.getHost(), CommInfrastructure.UEB, TOPIC2, THE_EVENT, REQUEST_ID);
+        mgr.handle(msg);
+
+        // not routed again, even though it was offered on another thread
+        assertEquals(Arrays.asList(false, false), intercepted);
+        verify(dmaap, times(START_PUB)).publish(any());
+
+        // once offered, the same text, arriving from the topic, is routed
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+    }
+
+    @Test
+    public void testAfterOffer() throws Exception {
+        startMgr();
+        lockMgr();
+        when(controller.isLocked()).thenReturn(true);
+
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        // the controller does not offer the events right away
+        Forward msg = new Forward(mgr.getHost(), CommInfrastructure.UEB, TOPIC2, THE_EVENT, REQUEST_ID);
+        mgr.handle(msg);
+        mgr.handle(msg);
+        verify(controller, times(2)).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
+
+        // route the message to the other host
+        mgr.startDistributing(makeAssignments(false));
+
+        // not routed again until both injections are done
+        assertFalse(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+        mgr.afterOffer(THE_EVENT);
+        assertFalse(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+        mgr.afterOffer(THE_EVENT);
+
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+
+        // extra calls have no effect
+        mgr.afterOffer(THE_EVENT);
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+    }
+
+    @Test
+    public void testInject_StaleMarker() throws Exception {
+        // markers expire right away
+        when(poolProps.getOfflineAgeMs()).thenReturn(-1L);
+
+        startMgr();
+        lockMgr();
+        when(controller.isLocked()).thenReturn(true);
+
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        // the controller drops the events without ever offering them
+        mgr.handle(new Forward(mgr.getHost(), CommInfrastructure.UEB, TOPIC2, THE_EVENT, REQUEST_ID));
+        mgr.handle(new Forward(mgr.getHost(), CommInfrastructure.UEB, TOPIC2, THE_EVENT + "x", REQUEST_ID));
+
+        // route the message to the other host
+        mgr.startDistributing(makeAssignments(false));
+
+        // the first marker was discarded by the second injection
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+        assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT + "x", DECODED_EVENT));
+    }
+
+    @Test
+    public void testBeforeOffer_TopicExtractor_Forward() throws Exception {
+        mgr = makeTopicExtractorMgr();
+        startMgr();
+
+        // route the message to the other host
+        mgr.startDistributing(makeAssignments(false));
+
+        // routed without being decoded, even though the controller isn't locked
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, JSON_EVENT));
+
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(extractors, never()).extract(any());
+    }
+
+    @Test
+    public void testBeforeOffer_TopicExtractor_Local() throws Exception {
+        mgr = makeTopicExtractorMgr();
+        startMgr();
+
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        assertFalse(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, JSON_EVENT));
+
+        // already routed, thus beforeInsert() should not route it again
+        assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, JSON_EVENT, DECODED_EVENT));
+
+        verify(dmaap, times(START_PUB)).publish(any());
+        verify(extractors, never()).extract(any());
+    }
+
+    @Test
+    public void testBeforeOffer_TopicExtractor_Locked() throws Exception {
+        mgr = makeTopicExtractorMgr();
+        startMgr();
+        lockMgr();
+
+        mgr.startDistributing(makeAssignments(false));
+
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, JSON_EVENT));
+
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(extractors, never()).extract(any());
+    }
+
+    @Test
+    public void testBeforeOffer_TopicExtractor_NoReqId() throws Exception {
+        mgr = makeTopicExtractorMgr();
+        startMgr();
+
+        mgr.startDistributing(makeAssignments(false));
+
+        assertFalse(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, "{}"));
+
+        verify(dmaap, times(START_PUB)).publish(any());
+    }
+
+    @Test
+    public void testBeforeOffer_TopicExtractor_OtherTopic() throws Exception {
+        mgr = makeTopicExtractorMgr();
+        startMgr();
+
+        mgr.startDistributing(makeAssignments(false));
+
+        // no extractor for this topic - left for beforeInsert()
+        assertFalse(mgr.beforeOffer(CommInfrastructure.UEB, MY_TOPIC, JSON_EVENT));
+
+        verify(dmaap, times(START_PUB)).publish(any());
+    }
+
     @Test
     public void testBeforeInsert_Intercept() throws Exception {
         startMgr();
@@ -642,6 +820,9 @@ public class PoolingManagerImplTest {
     public void testBeforeInsert_NoIntercept() throws Exception {
         startMgr();
 
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
         assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
     }
 
@@ -674,14 +855,84 @@ public class PoolingManagerImplTest {
     public void testHandleExternalCommInfrastructureStringStringString() throws Exception {
         startMgr();
 
-        assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        // no assignments yet - should be queued
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
     }
 
     @Test
     public void testHandleExternalForward_NoAssignments() throws Exception {
         startMgr();
 
+        // should be queued rather than handled locally
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        verify(dmaap, times(START_PUB)).publish(any());
+        verify(controller, never()).onTopicEvent(any(), any(), any());
+    }
+
+    @Test
+    public void testHandleExternalForward_NoAssignments_NotStarted() throws Exception {
+        // not joining the pool - should be handled locally
+        assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+    }
+
+    @Test
+    public void testHandleExternalForward_QueueDrainedLocally() throws Exception {
+        startMgr();
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        // route the messages to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        verify(dmaap, times(START_PUB)).publish(any());
+        verify(controller, times(2)).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
+
+        // queue is now empty - subsequent events are routed directly
         assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        verify(controller, times(2)).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
+    }
+
+    @Test
+    public void testHandleExternalForward_QueueDrainedRemotely() throws Exception {
+        startMgr();
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(controller, never()).onTopicEvent(any(), any(), any());
+    }
+
+    @Test
+    public void testHandleExternalForward_QueueLimit() throws Exception {
+        startMgr();
+
+        for (int x = 0; x < STD_OFFLINE_LIMIT + 2; ++x) {
+            assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        }
+
+        // route the messages to this host - oldest ones should have been discarded
+        mgr.startDistributing(makeAssignments(true));
+
+        verify(controller, times(STD_OFFLINE_LIMIT)).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
+    }
+
+    @Test
+    public void testHandleExternalForward_QueueDiscardedOnStop() throws Exception {
+        startMgr();
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        mgr.beforeStop();
+
+        // should not have been handled anywhere
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(dmaap).publish(contains("offline"));
+        verify(controller, never()).onTopicEvent(any(), any(), any());
     }
 
     @Test
@@ -701,9 +952,68 @@ public class PoolingManagerImplTest {
         // buckets have null targets
         mgr.startDistributing(new BucketAssignments(new String[] {null, null}));
 
+        // queued until the bucket is assigned
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
         assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
 
         verify(dmaap, times(START_PUB)).publish(any());
+        verify(controller, never()).onTopicEvent(any(), any(), any());
+
+        // route the messages to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        verify(controller, times(2)).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
+    }
+
+    @Test
+    public void testHandleEvent_NullTarget_PartialAssignments() throws Exception {
+        startMgr();
+
+        // only the other host's bucket has been assigned
+        BucketAssignments asgn = makeAssignments(false);
+        asgn.getHostArray()[REQUEST_ID.hashCode() % 2] = null;
+        mgr.startDistributing(asgn);
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        verify(dmaap, times(START_PUB)).publish(any());
+
+        // now assigned to the other host
+        mgr.startDistributing(makeAssignments(false));
+
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(controller, never()).onTopicEvent(any(), any(), any());
+    }
+
+    @Test
+    public void testDrainEventQueue_SingleDrainer() throws Exception {
+        startMgr();
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        final String event2 = "event two";
+        AtomicBoolean queued = new AtomicBoolean(false);
+        List<String> injected = new ArrayList<>();
+
+        doAnswer(args -> {
+            injected.add(args.getArgument(2));
+
+            if (injected.size() == 1) {
+                // an event arrives on another thread while the first is still being injected
+                Thread thread = new Thread(() -> queued.set(
+                                mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, event2, DECODED_EVENT)));
+                thread.start();
+                thread.join();
+            }
+
+            return null;
+        }).when(controller).onTopicEvent(any(), any(), any());
+
+        // route the messages to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        // the second event was queued behind the first, rather than overtaking it
+        assertTrue(queued.get());
+        assertEquals(Arrays.asList(THE_EVENT, event2), injected);
     }
 
     @Test
@@ -746,6 +1056,175 @@ public class PoolingManagerImplTest {
         verify(dmaap, times(START_PUB + 1)).publish(any());
     }
 
+    @Test
+    public void testHandleEvent_DuringStateChange() throws Exception {
+        startMgr();
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // timer that holds up the state machine until released
+        mgr.schedule(STD_ACTIVE_HEARTBEAT_MS, () -> {
+            entered.countDown();
+
+            try {
+                release.await(5, TimeUnit.SECONDS);
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return null;
+        });
+
+        ArgumentCaptor<Runnable> taskCap = ArgumentCaptor.forClass(Runnable.class);
+        verify(sched, times(2)).schedule(taskCap.capture(), any(Long.class), any(TimeUnit.class));
+
+        Thread thread = new Thread(taskCap.getValue());
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            // should still be routed while the timer is running
+            assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+            verify(dmaap, times(START_PUB + 1)).publish(any());
+
+        } finally {
+            release.countDown();
+            thread.join(5000);
+        }
+    }
+
+    @Test
+    public void testHandleEvent_DiffHost_Batch_Full() throws Exception {
+        when(poolProps.getForwardBatchSize()).thenReturn(3);
+        when(poolProps.getForwardBatchMs()).thenReturn(20L);
+
+        startMgr();
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        // nothing published yet
+        verify(dmaap, times(START_PUB)).publish(any());
+
+        // this should fill the batch
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(dmaap).publish(contains("forwardBatch"));
+
+        // only one timer for the batch
+        ArgumentCaptor<Runnable> taskCap = ArgumentCaptor.forClass(Runnable.class);
+        verify(sched, times(2)).schedule(taskCap.capture(), any(Long.class), any(TimeUnit.class));
+
+        // timer should not publish it again
+        taskCap.getValue().run();
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+    }
+
+    @Test
+    public void testHandleEvent_DiffHost_Batch_Timer() throws Exception {
+        when(poolProps.getForwardBatchSize()).thenReturn(3);
+        when(poolProps.getForwardBatchMs()).thenReturn(20L);
+
+        startMgr();
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        verify(dmaap, times(START_PUB)).publish(any());
+
+        ArgumentCaptor<Runnable> taskCap = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Long> timeCap = ArgumentCaptor.forClass(Long.class);
+        verify(sched, times(2)).schedule(taskCap.capture(), timeCap.capture(), any(TimeUnit.class));
+        assertEquals(20L, timeCap.getValue().longValue());
+
+        // lone event should be published as a plain Forward message
+        taskCap.getValue().run();
+        verify(dmaap, times(START_PUB + 1)).publish(any());
+        verify(dmaap, never()).publish(contains("forwardBatch"));
+
+        // next event starts a new batch
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        verify(sched, times(3)).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testHandleEvent_DiffHost_Batch_Stop() throws Exception {
+        when(poolProps.getForwardBatchSize()).thenReturn(3);
+        when(poolProps.getForwardBatchMs()).thenReturn(20L);
+
+        startMgr();
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        verify(dmaap, times(START_PUB)).publish(any());
+
+        // partial batch should be published before the Offline message
+        mgr.beforeStop();
+
+        InOrder order = inOrder(dmaap);
+        order.verify(dmaap).publish(contains("forwardBatch"));
+        order.verify(dmaap).publish(contains("offline"));
+    }
+
+    @Test
+    public void testHandleEvent_DiffHost_Batch_StopWhileForwarding() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // holds up the forwarder after it has read the scheduler
+        when(poolProps.getForwardBatchSize()).thenAnswer(args -> {
+            if (Thread.currentThread().getName().equals("forwarder")) {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+
+            return 3;
+        });
+        when(poolProps.getForwardBatchMs()).thenReturn(20L);
+
+        startMgr();
+
+        // route the message to the *OTHER* host
+        mgr.startDistributing(makeAssignments(false));
+
+        AtomicBoolean handled = new AtomicBoolean(false);
+        Thread thread = new Thread(
+                        () -> handled.set(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT)),
+                        "forwarder");
+        thread.setDaemon(true);
+        thread.start();
+
+        try {
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            mgr.beforeStop();
+
+        } finally {
+            release.countDown();
+            thread.join(5000);
+        }
+
+        assertTrue(handled.get());
+
+        // published right away rather than left in a batch that would never be flushed
+        verify(dmaap).publish(contains("forward"));
+        verify(sched, times(1)).schedule(any(Runnable.class), any(Long.class), any(TimeUnit.class));
+    }
+
     @Test
     public void testExtractRequestId_NullEvent() throws Exception {
         startMgr();
@@ -959,6 +1438,25 @@ public class PoolingManagerImplTest {
         assertEquals(0, latch.getCount());
     }
 
+    @Test
+    public void testInject_ExForgetsMarker() throws Exception {
+        startMgr();
+        when(controller.isLocked()).thenReturn(true);
+
+        // route the message to this host
+        mgr.startDistributing(makeAssignments(true));
+
+        // generate RuntimeException when onTopicEvent() is invoked
+        doThrow(new IllegalArgumentException("expected")).when(controller).onTopicEvent(any(), any(), any());
+
+        Forward msg = new Forward(mgr.getHost(), CommInfrastructure.UEB, TOPIC2, THE_EVENT, REQUEST_ID);
+        assertThatThrownBy(() -> mgr.handle(msg)).isInstanceOf(IllegalArgumentException.class);
+
+        // the controller did not take the event, so it is no longer marked as injected
+        mgr.startDistributing(makeAssignments(false));
+        assertTrue(mgr.beforeOffer(CommInfrastructure.UEB, TOPIC2, THE_EVENT));
+    }
+
     @Test
     public void testHandleInternal() throws Exception {
         startMgr();
@@ -1017,14 +1515,16 @@ public class PoolingManagerImplTest {
         verify(dmaap, times(START_PUB)).publish(any());
 
 
-        // null assignments should cause message to be processed locally
+        // null assignments should cause message to be queued while starting
         mgr.startDistributing(null);
-        assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
+        assertTrue(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
         verify(dmaap, times(START_PUB)).publish(any());
+        verify(controller, never()).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
 
 
-        // route the message to this host
+        // route the message to this host - queued message should now be handled
         mgr.startDistributing(makeAssignments(true));
+        verify(controller).onTopicEvent(CommInfrastructure.UEB, TOPIC2, THE_EVENT);
         assertFalse(mgr.beforeInsert(CommInfrastructure.UEB, TOPIC2, THE_EVENT, DECODED_EVENT));
         verify(dmaap, times(START_PUB)).publish(any());
 
@@ -1197,6 +1697,17 @@ public class PoolingManagerImplTest {
         return new BucketAssignments(asgn);
     }
 
+    /**
+     * Makes a manager having a topic extractor for {@link #TOPIC2}.
+     * 
+     * @return a new manager
+     */
+    private PoolingManagerImpl makeTopicExtractorMgr() {
+        plainProps.setProperty(PoolingProperties.PROP_TOPIC_EXTRACTOR_PREFIX + "." + TOPIC2, "$.reqid");
+
+        return new PoolingManagerTest(MY_HOST, controller, poolProps, active);
+    }
+
     /**
      * Invokes methods necessary to start the manager.
      * 
@@ -1263,7 +1774,7 @@ public class PoolingManagerImplTest {
 
         @Override
         protected Object decodeEventWrapper(DroolsController drools2, String topic2, String event) {
-            if (drools2 == drools && TOPIC2.equals(topic2) && event == THE_EVENT) {
+            if (drools2 == drools && TOPIC2.equals(topic2) && THE_EVENT.equals(event)) {
                 return DECODED_EVENT;
             } else {
                 return null;
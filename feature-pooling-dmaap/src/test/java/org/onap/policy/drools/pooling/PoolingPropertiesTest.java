@@ -22,7 +22,11 @@ package org.onap.policy.drools.pooling;
 
 import static org.junit.Assert.assertEquals;
 import static org.onap.policy.drools.pooling.PoolingProperties.ACTIVE_HEARTBEAT_MS;
+import static org.onap.policy.drools.pooling.PoolingProperties.ASSIGNMENT_STRATEGY;
 import static org.onap.policy.drools.pooling.PoolingProperties.FEATURE_ENABLED;
+import static org.onap.policy.drools.pooling.PoolingProperties.FORWARD_BATCH_MS;
+import static org.onap.policy.drools.pooling.PoolingProperties.FORWARD_BATCH_SIZE;
+import static org.onap.policy.drools.pooling.PoolingProperties.HOST_WEIGHT;
 import static org.onap.policy.drools.pooling.PoolingProperties.IDENTIFICATION_MS;
 import static org.onap.policy.drools.pooling.PoolingProperties.INTER_HEARTBEAT_MS;
 import static org.onap.policy.drools.pooling.PoolingProperties.OFFLINE_AGE_MS;
@@ -32,6 +36,8 @@ import static org.onap.policy.drools.pooling.PoolingProperties.POOLING_TOPIC;
 import static org.onap.policy.drools.pooling.PoolingProperties.PREFIX;
 import static org.onap.policy.drools.pooling.PoolingProperties.REACTIVATE_MS;
 import static org.onap.policy.drools.pooling.PoolingProperties.START_HEARTBEAT_MS;
+import static org.onap.policy.drools.pooling.PoolingProperties.STRATEGY_BALANCED;
+import static org.onap.policy.drools.pooling.PoolingProperties.STRATEGY_RENDEZVOUS;
 
 import java.util.Properties;
 import java.util.function.Function;
@@ -54,6 +60,10 @@ public class PoolingPropertiesTest {
     public static final long STD_LEADER_MS = 6000L;
     public static final long STD_ACTIVE_HEARTBEAT_MS = 7000L;
     public static final long STD_INTER_HEARTBEAT_MS = 8000L;
+    public static final String STD_ASSIGNMENT_STRATEGY = STRATEGY_RENDEZVOUS;
+    public static final int STD_HOST_WEIGHT = 3;
+    public static final int STD_FORWARD_BATCH_SIZE = 50;
+    public static final long STD_FORWARD_BATCH_MS = 20L;
 
     private Properties plain;
     private PoolingProperties pooling;
@@ -126,6 +136,27 @@ public class PoolingPropertiesTest {
         doTest(INTER_HEARTBEAT_MS, STD_INTER_HEARTBEAT_MS, 15000L, xxx -> pooling.getInterHeartbeatMs());
     }
 
+    @Test
+    public void testGetAssignmentStrategy() throws PropertyException {
+        doTest(ASSIGNMENT_STRATEGY, STD_ASSIGNMENT_STRATEGY, STRATEGY_BALANCED,
+                        xxx -> pooling.getAssignmentStrategy());
+    }
+
+    @Test
+    public void testGetHostWeight() throws PropertyException {
+        doTest(HOST_WEIGHT, STD_HOST_WEIGHT, 1, xxx -> pooling.getHostWeight());
+    }
+
+    @Test
+    public void testGetForwardBatchSize() throws PropertyException {
+        doTest(FORWARD_BATCH_SIZE, STD_FORWARD_BATCH_SIZE, 1, xxx -> pooling.getForwardBatchSize());
+    }
+
+    @Test
+    public void testGetForwardBatchMs() throws PropertyException {
+        doTest(FORWARD_BATCH_MS, STD_FORWARD_BATCH_MS, 5L, xxx -> pooling.getForwardBatchMs());
+    }
+
     /**
      * Tests a particular property. Verifies that the correct value is returned if the
      * specialized property has a value or the property has no value. Also verifies that
@@ -172,6 +203,10 @@ public class PoolingPropertiesTest {
         props.setProperty(specialize(IDENTIFICATION_MS, CONTROLLER), "" + STD_IDENTIFICATION_MS);
         props.setProperty(specialize(ACTIVE_HEARTBEAT_MS, CONTROLLER), "" + STD_ACTIVE_HEARTBEAT_MS);
         props.setProperty(specialize(INTER_HEARTBEAT_MS, CONTROLLER), "" + STD_INTER_HEARTBEAT_MS);
+        props.setProperty(specialize(ASSIGNMENT_STRATEGY, CONTROLLER), STD_ASSIGNMENT_STRATEGY);
+        props.setProperty(specialize(HOST_WEIGHT, CONTROLLER), "" + STD_HOST_WEIGHT);
+        props.setProperty(specialize(FORWARD_BATCH_SIZE, CONTROLLER), "" + STD_FORWARD_BATCH_SIZE);
+        props.setProperty(specialize(FORWARD_BATCH_MS, CONTROLLER), "" + STD_FORWARD_BATCH_MS);
 
         return props;
     }
@@ -21,9 +21,11 @@
 package org.onap.policy.drools.pooling;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.onap.policy.drools.pooling.state.FilterUtils.makeAnd;
 import static org.onap.policy.drools.pooling.state.FilterUtils.makeEquals;
 import static org.onap.policy.drools.pooling.state.FilterUtils.makeOr;
@@ -32,6 +34,10 @@ import com.google.gson.JsonParseException;
 import java.util.Map;
 import java.util.TreeMap;
 import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+import org.onap.policy.drools.pooling.message.BucketAssignments;
+import org.onap.policy.drools.pooling.message.Forward;
+import org.onap.policy.drools.pooling.message.Leader;
 import org.onap.policy.drools.pooling.message.Message;
 import org.onap.policy.drools.pooling.message.Query;
 
@@ -110,6 +116,73 @@ public class SerializerTest {
 
         assertThatThrownBy(() -> ser.decodeMsg(enc3)).isInstanceOf(JsonParseException.class)
                         .hasMessage("cannot deserialize \"invalid-type\"");
+
+        // type following other fields, including structured ones
+        Message decoded2 = ser.decodeMsg("{\"source\":\"hostA\",\"other\":{\"list\":[1,{}]},\"type\":\"query\"}");
+        assertEquals(Query.class, decoded2.getClass());
+        assertEquals("hostA", decoded2.getSource());
+
+        // not a JSON object
+        assertThatThrownBy(() -> ser.decodeMsg("[]")).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> ser.decodeMsg("{\"type\":")).isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    public void testEncodeMsg_Compact() throws Exception {
+        Serializer ser = new Serializer(true);
+
+        // plain serializer should still be able to decode compact messages
+        Serializer plain = new Serializer();
+
+        String[] hostArray = {"hostA", "hostB", "hostA", "hostB"};
+        Leader leader = new Leader("hostA", new BucketAssignments(hostArray));
+        leader.setChannel(Message.ADMIN);
+
+        String encoded = ser.encodeMsg(leader);
+        assertTrue(encoded, encoded.contains("\"leader.compact\""));
+
+        Message decoded = plain.decodeMsg(encoded);
+        assertEquals(Leader.class, decoded.getClass());
+        assertEquals(Message.ADMIN, decoded.getChannel());
+        assertArrayEquals(hostArray, ((Leader) decoded).getAssignments().getHostArray());
+
+        // forward with a JSON payload
+        Forward forward = new Forward("hostA", CommInfrastructure.UEB, "topicC", "{\"abc\":10}", "reqD");
+        forward.setChannel("hostB");
+
+        encoded = ser.encodeMsg(forward);
+        assertTrue(encoded, encoded.contains("\"forward.compact\""));
+
+        decoded = plain.decodeMsg(encoded);
+        assertEquals(Forward.class, decoded.getClass());
+        assertEquals("{\"abc\":10}", ((Forward) decoded).getPayload());
+
+        // forward with a payload that isn't JSON - should fall back to plain JSON
+        forward.setPayload("plain text");
+
+        encoded = ser.encodeMsg(forward);
+        assertTrue(encoded, encoded.contains("\"forward\""));
+        assertEquals("plain text", ((Forward) plain.decodeMsg(encoded)).getPayload());
+
+        // no compact codec for this type
+        Query query = new Query("hostA");
+        query.setChannel(Message.ADMIN);
+
+        encoded = ser.encodeMsg(query);
+        assertTrue(encoded, encoded.contains("\"query\""));
+        assertEquals(Query.class, ser.decodeMsg(encoded).getClass());
+    }
+
+    @Test
+    public void testEncodeMsg_NotCompact() throws Exception {
+        Serializer ser = new Serializer(false);
+
+        Leader leader = new Leader("hostA", new BucketAssignments(new String[] {"hostA"}));
+        leader.setChannel(Message.ADMIN);
+
+        String encoded = ser.encodeMsg(leader);
+        assertTrue(encoded, encoded.contains("\"leader\""));
+        assertEquals(Leader.class, ser.decodeMsg(encoded).getClass());
     }
 
 }
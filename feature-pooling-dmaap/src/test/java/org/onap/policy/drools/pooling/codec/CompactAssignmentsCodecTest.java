@@ -0,0 +1,219 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.codec;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.drools.pooling.message.BucketAssignments;
+import org.onap.policy.drools.pooling.message.Leader;
+
+public class CompactAssignmentsCodecTest {
+
+    private static final String TYPE_FIELD = "type";
+    private static final String TYPE = "leader.compact";
+    private static final String SOURCE = "hostA";
+    private static final String CHANNEL = "channelB";
+
+    private final Gson gson = new Gson();
+
+    private CompactAssignmentsCodec<Leader> codec;
+
+    @Before
+    public void setUp() {
+        codec = new CompactAssignmentsCodec<>(Leader.class, TYPE);
+    }
+
+    @Test
+    public void testGetMessageClass_testGetType() {
+        assertEquals(Leader.class, codec.getMessageClass());
+        assertEquals(TYPE, codec.getType());
+    }
+
+    @Test
+    public void testEncode_testDecode() {
+        String[] hostArray = makeHostArray(BucketAssignments.MAX_BUCKETS, 5);
+        Leader msg = makeLeader(hostArray);
+        msg.getAssignments().setHostWeights(Collections.singletonMap(hostArray[0], 3));
+
+        String text = codec.encode(msg, TYPE_FIELD);
+
+        JsonObject json = parse(text);
+        assertEquals(TYPE, json.get(TYPE_FIELD).getAsString());
+        assertEquals(CHANNEL, json.get("channel").getAsString());
+
+        // each host should appear only once
+        JsonObject asgn = json.getAsJsonObject("assignments");
+        assertFalse(asgn.has("hostArray"));
+        assertEquals(5, asgn.getAsJsonArray(CompactAssignmentsCodec.HOSTS_FIELD).size());
+
+        Leader decoded = codec.decode(text);
+        assertEquals(SOURCE, decoded.getSource());
+        assertEquals(CHANNEL, decoded.getChannel());
+        assertArrayEquals(hostArray, decoded.getAssignments().getHostArray());
+        assertEquals(3, decoded.getAssignments().getWeight(hostArray[0]));
+    }
+
+    @Test
+    public void testEncode_ManyHosts() {
+        // needs two bytes per bucket
+        String[] hostArray = makeHostArray(BucketAssignments.MAX_BUCKETS, 300);
+
+        String text = codec.encode(makeLeader(hostArray), TYPE_FIELD);
+
+        Leader decoded = codec.decode(text);
+        assertArrayEquals(hostArray, decoded.getAssignments().getHostArray());
+    }
+
+    @Test
+    public void testEncode_Smaller() {
+        Leader msg = makeLeader(makeHostArray(BucketAssignments.MAX_BUCKETS, 5));
+
+        int plain = gson.toJson(msg).length();
+        int compact = codec.encode(msg, TYPE_FIELD).length();
+
+        assertTrue("plain=" + plain + " compact=" + compact, compact * 10 < plain);
+    }
+
+    @Test
+    public void testEncode_NullHost() {
+        String[] hostArray = makeHostArray(10, 2);
+        hostArray[4] = null;
+
+        // cannot be encoded compactly
+        assertNull(codec.encode(makeLeader(hostArray), TYPE_FIELD));
+    }
+
+    @Test
+    public void testEncode_NoAssignments() {
+        Leader msg = new Leader(SOURCE, null);
+        msg.setChannel(CHANNEL);
+
+        String text = codec.encode(msg, TYPE_FIELD);
+
+        Leader decoded = codec.decode(text);
+        assertNull(decoded.getAssignments());
+    }
+
+    @Test
+    public void testEncode_NoHostArray() {
+        String text = codec.encode(makeLeader(null), TYPE_FIELD);
+
+        Leader decoded = codec.decode(text);
+        assertNull(decoded.getAssignments().getHostArray());
+    }
+
+    @Test
+    public void testDecode_Invalid() {
+        String text = codec.encode(makeLeader(makeHostArray(10, 2)), TYPE_FIELD);
+
+        // missing buckets
+        expectDecodeFailure(text, asgn -> asgn.remove(CompactAssignmentsCodec.BUCKETS_FIELD));
+
+        // hosts is not an array
+        expectDecodeFailure(text, asgn -> asgn.addProperty(CompactAssignmentsCodec.HOSTS_FIELD, "hostX"));
+
+        // buckets is not base64
+        expectDecodeFailure(text, asgn -> asgn.addProperty(CompactAssignmentsCodec.BUCKETS_FIELD, "%%%"));
+
+        // index beyond the end of the host list
+        expectDecodeFailure(text, asgn -> asgn.addProperty(CompactAssignmentsCodec.BUCKETS_FIELD, "AQI="));
+    }
+
+    @Test
+    public void testDecode_Truncated() {
+        String text = codec.encode(makeLeader(makeHostArray(300, 300)), TYPE_FIELD);
+
+        // odd number of bytes, when two are needed per bucket
+        expectDecodeFailure(text, asgn -> asgn.addProperty(CompactAssignmentsCodec.BUCKETS_FIELD, "AAAA"));
+    }
+
+    /**
+     * Modifies the encoded assignments and verifies that they cannot be decoded.
+     *
+     * @param text encoded message
+     * @param modifier function to modify the encoded assignments
+     */
+    private void expectDecodeFailure(String text, Consumer<JsonObject> modifier) {
+        JsonObject json = parse(text);
+        modifier.accept(json.getAsJsonObject("assignments"));
+
+        String modified = gson.toJson(json);
+
+        assertThatThrownBy(() -> codec.decode(modified)).isInstanceOf(JsonParseException.class);
+    }
+
+    /**
+     * Makes a Leader message.
+     *
+     * @param hostArray bucket array
+     * @return a new Leader message
+     */
+    private Leader makeLeader(String[] hostArray) {
+        Leader msg = new Leader(SOURCE, new BucketAssignments(hostArray));
+        msg.setChannel(CHANNEL);
+
+        return msg;
+    }
+
+    /**
+     * Makes a bucket array, assigning buckets to hosts in round-robin fashion.
+     *
+     * @param nbuckets number of buckets
+     * @param nhosts number of distinct hosts
+     * @return a new bucket array
+     */
+    private String[] makeHostArray(int nbuckets, int nhosts) {
+        String[] hosts = new String[nhosts];
+        for (int x = 0; x < nhosts; ++x) {
+            hosts[x] = UUID.randomUUID().toString();
+        }
+
+        String[] hostArray = new String[nbuckets];
+        for (int x = 0; x < nbuckets; ++x) {
+            hostArray[x] = hosts[x % nhosts];
+        }
+
+        return hostArray;
+    }
+
+    /**
+     * Parses encoded text into a JSON object.
+     *
+     * @param text text to be parsed
+     * @return the JSON object
+     */
+    private JsonObject parse(String text) {
+        return gson.fromJson(text, JsonObject.class);
+    }
+}
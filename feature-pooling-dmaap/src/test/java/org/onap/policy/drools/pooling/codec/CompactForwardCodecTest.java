@@ -0,0 +1,199 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.codec;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+import org.onap.policy.drools.pooling.message.Forward;
+
+public class CompactForwardCodecTest {
+
+    private static final String TYPE_FIELD = "type";
+    private static final String TYPE = "forward.compact";
+    private static final String SOURCE = "hostA";
+    private static final String CHANNEL = "channelB";
+    private static final CommInfrastructure PROTOCOL = CommInfrastructure.UEB;
+    private static final String TOPIC = "topicC";
+    private static final String REQUEST_ID = "requestD";
+
+    private static final String PAYLOAD = "{ \"requestId\": \"abc\", \"text\": \"a \\\"quoted\\\" <value>\",\n"
+                    + "  \"list\": [1, 2.50, {\"x\": null}] }";
+
+    private final Gson gson = new Gson();
+
+    private CompactForwardCodec codec;
+
+    @Before
+    public void setUp() {
+        codec = new CompactForwardCodec(TYPE);
+    }
+
+    @Test
+    public void testGetMessageClass_testGetType() {
+        assertEquals(Forward.class, codec.getMessageClass());
+        assertEquals(TYPE, codec.getType());
+    }
+
+    @Test
+    public void testEncode_testDecode() {
+        Forward msg = makeForward(PAYLOAD);
+        msg.setNumHops(2);
+
+        String text = codec.encode(msg, TYPE_FIELD);
+
+        // payload should appear verbatim, without escapes
+        assertTrue(text, text.contains(PAYLOAD));
+
+        JsonObject json = parse(text);
+        assertEquals(TYPE, json.get(TYPE_FIELD).getAsString());
+        assertEquals(CHANNEL, json.get("channel").getAsString());
+        assertFalse(json.has("payload"));
+
+        Forward decoded = codec.decode(text);
+        assertEquals(SOURCE, decoded.getSource());
+        assertEquals(CHANNEL, decoded.getChannel());
+        assertEquals(PROTOCOL, decoded.getProtocol());
+        assertEquals(TOPIC, decoded.getTopic());
+        assertEquals(REQUEST_ID, decoded.getRequestId());
+        assertEquals(2, decoded.getNumHops());
+        assertEquals(msg.getCreateTimeMs(), decoded.getCreateTimeMs());
+
+        // exact text should be preserved
+        assertEquals(PAYLOAD, decoded.getPayload());
+    }
+
+    @Test
+    public void testEncode_Array() {
+        String text = codec.encode(makeForward("[1,2,3]"), TYPE_FIELD);
+
+        // trailing white space should be ignored
+        text += "\n";
+
+        assertEquals("[1,2,3]", codec.decode(text).getPayload());
+    }
+
+    @Test
+    public void testEncode_Smaller() {
+        Forward msg = makeForward(PAYLOAD);
+
+        assertTrue(codec.encode(msg, TYPE_FIELD).length() < gson.toJson(msg).length());
+    }
+
+    @Test
+    public void testEncode_NotJson() {
+        // cannot be encoded compactly
+        assertNull(codec.encode(makeForward(null), TYPE_FIELD));
+        assertNull(codec.encode(makeForward("plain text"), TYPE_FIELD));
+        assertNull(codec.encode(makeForward("\"a string\""), TYPE_FIELD));
+        assertNull(codec.encode(makeForward("10"), TYPE_FIELD));
+        assertNull(codec.encode(makeForward("{\"abc\":"), TYPE_FIELD));
+        assertNull(codec.encode(makeForward("{} {}"), TYPE_FIELD));
+
+        // lenient syntax
+        assertNull(codec.encode(makeForward("{abc: def}"), TYPE_FIELD));
+    }
+
+    @Test
+    public void testDecode_Invalid() {
+        String text = codec.encode(makeForward(PAYLOAD), TYPE_FIELD);
+
+        // missing length
+        expectDecodeFailure(text, json -> json.remove(CompactForwardCodec.PAYLOAD_LENGTH_FIELD));
+
+        // length is not a number
+        expectDecodeFailure(text, json -> json.addProperty(CompactForwardCodec.PAYLOAD_LENGTH_FIELD, "abc"));
+
+        // length is not an integer
+        expectDecodeFailure(text, json -> json.add(CompactForwardCodec.PAYLOAD_LENGTH_FIELD, new JsonObject()));
+
+        // wrong length
+        expectDecodeFailure(text, json -> json.addProperty(CompactForwardCodec.PAYLOAD_LENGTH_FIELD, 3));
+        expectDecodeFailure(text, json -> json.addProperty(CompactForwardCodec.PAYLOAD_LENGTH_FIELD, -1));
+        expectDecodeFailure(text, json -> json.addProperty(CompactForwardCodec.PAYLOAD_LENGTH_FIELD, 1000000));
+
+        // not an object
+        assertThatThrownBy(() -> codec.decode("[]")).isInstanceOf(JsonParseException.class);
+        assertThatThrownBy(() -> codec.decode("{\"source\":")).isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    public void testDecode_PayloadNotParsed() {
+        String text = codec.encode(makeForward(PAYLOAD), TYPE_FIELD);
+
+        // only the length is used to find the payload, so it need not be valid
+        String invalid = "{]";
+        int start = text.lastIndexOf(PAYLOAD);
+        text = text.substring(0, start) + invalid + text.substring(start + PAYLOAD.length());
+        text = text.replace("\"" + CompactForwardCodec.PAYLOAD_LENGTH_FIELD + "\":" + PAYLOAD.length(),
+                        "\"" + CompactForwardCodec.PAYLOAD_LENGTH_FIELD + "\":" + invalid.length());
+
+        assertEquals(invalid, codec.decode(text).getPayload());
+    }
+
+    /**
+     * Modifies the parsed message and verifies that it cannot be decoded.
+     *
+     * @param text encoded message
+     * @param modifier function to modify the parsed message
+     */
+    private void expectDecodeFailure(String text, Consumer<JsonObject> modifier) {
+        JsonObject json = parse(text);
+        modifier.accept(json);
+
+        String modified = gson.toJson(json);
+
+        assertThatThrownBy(() -> codec.decode(modified)).isInstanceOf(JsonParseException.class);
+    }
+
+    /**
+     * Makes a Forward message.
+     *
+     * @param payload message payload
+     * @return a new Forward message
+     */
+    private Forward makeForward(String payload) {
+        Forward msg = new Forward(SOURCE, PROTOCOL, TOPIC, payload, REQUEST_ID);
+        msg.setChannel(CHANNEL);
+
+        return msg;
+    }
+
+    /**
+     * Parses encoded text into a JSON object.
+     *
+     * @param text text to be parsed
+     * @return the JSON object
+     */
+    private JsonObject parse(String text) {
+        return gson.fromJson(text, JsonObject.class);
+    }
+}
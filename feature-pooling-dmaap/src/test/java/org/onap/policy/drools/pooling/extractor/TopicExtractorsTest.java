@@ -0,0 +1,117 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.extractor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TopicExtractorsTest {
+
+    private static final String PROP_PREFIX = "extractor.topic.theType";
+
+    private static final String TOPIC1 = "topic.one";
+    private static final String TOPIC2 = "topic.two";
+    private static final String UNKNOWN_TOPIC = "topic.unknown";
+
+    private static final String REQUEST_ID = "my.request.id";
+
+    private static final String EVENT = "{\"requestId\":\"" + REQUEST_ID + "\",\"body\":{\"id\":30}}";
+
+    private Properties props;
+    private TopicExtractors map;
+
+    /**
+     * Setup.
+     */
+    @Before
+    public void setUp() {
+        props = new Properties();
+
+        props.setProperty(PROP_PREFIX + "." + TOPIC1, "$.requestId");
+        props.setProperty(PROP_PREFIX + "." + TOPIC2, "$.body.id");
+
+        map = new TopicExtractors(props, PROP_PREFIX);
+    }
+
+    @Test
+    public void testTopicExtractors_TrailingDot() {
+        map = new TopicExtractors(props, PROP_PREFIX + ".");
+        assertEquals(REQUEST_ID, map.extract(TOPIC1, EVENT));
+    }
+
+    @Test
+    public void testHasExtractor() {
+        assertTrue(map.hasExtractor(TOPIC1));
+        assertTrue(map.hasExtractor(TOPIC2));
+        assertFalse(map.hasExtractor(UNKNOWN_TOPIC));
+
+        // should have cached all three, including the one without an extractor
+        assertEquals(3, map.size());
+
+        assertFalse(map.hasExtractor(UNKNOWN_TOPIC));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void testHasExtractor_EmptyExpression() {
+        props.setProperty(PROP_PREFIX + "." + UNKNOWN_TOPIC, "");
+        assertFalse(map.hasExtractor(UNKNOWN_TOPIC));
+    }
+
+    @Test
+    public void testExtract() {
+        assertEquals(REQUEST_ID, map.extract(TOPIC1, EVENT));
+
+        // numeric value
+        assertEquals("30", map.extract(TOPIC2, EVENT));
+
+        // extractors are only built once
+        assertEquals(REQUEST_ID, map.extract(TOPIC1, EVENT));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testExtract_NoExtractor() {
+        assertNull(map.extract(UNKNOWN_TOPIC, EVENT));
+    }
+
+    @Test
+    public void testExtract_NullEvent() {
+        assertNull(map.extract(TOPIC1, null));
+    }
+
+    @Test
+    public void testExtract_NoMatch() {
+        assertNull(map.extract(TOPIC1, "{\"other\":\"value\"}"));
+    }
+
+    @Test
+    public void testExtract_InvalidJson() {
+        assertNull(map.extract(TOPIC1, "{invalid json"));
+        assertNull(map.extract(TOPIC1, ""));
+    }
+}
@@ -28,7 +28,9 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import org.junit.Test;
 import org.onap.policy.drools.pooling.PoolingFeatureException;
@@ -272,6 +274,87 @@ public class BucketAssignmentsTest {
         // multiple entries
         asgn.setHostArray(new String[] {"Ahost", "Bhost", "Chost"});
         asgn.checkValidity();
+
+        // valid weights
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put("Ahost", 2);
+        asgn.setHostWeights(weights);
+        asgn.checkValidity();
+
+        // zero weight
+        weights.put("Bhost", 0);
+        expectException(asgn);
+
+        // null weight
+        weights.put("Bhost", null);
+        expectException(asgn);
+    }
+
+    @Test
+    public void testGetHostWeights_testSetHostWeights() {
+        BucketAssignments asgn = new BucketAssignments(new String[] {"abc"});
+        assertNull(asgn.getHostWeights());
+
+        Map<String, Integer> weights = new TreeMap<>();
+        asgn.setHostWeights(weights);
+        assertTrue(weights == asgn.getHostWeights());
+    }
+
+    @Test
+    public void testGetWeight() {
+        BucketAssignments asgn = new BucketAssignments(new String[] {"abc", "def"});
+
+        // no weights
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, asgn.getWeight("abc"));
+
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put("abc", 5);
+        weights.put("def", 0);
+        asgn.setHostWeights(weights);
+
+        assertEquals(5, asgn.getWeight("abc"));
+
+        // invalid weight
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, asgn.getWeight("def"));
+
+        // unknown host
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, asgn.getWeight("ghi"));
+    }
+
+    @Test
+    public void testGetCompactHosts_testSetCompactHosts() {
+        BucketAssignments asgn = new BucketAssignments(new String[] {"abc"});
+        assertNull(asgn.getCompactHosts());
+
+        SortedSet<String> hosts = new TreeSet<>();
+        asgn.setCompactHosts(hosts);
+        assertTrue(hosts == asgn.getCompactHosts());
+    }
+
+    @Test
+    public void testIsCompact() {
+        BucketAssignments asgn = new BucketAssignments(new String[] {"abc", "def", "abc"});
+
+        // support unknown
+        assertFalse(asgn.isCompact("abc"));
+        assertFalse(asgn.isCompact());
+
+        // only some hosts support it
+        asgn.setCompactHosts(new TreeSet<>(Arrays.asList("abc", "ghi")));
+        assertTrue(asgn.isCompact("abc"));
+        assertTrue(asgn.isCompact("ghi"));
+        assertFalse(asgn.isCompact("def"));
+        assertFalse(asgn.isCompact());
+
+        // every assigned host supports it
+        asgn.getCompactHosts().add("def");
+        assertTrue(asgn.isCompact());
+
+        // no assignments
+        assertFalse(new BucketAssignments().isCompact());
+
+        asgn.setHostArray(new String[0]);
+        assertFalse(asgn.isCompact());
     }
 
     @Test
@@ -338,6 +421,26 @@ public class BucketAssignmentsTest {
         assertFalse(asgn.equals(new BucketAssignments(new String[] {"abc", null, "XYZ"})));
 
         assertFalse(asgn.equals(new BucketAssignments()));
+
+        // with weights
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put("abc", 2);
+
+        BucketAssignments asgn2 = new BucketAssignments(arr);
+        asgn2.setHostWeights(weights);
+        assertFalse(asgn.equals(asgn2));
+
+        asgn.setHostWeights(new TreeMap<>(weights));
+        assertTrue(asgn.equals(asgn2));
+        assertEquals(asgn.hashCode(), asgn2.hashCode());
+
+        // with compact hosts
+        asgn2.setCompactHosts(new TreeSet<>(Arrays.asList("abc")));
+        assertFalse(asgn.equals(asgn2));
+
+        asgn.setCompactHosts(new TreeSet<>(Arrays.asList("abc")));
+        assertTrue(asgn.equals(asgn2));
+        assertEquals(asgn.hashCode(), asgn2.hashCode());
     }
 
     /**
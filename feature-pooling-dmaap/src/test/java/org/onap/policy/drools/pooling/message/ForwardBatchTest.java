@@ -0,0 +1,120 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
+
+public class ForwardBatchTest extends SupportBasicMessageTester<ForwardBatch> {
+    // values set by makeValidMessage()
+    public static final CommInfrastructure VALID_PROTOCOL = CommInfrastructure.UEB;
+    public static final String VALID_TOPIC = "topicA";
+    public static final String VALID_PAYLOAD1 = "payloadA";
+    public static final String VALID_PAYLOAD2 = "payloadB";
+    public static final String VALID_REQUEST_ID1 = "requestIdA";
+    public static final String VALID_REQUEST_ID2 = "requestIdB";
+
+    public ForwardBatchTest() {
+        super(ForwardBatch.class);
+    }
+
+    @Test
+    public void testGetForwards_testSetForwards() {
+        ForwardBatch msg = makeValidMessage();
+
+        // from constructor
+        assertEquals(2, msg.getForwards().size());
+
+        List<Forward> forwards = new ArrayList<>();
+        msg.setForwards(forwards);
+        assertEquals(forwards, msg.getForwards());
+    }
+
+    @Test
+    public void testCheckValidity_InvalidFields() throws Exception {
+        // null source (i.e., superclass field)
+        expectCheckValidityFailure(msg -> msg.setSource(null));
+
+        // null or empty list
+        expectCheckValidityFailure(msg -> msg.setForwards(null));
+        expectCheckValidityFailure(msg -> msg.setForwards(new ArrayList<>()));
+
+        // null item
+        expectCheckValidityFailure(msg -> msg.getForwards().set(1, null));
+
+        // item with a different channel
+        expectCheckValidityFailure(msg -> msg.getForwards().get(1).setChannel("otherChannel"));
+
+        // invalid item
+        expectCheckValidityFailure(msg -> msg.getForwards().get(0).setRequestId(null));
+    }
+
+    @Override
+    public ForwardBatch makeValidMessage() {
+        ForwardBatch msg = new ForwardBatch(VALID_HOST, new ArrayList<>(
+                        Arrays.asList(makeForward(VALID_PAYLOAD1, VALID_REQUEST_ID1),
+                                        makeForward(VALID_PAYLOAD2, VALID_REQUEST_ID2))));
+        msg.setChannel(VALID_CHANNEL);
+
+        return msg;
+    }
+
+    @Override
+    public void testDefaultConstructorFields(ForwardBatch msg) {
+        super.testDefaultConstructorFields(msg);
+
+        assertNull(msg.getForwards());
+    }
+
+    @Override
+    public void testValidFields(ForwardBatch msg) {
+        super.testValidFields(msg);
+
+        // order must be preserved
+        assertEquals(2, msg.getForwards().size());
+        assertEquals(VALID_PAYLOAD1, msg.getForwards().get(0).getPayload());
+        assertEquals(VALID_REQUEST_ID1, msg.getForwards().get(0).getRequestId());
+        assertEquals(VALID_PAYLOAD2, msg.getForwards().get(1).getPayload());
+        assertEquals(VALID_REQUEST_ID2, msg.getForwards().get(1).getRequestId());
+        assertEquals(VALID_PROTOCOL, msg.getForwards().get(1).getProtocol());
+        assertEquals(VALID_TOPIC, msg.getForwards().get(1).getTopic());
+    }
+
+    /**
+     * Makes a valid forward message.
+     * 
+     * @param payload message payload
+     * @param requestId request id
+     * @return a new forward message
+     */
+    private Forward makeForward(String payload, String requestId) {
+        Forward fwd = new Forward(VALID_HOST, VALID_PROTOCOL, VALID_TOPIC, payload, requestId);
+        fwd.setChannel(VALID_CHANNEL);
+
+        return fwd;
+    }
+}
@@ -20,11 +20,17 @@
 
 package org.onap.policy.drools.pooling.message;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import org.junit.Before;
 import org.junit.Test;
 
 public class IdentificationTest extends SupportMessageWithAssignmentsTester<Identification> {
 
+    private static final int VALID_WEIGHT = 3;
+
     public IdentificationTest() {
         super(Identification.class);
     }
@@ -62,10 +68,46 @@ public class IdentificationTest extends SupportMessageWithAssignmentsTester<Iden
         msg.checkValidity();
     }
 
+    @Test
+    public void testGetWeight_testSetWeight() {
+        Identification msg = new Identification(VALID_HOST, VALID_ASGN);
+        assertEquals(0, msg.getWeight());
+
+        msg.setWeight(VALID_WEIGHT);
+        assertEquals(VALID_WEIGHT, msg.getWeight());
+    }
+
+    @Test
+    public void testIsCompact_testSetCompact() {
+        Identification msg = new Identification(VALID_HOST, VALID_ASGN);
+        assertFalse(msg.isCompact());
+
+        msg.setCompact(true);
+        assertTrue(msg.isCompact());
+    }
+
+    @Override
+    public void testDefaultConstructorFields(Identification msg) {
+        super.testDefaultConstructorFields(msg);
+
+        assertEquals(0, msg.getWeight());
+        assertFalse(msg.isCompact());
+    }
+
+    @Override
+    public void testValidFields(Identification msg) {
+        super.testValidFields(msg);
+
+        assertEquals(VALID_WEIGHT, msg.getWeight());
+        assertTrue(msg.isCompact());
+    }
+
     @Override
     public Identification makeValidMessage() {
         Identification msg = new Identification(VALID_HOST, (isNullAssignments() ? null : VALID_ASGN));
         msg.setChannel(VALID_CHANNEL);
+        msg.setWeight(VALID_WEIGHT);
+        msg.setCompact(true);
 
         return msg;
     }
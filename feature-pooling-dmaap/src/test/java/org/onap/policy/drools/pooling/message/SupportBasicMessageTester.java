@@ -131,6 +131,28 @@ public abstract class SupportBasicMessageTester<T extends Message> {
         }
     }
 
+    /**
+     * Creates a valid Message and verifies that it is dispatched to the visitor
+     * method that is specific to its type.
+     */
+    @Test
+    public final void testDispatch() {
+        T msg = makeValidMessage();
+
+        if (msg.getClass() == Message.class) {
+            try {
+                msg.dispatch(new TypeVisitor());
+                fail("missing exception");
+
+            } catch (UnsupportedOperationException expected) {
+                // success
+            }
+
+        } else {
+            assertEquals(subclazz, msg.dispatch(new TypeVisitor()));
+        }
+    }
+
     /**
      * Creates a message via {@link #makeValidMessage()}, updates it via the
      * given function, and then invokes the checkValidity() method on it. It is
@@ -247,4 +269,46 @@ public abstract class SupportBasicMessageTester<T extends Message> {
          */
         public void update(T msg, String newValue);
     }
+
+    /**
+     * Visitor that returns the type of message handled by the method that was
+     * invoked.
+     */
+    private static class TypeVisitor implements MessageVisitor<Class<?>> {
+
+        @Override
+        public Class<?> process(Forward msg) {
+            return Forward.class;
+        }
+
+        @Override
+        public Class<?> process(ForwardBatch msg) {
+            return ForwardBatch.class;
+        }
+
+        @Override
+        public Class<?> process(Heartbeat msg) {
+            return Heartbeat.class;
+        }
+
+        @Override
+        public Class<?> process(Identification msg) {
+            return Identification.class;
+        }
+
+        @Override
+        public Class<?> process(Leader msg) {
+            return Leader.class;
+        }
+
+        @Override
+        public Class<?> process(Offline msg) {
+            return Offline.class;
+        }
+
+        @Override
+        public Class<?> process(Query msg) {
+            return Query.class;
+        }
+    }
 }
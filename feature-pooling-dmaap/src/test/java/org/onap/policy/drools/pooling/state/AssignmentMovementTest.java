@@ -0,0 +1,289 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.junit.Before;
+import org.junit.Test;
+import org.onap.policy.drools.pooling.PoolingProperties;
+import org.onap.policy.drools.pooling.message.BucketAssignments;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmark comparing the assignment strategies. Scales a pool out, one host at a time,
+ * then back in, measuring the number of buckets that move and the number of in-flight
+ * requests that are re-routed to a different host (and must thus be forwarded) with each
+ * change. Also measures the effect of a leader that has no previous assignments, as
+ * happens when the leader is replaced.
+ */
+public class AssignmentMovementTest extends SupportBasicStateTester {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentMovementTest.class);
+
+    private static final int MAX_HOSTS = 8;
+
+    /**
+     * Number of in-flight requests whose routing is tracked.
+     */
+    private static final int NREQUESTS = 10000;
+
+    /**
+     * Hosts, all of which follow MY_HOST, so that MY_HOST is always the leader.
+     */
+    private List<String> hosts;
+
+    /**
+     * Request ids of the in-flight requests.
+     */
+    private List<String> requests;
+
+    /**
+     * Setup.
+     */
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        hosts = new ArrayList<>(MAX_HOSTS);
+        hosts.add(MY_HOST);
+        for (int x = 1; x < MAX_HOSTS; ++x) {
+            hosts.add(MY_HOST + "-" + x);
+        }
+
+        requests = new ArrayList<>(NREQUESTS);
+        for (int x = 0; x < NREQUESTS; ++x) {
+            requests.add("request-" + x);
+        }
+    }
+
+    @Test
+    public void testBalanced() {
+        Totals totals = scaleOutAndIn(PoolingProperties.STRATEGY_BALANCED);
+        logger.info("balanced: {}", totals);
+    }
+
+    @Test
+    public void testRendezvous() {
+        Totals totals = scaleOutAndIn(PoolingProperties.STRATEGY_RENDEZVOUS);
+        logger.info("rendezvous: {}", totals);
+
+        /*
+         * Each host that joins or leaves should only move its own share of the buckets,
+         * i.e., 1/n of them, where n is the larger of the before and after pool sizes.
+         * Allow some slack for the imbalance inherent in hashing.
+         */
+        int ideal = 0;
+        for (int nhosts = 2; nhosts <= MAX_HOSTS; ++nhosts) {
+            // once when scaling out and once when scaling in
+            ideal += 2 * BucketAssignments.MAX_BUCKETS / nhosts;
+        }
+
+        assertTrue("moved=" + totals.moved, totals.moved <= ideal * 5 / 4);
+    }
+
+    @Test
+    public void testNewLeader_Balanced() {
+        int moved = replaceLeader(PoolingProperties.STRATEGY_BALANCED);
+        logger.info("balanced: new leader moved {} buckets", moved);
+    }
+
+    @Test
+    public void testNewLeader_Rendezvous() {
+        int moved = replaceLeader(PoolingProperties.STRATEGY_RENDEZVOUS);
+        logger.info("rendezvous: new leader moved {} buckets", moved);
+
+        assertEquals(0, moved);
+    }
+
+    @Test
+    public void testWeighted_Rendezvous() {
+        when(props.getAssignmentStrategy()).thenReturn(PoolingProperties.STRATEGY_RENDEZVOUS);
+        when(props.getHostWeight()).thenReturn(3);
+
+        // this host is three times the weight of each of three others
+        String[] arr = assign(new TreeSet<>(hosts.subList(0, 4))).getHostArray();
+
+        int mine = 0;
+        for (String host : arr) {
+            if (MY_HOST.equals(host)) {
+                ++mine;
+            }
+        }
+
+        logger.info("rendezvous: host with weight 3/6 has {} of {} buckets", mine, arr.length);
+
+        // should have roughly half of the buckets
+        assertTrue("mine=" + mine, mine > arr.length * 2 / 5 && mine < arr.length * 3 / 5);
+    }
+
+    /**
+     * Adds hosts, one at a time, until there are {@link #MAX_HOSTS}, and then removes
+     * them, one at a time, until only the leader remains.
+     *
+     * @param strategy assignment strategy
+     * @return the totals
+     */
+    private Totals scaleOutAndIn(String strategy) {
+        when(props.getAssignmentStrategy()).thenReturn(strategy);
+
+        when(mgr.getAssignments()).thenReturn(null);
+        SortedSet<String> alive = new TreeSet<>();
+        alive.add(MY_HOST);
+        BucketAssignments prev = assign(alive);
+
+        Totals totals = new Totals();
+
+        // scale out
+        for (int x = 1; x < MAX_HOSTS; ++x) {
+            alive.add(hosts.get(x));
+            prev = measure(prev, alive, hosts.get(x), true, totals);
+        }
+
+        // scale in
+        for (int x = MAX_HOSTS - 1; x > 0; --x) {
+            alive.remove(hosts.get(x));
+            prev = measure(prev, alive, hosts.get(x), false, totals);
+        }
+
+        return totals;
+    }
+
+    /**
+     * Makes new assignments and measures the changes relative to the previous
+     * assignments.
+     *
+     * @param prev previous assignments
+     * @param alive hosts that are now alive
+     * @param changed host that joined or left
+     * @param joined {@code true} if the host joined, {@code false} if it left
+     * @param totals totals to be updated
+     * @return the new assignments
+     */
+    private BucketAssignments measure(BucketAssignments prev, SortedSet<String> alive, String changed,
+                    boolean joined, Totals totals) {
+
+        when(mgr.getAssignments()).thenReturn(prev);
+        BucketAssignments next = assign(alive);
+
+        int moved = countMoved(prev, next);
+
+        int rerouted = 0;
+        for (String reqid : requests) {
+            if (!prev.getAssignedHost(reqid.hashCode()).equals(next.getAssignedHost(reqid.hashCode()))) {
+                ++rerouted;
+            }
+        }
+
+        logger.info("{} hosts after {} {}: moved {} buckets, re-routed {} requests", alive.size(), changed,
+                        (joined ? "joined" : "left"), moved, rerouted);
+
+        totals.moved += moved;
+        totals.rerouted += rerouted;
+
+        return next;
+    }
+
+    /**
+     * Assigns buckets to all hosts, then assigns them again, via a leader that does not
+     * know the previous assignments.
+     *
+     * @param strategy assignment strategy
+     * @return the number of buckets moved by the second leader
+     */
+    private int replaceLeader(String strategy) {
+        when(props.getAssignmentStrategy()).thenReturn(strategy);
+
+        // assign the hosts, adding one at a time
+        SortedSet<String> alive = new TreeSet<>();
+        when(mgr.getAssignments()).thenReturn(null);
+
+        BucketAssignments prev = null;
+        for (String host : hosts) {
+            alive.add(host);
+            prev = assign(alive);
+            when(mgr.getAssignments()).thenReturn(prev);
+        }
+
+        // new leader knows nothing about the previous assignments
+        when(mgr.getAssignments()).thenReturn(null);
+
+        return countMoved(prev, assign(alive));
+    }
+
+    /**
+     * Has the leader make assignments for a set of hosts.
+     *
+     * @param alive hosts that are alive
+     * @return the new assignments
+     */
+    private BucketAssignments assign(SortedSet<String> alive) {
+        admin.clear();
+
+        ProcessingState state = new ProcessingState(mgr, MY_HOST);
+        state.becomeLeader(alive);
+
+        return captureAssignments();
+    }
+
+    /**
+     * Counts the buckets whose host differs between two assignments.
+     *
+     * @param prev previous assignments
+     * @param next new assignments
+     * @return the number of buckets that moved
+     */
+    private int countMoved(BucketAssignments prev, BucketAssignments next) {
+        String[] prevArr = prev.getHostArray();
+        String[] nextArr = next.getHostArray();
+
+        assertEquals(prevArr.length, nextArr.length);
+
+        int moved = 0;
+        for (int x = 0; x < prevArr.length; ++x) {
+            if (!prevArr[x].equals(nextArr[x])) {
+                ++moved;
+            }
+        }
+
+        return moved;
+    }
+
+    /**
+     * Totals across all of the membership changes.
+     */
+    private static class Totals {
+        private int moved = 0;
+        private int rerouted = 0;
+
+        @Override
+        public String toString() {
+            return "moved " + moved + " buckets, re-routed " + rerouted + " requests";
+        }
+    }
+}
@@ -31,9 +31,13 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import org.junit.Before;
 import org.junit.Test;
+import org.onap.policy.drools.pooling.PoolingProperties;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
 import org.onap.policy.drools.pooling.message.Identification;
 import org.onap.policy.drools.pooling.message.Leader;
@@ -223,6 +227,18 @@ public class ProcessingStateTest extends SupportBasicStateTester {
         assertFalse(msg.getAssignments().hasAssignment(HOST1));
     }
 
+    @Test
+    public void testMakeLeader_CompactHosts() throws Exception {
+        BucketAssignments asgn = new BucketAssignments(HOST_ARR3);
+        asgn.setCompactHosts(new TreeSet<>(Arrays.asList(HOST1)));
+        when(mgr.getAssignments()).thenReturn(asgn);
+
+        state.becomeLeader(sortHosts(MY_HOST, HOST1, HOST2));
+
+        // this host always supports it; the others only if the assignments say so
+        assertEquals(new TreeSet<>(Arrays.asList(MY_HOST, HOST1)), captureAssignments().getCompactHosts());
+    }
+
     @Test
     public void testMakeAssignments() throws Exception {
         state.becomeLeader(sortHosts(MY_HOST, HOST2));
@@ -325,6 +341,93 @@ public class ProcessingStateTest extends SupportBasicStateTester {
         assertEquals(Arrays.asList(expected), captureHostList());
     }
 
+    @Test
+    public void testMakeRendezvousAssignments() throws Exception {
+        when(props.getAssignmentStrategy()).thenReturn(PoolingProperties.STRATEGY_RENDEZVOUS);
+        when(props.getHostWeight()).thenReturn(3);
+
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put(HOST2, 2);
+
+        BucketAssignments asgn = new BucketAssignments(HOST_ARR3);
+        asgn.setHostWeights(weights);
+        state.setAssignments(asgn);
+
+        state.becomeLeader(sortHosts(MY_HOST, HOST1, HOST2));
+
+        BucketAssignments result = captureAssignments();
+        result.checkValidity();
+
+        Map<String, Integer> expectedWeights = new TreeMap<>();
+        expectedWeights.put(MY_HOST, 3);
+        expectedWeights.put(HOST1, BucketAssignments.DEFAULT_WEIGHT);
+        expectedWeights.put(HOST2, 2);
+
+        assertEquals(expectedWeights, result.getHostWeights());
+        assertEquals(Arrays.asList(RendezvousAssigner.assign(BucketAssignments.MAX_BUCKETS, expectedWeights)),
+                        Arrays.asList(result.getHostArray()));
+    }
+
+    @Test
+    public void testMakeRendezvousAssignments_NoPreviousAssignments() throws Exception {
+        when(props.getAssignmentStrategy()).thenReturn(PoolingProperties.STRATEGY_RENDEZVOUS);
+
+        state.setAssignments(ASGN3);
+        state.becomeLeader(sortHosts(MY_HOST, HOST1, HOST2));
+        List<String> expected = captureHostList();
+
+        // a new leader, without any assignments, should produce the same assignments
+        when(mgr.getAssignments()).thenReturn(null);
+        state = new ProcessingState(mgr, MY_HOST);
+        admin.clear();
+
+        state.becomeLeader(sortHosts(MY_HOST, HOST1, HOST2));
+        assertEquals(expected, captureHostList());
+    }
+
+    @Test
+    public void testGetWeight() {
+        // no assignments
+        when(mgr.getAssignments()).thenReturn(null);
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, state.getWeight(HOST1));
+
+        // this host, with an invalid weight
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, state.getWeight(MY_HOST));
+
+        // this host, with a valid weight
+        when(props.getHostWeight()).thenReturn(4);
+        assertEquals(4, state.getWeight(MY_HOST));
+
+        // from the assignments
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put(HOST1, 6);
+
+        BucketAssignments asgn = new BucketAssignments(HOST_ARR3);
+        asgn.setHostWeights(weights);
+        when(mgr.getAssignments()).thenReturn(asgn);
+
+        assertEquals(6, state.getWeight(HOST1));
+        assertEquals(BucketAssignments.DEFAULT_WEIGHT, state.getWeight(HOST2));
+    }
+
+    @Test
+    public void testIsCompact() {
+        // no assignments
+        when(mgr.getAssignments()).thenReturn(null);
+        assertFalse(state.isCompact(HOST1));
+
+        // this host always supports it
+        assertTrue(state.isCompact(MY_HOST));
+
+        // from the assignments
+        BucketAssignments asgn = new BucketAssignments(HOST_ARR3);
+        asgn.setCompactHosts(new TreeSet<>(Arrays.asList(HOST1)));
+        when(mgr.getAssignments()).thenReturn(asgn);
+
+        assertTrue(state.isCompact(HOST1));
+        assertFalse(state.isCompact(HOST2));
+    }
+
     @Test
     public void testHostBucketRemove_testHostBucketAdd_testHostBucketSize() {
         assertEquals(0, hostBucket.size());
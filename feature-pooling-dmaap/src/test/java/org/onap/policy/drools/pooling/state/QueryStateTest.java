@@ -21,6 +21,7 @@
 package org.onap.policy.drools.pooling.state;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -31,7 +32,10 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import org.junit.Before;
 import org.junit.Test;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
@@ -236,6 +240,65 @@ public class QueryStateTest extends SupportBasicStateTester {
         assertEquals(MY_HOST, state.getLeader());
     }
 
+    @Test
+    public void testGetWeight() {
+        when(props.getHostWeight()).thenReturn(4);
+
+        Map<String, Integer> weights = new TreeMap<>();
+        weights.put(HOST1, 2);
+        weights.put(HOST2, 5);
+
+        BucketAssignments asgn = new BucketAssignments(new String[] {HOST1, HOST2});
+        asgn.setHostWeights(weights);
+        mgr.startDistributing(asgn);
+        state = new QueryState(mgr);
+
+        // reported weight takes precedence over the assignments
+        Identification ident = new Identification(HOST1, null);
+        ident.setWeight(3);
+        state.process(ident);
+        assertEquals(3, state.getWeight(HOST1));
+
+        // no weight reported - use the assignments
+        state.process(new Identification(HOST2, null));
+        assertEquals(5, state.getWeight(HOST2));
+
+        // always use our own properties for this host
+        ident = new Identification(MY_HOST, null);
+        ident.setWeight(7);
+        state.process(ident);
+        assertEquals(4, state.getWeight(MY_HOST));
+
+        // goes offline - back to the assignments
+        state.process(new Offline(HOST1));
+        assertEquals(2, state.getWeight(HOST1));
+    }
+
+    @Test
+    public void testIsCompact() {
+        BucketAssignments asgn = new BucketAssignments(new String[] {HOST1, HOST2});
+        asgn.setCompactHosts(new TreeSet<>(Arrays.asList(HOST1)));
+        mgr.startDistributing(asgn);
+        state = new QueryState(mgr);
+
+        // reported support takes precedence over the assignments
+        state.process(new Identification(HOST1, null));
+        assertFalse(state.isCompact(HOST1));
+
+        Identification ident = new Identification(HOST2, null);
+        ident.setCompact(true);
+        state.process(ident);
+        assertTrue(state.isCompact(HOST2));
+
+        // always supported by this host
+        state.process(new Identification(MY_HOST, null));
+        assertTrue(state.isCompact(MY_HOST));
+
+        // goes offline - back to the assignments
+        state.process(new Offline(HOST1));
+        assertTrue(state.isCompact(HOST1));
+    }
+
     @Test
     public void testQueryState() {
         /*
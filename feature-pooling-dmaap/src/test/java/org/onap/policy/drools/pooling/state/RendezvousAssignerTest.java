@@ -0,0 +1,178 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.pooling.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class RendezvousAssignerTest {
+
+    private static final int NBUCKETS = 1024;
+
+    private static final String HOST1 = "hostA";
+    private static final String HOST2 = "hostB";
+    private static final String HOST3 = "hostC";
+    private static final String HOST4 = "hostD";
+
+    @Test
+    public void testAssign_NoHosts() {
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, new TreeMap<>());
+
+        assertEquals(NBUCKETS, arr.length);
+        assertTrue(Arrays.stream(arr).allMatch(host -> host == null));
+    }
+
+    @Test
+    public void testAssign_OneHost() {
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1));
+        assertTrue(Arrays.stream(arr).allMatch(HOST1::equals));
+    }
+
+    @Test
+    public void testAssign_InvalidWeights() {
+        Map<String, Integer> weights = makeWeights(HOST1, 0, HOST2, -1, HOST3, 1);
+        weights.put(HOST4, null);
+
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, weights);
+        assertTrue(Arrays.stream(arr).allMatch(HOST3::equals));
+
+        // no valid weights
+        weights.remove(HOST3);
+        assertNull(RendezvousAssigner.assign(NBUCKETS, weights)[0]);
+    }
+
+    @Test
+    public void testAssign_Deterministic() {
+        Map<String, Integer> weights = makeWeights(HOST1, 1, HOST2, 2, HOST3, 1);
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, weights);
+
+        // different map type, thus different iteration order
+        Map<String, Integer> weights2 = new LinkedHashMap<>();
+        weights2.put(HOST3, 1);
+        weights2.put(HOST2, 2);
+        weights2.put(HOST1, 1);
+
+        assertEquals(Arrays.asList(arr), Arrays.asList(RendezvousAssigner.assign(NBUCKETS, weights2)));
+    }
+
+    @Test
+    public void testAssign_Balanced() {
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST2, 1, HOST3, 1, HOST4, 1));
+
+        Map<String, Integer> counts = count(arr);
+        assertEquals(4, counts.size());
+
+        // each should get roughly a quarter of the buckets
+        counts.values().forEach(count -> assertTrue("count=" + count, count > 200 && count < 312));
+    }
+
+    @Test
+    public void testAssign_Weighted() {
+        String[] arr = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST2, 3));
+
+        // should get roughly a quarter and three quarters of the buckets
+        Map<String, Integer> counts = count(arr);
+        assertTrue("count=" + counts.get(HOST1), counts.get(HOST1) > 200 && counts.get(HOST1) < 312);
+        assertTrue("count=" + counts.get(HOST2), counts.get(HOST2) > 712 && counts.get(HOST2) < 824);
+    }
+
+    @Test
+    public void testAssign_AddHost() {
+        String[] before = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST2, 1, HOST3, 1));
+        String[] after = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST2, 1, HOST3, 1, HOST4, 1));
+
+        // only buckets taken by the new host should have moved
+        for (int x = 0; x < NBUCKETS; ++x) {
+            assertTrue(before[x].equals(after[x]) || HOST4.equals(after[x]));
+        }
+    }
+
+    @Test
+    public void testAssign_RemoveHost() {
+        String[] before = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST2, 1, HOST3, 1));
+        String[] after = RendezvousAssigner.assign(NBUCKETS, makeWeights(HOST1, 1, HOST3, 1));
+
+        // only buckets held by the old host should have moved
+        for (int x = 0; x < NBUCKETS; ++x) {
+            assertTrue(before[x].equals(after[x]) || HOST2.equals(before[x]));
+        }
+    }
+
+    @Test
+    public void testScore() {
+        long hash = RendezvousAssigner.hashHost(HOST1);
+
+        for (int x = 0; x < NBUCKETS; ++x) {
+            double score = RendezvousAssigner.score(hash, x, 1);
+            assertTrue(score > 0);
+
+            // scales with the weight
+            assertEquals(score * 3, RendezvousAssigner.score(hash, x, 3), 1e-9 * score);
+        }
+    }
+
+    @Test
+    public void testHashHost() {
+        assertEquals(RendezvousAssigner.hashHost(HOST1), RendezvousAssigner.hashHost(HOST1));
+        assertTrue(RendezvousAssigner.hashHost(HOST1) != RendezvousAssigner.hashHost(HOST2));
+        assertTrue(RendezvousAssigner.hashHost("") != RendezvousAssigner.hashHost(HOST1));
+    }
+
+    /**
+     * Makes a map of host weights.
+     *
+     * @param hostWeightPairs pairs of host names and weights
+     * @return a new map of host weights
+     */
+    private Map<String, Integer> makeWeights(Object... hostWeightPairs) {
+        Map<String, Integer> weights = new TreeMap<>();
+
+        for (int x = 0; x < hostWeightPairs.length; x += 2) {
+            weights.put((String) hostWeightPairs[x], (Integer) hostWeightPairs[x + 1]);
+        }
+
+        return weights;
+    }
+
+    /**
+     * Counts the number of buckets assigned to each host.
+     *
+     * @param bucket2host bucket assignments
+     * @return a map of host name to bucket count
+     */
+    private Map<String, Integer> count(String[] bucket2host) {
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (String host : bucket2host) {
+            counts.merge(host, 1, Integer::sum);
+        }
+
+        return counts;
+    }
+}
@@ -25,18 +25,22 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
 import java.util.Map;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.onap.policy.drools.pooling.CancellableScheduledTask;
 import org.onap.policy.drools.pooling.PoolingManager;
 import org.onap.policy.drools.pooling.message.BucketAssignments;
 import org.onap.policy.drools.pooling.message.Forward;
+import org.onap.policy.drools.pooling.message.ForwardBatch;
 import org.onap.policy.drools.pooling.message.Heartbeat;
 import org.onap.policy.drools.pooling.message.Identification;
 import org.onap.policy.drools.pooling.message.Leader;
@@ -224,6 +228,24 @@ public class StateTest extends SupportBasicStateTester {
         verify(mgr).handle(msg);
     }
 
+    @Test
+    public void testProcessForwardBatch() {
+        Forward fwd1 = new Forward();
+        Forward fwd2 = new Forward();
+        ForwardBatch msg = new ForwardBatch(HOST1, Arrays.asList(fwd1, fwd2));
+        assertNull(state.process(msg));
+
+        verify(mgr, never()).handle(any(Forward.class));
+
+        msg.setChannel(MY_HOST);
+        assertNull(state.process(msg));
+
+        // should be handled in order
+        InOrder order = inOrder(mgr);
+        order.verify(mgr).handle(fwd1);
+        order.verify(mgr).handle(fwd2);
+    }
+
     @Test
     public void testProcessHeartbeat() {
         assertNull(state.process(new Heartbeat()));
@@ -463,6 +485,7 @@ public class StateTest extends SupportBasicStateTester {
         Identification ident = state.makeIdentification();
         assertEquals(MY_HOST, ident.getSource());
         assertEquals(ASGN3, ident.getAssignments());
+        assertTrue(ident.isCompact());
     }
 
     @Test
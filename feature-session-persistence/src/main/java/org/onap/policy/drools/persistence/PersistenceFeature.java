@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
@@ -608,6 +609,12 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
         /** Used to indicate that processing should stop. */
         private final CountDownLatch stopped = new CountDownLatch(1);
 
+        /** Set when the session has new work, cleared just before the rules are fired. */
+        private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+
+        /** Monitor the thread waits on between runs, notified on wakeup and stop. */
+        private final Object wakeupLock = new Object();
+
         /** Minimum time, in milli-seconds, that the thread should sleep before firing rules again. */
         long minSleepTime = 100;
 
@@ -699,6 +706,10 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
             // tell the thread to stop
             stopped.countDown();
 
+            synchronized (wakeupLock) {
+                wakeupLock.notifyAll();
+            }
+
             // wait up to 10 seconds for the thread to stop
             try {
                 thread.join(10000);
@@ -723,6 +734,22 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
             thread.setName(getThreadName());
         }
 
+        /**
+         * {@inheritDoc}.
+         **/
+        @Override
+        public void wakeup() {
+            // facts inserted by the rules themselves are handled by the current run;
+            // only the first of a burst of inserts needs to notify the thread
+            if (Thread.currentThread() == thread || !wakeupPending.compareAndSet(false, true)) {
+                return;
+            }
+
+            synchronized (wakeupLock) {
+                wakeupLock.notifyAll();
+            }
+        }
+
         /*======================*/
         /* 'Runnable' interface */
         /*======================*/
@@ -746,6 +773,8 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
             boolean cont = true;
             while (cont) {
 
+                wakeupPending.set(false);
+
                 try {
                     if (kieSession.fireAllRules() > 0) {
                         // some rules fired -- reduce poll delay
@@ -760,7 +789,7 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
                 }
 
                 try {
-                    if (stopped.await(sleepTime, TimeUnit.MILLISECONDS)) {
+                    if (awaitWork(sleepTime)) {
                         cont = false;
                     }
 
@@ -773,6 +802,23 @@ public class PersistenceFeature implements PolicySessionFeatureAPI, PolicyEngine
 
             logger.info("PersistentThreadModel completed");
         }
+
+        /**
+         * Waits until the sleep time expires, new work arrives, or the thread is stopped.
+         *
+         * @param sleepTime maximum time to wait, in milli-seconds
+         * @return {@code true} if the thread has been stopped, {@code false} otherwise
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        private boolean awaitWork(long sleepTime) throws InterruptedException {
+            synchronized (wakeupLock) {
+                if (stopped.getCount() > 0 && !wakeupPending.get()) {
+                    wakeupLock.wait(sleepTime);
+                }
+            }
+
+            return (stopped.getCount() == 0);
+        }
     }
 
     /* ============================================================ */
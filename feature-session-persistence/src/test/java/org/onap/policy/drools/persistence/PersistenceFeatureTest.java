@@ -32,6 +32,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -552,6 +553,31 @@ public class PersistenceFeatureTest {
         model.stop();
     }
 
+    @Test
+    public void testSelectThreadModel_Wakeup() throws Exception {
+        setUpKie(MY_SESS_NAME, 999L, true);
+
+        ThreadModel model = feat.selectThreadModel(polsess);
+        assertNotNull(model);
+
+        when(polsess.getKieSession()).thenReturn(kiesess);
+        when(kiesess.fireAllRules()).thenReturn(0);
+
+        model.start();
+
+        try {
+            // first run, after which the thread sleeps for the maximum sleep time
+            verify(kiesess, timeout(2000)).fireAllRules();
+
+            // new work - the rules should fire well before the sleep time expires
+            model.wakeup();
+            verify(kiesess, timeout(2000).times(2)).fireAllRules();
+
+        } finally {
+            model.stop();
+        }
+    }
+
     @Test
     public void testDisposeKieSession() throws Exception {
         setUpKie(MY_SESS_NAME, 999L, false);
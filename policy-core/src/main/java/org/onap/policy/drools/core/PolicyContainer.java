@@ -22,9 +22,12 @@
 package org.onap.policy.drools.core;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.kie.api.KieBase;
@@ -65,6 +68,14 @@ public class PolicyContainer implements Startable {
     // maps session name into the associated 'PolicySession' instance
     private HashMap<String, PolicySession> sessions = new HashMap<>();
 
+    // immutable copy of 'sessions', published each time 'sessions' is modified,
+    // so that lookups and inserts don't need to lock 'sessions'
+    private volatile Map<String, PolicySession> sessionSnapshot = Collections.emptyMap();
+
+    // names of the classes whose facts are indexed within each session; guarded
+    // by the 'sessions' lock, so that new sessions don't miss any
+    private final Set<String> indexedClasses = new HashSet<>();
+
     // if not null, this is a 'KieScanner' looking for updates
     private KieScanner scanner = null;
 
@@ -236,7 +247,32 @@ public class PolicyContainer implements Startable {
      * @return a PolicySession if found, 'null' if not
      */
     public PolicySession getPolicySession(String name) {
-        return sessions.get(name);
+        return sessionSnapshot.get(name);
+    }
+
+    /**
+     * Registers a class whose facts are to be indexed within each session, both
+     * existing and future, so that they can be deleted without scanning working
+     * memory. A fact that is modified in place, without being updated in the
+     * session, can't be found via the index until it is updated.
+     *
+     * @param className name of the class whose facts are to be indexed
+     */
+    public void addIndexedClass(String className) {
+        synchronized (sessions) {
+            if (indexedClasses.add(className)) {
+                for (PolicySession session : sessions.values()) {
+                    session.addIndexedClass(className);
+                }
+            }
+        }
+    }
+
+    /**
+     * Publishes a new snapshot of 'sessions'. The caller must hold the 'sessions' lock.
+     */
+    private void publishSessions() {
+        sessionSnapshot = Collections.unmodifiableMap(new HashMap<>(sessions));
     }
 
     /**
@@ -277,7 +313,9 @@ public class PolicyContainer implements Startable {
                 // creation of 'KieSession' was successful - build
                 // a PolicySession
                 session = new PolicySession(name, this, kieSession);
+                indexedClasses.forEach(session::addIndexedClass);
                 sessions.put(name, session);
+                publishSessions();
 
                 // notify features
                 for (PolicySessionFeatureAPI feature : PolicySessionFeatureAPI.impl.getList()) {
@@ -347,7 +385,9 @@ public class PolicyContainer implements Startable {
             // and return the object to the caller
             logger.info("adoptKieSession:create a new policySession with name {}", name);
             PolicySession policySession = new PolicySession(name, this, kieSession);
+            indexedClasses.forEach(policySession::addIndexedClass);
             sessions.put(name, policySession);
+            publishSessions();
 
             // notify features
             for (PolicySessionFeatureAPI feature : PolicySessionFeatureAPI.impl.getList()) {
@@ -393,8 +433,10 @@ public class PolicyContainer implements Startable {
             logger.info("updateToVersion:releaseId {}", releaseId);
         }
 
+        Collection<PolicySession> localSessions = sessionSnapshot.values();
+
         // stop all session threads
-        for (PolicySession session : sessions.values()) {
+        for (PolicySession session : localSessions) {
             session.stopThread();
         }
 
@@ -402,7 +444,7 @@ public class PolicyContainer implements Startable {
         Results results = kieContainer.updateToVersion(releaseId);
 
         // restart all session threads, and notify the sessions
-        for (PolicySession session : sessions.values()) {
+        for (PolicySession session : localSessions) {
             session.startThread();
             session.updated();
         }
@@ -424,20 +466,18 @@ public class PolicyContainer implements Startable {
     /**
      * Get policy sessions.
      * 
-     * @return all of the 'PolicySession' instances
+     * @return all of the 'PolicySession' instances (an unmodifiable snapshot)
      */
     public Collection<PolicySession> getPolicySessions() {
         // KLUDGE WARNING: this is a temporary workaround -- if there are
         // no features, we don't have persistence, and 'activate' is never
         // called. In this case, make sure the container is started.
-        if (PolicySessionFeatureAPI.impl.getList().isEmpty()) {
+        if (!isStarted && PolicySessionFeatureAPI.impl.getList().isEmpty()) {
             start();
         }
 
         // return current set of PolicySessions
-        synchronized (sessions) {
-            return new HashSet<>(sessions.values());
-        }
+        return sessionSnapshot.values();
     }
 
     /**
@@ -480,14 +520,8 @@ public class PolicyContainer implements Startable {
         // TODO: Should the definition of 'name' be expanded to include an
         // alternate entry point as well? For example, 'name.entryPoint' (or
         // something other than '.' if that is a problem).
-        synchronized (sessions) {
-            PolicySession session = sessions.get(name);
-            if (session != null) {
-                session.getKieSession().insert(object);
-                return true;
-            }
-        }
-        return false;
+        PolicySession session = sessionSnapshot.get(name);
+        return session != null && insertFact(session, object);
     }
 
     /**
@@ -498,15 +532,53 @@ public class PolicyContainer implements Startable {
      */
     public boolean insertAll(Object object) {
         boolean rval = false;
-        synchronized (sessions) {
-            for (PolicySession session : sessions.values()) {
-                session.getKieSession().insert(object);
-                rval = true;
+        for (PolicySession session : sessionSnapshot.values()) {
+            rval |= insertFact(session, object);
+        }
+        return rval;
+    }
+
+    /**
+     * Insert a batch of facts into all sessions associated with this container.  Unlike
+     * {@link #insertAll(Object)}, each element of the collection is inserted as a separate fact.
+     *
+     * @param facts the facts to be inserted into the sessions
+     * @return 'true' if the facts were inserted into at least one session, 'false' if not
+     */
+    public boolean insertAllFacts(Collection<?> facts) {
+        boolean rval = false;
+        for (PolicySession session : sessionSnapshot.values()) {
+            boolean inserted = true;
+            for (Object fact : facts) {
+                if (!insertFact(session, fact)) {
+                    inserted = false;
+                    break;
+                }
             }
+            rval |= inserted;
         }
         return rval;
     }
 
+    /**
+     * Insert a fact into a session. As the session snapshot is read without locking, the
+     * session may be concurrently disposed, in which case the fact is discarded.
+     *
+     * @param session the session
+     * @param fact the fact to be inserted into the session
+     * @return 'true' if the fact was inserted, 'false' if the session is no longer usable
+     */
+    private boolean insertFact(PolicySession session, Object fact) {
+        try {
+            session.getKieSession().insert(fact);
+            return true;
+
+        } catch (IllegalStateException e) {
+            logger.warn("cannot insert into session {} because of {}", session.getFullName(), e.getMessage());
+            return false;
+        }
+    }
+
     /*=======================*/
     /* 'Startable' interface */
     /*=======================*/
@@ -553,6 +625,7 @@ public class PolicyContainer implements Startable {
 
             // clear the 'name->session' map in 'PolicyContainer'
             sessions.clear();
+            publishSessions();
         }
         for (PolicySession session : localSessions) {
             // stop session thread
@@ -616,6 +689,7 @@ public class PolicyContainer implements Startable {
 
             // clear the 'name->session' map in 'PolicyContainer'
             sessions.clear();
+            publishSessions();
         }
         for (PolicySession session : localSessions) {
             // stop session thread
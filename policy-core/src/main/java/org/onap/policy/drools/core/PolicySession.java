@@ -21,8 +21,16 @@
 
 package org.onap.policy.drools.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.kie.api.definition.rule.Rule;
 import org.kie.api.event.rule.AfterMatchFiredEvent;
 import org.kie.api.event.rule.AgendaEventListener;
 import org.kie.api.event.rule.AgendaGroupPoppedEvent;
@@ -37,7 +45,12 @@ import org.kie.api.event.rule.RuleFlowGroupActivatedEvent;
 import org.kie.api.event.rule.RuleFlowGroupDeactivatedEvent;
 import org.kie.api.event.rule.RuleRuntimeEventListener;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.FactHandle;
+import org.onap.policy.drools.core.jmx.MetricStage;
 import org.onap.policy.drools.core.jmx.PdpJmx;
+import org.onap.policy.drools.core.jmx.PdpMetrics;
+import org.onap.policy.drools.core.jmx.ScopeMetrics;
+import org.onap.policy.drools.core.jmx.SessionStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,12 +81,44 @@ public class PolicySession
     private KieSession kieSession;
 
     // if not 'null', this is the thread model processing the 'KieSession'
-    private ThreadModel threadModel = null;
+    private volatile ThreadModel threadModel = null;
 
     // supports 'getCurrentSession()' method
     private static ThreadLocal<PolicySession> policySess =
             new ThreadLocal<>();
 
+    // latencies of the rules fired by this session
+    private final ScopeMetrics metrics;
+
+    // time, from 'System.nanoTime()', at which the current rule began to fire;
+    // the 'KieSession' only fires one rule at a time
+    private long fireStartNs = 0;
+
+    // per-rule and per-fact-class statistics, collected only when enabled
+    private final SessionStats stats = new SessionStats();
+
+    // maps a fact class name to the number of facts of that class in working
+    // memory; maintained by the 'RuleRuntimeEventListener' callbacks so that
+    // the inventory can be taken without scanning working memory. Keyed by
+    // name so that stale model classes are not retained after an upgrade
+    private final ConcurrentHashMap<String, LongAdder> factCounts =
+            new ConcurrentHashMap<>();
+
+    // names of the classes whose facts are indexed in 'factIndex'
+    private final Set<String> indexedClasses = ConcurrentHashMap.newKeySet();
+
+    // maps an indexed fact to the handles of the equal facts in working
+    // memory, almost always just one. A fact that is modified in place,
+    // without 'update()', is filed under its old contents until it is
+    // updated or deleted, thus it can't be found via 'getFactHandle()'
+    private final ConcurrentHashMap<IndexKey, List<FactHandle>> factIndex =
+            new ConcurrentHashMap<>();
+
+    // maps the handle of an indexed fact to its key within 'factIndex', so
+    // that the entry can be removed even if the fact was modified in place
+    private final ConcurrentHashMap<FactHandle, IndexKey> indexedHandles =
+            new ConcurrentHashMap<>();
+
     /**
      * Internal constructor - create a 'PolicySession' instance.
      *
@@ -86,6 +131,13 @@ public class PolicySession
         this.name = name;
         this.container = container;
         this.kieSession = kieSession;
+        this.metrics = PdpMetrics.getInstance().getScope(
+                PdpMetrics.makeScopeName(container.getGroupId(), container.getArtifactId(), name));
+
+        // account for any facts that are already present (e.g., restored
+        // from persistent storage) before listening for changes
+        countExistingFacts();
+
         kieSession.addEventListener((AgendaEventListener) this);
         kieSession.addEventListener((RuleRuntimeEventListener) this);
     }
@@ -129,6 +181,203 @@ public class PolicySession
         return container.getName() + ":" + name;
     }
 
+    /**
+     * Get statistics.
+     *
+     * @return the per-rule firing statistics and per-class fact operation counts
+     *     of this session, which are only collected while enabled
+     */
+    public SessionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Get fact counts.
+     *
+     * @return a map of fact class name to the number of facts of that class
+     *     currently in working memory. This is computed from counters that
+     *     are updated as facts are inserted, updated, and deleted, thus it
+     *     does not touch working memory
+     */
+    public Map<String, Long> getFactCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+
+        factCounts.forEach((className, adder) -> {
+            long count = adder.sum();
+            if (count > 0) {
+                counts.put(className, count);
+            }
+        });
+
+        return counts;
+    }
+
+    /**
+     * Counts the facts that are in working memory when the session is
+     * created. This is the only time working memory is scanned.
+     */
+    private void countExistingFacts() {
+        for (FactHandle fact : kieSession.getFactHandles()) {
+            try {
+                adjustFactCount(kieSession.getObject(fact), 1);
+            } catch (Exception e) {
+                logger.warn("Object cannot be retrieved from fact {}", fact, e);
+            }
+        }
+    }
+
+    /**
+     * Adjusts the number of facts of a fact's class.
+     *
+     * @param fact   the fact whose class is to be adjusted
+     * @param change the amount by which to adjust the count
+     */
+    private void adjustFactCount(Object fact, int change) {
+        if (fact == null) {
+            return;
+        }
+
+        String className = fact.getClass().getName();
+
+        LongAdder adder = factCounts.get(className);
+        if (adder == null) {
+            adder = factCounts.computeIfAbsent(className, key -> new LongAdder());
+        }
+
+        adder.add(change);
+    }
+
+    /**
+     * Registers a class whose facts are to be indexed, so that they can be
+     * found via 'getFactHandle()' without scanning working memory. Facts of
+     * the class that are already in working memory are indexed, too. Only
+     * facts of exactly this class, not of its subclasses, are indexed.
+     *
+     * @param className name of the class whose facts are to be indexed
+     */
+    public void addIndexedClass(String className) {
+        if (!indexedClasses.add(className)) {
+            return;
+        }
+
+        // the callbacks index any facts inserted from here on; index the rest
+        for (FactHandle fact : kieSession.getFactHandles(
+                object -> className.equals(object.getClass().getName()))) {
+            try {
+                indexFact(kieSession.getObject(fact), fact);
+            } catch (Exception e) {
+                logger.warn("Object cannot be retrieved from fact {}", fact, e);
+            }
+        }
+    }
+
+    /**
+     * Determines if a class is indexed.
+     *
+     * @param className name of the class of interest
+     * @return 'true' if facts of the class are indexed, 'false' otherwise
+     */
+    public boolean isIndexedClass(String className) {
+        return indexedClasses.contains(className);
+    }
+
+    /**
+     * Get fact handle.
+     *
+     * @param fact the fact of interest, which must be of an indexed class
+     * @return the handle of a fact, in working memory, that is equal to
+     *     'fact', or 'null' if there is none
+     */
+    public FactHandle getFactHandle(Object fact) {
+        if (fact == null) {
+            return null;
+        }
+
+        List<FactHandle> handles = factIndex.get(new IndexKey(fact));
+        return (handles == null ? null : handles.get(0));
+    }
+
+    /**
+     * Adds a fact to the index, if its class is indexed.
+     *
+     * @param fact   the fact
+     * @param handle the fact's handle
+     */
+    private void indexFact(Object fact, FactHandle handle) {
+        if (fact == null || indexedClasses.isEmpty() || !indexedClasses.contains(fact.getClass().getName())) {
+            return;
+        }
+
+        IndexKey newKey = new IndexKey(fact);
+        IndexKey oldKey = indexedHandles.put(handle, newKey);
+        if (oldKey != null) {
+            removeHandle(oldKey, handle);
+        }
+
+        factIndex.compute(newKey, (key, handles) -> {
+            if (handles == null) {
+                return Collections.singletonList(handle);
+            }
+
+            if (handles.contains(handle)) {
+                return handles;
+            }
+
+            List<FactHandle> result = new ArrayList<>(handles);
+            result.add(handle);
+            return result;
+        });
+    }
+
+    /**
+     * Removes a fact from the index, if it was indexed.
+     *
+     * @param handle the fact's handle
+     */
+    private void unindexFact(FactHandle handle) {
+        if (indexedHandles.isEmpty()) {
+            return;
+        }
+
+        IndexKey key = indexedHandles.remove(handle);
+        if (key != null) {
+            removeHandle(key, handle);
+        }
+    }
+
+    /**
+     * Removes a handle from an entry in the index.
+     *
+     * @param key    the key under which the handle was indexed
+     * @param handle the handle to be removed
+     */
+    private void removeHandle(IndexKey key, FactHandle handle) {
+        List<FactHandle> handles = factIndex.get(key);
+        if (handles == null || !handles.contains(handle)) {
+            /*
+             * the handle shares an entry with an equal fact, which has since
+             * been modified in place - find the entry the hard way
+             */
+            for (IndexKey other : factIndex.keySet()) {
+                handles = factIndex.get(other);
+                if (handles != null && handles.contains(handle)) {
+                    key = other;
+                    break;
+                }
+            }
+        }
+
+        factIndex.computeIfPresent(key, (oldKey, oldHandles) -> {
+            if (!oldHandles.contains(handle)) {
+                return oldHandles;
+            }
+
+            List<FactHandle> result = new ArrayList<>(oldHandles);
+            result.remove(handle);
+            return (result.isEmpty() ? null : result);
+        });
+    }
+
     /**
      * If no 'ThreadModel' is currently running, this method will create one,
      * and invoke it's 'start()' method. Features implementing
@@ -241,8 +490,18 @@ public class PolicySession
      */
     @Override
     public void afterMatchFired(AfterMatchFiredEvent event) {
-        logger.debug("afterMatchFired: {}: AgendaEventListener.afterMatchFired({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("afterMatchFired: {}: AgendaEventListener.afterMatchFired({})", getFullName(), event);
+        }
         PdpJmx.getInstance().ruleFired();
+
+        long elapsed = System.nanoTime() - fireStartNs;
+        metrics.record(MetricStage.FIRE, elapsed);
+
+        if (stats.isEnabled()) {
+            Rule rule = event.getMatch().getRule();
+            stats.ruleFired(rule.getPackageName(), rule.getName(), elapsed);
+        }
     }
 
     /**
@@ -250,8 +509,10 @@ public class PolicySession
      */
     @Override
     public void afterRuleFlowGroupActivated(RuleFlowGroupActivatedEvent event) {
-        logger.debug("afterRuleFlowGroupActivated: {}: AgendaEventListener.afterRuleFlowGroupActivated({})",
-                        getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("afterRuleFlowGroupActivated: {}: AgendaEventListener.afterRuleFlowGroupActivated({})",
+                            getFullName(), event);
+        }
     }
 
     /**
@@ -259,8 +520,10 @@ public class PolicySession
      */
     @Override
     public void afterRuleFlowGroupDeactivated(RuleFlowGroupDeactivatedEvent event) {
-        logger.debug("afterRuleFlowGroupDeactivated: {}: AgendaEventListener.afterRuleFlowGroupDeactivated({})",
-                        getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("afterRuleFlowGroupDeactivated: {}: AgendaEventListener.afterRuleFlowGroupDeactivated({})",
+                            getFullName(), event);
+        }
     }
 
     /**
@@ -268,7 +531,9 @@ public class PolicySession
      */
     @Override
     public void agendaGroupPopped(AgendaGroupPoppedEvent event) {
-        logger.debug("agendaGroupPopped: {}: AgendaEventListener.agendaGroupPopped({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("agendaGroupPopped: {}: AgendaEventListener.agendaGroupPopped({})", getFullName(), event);
+        }
     }
 
     /**
@@ -276,7 +541,9 @@ public class PolicySession
      */
     @Override
     public void agendaGroupPushed(AgendaGroupPushedEvent event) {
-        logger.debug("agendaGroupPushed: {}: AgendaEventListener.agendaGroupPushed({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("agendaGroupPushed: {}: AgendaEventListener.agendaGroupPushed({})", getFullName(), event);
+        }
     }
 
     /**
@@ -284,7 +551,10 @@ public class PolicySession
      */
     @Override
     public void beforeMatchFired(BeforeMatchFiredEvent event) {
-        logger.debug("beforeMatchFired: {}: AgendaEventListener.beforeMatchFired({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("beforeMatchFired: {}: AgendaEventListener.beforeMatchFired({})", getFullName(), event);
+        }
+        fireStartNs = System.nanoTime();
     }
 
     /**
@@ -292,8 +562,10 @@ public class PolicySession
      */
     @Override
     public void beforeRuleFlowGroupActivated(RuleFlowGroupActivatedEvent event) {
-        logger.debug("beforeRuleFlowGroupActivated: {}: AgendaEventListener.beforeRuleFlowGroupActivated({})",
-                        getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("beforeRuleFlowGroupActivated: {}: AgendaEventListener.beforeRuleFlowGroupActivated({})",
+                            getFullName(), event);
+        }
     }
 
     /**
@@ -301,8 +573,10 @@ public class PolicySession
      */
     @Override
     public void beforeRuleFlowGroupDeactivated(RuleFlowGroupDeactivatedEvent event) {
-        logger.debug("beforeRuleFlowGroupDeactivated: {}: AgendaEventListener.beforeRuleFlowGroupDeactivated({})",
-                        getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("beforeRuleFlowGroupDeactivated: {}: AgendaEventListener.beforeRuleFlowGroupDeactivated({})",
+                            getFullName(), event);
+        }
     }
 
     /**
@@ -310,7 +584,9 @@ public class PolicySession
      */
     @Override
     public void matchCancelled(MatchCancelledEvent event) {
-        logger.debug("matchCancelled: {}: AgendaEventListener.matchCancelled({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("matchCancelled: {}: AgendaEventListener.matchCancelled({})", getFullName(), event);
+        }
     }
 
     /**
@@ -318,7 +594,9 @@ public class PolicySession
      */
     @Override
     public void matchCreated(MatchCreatedEvent event) {
-        logger.debug("matchCreated: {}: AgendaEventListener.matchCreated({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("matchCreated: {}: AgendaEventListener.matchCreated({})", getFullName(), event);
+        }
     }
 
     /* ====================================== */
@@ -330,7 +608,14 @@ public class PolicySession
      */
     @Override
     public void objectDeleted(ObjectDeletedEvent event) {
-        logger.debug("objectDeleted: {}: AgendaEventListener.objectDeleted({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("objectDeleted: {}: AgendaEventListener.objectDeleted({})", getFullName(), event);
+        }
+        adjustFactCount(event.getOldObject(), -1);
+        unindexFact(event.getFactHandle());
+        if (stats.isEnabled()) {
+            stats.factDeleted(event.getOldObject());
+        }
     }
 
     /**
@@ -338,7 +623,15 @@ public class PolicySession
      */
     @Override
     public void objectInserted(ObjectInsertedEvent event) {
-        logger.debug("objectInserted: {}: AgendaEventListener.objectInserted({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("objectInserted: {}: AgendaEventListener.objectInserted({})", getFullName(), event);
+        }
+        adjustFactCount(event.getObject(), 1);
+        indexFact(event.getObject(), event.getFactHandle());
+        if (stats.isEnabled()) {
+            stats.factInserted(event.getObject());
+        }
+        wakeup();
     }
 
     /**
@@ -346,7 +639,35 @@ public class PolicySession
      */
     @Override
     public void objectUpdated(ObjectUpdatedEvent event) {
-        logger.debug("objectUpdated: {}: AgendaEventListener.objectUpdated({})", getFullName(), event);
+        if (logger.isDebugEnabled()) {
+            logger.debug("objectUpdated: {}: AgendaEventListener.objectUpdated({})", getFullName(), event);
+        }
+        Object oldObject = event.getOldObject();
+        Object newObject = event.getObject();
+        if (oldObject != null && newObject != null
+                && oldObject.getClass() != newObject.getClass()) {
+            // the fact was replaced by one of a different class
+            adjustFactCount(oldObject, -1);
+            adjustFactCount(newObject, 1);
+        }
+        // the fact may have been replaced or modified - re-index it
+        unindexFact(event.getFactHandle());
+        indexFact(newObject, event.getFactHandle());
+        if (stats.isEnabled()) {
+            stats.factUpdated(newObject);
+        }
+        wakeup();
+    }
+
+    /**
+     * Notifies the 'ThreadModel', if any, that the working memory has changed, and
+     * rules may need to be fired.
+     */
+    private void wakeup() {
+        ThreadModel model = threadModel;
+        if (model != null) {
+            model.wakeup();
+        }
     }
 
     /* ============================================================ */
@@ -373,6 +694,48 @@ public class PolicySession
          */
         public default void updated() {
         }
+
+        /**
+         * This method is called when facts are inserted or updated in the
+         * 'KieSession', so that thread models that periodically fire the rules
+         * can do so without waiting for their next scheduled run.
+         */
+        public default void wakeup() {
+        }
+    }
+
+    /**
+     * Key of a fact within 'factIndex'. The fact's hash code is captured
+     * when the key is created, so that the key can still be located after
+     * the fact is modified in place.
+     */
+    private static class IndexKey {
+        private final Object fact;
+        private final int hash;
+
+        public IndexKey(Object fact) {
+            this.fact = fact;
+            this.hash = fact.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof IndexKey)) {
+                return false;
+            }
+
+            IndexKey key = (IndexKey) other;
+            return (hash == key.hash && fact.equals(key.fact));
+        }
     }
 
     /* ============================================================ */
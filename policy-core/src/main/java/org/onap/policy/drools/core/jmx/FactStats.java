@@ -0,0 +1,61 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+/**
+ * Working memory operation counts for a single fact class.
+ */
+public class FactStats {
+
+    private final long inserts;
+    private final long updates;
+    private final long deletes;
+
+    /**
+     * Constructs the object.
+     *
+     * @param inserts number of facts of the class that were inserted
+     * @param updates number of facts of the class that were updated
+     * @param deletes number of facts of the class that were deleted
+     */
+    public FactStats(long inserts, long updates, long deletes) {
+        this.inserts = inserts;
+        this.updates = updates;
+        this.deletes = deletes;
+    }
+
+    public long getInserts() {
+        return inserts;
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+
+    public long getDeletes() {
+        return deletes;
+    }
+
+    @Override
+    public String toString() {
+        return "FactStats [inserts=" + inserts + ", updates=" + updates + ", deletes=" + deletes + "]";
+    }
+}
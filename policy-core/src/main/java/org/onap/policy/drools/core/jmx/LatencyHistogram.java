@@ -0,0 +1,190 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies, in the style of an HDR histogram. Each power-of-two range of
+ * values is divided into {@link #SUB_BUCKETS} equal buckets, thus a recorded value is
+ * known to within an eighth of its magnitude, while a few hundred buckets span from a
+ * microsecond to over an hour. Each bucket is a {@link LongAdder}, thus threads recording
+ * values at the same time do not contend with each other.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of bits used to select a bucket within a power-of-two range.
+     */
+    private static final int SUB_BITS = 3;
+
+    /**
+     * Number of buckets within each power-of-two range.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * Largest value, in microseconds, that is distinguished from larger values.
+     */
+    protected static final long MAX_MICROS = (1L << 32) - 1;
+
+    /**
+     * Number of buckets needed to hold all values up to {@link #MAX_MICROS}.
+     */
+    protected static final int NBUCKETS = bucketOf(MAX_MICROS) + 1;
+
+    private final LongAdder[] buckets = new LongAdder[NBUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Constructs the histogram.
+     */
+    public LatencyHistogram() {
+        for (int x = 0; x < NBUCKETS; ++x) {
+            buckets[x] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos latency, in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+
+        buckets[bucketOf(value / 1000)].increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    /**
+     * Gets the number of latencies that have been recorded.
+     *
+     * @return the number of latencies that have been recorded
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+
+        return count;
+    }
+
+    /**
+     * Takes a snapshot of the histogram. As values may be recorded while the snapshot is
+     * being taken, the figures may not be exactly consistent with each other.
+     *
+     * @return a snapshot of the histogram
+     */
+    public LatencySnapshot snapshot() {
+        long[] counts = new long[NBUCKETS];
+        long count = 0;
+
+        for (int x = 0; x < NBUCKETS; ++x) {
+            counts[x] = buckets[x].sum();
+            count += counts[x];
+        }
+
+        if (count == 0) {
+            return new LatencySnapshot(0, 0, 0, 0, 0, 0);
+        }
+
+        long max = maxNanos.get() / 1000;
+
+        return new LatencySnapshot(count, totalNanos.sum() / count / 1000, percentile(counts, count, 0.50, max),
+                        percentile(counts, count, 0.90, max), percentile(counts, count, 0.99, max), max);
+    }
+
+    /**
+     * Discards all recorded latencies.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Computes a percentile from the bucket counts.
+     *
+     * @param counts number of values recorded in each bucket
+     * @param count total number of values
+     * @param fraction desired percentile, as a fraction between 0 and 1
+     * @param max largest value recorded, in microseconds
+     * @return the largest value, in microseconds, that could be at the given percentile
+     */
+    private static long percentile(long[] counts, long count, double fraction, long max) {
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+
+        for (int x = 0; x < counts.length; ++x) {
+            seen += counts[x];
+            if (seen >= rank) {
+                return Math.min(upperBound(x), max);
+            }
+        }
+
+        return max;
+    }
+
+    /**
+     * Determines the bucket into which a value falls.
+     *
+     * @param micros value, in microseconds
+     * @return the index of the bucket into which the value falls
+     */
+    protected static int bucketOf(long micros) {
+        long value = Math.min(micros, MAX_MICROS);
+
+        // small values each get their own bucket
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Determines the largest value that falls into a bucket.
+     *
+     * @param bucket index of the bucket
+     * @return the largest value, in microseconds, that falls into the bucket
+     */
+    protected static long upperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+
+        return lower + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+/**
+ * Snapshot of a {@link LatencyHistogram}. All times are in microseconds.
+ */
+public class LatencySnapshot {
+
+    private final long count;
+    private final long meanMicros;
+    private final long p50Micros;
+    private final long p90Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    /**
+     * Constructs the object.
+     *
+     * @param count number of latencies recorded
+     * @param meanMicros mean latency
+     * @param p50Micros median latency
+     * @param p90Micros 90th percentile latency
+     * @param p99Micros 99th percentile latency
+     * @param maxMicros largest latency
+     */
+    public LatencySnapshot(long count, long meanMicros, long p50Micros, long p90Micros, long p99Micros,
+                    long maxMicros) {
+        this.count = count;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p90Micros = p90Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP90Micros() {
+        return p90Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot [count=" + count + ", meanMicros=" + meanMicros + ", p50Micros=" + p50Micros
+                        + ", p90Micros=" + p90Micros + ", p99Micros=" + p99Micros + ", maxMicros=" + maxMicros + "]";
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+/**
+ * Stages through which an event passes, each of whose latency is measured separately.
+ */
+public enum MetricStage {
+
+    /**
+     * Decoding an event received on a topic.
+     */
+    DECODE("decode"),
+
+    /**
+     * Running the feature hooks before and after an event is offered or inserted.
+     */
+    FEATURES("features"),
+
+    /**
+     * Inserting an event into the sessions.
+     */
+    INSERT("insert"),
+
+    /**
+     * Firing a rule.
+     */
+    FIRE("fire"),
+
+    /**
+     * Encoding an event to be delivered to a topic.
+     */
+    ENCODE("encode"),
+
+    /**
+     * Sending an encoded event to a topic.
+     */
+    DELIVER("deliver");
+
+    /**
+     * Name by which the stage is reported.
+     */
+    private final String label;
+
+    private MetricStage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -37,6 +37,11 @@ public class PdpJmxListener {
 
     public static final Logger logger = LoggerFactory.getLogger(PdpJmxListener.class);
 
+    /**
+     * Name of the MBean exposing the {@link PdpMetrics}.
+     */
+    public static final String METRICS_NAME = "PolicyEngine:type=PdpMetrics";
+
     private PdpJmxListener() {
     }
 
@@ -54,6 +59,14 @@ public class PdpJmxListener {
                     + "with the MBean server", e);
         }
 
+        try {
+            server.unregisterMBean(new ObjectName(METRICS_NAME));
+        } catch (MBeanRegistrationException | InstanceNotFoundException
+                | MalformedObjectNameException e) {
+            logger.error("PdpJmxListener.stop(): Could not unregister {} MBean with the MBean server",
+                    METRICS_NAME, e);
+        }
+
     }
 
     /**
@@ -70,6 +83,14 @@ public class PdpJmxListener {
                     + "with the MBean server", e);
         }
 
+        try {
+            server.registerMBean(PdpMetrics.getInstance(), new ObjectName(METRICS_NAME));
+        } catch (InstanceAlreadyExistsException | MBeanRegistrationException
+                | NotCompliantMBeanException | MalformedObjectNameException e) {
+            logger.error("PdpJmxListener.start(): Could not register {} MBean with the MBean server",
+                    METRICS_NAME, e);
+        }
+
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Latencies and error counts of the PDP-D, grouped by scope. Scopes are identified by
+ * name:
+ * <dl>
+ * <dt>policy controllers</dt>
+ * <dd>the controller name</dd>
+ * <dt>drools controllers</dt>
+ * <dd>{@code <groupId>:<artifactId>}</dd>
+ * <dt>sessions</dt>
+ * <dd>{@code <groupId>:<artifactId>:<sessionName>}</dd>
+ * </dl>
+ * The version is omitted from the drools names so that the metrics survive upgrades.
+ */
+public class PdpMetrics implements PdpMetricsMXBean {
+
+    /**
+     * Separates a scope name from the name of one of its topics.
+     */
+    public static final String TOPIC_SEPARATOR = "/";
+
+    private static PdpMetrics instance = new PdpMetrics();
+
+    /**
+     * Maps a scope name to its metrics.
+     */
+    private final ConcurrentHashMap<String, ScopeMetrics> scopes = new ConcurrentHashMap<>();
+
+    private volatile long resetTimeMs = System.currentTimeMillis();
+
+    public static PdpMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Makes a scope name from its parts.
+     *
+     * @param parts parts of the name (e.g., group id, artifact id, and session name)
+     * @return the scope name
+     */
+    public static String makeScopeName(String... parts) {
+        return String.join(":", parts);
+    }
+
+    /**
+     * Gets the metrics for a scope, creating them if they don't exist yet. As this is
+     * not free, the result should be retained by the caller.
+     *
+     * @param name scope name
+     * @return the scope's metrics
+     */
+    public ScopeMetrics getScope(String name) {
+        ScopeMetrics scope = scopes.get(name);
+        if (scope == null) {
+            scope = scopes.computeIfAbsent(name, key -> new ScopeMetrics());
+        }
+
+        return scope;
+    }
+
+    @Override
+    public Map<String, ScopeSnapshot> getScopes() {
+        return getScopes(name -> true);
+    }
+
+    /**
+     * Gets a snapshot of selected scopes, and of every topic within them.
+     *
+     * @param selector selects the names of the desired scopes
+     * @return a map of scope name to snapshot, where a topic within a scope is named
+     *         {@code <scope>/<topic>}
+     */
+    public Map<String, ScopeSnapshot> getScopes(Predicate<String> selector) {
+        Map<String, ScopeSnapshot> result = new TreeMap<>();
+
+        scopes.forEach((name, scope) -> {
+            if (selector.test(name)) {
+                result.put(name, scope.snapshot());
+                scope.getTopics().forEach((topic, tscope) -> result.put(name + TOPIC_SEPARATOR + topic,
+                                tscope.snapshot()));
+            }
+        });
+
+        return result;
+    }
+
+    @Override
+    public long getResetTimeMs() {
+        return resetTimeMs;
+    }
+
+    /**
+     * Resets the metrics in place, rather than discarding the scopes, as the scopes are
+     * retained by their users.
+     */
+    @Override
+    public void reset() {
+        scopes.values().forEach(ScopeMetrics::reset);
+        resetTimeMs = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Map;
+
+/**
+ * Per-scope latencies and error counts, exposed via JMX.
+ */
+public interface PdpMetricsMXBean {
+
+    /**
+     * Gets a snapshot of every scope and of every topic within each scope.
+     *
+     * @return a map of scope name to snapshot, where a topic within a scope is named
+     *         {@code <scope>/<topic>}
+     */
+    public Map<String, ScopeSnapshot> getScopes();
+
+    /**
+     * Gets the time at which the metrics were last reset, or, if they have never been
+     * reset, the time at which they were created.
+     *
+     * @return the time, in milliseconds
+     */
+    public long getResetTimeMs();
+
+    /**
+     * Discards all recorded latencies and errors.
+     */
+    public void reset();
+}
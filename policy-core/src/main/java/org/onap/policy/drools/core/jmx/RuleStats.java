@@ -0,0 +1,68 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+/**
+ * Firing statistics of a single rule. All times are in microseconds.
+ */
+public class RuleStats {
+
+    private final long fired;
+    private final long totalMicros;
+    private final long meanMicros;
+    private final long maxMicros;
+
+    /**
+     * Constructs the object.
+     *
+     * @param fired number of times the rule was fired
+     * @param totalMicros total time spent executing the rule's consequence
+     * @param maxMicros longest time spent executing the rule's consequence
+     */
+    public RuleStats(long fired, long totalMicros, long maxMicros) {
+        this.fired = fired;
+        this.totalMicros = totalMicros;
+        this.meanMicros = (fired == 0 ? 0 : totalMicros / fired);
+        this.maxMicros = maxMicros;
+    }
+
+    public long getFired() {
+        return fired;
+    }
+
+    public long getTotalMicros() {
+        return totalMicros;
+    }
+
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleStats [fired=" + fired + ", totalMicros=" + totalMicros + ", meanMicros=" + meanMicros
+                        + ", maxMicros=" + maxMicros + "]";
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and error counts, for each processing stage, within a single scope, such as a
+ * controller or a session. Also maintains a child scope for each topic on which events
+ * are processed within the scope. Histograms are only allocated for the stages that are
+ * actually used within the scope.
+ */
+public class ScopeMetrics {
+
+    private static final MetricStage[] STAGES = MetricStage.values();
+
+    /**
+     * Latencies for each stage, indexed by the stage's ordinal.
+     */
+    private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<>(STAGES.length);
+
+    /**
+     * Errors for each stage, indexed by the stage's ordinal.
+     */
+    private final LongAdder[] errors = new LongAdder[STAGES.length];
+
+    /**
+     * Maps a topic name to its scope.
+     */
+    private final ConcurrentHashMap<String, ScopeMetrics> topics = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs the object.
+     */
+    public ScopeMetrics() {
+        for (int x = 0; x < errors.length; ++x) {
+            errors[x] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records the latency of a stage.
+     *
+     * @param stage stage of interest
+     * @param nanos latency, in nanoseconds
+     */
+    public void record(MetricStage stage, long nanos) {
+        getHistogram(stage).record(nanos);
+    }
+
+    /**
+     * Records the latency of a stage, both within this scope and within the topic's
+     * scope.
+     *
+     * @param topic topic on which the event was received or to which it is being sent,
+     *        or {@code null} if there is no associated topic
+     * @param stage stage of interest
+     * @param nanos latency, in nanoseconds
+     */
+    public void record(String topic, MetricStage stage, long nanos) {
+        record(stage, nanos);
+
+        if (topic != null) {
+            getTopic(topic).record(stage, nanos);
+        }
+    }
+
+    /**
+     * Records an error within a stage.
+     *
+     * @param stage stage of interest
+     */
+    public void recordError(MetricStage stage) {
+        errors[stage.ordinal()].increment();
+    }
+
+    /**
+     * Records an error within a stage, both within this scope and within the topic's
+     * scope.
+     *
+     * @param topic topic on which the event was received or to which it is being sent,
+     *        or {@code null} if there is no associated topic
+     * @param stage stage of interest
+     */
+    public void recordError(String topic, MetricStage stage) {
+        recordError(stage);
+
+        if (topic != null) {
+            getTopic(topic).recordError(stage);
+        }
+    }
+
+    /**
+     * Gets the histogram for a stage, creating it if it doesn't exist yet.
+     *
+     * @param stage stage of interest
+     * @return the stage's histogram
+     */
+    public LatencyHistogram getHistogram(MetricStage stage) {
+        int index = stage.ordinal();
+
+        LatencyHistogram hist = histograms.get(index);
+        if (hist == null) {
+            // allocate a new histogram, if another thread doesn't beat us to it
+            histograms.compareAndSet(index, null, new LatencyHistogram());
+            hist = histograms.get(index);
+        }
+
+        return hist;
+    }
+
+    /**
+     * Gets the number of errors recorded for a stage.
+     *
+     * @param stage stage of interest
+     * @return the number of errors recorded for the stage
+     */
+    public long getErrors(MetricStage stage) {
+        return errors[stage.ordinal()].sum();
+    }
+
+    /**
+     * Gets the scope for a topic, creating it if it doesn't exist yet.
+     *
+     * @param topic topic of interest
+     * @return the topic's scope
+     */
+    public ScopeMetrics getTopic(String topic) {
+        ScopeMetrics scope = topics.get(topic);
+        if (scope == null) {
+            scope = topics.computeIfAbsent(topic, key -> new ScopeMetrics());
+        }
+
+        return scope;
+    }
+
+    /**
+     * Gets the topic scopes.
+     *
+     * @return a map of topic name to scope
+     */
+    public Map<String, ScopeMetrics> getTopics() {
+        return Collections.unmodifiableMap(topics);
+    }
+
+    /**
+     * Takes a snapshot of this scope, excluding its topics.
+     *
+     * @return a snapshot of this scope
+     */
+    public ScopeSnapshot snapshot() {
+        Map<String, LatencySnapshot> latencies = new TreeMap<>();
+        Map<String, Long> errorCounts = new TreeMap<>();
+
+        for (MetricStage stage : STAGES) {
+            LatencyHistogram hist = histograms.get(stage.ordinal());
+            if (hist != null) {
+                latencies.put(stage.getLabel(), hist.snapshot());
+            }
+
+            long count = getErrors(stage);
+            if (count > 0) {
+                errorCounts.put(stage.getLabel(), count);
+            }
+        }
+
+        return new ScopeSnapshot(latencies, errorCounts);
+    }
+
+    /**
+     * Discards all recorded latencies and errors, including those of the topics.
+     */
+    public void reset() {
+        for (int x = 0; x < STAGES.length; ++x) {
+            LatencyHistogram hist = histograms.get(x);
+            if (hist != null) {
+                hist.reset();
+            }
+
+            errors[x].reset();
+        }
+
+        topics.values().forEach(ScopeMetrics::reset);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Map;
+
+/**
+ * Snapshot of a {@link ScopeMetrics}, excluding its topics.
+ */
+public class ScopeSnapshot {
+
+    /**
+     * Maps a stage label to the stage's latencies. Only includes the stages that have
+     * been used within the scope.
+     */
+    private final Map<String, LatencySnapshot> latencies;
+
+    /**
+     * Maps a stage label to the number of errors that occurred within the stage. Only
+     * includes the stages in which errors have occurred.
+     */
+    private final Map<String, Long> errors;
+
+    /**
+     * Constructs the object.
+     *
+     * @param latencies maps a stage label to the stage's latencies
+     * @param errors maps a stage label to the number of errors that occurred within the
+     *        stage
+     */
+    public ScopeSnapshot(Map<String, LatencySnapshot> latencies, Map<String, Long> errors) {
+        this.latencies = latencies;
+        this.errors = errors;
+    }
+
+    public Map<String, LatencySnapshot> getLatencies() {
+        return latencies;
+    }
+
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "ScopeSnapshot [latencies=" + latencies + ", errors=" + errors + "]";
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-rule firing statistics and per-class fact operation counts of a single session.
+ * Statistics are only collected while enabled, which they are not, by default, so that
+ * the cost to a session that is not being examined is a single volatile read per
+ * callback. Rule statistics are updated by the thread firing the rules, while fact
+ * statistics may be updated by any thread that modifies the working memory; thus all
+ * counters are thread-safe.
+ */
+public class SessionStats {
+
+    private volatile boolean enabled = false;
+
+    private volatile long resetTimeMs = System.currentTimeMillis();
+
+    /**
+     * Maps a package name to a map of rule name to the rule's counters. Two levels are
+     * used so that nothing need be allocated to find the counters for a rule.
+     */
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, RuleCounters>> rules =
+                    new ConcurrentHashMap<>();
+
+    /**
+     * Maps a fact class name to its counters. Keyed by name, rather than by class, so
+     * that the classes of a replaced model are not retained until the next reset.
+     */
+    private final ConcurrentHashMap<String, FactCounters> facts = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getResetTimeMs() {
+        return resetTimeMs;
+    }
+
+    /**
+     * Records the firing of a rule, if enabled.
+     *
+     * @param packageName name of the package containing the rule, or {@code null} if the
+     *        rule is not in a package
+     * @param ruleName name of the rule
+     * @param nanos time, in nanoseconds, taken to execute the rule's consequence
+     */
+    public void ruleFired(String packageName, String ruleName, long nanos) {
+        if (!enabled) {
+            return;
+        }
+
+        String pkgName = (packageName == null ? "" : packageName);
+
+        ConcurrentHashMap<String, RuleCounters> pkg = rules.get(pkgName);
+        if (pkg == null) {
+            pkg = rules.computeIfAbsent(pkgName, key -> new ConcurrentHashMap<>());
+        }
+
+        RuleCounters counters = pkg.get(ruleName);
+        if (counters == null) {
+            counters = pkg.computeIfAbsent(ruleName, key -> new RuleCounters());
+        }
+
+        counters.record(nanos);
+    }
+
+    /**
+     * Records the insertion of a fact, if enabled.
+     *
+     * @param fact fact that was inserted
+     */
+    public void factInserted(Object fact) {
+        if (enabled && fact != null) {
+            getFactCounters(fact.getClass()).inserts.increment();
+        }
+    }
+
+    /**
+     * Records the update of a fact, if enabled.
+     *
+     * @param fact fact that was updated
+     */
+    public void factUpdated(Object fact) {
+        if (enabled && fact != null) {
+            getFactCounters(fact.getClass()).updates.increment();
+        }
+    }
+
+    /**
+     * Records the deletion of a fact, if enabled.
+     *
+     * @param fact fact that was deleted
+     */
+    public void factDeleted(Object fact) {
+        if (enabled && fact != null) {
+            getFactCounters(fact.getClass()).deletes.increment();
+        }
+    }
+
+    /**
+     * Gets the counters for a fact class, creating them if they don't exist yet.
+     *
+     * @param clazz fact class
+     * @return the class's counters
+     */
+    private FactCounters getFactCounters(Class<?> clazz) {
+        String name = clazz.getName();
+
+        FactCounters counters = facts.get(name);
+        if (counters == null) {
+            counters = facts.computeIfAbsent(name, key -> new FactCounters());
+        }
+
+        return counters;
+    }
+
+    /**
+     * Discards all statistics. Does not change whether or not statistics are enabled.
+     */
+    public void reset() {
+        rules.clear();
+        facts.clear();
+        resetTimeMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets a snapshot of the statistics.
+     *
+     * @return a snapshot of the statistics, with the rules ordered from the most to the
+     *         least total execution time
+     */
+    public SessionStatsSnapshot snapshot() {
+        Map<String, RuleStats> ruleMap = new TreeMap<>();
+
+        rules.forEach((packageName, pkg) -> pkg.forEach((ruleName, counters) -> ruleMap
+                        .put(makeRuleName(packageName, ruleName), counters.snapshot())));
+
+        Map<String, RuleStats> sortedRules = new LinkedHashMap<>();
+        ruleMap.entrySet().stream()
+                        .sorted(Map.Entry.comparingByValue(
+                                        Comparator.comparingLong(RuleStats::getTotalMicros).reversed()))
+                        .forEachOrdered(ent -> sortedRules.put(ent.getKey(), ent.getValue()));
+
+        Map<String, FactStats> factMap = new TreeMap<>();
+        facts.forEach((name, counters) -> factMap.put(name, counters.snapshot()));
+
+        return new SessionStatsSnapshot(enabled, resetTimeMs, sortedRules, factMap);
+    }
+
+    /**
+     * Makes the fully qualified name of a rule.
+     *
+     * @param packageName name of the package containing the rule
+     * @param ruleName name of the rule
+     * @return the fully qualified rule name
+     */
+    private static String makeRuleName(String packageName, String ruleName) {
+        return (packageName.isEmpty() ? ruleName : packageName + "." + ruleName);
+    }
+
+    /**
+     * Counters for a single rule.
+     */
+    private static class RuleCounters {
+        private final LongAdder fired = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        public void record(long nanos) {
+            fired.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        public RuleStats snapshot() {
+            return new RuleStats(fired.sum(), TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()),
+                            TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+        }
+    }
+
+    /**
+     * Counters for a single fact class.
+     */
+    private static class FactCounters {
+        private final LongAdder inserts = new LongAdder();
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder deletes = new LongAdder();
+
+        public FactStats snapshot() {
+            return new FactStats(inserts.sum(), updates.sum(), deletes.sum());
+        }
+    }
+}
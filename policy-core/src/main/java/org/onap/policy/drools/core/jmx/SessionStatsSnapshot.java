@@ -0,0 +1,89 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import java.util.Map;
+
+/**
+ * Snapshot of a {@link SessionStats}. Rates may be computed by dividing the counts by
+ * the time elapsed since the statistics were last reset.
+ */
+public class SessionStatsSnapshot {
+
+    /**
+     * {@code True} if statistics are being collected.
+     */
+    private final boolean enabled;
+
+    /**
+     * Time, in milliseconds, at which the statistics were last reset.
+     */
+    private final long resetTimeMs;
+
+    /**
+     * Maps a fully qualified rule name to its statistics, ordered from the most to the
+     * least total execution time.
+     */
+    private final Map<String, RuleStats> rules;
+
+    /**
+     * Maps a fact class name to its statistics.
+     */
+    private final Map<String, FactStats> facts;
+
+    /**
+     * Constructs the object.
+     *
+     * @param enabled {@code true} if statistics are being collected
+     * @param resetTimeMs time, in milliseconds, at which the statistics were last reset
+     * @param rules maps a fully qualified rule name to its statistics
+     * @param facts maps a fact class name to its statistics
+     */
+    public SessionStatsSnapshot(boolean enabled, long resetTimeMs, Map<String, RuleStats> rules,
+                    Map<String, FactStats> facts) {
+        this.enabled = enabled;
+        this.resetTimeMs = resetTimeMs;
+        this.rules = rules;
+        this.facts = facts;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getResetTimeMs() {
+        return resetTimeMs;
+    }
+
+    public Map<String, RuleStats> getRules() {
+        return rules;
+    }
+
+    public Map<String, FactStats> getFacts() {
+        return facts;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionStatsSnapshot [enabled=" + enabled + ", resetTimeMs=" + resetTimeMs + ", rules=" + rules
+                        + ", facts=" + facts + "]";
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * ============LICENSE_START=======================================================
+ * api-resource-locks
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.lock;
+
+/**
+ * Callback invoked when a lock that is being refreshed automatically could not be
+ * refreshed. Once this is invoked, the lock is no longer refreshed and must be assumed
+ * to have been lost.
+ */
+@FunctionalInterface
+public interface LockRefreshCallback {
+
+    /**
+     * Invoked when a lock could not be refreshed.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     */
+    void refreshFailed(String resourceId, String owner);
+}
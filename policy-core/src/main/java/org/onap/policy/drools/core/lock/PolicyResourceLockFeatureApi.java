@@ -173,4 +173,33 @@ public interface PolicyResourceLockFeatureApi extends OrderedService {
     public default OperResult beforeIsLockedBy(String resourceId, String owner) {
         return OperResult.OPER_UNHANDLED;
     }
+
+    /**
+     * This method is called before a lock is registered to be refreshed automatically.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @param holdSec the amount of time, in seconds, that the lock should be held after
+     *        each refresh
+     * @param callback invoked if the lock subsequently fails to be refreshed
+     * @return the result, where <b>OPER_DENIED</b> indicates that the resource is not
+     *         currently locked by the given owner
+     */
+    public default OperResult beforeAutoRefresh(String resourceId, String owner, int holdSec,
+                    LockRefreshCallback callback) {
+        return OperResult.OPER_UNHANDLED;
+    }
+
+    /**
+     * This method is called before a lock is unregistered from being refreshed
+     * automatically.
+     *
+     * @param resourceId resource id
+     * @param owner owner
+     * @return the result, where <b>OPER_DENIED</b> indicates that the lock was not
+     *         registered by the given owner
+     */
+    public default OperResult beforeCancelAutoRefresh(String resourceId, String owner) {
+        return OperResult.OPER_UNHANDLED;
+    }
 }
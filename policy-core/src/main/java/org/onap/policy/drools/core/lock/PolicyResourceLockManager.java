@@ -116,6 +116,46 @@ public class PolicyResourceLockManager extends SimpleLockManager {
         });
     }
 
+    @Override
+    public boolean autoRefresh(String resourceId, String owner, int holdSec, LockRefreshCallback callback) {
+        if (resourceId == null) {
+            throw makeNullArgException(MSG_NULL_RESOURCE_ID);
+        }
+
+        if (owner == null) {
+            throw makeNullArgException(MSG_NULL_OWNER);
+        }
+
+        if (callback == null) {
+            throw makeNullArgException(MSG_NULL_CALLBACK);
+        }
+
+
+        return doBoolIntercept(impl -> impl.beforeAutoRefresh(resourceId, owner, holdSec, callback), () ->
+
+            // implementer didn't do the work - defer to the superclass
+            super.autoRefresh(resourceId, owner, holdSec, callback)
+        );
+    }
+
+    @Override
+    public boolean cancelAutoRefresh(String resourceId, String owner) {
+        if (resourceId == null) {
+            throw makeNullArgException(MSG_NULL_RESOURCE_ID);
+        }
+
+        if (owner == null) {
+            throw makeNullArgException(MSG_NULL_OWNER);
+        }
+
+
+        return doBoolIntercept(impl -> impl.beforeCancelAutoRefresh(resourceId, owner), () ->
+
+            // implementer didn't do the work - defer to the superclass
+            super.cancelAutoRefresh(resourceId, owner)
+        );
+    }
+
     /**
      * Is locked.
      * 
@@ -20,12 +20,10 @@
 
 package org.onap.policy.drools.core.lock;
 
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.onap.policy.common.utils.time.CurrentTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +39,12 @@ public class SimpleLockManager {
     // messages used in exceptions
     public static final String MSG_NULL_RESOURCE_ID = "null resourceId";
     public static final String MSG_NULL_OWNER = "null owner";
+    public static final String MSG_NULL_CALLBACK = "null callback";
+
+    /**
+     * Minimum time, in milliseconds, between sweeps of the expired locks.
+     */
+    protected static final long SWEEP_INTERVAL_MS = 1000L;
     
     /**
      * Used to access the current time.  May be overridden by junit tests.
@@ -48,23 +52,19 @@ public class SimpleLockManager {
     private static CurrentTime currentTime = new CurrentTime();
 
     /**
-     * Used to synchronize updates to {@link #resource2data} and {@link #locks}.
+     * Maps a resource to its lock data. Updates are made atomically, per resource, so
+     * operations on different resources do not contend with each other. An expired
+     * lock is treated as if it were absent, even before it has been swept out of the
+     * map.
      */
-    private final Object locker = new Object();
+    private final ConcurrentHashMap<String, Data> resource2data = new ConcurrentHashMap<>();
 
     /**
-     * Maps a resource to its lock data. Lock data is stored in both this and in
-     * {@link #locks}.
+     * Time, in milliseconds, when the next sweep of expired locks is due. Sweeps are
+     * piggy-backed on lock operations; thus no timer threads are needed to remove
+     * expired locks.
      */
-    private final Map<String, Data> resource2data = new HashMap<>();
-
-    /**
-     * Lock data, sorted by expiration time. Lock data is stored in both this and in
-     * {@link #resource2data}. Whenever a lock operation is performed, this structure is
-     * examined and any expired locks are removed; thus no timer threads are needed to
-     * remove expired locks.
-     */
-    private final SortedSet<Data> locks = new TreeSet<>();
+    private final AtomicLong nextSweepMs = new AtomicLong(0);
 
     /**
      * Constructor.
@@ -95,17 +95,30 @@ public class SimpleLockManager {
             throw makeNullArgException(MSG_NULL_OWNER);
         }
 
-        boolean locked = false;
-        
-        synchronized (locker) {
-            cleanUpLocks();
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
 
-            if (!resource2data.containsKey(resourceId)) {
-                Data data = new Data(owner, resourceId, currentTime.getMillis() + TimeUnit.SECONDS.toMillis(holdSec));
-                resource2data.put(resourceId, data);
-                locks.add(data);
+        boolean locked;
+        Data data = null;
+
+        for (;;) {
+            Data existingLock = resource2data.get(resourceId);
+            if (existingLock != null && !existingLock.isExpired(tcur)) {
+                locked = false;
+                break;
+            }
+
+            if (data == null) {
+                data = new Data(owner, resourceId, tcur + TimeUnit.SECONDS.toMillis(holdSec));
+            }
+
+            if (existingLock == null ? resource2data.putIfAbsent(resourceId, data) == null
+                            : resource2data.replace(resourceId, existingLock, data)) {
                 locked = true;
+                break;
             }
+
+            // lost a race with another thread - try again
         }
 
         logger.info("lock {} for resource {} owner {}", locked, resourceId, owner);
@@ -133,22 +146,31 @@ public class SimpleLockManager {
             throw makeNullArgException(MSG_NULL_OWNER);
         }
 
-        boolean refreshed = false;
-        
-        synchronized (locker) {
-            cleanUpLocks();
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        boolean refreshed;
 
+        for (;;) {
             Data existingLock = resource2data.get(resourceId);
-            if (existingLock != null && existingLock.getOwner().equals(owner)) {                
-                // MUST remove the existing lock from the set
-                locks.remove(existingLock);
+            if (existingLock == null || existingLock.isExpired(tcur) || !existingLock.getOwner().equals(owner)) {
+                refreshed = false;
+                break;
+            }
+
+            if (existingLock.isAutoRefreshed()) {
+                // already being held until the registration is cancelled
+                refreshed = true;
+                break;
+            }
 
+            Data data = new Data(owner, resourceId, tcur + TimeUnit.SECONDS.toMillis(holdSec));
+            if (resource2data.replace(resourceId, existingLock, data)) {
                 refreshed = true;
-                
-                Data data = new Data(owner, resourceId, currentTime.getMillis() + TimeUnit.SECONDS.toMillis(holdSec));
-                resource2data.put(resourceId, data);
-                locks.add(data);
+                break;
             }
+
+            // lost a race with another thread - try again
         }
 
         logger.info("refresh lock {} for resource {} owner {}", refreshed, resourceId, owner);
@@ -156,6 +178,109 @@ public class SimpleLockManager {
         return refreshed;
     }
 
+    /**
+     * Registers a lock to be refreshed automatically, until it is unlocked or the
+     * registration is cancelled. As the locks managed here are held in memory,
+     * refreshing them cannot fail; they simply do not expire while they are registered,
+     * thus the callback is never invoked.
+     * 
+     * @param resourceId resource id
+     * @param owner owner
+     * @param holdSec the amount of time, in seconds, that the lock should be held after
+     *        each refresh
+     * @param callback invoked if the lock subsequently fails to be refreshed
+     * @return {@code true} if registered, {@code false} if the resource is not currently
+     *         locked by the given owner
+     * @throws IllegalArgumentException if the resourceId, owner, or callback is
+     *         {@code null}
+     */
+    public boolean autoRefresh(String resourceId, String owner, int holdSec, LockRefreshCallback callback) {
+
+        if (resourceId == null) {
+            throw makeNullArgException(MSG_NULL_RESOURCE_ID);
+        }
+
+        if (owner == null) {
+            throw makeNullArgException(MSG_NULL_OWNER);
+        }
+
+        if (callback == null) {
+            throw makeNullArgException(MSG_NULL_CALLBACK);
+        }
+
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        boolean registered;
+        Data data = new Data(owner, resourceId, Long.MAX_VALUE, Math.max(0, holdSec));
+
+        for (;;) {
+            Data existingLock = resource2data.get(resourceId);
+            if (existingLock == null || existingLock.isExpired(tcur) || !existingLock.getOwner().equals(owner)) {
+                registered = false;
+                break;
+            }
+
+            if (resource2data.replace(resourceId, existingLock, data)) {
+                registered = true;
+                break;
+            }
+
+            // lost a race with another thread - try again
+        }
+
+        logger.info("auto-refresh lock {} for resource {} owner {}", registered, resourceId, owner);
+
+        return registered;
+    }
+
+    /**
+     * Cancels the automatic refreshing of a lock. The lock is still held, for the
+     * amount of time that was specified when it was registered.
+     * 
+     * @param resourceId resource id
+     * @param owner owner
+     * @return {@code true} if the registration was cancelled, {@code false} if the lock
+     *         was not registered by the given owner
+     * @throws IllegalArgumentException if the resourceId or owner is {@code null}
+     */
+    public boolean cancelAutoRefresh(String resourceId, String owner) {
+
+        if (resourceId == null) {
+            throw makeNullArgException(MSG_NULL_RESOURCE_ID);
+        }
+
+        if (owner == null) {
+            throw makeNullArgException(MSG_NULL_OWNER);
+        }
+
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        boolean cancelled;
+
+        for (;;) {
+            Data existingLock = resource2data.get(resourceId);
+            if (existingLock == null || !existingLock.isAutoRefreshed() || !existingLock.getOwner().equals(owner)) {
+                cancelled = false;
+                break;
+            }
+
+            Data data = new Data(owner, resourceId,
+                            tcur + TimeUnit.SECONDS.toMillis(existingLock.getAutoRefreshSec()));
+            if (resource2data.replace(resourceId, existingLock, data)) {
+                cancelled = true;
+                break;
+            }
+
+            // lost a race with another thread - try again
+        }
+
+        logger.info("cancel auto-refresh lock {} for resource {} owner {}", cancelled, resourceId, owner);
+
+        return cancelled;
+    }
+
     /**
      * Unlocks a resource.
      * 
@@ -173,24 +298,27 @@ public class SimpleLockManager {
         if (owner == null) {
             throw makeNullArgException(MSG_NULL_OWNER);
         }
-        
-        Data data;
-        
-        synchronized (locker) {
-            cleanUpLocks();
-            
-            if ((data = resource2data.get(resourceId)) != null) {
-                if (owner.equals(data.getOwner())) {
-                    resource2data.remove(resourceId);
-                    locks.remove(data);
-                    
-                } else {
-                    data = null;
-                }
+
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        boolean unlocked;
+
+        for (;;) {
+            Data existingLock = resource2data.get(resourceId);
+            if (existingLock == null || existingLock.isExpired(tcur) || !owner.equals(existingLock.getOwner())) {
+                unlocked = false;
+                break;
+            }
+
+            if (resource2data.remove(resourceId, existingLock)) {
+                unlocked = true;
+                break;
             }
+
+            // lost a race with another thread - try again
         }
 
-        boolean unlocked = (data != null);
         logger.info("unlock resource {} owner {} = {}", resourceId, owner, unlocked);
 
         return unlocked;
@@ -209,13 +337,11 @@ public class SimpleLockManager {
             throw makeNullArgException(MSG_NULL_RESOURCE_ID);
         }
 
-        boolean locked;
-        
-        synchronized (locker) {
-            cleanUpLocks();
-            
-            locked = resource2data.containsKey(resourceId);
-        }
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        Data data = resource2data.get(resourceId);
+        boolean locked = (data != null && !data.isExpired(tcur));
 
         logger.debug("resource {} isLocked = {}", resourceId, locked);
 
@@ -240,36 +366,34 @@ public class SimpleLockManager {
             throw makeNullArgException(MSG_NULL_OWNER);
         }
 
-        Data data;
-        
-        synchronized (locker) {
-            cleanUpLocks();
-            
-            data = resource2data.get(resourceId);
-        }
+        long tcur = currentTime.getMillis();
+        sweepLocks(tcur);
+
+        Data data = resource2data.get(resourceId);
+        boolean locked = (data != null && !data.isExpired(tcur) && owner.equals(data.getOwner()));
 
-        boolean locked = (data != null && owner.equals(data.getOwner()));
         logger.debug("resource {} isLockedBy {} = {}", resourceId, owner, locked);
 
         return locked;
     }
 
     /**
-     * Releases expired locks.
+     * Releases expired locks, if a sweep is due. Only one thread performs a given sweep;
+     * the others proceed without waiting for it.
+     * 
+     * @param tcur current time, in milliseconds
      */
-    private void cleanUpLocks() {
-        long tcur = currentTime.getMillis();
-        
-        synchronized (locker) {
-            Iterator<Data> it = locks.iterator();
-            while (it.hasNext()) {
-                Data data = it.next();
-                if (data.getExpirationMs() <= tcur) {
-                    it.remove();
-                    resource2data.remove(data.getResource());
-                } else {
-                    break;
-                }
+    private void sweepLocks(long tcur) {
+        long tsweep = nextSweepMs.get();
+        if (tcur < tsweep || !nextSweepMs.compareAndSet(tsweep, tcur + SWEEP_INTERVAL_MS)) {
+            return;
+        }
+
+        for (Map.Entry<String, Data> ent : resource2data.entrySet()) {
+            Data data = ent.getValue();
+            if (data.isExpired(tcur)) {
+                // only removes it if it hasn't been replaced in the meantime
+                resource2data.remove(ent.getKey(), data);
             }
         }
     }
@@ -304,6 +428,12 @@ public class SimpleLockManager {
          * Time when the lock will expire, in milliseconds.
          */
         private final long texpireMs;
+
+        /**
+         * Amount of time, in seconds, that the lock is to be held once its automatic
+         * refreshing is cancelled, or -1 if it is not being refreshed automatically.
+         */
+        private final int autoRefreshSec;
         
         /**
          * Constructor.
@@ -313,9 +443,24 @@ public class SimpleLockManager {
          * @param texpireMs time expire in milliseconds
          */
         public Data(String owner, String resource, long texpireMs) {
+            this(owner, resource, texpireMs, -1);
+        }
+
+        /**
+         * Constructor.
+         * 
+         * @param resource resource
+         * @param owner owner
+         * @param texpireMs time expire in milliseconds
+         * @param autoRefreshSec amount of time, in seconds, that the lock is to be held
+         *        once its automatic refreshing is cancelled, or -1 if it is not being
+         *        refreshed automatically
+         */
+        public Data(String owner, String resource, long texpireMs, int autoRefreshSec) {
             this.owner = owner;
             this.resource = resource;
             this.texpireMs = texpireMs;
+            this.autoRefreshSec = autoRefreshSec;
         }
 
         public String getOwner() {
@@ -330,6 +475,24 @@ public class SimpleLockManager {
             return texpireMs;
         }
 
+        public int getAutoRefreshSec() {
+            return autoRefreshSec;
+        }
+
+        public boolean isAutoRefreshed() {
+            return (autoRefreshSec >= 0);
+        }
+
+        /**
+         * Determines if the lock has expired.
+         * 
+         * @param tcur current time, in milliseconds
+         * @return {@code true} if the lock has expired, {@code false} otherwise
+         */
+        public boolean isExpired(long tcur) {
+            return (texpireMs <= tcur);
+        }
+
         @Override
         public int compareTo(Data data) {
             int diff = Long.compare(texpireMs, data.texpireMs);
@@ -349,6 +512,7 @@ public class SimpleLockManager {
             result = prime * result + ((owner == null) ? 0 : owner.hashCode());
             result = prime * result + ((resource == null) ? 0 : resource.hashCode());
             result = prime * result + (int) (texpireMs ^ (texpireMs >>> 32));
+            result = prime * result + autoRefreshSec;
             return result;
         }
 
@@ -378,7 +542,7 @@ public class SimpleLockManager {
             } else if (!resource.equals(other.resource)) {
                 return false;
             }
-            return (texpireMs == other.texpireMs);
+            return (texpireMs == other.texpireMs && autoRefreshSec == other.autoRefreshSec);
         }
     }
 }
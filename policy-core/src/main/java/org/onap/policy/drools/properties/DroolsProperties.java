@@ -29,9 +29,38 @@ public interface DroolsProperties {
     String DEFAULT_CONTROLLER_POLICY_TYPE_VERSION = "1.0.0";
     String PROPERTY_CONTROLLER_POLICY_TYPES = "controller.policy.types";
 
+    /* Controller Dispatch Properties */
+
+    /**
+     * Number of worker threads that decode and offer topic events on behalf of the
+     * controller, when not set or zero, events are offered in the topic source thread.
+     */
+    String PROPERTY_CONTROLLER_DISPATCH_THREADS = "controller.dispatch.threads";
+
+    /**
+     * Maximum number of pending events per dispatch worker, the topic source is blocked
+     * when the queue is full.
+     */
+    String PROPERTY_CONTROLLER_DISPATCH_QUEUE_SIZE = "controller.dispatch.queue.size";
+    int DEFAULT_CONTROLLER_DISPATCH_QUEUE_SIZE = 1000;
+
+    /**
+     * Prefix to the JsonPath expression, by topic, that extracts the partition key of an
+     * event.  Events with the same key are offered in arrival order.
+     */
+    String PROPERTY_CONTROLLER_DISPATCH_KEY_PREFIX = "controller.dispatch.key.";
+
     /* Drools Properties */
 
     String RULES_GROUPID = "rules.groupId";
     String RULES_ARTIFACTID = "rules.artifactId";
     String RULES_VERSION = "rules.version";
+
+    /* Topic Coder Properties */
+
+    /**
+     * Suffix to the topic events property, when true the event is parsed once into a
+     * tree that is shared by the filters and the decoder.
+     */
+    String PROPERTY_TOPIC_EVENTS_SHARED_PARSE_SUFFIX = ".events.parse.shared";
 }
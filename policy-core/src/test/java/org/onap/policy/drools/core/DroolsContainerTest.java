@@ -22,6 +22,7 @@ package org.onap.policy.drools.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
@@ -32,6 +33,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.kie.api.runtime.rule.FactHandle;
 import org.onap.policy.drools.util.KieUtils;
 
 /**
@@ -259,6 +261,9 @@ public class DroolsContainerTest {
                 Collection<PolicySession> sessions = container.getPolicySessions();
                 assertEquals(1, sessions.size());
                 assertTrue(sessions.contains(session));
+
+                // the same snapshot is returned until the sessions change
+                assertSame(sessions, container.getPolicySessions());
             }
 
             // verify session attributes
@@ -291,6 +296,12 @@ public class DroolsContainerTest {
             // the Drools rules should add 7 + 3 + 4, and store 14 in a[0]
             assertEquals(14, result.poll(TIMEOUT_SEC, TimeUnit.SECONDS).intValue());
 
+            // insert a batch of facts (using 'insertAllFacts')
+            assertTrue(container.insertAllFacts(Arrays.asList(Arrays.asList(5, 6), result)));
+
+            // the Drools rules should add 5 + 6, and store 11 in a[0]
+            assertEquals(11, result.poll(TIMEOUT_SEC, TimeUnit.SECONDS).intValue());
+
             // exercise some more API methods
             assertEquals(container.getClassLoader(),
                     container.getKieContainer().getClassLoader());
@@ -310,4 +321,51 @@ public class DroolsContainerTest {
         // final conditions -- there should be no containers
         assertEquals(0, PolicyContainer.getPolicyContainers().size());
     }
+
+    /**
+     * This test verifies that indexed classes are registered with sessions,
+     * whether they are created before or after the class is registered.
+     */
+    @Test
+    public void indexedClasses() throws Exception {
+        PolicyContainer container =
+                new PolicyContainer("org.onap.policy.drools-pdp",
+                        "drools-artifact1", "17.1.0-SNAPSHOT");
+
+        // registered before the session is created
+        container.addIndexedClass(String.class.getName());
+        container.start();
+
+        try {
+            PolicySession session = container.getPolicySession("session1");
+            assertTrue(session.isIndexedClass(String.class.getName()));
+
+            // registered after the session is created
+            assertFalse(session.isIndexedClass(Long.class.getName()));
+            container.addIndexedClass(Long.class.getName());
+            assertTrue(session.isIndexedClass(Long.class.getName()));
+
+            // facts are tracked as they enter and leave working memory
+            FactHandle handle = session.getKieSession().insert("hello");
+            assertEquals(handle, session.getFactHandle("hello"));
+
+            session.getKieSession().delete(handle);
+            assertNull(session.getFactHandle("hello"));
+
+            // an adopted session gets all of them
+            PolicySession adopted = container.adoptKieSession("session2",
+                    container.getKieContainer().newKieSession("session1"));
+            assertTrue(adopted.isIndexedClass(String.class.getName()));
+            assertTrue(adopted.isIndexedClass(Long.class.getName()));
+        } finally {
+            container.shutdown();
+            assertFalse(container.isAlive());
+        }
+
+        // final conditions -- there should be no containers
+        assertEquals(0, PolicyContainer.getPolicyContainers().size());
+
+        // discard feature hooks fired by this test
+        PolicySessionFeatureApiMock.getLog();
+    }
 }
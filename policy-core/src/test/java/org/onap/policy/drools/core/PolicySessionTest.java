@@ -21,24 +21,48 @@
 package org.onap.policy.drools.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Semaphore;
 import org.junit.Before;
 import org.junit.Test;
+import org.kie.api.definition.rule.Rule;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
 import org.kie.api.event.rule.AgendaEventListener;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
 import org.kie.api.event.rule.RuleRuntimeEventListener;
 import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.ObjectFilter;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.runtime.rule.Match;
 import org.onap.policy.drools.core.PolicySession.ThreadModel;
+import org.onap.policy.drools.core.jmx.LatencyHistogram;
+import org.onap.policy.drools.core.jmx.MetricStage;
+import org.onap.policy.drools.core.jmx.PdpMetrics;
+import org.onap.policy.drools.core.jmx.SessionStats;
+import org.onap.policy.drools.core.jmx.SessionStatsSnapshot;
+import org.powermock.reflect.Whitebox;
 
 public class PolicySessionTest {
 
     private static final String MY_NAME = "my-name";
     private static final String CONTAINER = "my-container";
+    private static final String GROUP_ID = "my-group";
+    private static final String ARTIFACT_ID = "my-artifact";
     private static final String EXPECTED = null;
 
     private PolicySession session;
@@ -54,6 +78,8 @@ public class PolicySessionTest {
         kie = mock(KieSession.class);
 
         when(container.getName()).thenReturn(CONTAINER);
+        when(container.getGroupId()).thenReturn(GROUP_ID);
+        when(container.getArtifactId()).thenReturn(ARTIFACT_ID);
 
         session = new PolicySession(MY_NAME, container, kie);
     }
@@ -85,9 +111,212 @@ public class PolicySessionTest {
         session.beforeRuleFlowGroupDeactivated(null);
         session.matchCancelled(null);
         session.matchCreated(null);
-        session.objectDeleted(null);
-        session.objectInserted(null);
-        session.objectUpdated(null);
+        session.objectDeleted(mock(ObjectDeletedEvent.class));
+        session.objectInserted(mock(ObjectInsertedEvent.class));
+        session.objectUpdated(mock(ObjectUpdatedEvent.class));
+    }
+
+    @Test
+    public void testAfterMatchFired() {
+        LatencyHistogram hist = PdpMetrics.getInstance()
+                        .getScope(PdpMetrics.makeScopeName(GROUP_ID, ARTIFACT_ID, MY_NAME))
+                        .getHistogram(MetricStage.FIRE);
+
+        long count = hist.getCount();
+
+        session.beforeMatchFired(null);
+        session.afterMatchFired(null);
+
+        assertEquals(count + 1, hist.getCount());
+    }
+
+    @Test
+    public void testAfterMatchFired_Stats() {
+        Rule rule = mock(Rule.class);
+        when(rule.getPackageName()).thenReturn("my.package");
+        when(rule.getName()).thenReturn("my-rule");
+
+        Match match = mock(Match.class);
+        when(match.getRule()).thenReturn(rule);
+
+        AfterMatchFiredEvent event = mock(AfterMatchFiredEvent.class);
+        when(event.getMatch()).thenReturn(match);
+
+        SessionStats stats = session.getStats();
+
+        // not enabled yet
+        session.beforeMatchFired(null);
+        session.afterMatchFired(event);
+        assertTrue(stats.snapshot().getRules().isEmpty());
+
+        stats.setEnabled(true);
+        session.beforeMatchFired(null);
+        session.afterMatchFired(event);
+        session.beforeMatchFired(null);
+        session.afterMatchFired(event);
+
+        assertEquals(2, stats.snapshot().getRules().get("my.package.my-rule").getFired());
+    }
+
+    @Test
+    public void testObjectEvents_Stats() {
+        ObjectInsertedEvent inserted = mock(ObjectInsertedEvent.class);
+        when(inserted.getObject()).thenReturn("hello");
+
+        ObjectUpdatedEvent updated = mock(ObjectUpdatedEvent.class);
+        when(updated.getObject()).thenReturn(10);
+
+        ObjectDeletedEvent deleted = mock(ObjectDeletedEvent.class);
+        when(deleted.getOldObject()).thenReturn("world");
+
+        // not enabled yet
+        session.objectInserted(inserted);
+        assertTrue(session.getStats().snapshot().getFacts().isEmpty());
+
+        session.getStats().setEnabled(true);
+        session.objectInserted(inserted);
+        session.objectUpdated(updated);
+        session.objectDeleted(deleted);
+
+        SessionStatsSnapshot snapshot = session.getStats().snapshot();
+        assertEquals(1, snapshot.getFacts().get(String.class.getName()).getInserts());
+        assertEquals(1, snapshot.getFacts().get(String.class.getName()).getDeletes());
+        assertEquals(1, snapshot.getFacts().get(Integer.class.getName()).getUpdates());
+    }
+
+    @Test
+    public void testGetFactCounts() {
+        // facts already in working memory
+        FactHandle handle1 = mock(FactHandle.class);
+        FactHandle handle2 = mock(FactHandle.class);
+        when(kie.getFactHandles()).thenReturn(Arrays.asList(handle1, handle2));
+        when(kie.getObject(handle1)).thenReturn("hello");
+        when(kie.getObject(handle2)).thenThrow(new RuntimeException(EXPECTED));
+
+        session = new PolicySession(MY_NAME, container, kie);
+        assertEquals("{java.lang.String=1}", session.getFactCounts().toString());
+
+        ObjectInsertedEvent inserted = mock(ObjectInsertedEvent.class);
+        when(inserted.getObject()).thenReturn(10);
+        session.objectInserted(inserted);
+        session.objectInserted(inserted);
+        assertEquals("{java.lang.Integer=2, java.lang.String=1}", session.getFactCounts().toString());
+
+        // update to an object of the same class - no change
+        ObjectUpdatedEvent updated = mock(ObjectUpdatedEvent.class);
+        when(updated.getOldObject()).thenReturn(10);
+        when(updated.getObject()).thenReturn(20);
+        session.objectUpdated(updated);
+        assertEquals("{java.lang.Integer=2, java.lang.String=1}", session.getFactCounts().toString());
+
+        // update replacing the object with one of a different class
+        when(updated.getObject()).thenReturn(20L);
+        session.objectUpdated(updated);
+        assertEquals("{java.lang.Integer=1, java.lang.Long=1, java.lang.String=1}",
+                        session.getFactCounts().toString());
+
+        // classes whose facts have all been deleted are omitted
+        ObjectDeletedEvent deleted = mock(ObjectDeletedEvent.class);
+        when(deleted.getOldObject()).thenReturn("world");
+        session.objectDeleted(deleted);
+        assertEquals("{java.lang.Integer=1, java.lang.Long=1}", session.getFactCounts().toString());
+    }
+
+    @Test
+    public void testIndexedClass() {
+        // an existing fact is indexed when its class is registered
+        FactHandle handle1 = mock(FactHandle.class);
+        when(kie.getFactHandles(any(ObjectFilter.class))).thenReturn(Arrays.asList(handle1));
+        when(kie.getObject(handle1)).thenReturn("hello");
+
+        assertFalse(session.isIndexedClass(String.class.getName()));
+        session.addIndexedClass(String.class.getName());
+        assertTrue(session.isIndexedClass(String.class.getName()));
+
+        // equal, but not the same, object
+        assertSame(handle1, session.getFactHandle(new String("hello")));
+
+        // registering again should have no effect
+        session.addIndexedClass(String.class.getName());
+        assertSame(handle1, session.getFactHandle("hello"));
+
+        // inserted facts are indexed, but only those of indexed classes
+        FactHandle handle2 = mock(FactHandle.class);
+        session.objectInserted(makeInserted("world", handle2));
+        assertSame(handle2, session.getFactHandle("world"));
+
+        session.objectInserted(makeInserted(10, mock(FactHandle.class)));
+        assertNull(session.getFactHandle(10));
+
+        // a second, equal, fact
+        FactHandle handle3 = mock(FactHandle.class);
+        session.objectInserted(makeInserted("world", handle3));
+
+        ObjectDeletedEvent deleted = mock(ObjectDeletedEvent.class);
+        when(deleted.getOldObject()).thenReturn("world");
+        when(deleted.getFactHandle()).thenReturn(handle2);
+        session.objectDeleted(deleted);
+        assertSame(handle3, session.getFactHandle("world"));
+
+        when(deleted.getFactHandle()).thenReturn(handle3);
+        session.objectDeleted(deleted);
+        assertNull(session.getFactHandle("world"));
+
+        // a fact replaced by a different object
+        ObjectUpdatedEvent updated = mock(ObjectUpdatedEvent.class);
+        when(updated.getOldObject()).thenReturn("hello");
+        when(updated.getObject()).thenReturn("there");
+        when(updated.getFactHandle()).thenReturn(handle1);
+        session.objectUpdated(updated);
+        assertNull(session.getFactHandle("hello"));
+        assertSame(handle1, session.getFactHandle("there"));
+    }
+
+    @Test
+    public void testIndexedClass_ModifiedInPlace() {
+        session.addIndexedClass(ArrayList.class.getName());
+
+        List<String> list = new ArrayList<>(Arrays.asList("a"));
+        FactHandle handle = mock(FactHandle.class);
+        session.objectInserted(makeInserted(list, handle));
+        assertSame(handle, session.getFactHandle(Arrays.asList("a")));
+
+        // modified without being updated - neither its old nor its new contents are found
+        list.add("b");
+        assertNull(session.getFactHandle(Arrays.asList("a")));
+        assertNull(session.getFactHandle(Arrays.asList("a", "b")));
+
+        // once updated, it's found by its new contents
+        ObjectUpdatedEvent updated = mock(ObjectUpdatedEvent.class);
+        when(updated.getOldObject()).thenReturn(list);
+        when(updated.getObject()).thenReturn(list);
+        when(updated.getFactHandle()).thenReturn(handle);
+        session.objectUpdated(updated);
+        assertSame(handle, session.getFactHandle(Arrays.asList("a", "b")));
+
+        // modified again, sharing an entry with an equal fact, and then both deleted
+        FactHandle handle2 = mock(FactHandle.class);
+        session.objectInserted(makeInserted(new ArrayList<>(Arrays.asList("a", "b")), handle2));
+        list.add("c");
+
+        ObjectDeletedEvent deleted = mock(ObjectDeletedEvent.class);
+        when(deleted.getOldObject()).thenReturn(list);
+        when(deleted.getFactHandle()).thenReturn(handle2);
+        session.objectDeleted(deleted);
+
+        when(deleted.getFactHandle()).thenReturn(handle);
+        session.objectDeleted(deleted);
+
+        // nothing left behind
+        assertTrue(Whitebox.<Map<?, ?>>getInternalState(session, "factIndex").isEmpty());
+        assertTrue(Whitebox.<Map<?, ?>>getInternalState(session, "indexedHandles").isEmpty());
+    }
+
+    private ObjectInsertedEvent makeInserted(Object fact, FactHandle handle) {
+        ObjectInsertedEvent event = mock(ObjectInsertedEvent.class);
+        when(event.getObject()).thenReturn(fact);
+        when(event.getFactHandle()).thenReturn(handle);
+        return event;
     }
 
     @Test
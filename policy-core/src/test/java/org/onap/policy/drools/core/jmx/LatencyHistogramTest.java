@@ -0,0 +1,122 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram hist;
+
+    @Before
+    public void setUp() {
+        hist = new LatencyHistogram();
+    }
+
+    @Test
+    public void testRecord_testGetCount() {
+        assertEquals(0, hist.getCount());
+
+        hist.record(1000);
+        hist.record(-5);
+        hist.record(Long.MAX_VALUE);
+
+        assertEquals(3, hist.getCount());
+    }
+
+    @Test
+    public void testSnapshot() {
+        // 1 to 1000 microseconds
+        for (long micros = 1; micros <= 1000; ++micros) {
+            hist.record(micros * 1000);
+        }
+
+        LatencySnapshot snap = hist.snapshot();
+
+        assertEquals(1000, snap.getCount());
+        assertEquals(500, snap.getMeanMicros());
+        assertEquals(1000, snap.getMaxMicros());
+
+        // within an eighth of the actual value
+        assertWithin(500, snap.getP50Micros());
+        assertWithin(900, snap.getP90Micros());
+        assertWithin(990, snap.getP99Micros());
+
+        // never exceeds the maximum
+        assertTrue(snap.getP99Micros() <= 1000);
+
+        assertTrue(snap.toString().startsWith("LatencySnapshot ["));
+    }
+
+    @Test
+    public void testSnapshot_Empty() {
+        LatencySnapshot snap = hist.snapshot();
+
+        assertEquals(0, snap.getCount());
+        assertEquals(0, snap.getMeanMicros());
+        assertEquals(0, snap.getP50Micros());
+        assertEquals(0, snap.getMaxMicros());
+    }
+
+    @Test
+    public void testReset() {
+        hist.record(1000);
+        hist.reset();
+
+        assertEquals(0, hist.getCount());
+        assertEquals(0, hist.snapshot().getMaxMicros());
+    }
+
+    @Test
+    public void testBucketOf_testUpperBound() {
+        // small values are exact
+        for (int micros = 0; micros < 16; ++micros) {
+            assertEquals(micros, LatencyHistogram.bucketOf(micros));
+            assertEquals(micros, LatencyHistogram.upperBound(micros));
+        }
+
+        // buckets are contiguous and each value lies within its bucket's range
+        long prevUpper = 15;
+        for (int bucket = 16; bucket < LatencyHistogram.NBUCKETS; ++bucket) {
+            long lower = prevUpper + 1;
+            long upper = LatencyHistogram.upperBound(bucket);
+
+            assertEquals(bucket, LatencyHistogram.bucketOf(lower));
+            assertEquals(bucket, LatencyHistogram.bucketOf(upper));
+            assertTrue(upper - lower <= lower / 8);
+
+            prevUpper = upper;
+        }
+
+        assertEquals(LatencyHistogram.MAX_MICROS, prevUpper);
+
+        // larger values go into the last bucket
+        assertEquals(LatencyHistogram.NBUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    private void assertWithin(long expected, long actual) {
+        assertTrue("actual=" + actual, Math.abs(actual - expected) <= expected / 8);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PdpMetricsTest {
+
+    private static final String SCOPE1 = "scope.one";
+    private static final String SCOPE2 = "scope.two";
+    private static final String TOPIC = "my-topic";
+
+    private PdpMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new PdpMetrics();
+    }
+
+    @Test
+    public void testGetInstance() {
+        metrics = PdpMetrics.getInstance();
+        assertNotNull(metrics);
+        assertSame(metrics, PdpMetrics.getInstance());
+    }
+
+    @Test
+    public void testMakeScopeName() {
+        assertEquals("group:artifact:session", PdpMetrics.makeScopeName("group", "artifact", "session"));
+    }
+
+    @Test
+    public void testGetScope() {
+        ScopeMetrics scope = metrics.getScope(SCOPE1);
+        assertSame(scope, metrics.getScope(SCOPE1));
+    }
+
+    @Test
+    public void testGetScopes() {
+        metrics.getScope(SCOPE1).record(TOPIC, MetricStage.DECODE, 1000);
+        metrics.getScope(SCOPE2).record(MetricStage.FIRE, 1000);
+
+        Map<String, ScopeSnapshot> scopes = metrics.getScopes();
+        assertEquals("[" + SCOPE1 + ", " + SCOPE1 + PdpMetrics.TOPIC_SEPARATOR + TOPIC + ", " + SCOPE2 + "]",
+                        scopes.keySet().toString());
+
+        assertEquals(1, scopes.get(SCOPE1 + PdpMetrics.TOPIC_SEPARATOR + TOPIC).getLatencies().get("decode")
+                        .getCount());
+
+        // selected scopes
+        assertEquals("[" + SCOPE2 + "]", metrics.getScopes(SCOPE2::equals).keySet().toString());
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        ScopeMetrics scope = metrics.getScope(SCOPE1);
+        scope.record(MetricStage.DECODE, 1000);
+
+        long tbegin = System.currentTimeMillis();
+        metrics.reset();
+
+        assertTrue(metrics.getResetTimeMs() >= tbegin);
+        assertEquals(0, scope.getHistogram(MetricStage.DECODE).getCount());
+
+        // scope should still be there
+        assertSame(scope, metrics.getScope(SCOPE1));
+    }
+
+    @Test
+    public void testMxBean() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("PolicyEngine:type=PdpMetricsTest");
+
+        metrics.getScope(SCOPE1).record(MetricStage.DECODE, 1000);
+
+        server.registerMBean(metrics, name);
+
+        try {
+            TabularData scopes = (TabularData) server.getAttribute(name, "Scopes");
+            assertEquals(1, scopes.size());
+
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
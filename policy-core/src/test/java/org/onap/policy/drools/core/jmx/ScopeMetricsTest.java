@@ -0,0 +1,106 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScopeMetricsTest {
+
+    private static final String TOPIC = "my-topic";
+
+    private ScopeMetrics scope;
+
+    @Before
+    public void setUp() {
+        scope = new ScopeMetrics();
+    }
+
+    @Test
+    public void testRecord() {
+        scope.record(MetricStage.INSERT, 1000);
+        scope.record(TOPIC, MetricStage.DECODE, 2000);
+        scope.record(null, MetricStage.DECODE, 3000);
+
+        assertEquals(1, scope.getHistogram(MetricStage.INSERT).getCount());
+        assertEquals(2, scope.getHistogram(MetricStage.DECODE).getCount());
+
+        ScopeMetrics topic = scope.getTopic(TOPIC);
+        assertEquals(1, topic.getHistogram(MetricStage.DECODE).getCount());
+        assertEquals(1, scope.getTopics().size());
+    }
+
+    @Test
+    public void testRecordError() {
+        scope.recordError(MetricStage.DELIVER);
+        scope.recordError(TOPIC, MetricStage.DELIVER);
+        scope.recordError(null, MetricStage.DELIVER);
+
+        assertEquals(3, scope.getErrors(MetricStage.DELIVER));
+        assertEquals(0, scope.getErrors(MetricStage.ENCODE));
+        assertEquals(1, scope.getTopic(TOPIC).getErrors(MetricStage.DELIVER));
+    }
+
+    @Test
+    public void testGetHistogram_testGetTopic() {
+        LatencyHistogram hist = scope.getHistogram(MetricStage.FIRE);
+        assertSame(hist, scope.getHistogram(MetricStage.FIRE));
+
+        ScopeMetrics topic = scope.getTopic(TOPIC);
+        assertSame(topic, scope.getTopic(TOPIC));
+    }
+
+    @Test
+    public void testSnapshot() {
+        assertTrue(scope.snapshot().getLatencies().isEmpty());
+        assertTrue(scope.snapshot().getErrors().isEmpty());
+
+        scope.record(TOPIC, MetricStage.ENCODE, 1000);
+        scope.recordError(MetricStage.DELIVER);
+
+        ScopeSnapshot snap = scope.snapshot();
+
+        // only includes the stages that were used
+        assertEquals("[encode]", snap.getLatencies().keySet().toString());
+        assertEquals(1, snap.getLatencies().get("encode").getCount());
+        assertEquals("{deliver=1}", snap.getErrors().toString());
+
+        assertTrue(snap.toString().startsWith("ScopeSnapshot ["));
+    }
+
+    @Test
+    public void testReset() {
+        scope.record(TOPIC, MetricStage.ENCODE, 1000);
+        scope.recordError(TOPIC, MetricStage.ENCODE);
+
+        scope.reset();
+
+        assertEquals(0, scope.getHistogram(MetricStage.ENCODE).getCount());
+        assertEquals(0, scope.getErrors(MetricStage.ENCODE));
+        assertEquals(0, scope.getTopic(TOPIC).getHistogram(MetricStage.ENCODE).getCount());
+        assertFalse(scope.getTopics().isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-core
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.core.jmx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionStatsTest {
+
+    private static final String PKG = "my.package";
+    private static final String RULE1 = "rule-a";
+    private static final String RULE2 = "rule-b";
+
+    private SessionStats stats;
+
+    @Before
+    public void setUp() {
+        stats = new SessionStats();
+        stats.setEnabled(true);
+    }
+
+    @Test
+    public void testIsEnabled_testSetEnabled() {
+        stats = new SessionStats();
+        assertFalse(stats.isEnabled());
+
+        // nothing recorded while disabled
+        stats.ruleFired(PKG, RULE1, 1000);
+        stats.factInserted("hello");
+        stats.factUpdated("hello");
+        stats.factDeleted("hello");
+
+        SessionStatsSnapshot snapshot = stats.snapshot();
+        assertFalse(snapshot.isEnabled());
+        assertTrue(snapshot.getRules().isEmpty());
+        assertTrue(snapshot.getFacts().isEmpty());
+
+        stats.setEnabled(true);
+        assertTrue(stats.isEnabled());
+        assertTrue(stats.snapshot().isEnabled());
+    }
+
+    @Test
+    public void testRuleFired() {
+        stats.ruleFired(PKG, RULE1, 1_000_000);
+        stats.ruleFired(PKG, RULE1, 3_000_000);
+        stats.ruleFired("", RULE2, 5_000_000);
+        stats.ruleFired(null, RULE2, 7_000_000);
+
+        RuleStats rule = stats.snapshot().getRules().get(PKG + "." + RULE1);
+        assertEquals(2, rule.getFired());
+        assertEquals(4000, rule.getTotalMicros());
+        assertEquals(2000, rule.getMeanMicros());
+        assertEquals(3000, rule.getMaxMicros());
+
+        // no package
+        assertEquals(2, stats.snapshot().getRules().get(RULE2).getFired());
+    }
+
+    @Test
+    public void testFactOperations() {
+        stats.factInserted("hello");
+        stats.factInserted("world");
+        stats.factUpdated("hello");
+        stats.factDeleted(10);
+
+        // ignored
+        stats.factInserted(null);
+        stats.factUpdated(null);
+        stats.factDeleted(null);
+
+        FactStats str = stats.snapshot().getFacts().get(String.class.getName());
+        assertEquals(2, str.getInserts());
+        assertEquals(1, str.getUpdates());
+        assertEquals(0, str.getDeletes());
+
+        FactStats num = stats.snapshot().getFacts().get(Integer.class.getName());
+        assertEquals(0, num.getInserts());
+        assertEquals(1, num.getDeletes());
+    }
+
+    @Test
+    public void testReset() throws InterruptedException {
+        stats.ruleFired(PKG, RULE1, 1000);
+        stats.factInserted("hello");
+
+        long reset = stats.getResetTimeMs();
+        Thread.sleep(5);
+
+        stats.reset();
+
+        assertTrue(stats.getResetTimeMs() > reset);
+        assertTrue(stats.isEnabled());
+
+        SessionStatsSnapshot snapshot = stats.snapshot();
+        assertTrue(snapshot.getRules().isEmpty());
+        assertTrue(snapshot.getFacts().isEmpty());
+        assertEquals(stats.getResetTimeMs(), snapshot.getResetTimeMs());
+    }
+
+    @Test
+    public void testSnapshot() {
+        // the cheapest rule should be last
+        stats.ruleFired(PKG, "cheap", 1_000_000);
+        stats.ruleFired(PKG, RULE1, 5_000_000);
+        stats.ruleFired(PKG, RULE2, 2_000_000);
+        stats.ruleFired(PKG, RULE2, 2_000_000);
+
+        assertEquals(Arrays.asList(PKG + "." + RULE1, PKG + "." + RULE2, PKG + ".cheap"),
+                        new ArrayList<>(stats.snapshot().getRules().keySet()));
+
+        assertTrue(stats.snapshot().toString().startsWith("SessionStatsSnapshot ["));
+    }
+}
@@ -89,4 +89,14 @@ public class PolicyResourceLockFeatureApiTest {
     public void testBeforeIsLockedBy() {
         assertEquals(OperResult.OPER_UNHANDLED, api.beforeIsLockedBy(RESOURCE_ID, OWNER));
     }
+
+    @Test
+    public void testBeforeAutoRefresh() {
+        assertEquals(OperResult.OPER_UNHANDLED, api.beforeAutoRefresh(RESOURCE_ID, OWNER, 0, (res, own) -> { }));
+    }
+
+    @Test
+    public void testBeforeCancelAutoRefresh() {
+        assertEquals(OperResult.OPER_UNHANDLED, api.beforeCancelAutoRefresh(RESOURCE_ID, OWNER));
+    }
 }
@@ -25,12 +25,14 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -47,6 +49,7 @@ public class PolicyResourceLockManagerTest {
 
     private static final String NULL_RESOURCE_ID = "null resourceId";
     private static final String NULL_OWNER = "null owner";
+    private static final String NULL_CALLBACK = "null callback";
 
     private static final String RESOURCE_A = "resource.a";
     private static final String RESOURCE_B = "resource.b";
@@ -60,6 +63,8 @@ public class PolicyResourceLockManagerTest {
     private PolicyResourceLockFeatureApi impl2;
     private List<PolicyResourceLockFeatureApi> implList;
 
+    private LockRefreshCallback callback;
+
     private PolicyResourceLockManager mgr;
 
     /**
@@ -69,6 +74,7 @@ public class PolicyResourceLockManagerTest {
     public void setUp() {
         impl1 = mock(PolicyResourceLockFeatureApi.class);
         impl2 = mock(PolicyResourceLockFeatureApi.class);
+        callback = mock(LockRefreshCallback.class);
 
         initImplementer(impl1);
         initImplementer(impl2);
@@ -95,6 +101,9 @@ public class PolicyResourceLockManagerTest {
         when(impl.beforeUnlock(anyString(), anyString())).thenReturn(OperResult.OPER_UNHANDLED);
         when(impl.beforeIsLocked(anyString())).thenReturn(OperResult.OPER_UNHANDLED);
         when(impl.beforeIsLockedBy(anyString(), anyString())).thenReturn(OperResult.OPER_UNHANDLED);
+        when(impl.beforeAutoRefresh(anyString(), anyString(), anyInt(), any(LockRefreshCallback.class)))
+                        .thenReturn(OperResult.OPER_UNHANDLED);
+        when(impl.beforeCancelAutoRefresh(anyString(), anyString())).thenReturn(OperResult.OPER_UNHANDLED);
     }
 
     @Test
@@ -540,6 +549,84 @@ public class PolicyResourceLockManagerTest {
         verify(impl2, never()).beforeIsLockedBy(RESOURCE_A, OWNER1);
     }
 
+    @Test
+    public void testAutoRefresh() {
+        // not locked yet
+        assertFalse(mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback));
+
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+        assertTrue(mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback));
+        assertTrue(mgr.isLockedBy(RESOURCE_A, OWNER1));
+
+        verify(impl1, times(2)).beforeAutoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+        verify(impl2, times(2)).beforeAutoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+    }
+
+    @Test
+    public void testAutoRefresh_ArgEx() {
+        assertThatIllegalArgumentException()
+                        .isThrownBy(() -> mgr.autoRefresh(null, OWNER1, MAX_AGE_SEC, callback))
+                        .withMessage(NULL_RESOURCE_ID);
+
+        assertThatIllegalArgumentException()
+                        .isThrownBy(() -> mgr.autoRefresh(RESOURCE_A, null, MAX_AGE_SEC, callback))
+                        .withMessage(NULL_OWNER);
+
+        assertThatIllegalArgumentException()
+                        .isThrownBy(() -> mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, null))
+                        .withMessage(NULL_CALLBACK);
+    }
+
+    @Test
+    public void testAutoRefresh_BeforeIntercepted() {
+        // have impl1 intercept
+        when(impl1.beforeAutoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback)).thenReturn(OperResult.OPER_ACCEPTED);
+
+        // not locked, but the implementer says otherwise
+        assertTrue(mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback));
+
+        verify(impl1).beforeAutoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+        verify(impl2, never()).beforeAutoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+    }
+
+    @Test
+    public void testCancelAutoRefresh() {
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+
+        // not registered yet
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+
+        mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+        assertTrue(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+        assertTrue(mgr.isLockedBy(RESOURCE_A, OWNER1));
+
+        verify(impl1, times(2)).beforeCancelAutoRefresh(RESOURCE_A, OWNER1);
+        verify(impl2, times(2)).beforeCancelAutoRefresh(RESOURCE_A, OWNER1);
+    }
+
+    @Test
+    public void testCancelAutoRefresh_ArgEx() {
+        assertThatIllegalArgumentException().isThrownBy(() -> mgr.cancelAutoRefresh(null, OWNER1))
+                        .withMessage(NULL_RESOURCE_ID);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> mgr.cancelAutoRefresh(RESOURCE_A, null))
+                        .withMessage(NULL_OWNER);
+    }
+
+    @Test
+    public void testCancelAutoRefresh_BeforeIntercepted() {
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+        mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback);
+
+        // have impl1 intercept
+        when(impl1.beforeCancelAutoRefresh(RESOURCE_A, OWNER1)).thenReturn(OperResult.OPER_DENIED);
+
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+
+        verify(impl1).beforeCancelAutoRefresh(RESOURCE_A, OWNER1);
+        verify(impl2, never()).beforeCancelAutoRefresh(RESOURCE_A, OWNER1);
+    }
+
     @Test
     public void testGetInstance() {
         PolicyResourceLockManager inst = PolicyResourceLockManager.getInstance();
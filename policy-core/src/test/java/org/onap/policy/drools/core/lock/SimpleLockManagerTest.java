@@ -27,6 +27,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,6 +50,7 @@ public class SimpleLockManagerTest {
     
     private static final String NULL_RESOURCE_ID = "null resourceId";
     private static final String NULL_OWNER = "null owner";
+    private static final String NULL_CALLBACK = "null callback";
 
     private static final String RESOURCE_A = "resource.a";
     private static final String RESOURCE_B = "resource.b";
@@ -227,6 +229,89 @@ public class SimpleLockManagerTest {
         mgr.refresh(RESOURCE_A, OWNER1, MAX_AGE_SEC);
     }
 
+    @Test
+    public void testAutoRefresh() throws Exception {
+        LockRefreshCallback callback = (res, own) -> {
+            throw new AssertionError("unexpected refresh failure");
+        };
+
+        // not locked
+        assertFalse(mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback));
+
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+
+        // different owner
+        assertFalse(mgr.autoRefresh(RESOURCE_A, OWNER2, MAX_AGE_SEC, callback));
+
+        assertTrue(mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, callback));
+
+        // held well past its normal expiration
+        testTime.sleep(MAX_AGE_MS * 4L);
+        assertTrue(mgr.isLockedBy(RESOURCE_A, OWNER1));
+        assertFalse(mgr.lock(RESOURCE_A, OWNER2, MAX_AGE_SEC));
+
+        // explicit refresh doesn't change anything
+        assertTrue(mgr.refresh(RESOURCE_A, OWNER1, 1));
+        testTime.sleep(MAX_AGE_MS * 4L);
+        assertTrue(mgr.isLockedBy(RESOURCE_A, OWNER1));
+
+        // can still unlock it
+        assertTrue(mgr.unlock(RESOURCE_A, OWNER1));
+        assertFalse(mgr.isLocked(RESOURCE_A));
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+    }
+
+    @Test
+    public void testAutoRefresh_ArgEx() {
+        LockRefreshCallback callback = (res, own) -> { };
+
+        assertThatIllegalArgumentException().isThrownBy(() -> mgr.autoRefresh(null, OWNER1, MAX_AGE_SEC, callback))
+                        .withMessage(NULL_RESOURCE_ID);
+
+        assertThatIllegalArgumentException()
+                        .isThrownBy(() -> mgr.autoRefresh(RESOURCE_A, null, MAX_AGE_SEC, callback))
+                        .withMessage(NULL_OWNER);
+
+        assertThatIllegalArgumentException()
+                        .isThrownBy(() -> mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, null))
+                        .withMessage(NULL_CALLBACK);
+    }
+
+    @Test
+    public void testCancelAutoRefresh() throws Exception {
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+
+        // not registered
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+
+        mgr.autoRefresh(RESOURCE_A, OWNER1, MAX_AGE_SEC, (res, own) -> { });
+        testTime.sleep(MAX_AGE_MS * 4L);
+
+        // different owner
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER2));
+
+        assertTrue(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+
+        // already cancelled
+        assertFalse(mgr.cancelAutoRefresh(RESOURCE_A, OWNER1));
+
+        // held for one more cycle
+        testTime.sleep(MAX_AGE_MS - 1);
+        assertTrue(mgr.isLockedBy(RESOURCE_A, OWNER1));
+
+        testTime.sleep(1);
+        assertFalse(mgr.isLocked(RESOURCE_A));
+    }
+
+    @Test
+    public void testCancelAutoRefresh_ArgEx() {
+        assertThatIllegalArgumentException().isThrownBy(() -> mgr.cancelAutoRefresh(null, OWNER1))
+                        .withMessage(NULL_RESOURCE_ID);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> mgr.cancelAutoRefresh(RESOURCE_A, null))
+                        .withMessage(NULL_OWNER);
+    }
+
     @Test
     public void testUnlock() throws Exception {
         mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
@@ -365,6 +450,42 @@ public class SimpleLockManagerTest {
         assertFalse(mgr.isLocked(RESOURCE_D));
     }
 
+    @Test
+    public void testSweepLocks() throws Exception {
+        Map<String, Data> resource2data = Whitebox.getInternalState(mgr, "resource2data");
+
+        mgr.lock(RESOURCE_A, OWNER1, MAX_AGE_SEC);
+        mgr.lock(RESOURCE_B, OWNER1, MAX_AGE_SEC);
+
+        testTime.sleep(MAX_AGE_MS / 2);
+        mgr.lock(RESOURCE_C, OWNER1, MAX_AGE_SEC);
+        assertEquals(3, resource2data.size());
+
+        // first two have expired, but are only removed by the next sweep
+        testTime.sleep(MAX_AGE_MS / 2);
+        assertFalse(mgr.isLockedBy(RESOURCE_A, OWNER1));
+        assertEquals(1, resource2data.size());
+        assertTrue(mgr.isLocked(RESOURCE_C));
+
+        // last one has expired
+        testTime.sleep(MAX_AGE_MS / 2);
+        assertFalse(mgr.isLocked(RESOURCE_C));
+        assertEquals(0, resource2data.size());
+
+        // a lock that has expired, but that hasn't been swept yet
+        assertTrue(mgr.lock(RESOURCE_D, OWNER1, 0));
+        assertEquals(1, resource2data.size());
+        assertFalse(mgr.isLocked(RESOURCE_D));
+        assertFalse(mgr.isLockedBy(RESOURCE_D, OWNER1));
+        assertFalse(mgr.refresh(RESOURCE_D, OWNER1, MAX_AGE_SEC));
+        assertFalse(mgr.unlock(RESOURCE_D, OWNER1));
+
+        // it can be re-acquired by someone else
+        assertTrue(mgr.lock(RESOURCE_D, OWNER2, MAX_AGE_SEC));
+        assertTrue(mgr.isLockedBy(RESOURCE_D, OWNER2));
+        assertEquals(1, resource2data.size());
+    }
+
     @Test
     public void testMakeNullArgException() {
         IllegalArgumentException ex = SimpleLockManager.makeNullArgException(EXPECTED_EXCEPTION);
@@ -379,6 +500,13 @@ public class SimpleLockManagerTest {
         assertEquals(OWNER1, data.getOwner());
         assertEquals(RESOURCE_A, data.getResource());
         assertEquals(ttime, data.getExpirationMs());
+        assertEquals(-1, data.getAutoRefreshSec());
+        assertFalse(data.isAutoRefreshed());
+
+        data = new Data(OWNER1, RESOURCE_A, Long.MAX_VALUE, MAX_AGE_SEC);
+        assertEquals(MAX_AGE_SEC, data.getAutoRefreshSec());
+        assertTrue(data.isAutoRefreshed());
+        assertFalse(data.isExpired(ttime));
     }
     
     @Test
@@ -443,6 +571,7 @@ public class SimpleLockManagerTest {
         assertFalse(data.equals(dataDiffExpire));
         assertFalse(data.equals(dataDiffOwner));
         assertFalse(data.equals(dataDiffResource));
+        assertFalse(data.equals(new Data(OWNER1, RESOURCE_A, ttime, MAX_AGE_SEC)));
 
         assertFalse(data.equals(null));
         assertFalse(data.equals("string"));
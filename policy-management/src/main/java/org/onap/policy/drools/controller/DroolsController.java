@@ -20,8 +20,10 @@
 
 package org.onap.policy.drools.controller;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.onap.policy.common.capabilities.Lockable;
 import org.onap.policy.common.capabilities.Startable;
@@ -115,6 +117,16 @@ public interface DroolsController extends Startable, Lockable {
      */
     <T> boolean offer(T event);
 
+    /**
+     * offers a batch of events to this controller for processing.   The batch
+     * is handled as a single operation, each event being inserted as a separate fact.
+     *
+     * @param events the events
+     *
+     * @return true if the operation was successful
+     */
+    boolean offerAll(Collection<?> events);
+
     /**
      * delivers "event" to "sink".
      * 
@@ -219,6 +231,17 @@ public interface DroolsController extends Startable, Lockable {
      */
     <T> List<T> facts(@NonNull String sessionName, @NonNull Class<T> clazz);
 
+    /**
+     * gets a lazily evaluated stream of the facts of a given class for a given session.
+     * The facts are only retrieved from the session as the stream is consumed, thus it
+     * should be consumed promptly, as working memory may change while it is traversed.
+     *
+     * @param sessionName the session identifier
+     * @param className the class type
+     * @return stream of the facts of the given class
+     */
+    Stream<Object> factStream(String sessionName, String className);
+
     /**
      * gets the facts associated with a query for a give session for a given queried entity.
      * 
@@ -232,6 +255,19 @@ public interface DroolsController extends Startable, Lockable {
     List<Object> factQuery(String sessionName, String queryName, String queriedEntity, boolean delete,
         Object... queryParams);
 
+    /**
+     * gets a lazily evaluated stream of the facts associated with a query for a given
+     * session for a given queried entity.
+     *
+     * @param sessionName the session
+     * @param queryName the query identifier
+     * @param queriedEntity the queried entity
+     * @param queryParams query parameters
+     * @return stream of the facts returned by the query
+     */
+    Stream<Object> factQueryStream(String sessionName, String queryName, String queriedEntity,
+        Object... queryParams);
+
     /**
      * Deletes a fact from a session.
      */
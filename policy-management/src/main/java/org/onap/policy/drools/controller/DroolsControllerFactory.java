@@ -22,9 +22,10 @@ package org.onap.policy.drools.controller;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import org.onap.policy.common.endpoints.event.comm.Topic;
 import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
 import org.onap.policy.common.endpoints.event.comm.TopicSink;
@@ -137,7 +138,7 @@ class IndexedDroolsControllerFactory implements DroolsControllerFactory {
     /**
      * Policy Controller Name Index.
      */
-    protected HashMap<String, DroolsController> droolsControllers = new HashMap<>();
+    protected Map<String, DroolsController> droolsControllers = new ConcurrentHashMap<>();
 
     /**
      * Null Drools Controller.
@@ -340,6 +341,12 @@ class IndexedDroolsControllerFactory implements DroolsControllerFactory {
 
             TopicCoderFilterConfiguration topic2Classes2Filters =
                     new TopicCoderFilterConfiguration(firstTopic, classes2Filters, customGsonCoder);
+
+            // 5. finally, whether the events are parsed once for both filtering and decoding
+
+            topic2Classes2Filters.setSharedParse(Boolean.parseBoolean(properties
+                    .getProperty(propertyTopicEntityPrefix + firstTopic
+                            + DroolsProperties.PROPERTY_TOPIC_EVENTS_SHARED_PARSE_SUFFIX)));
             topics2DecodedClasses2Filters.add(topic2Classes2Filters);
         }
 
@@ -416,13 +423,14 @@ class IndexedDroolsControllerFactory implements DroolsControllerFactory {
 
         String controllerId = groupId + ":" + artifactId;
 
-        synchronized (this) {
-            if (this.droolsControllers.containsKey(controllerId)) {
-                return droolsControllers.get(controllerId);
-            } else {
-                throw new IllegalStateException("DroolController for " + controllerId + " not found");
-            }
+        /* lookups are in the event decoding path, so they do not take the factory lock */
+
+        DroolsController controller = this.droolsControllers.get(controllerId);
+        if (controller == null) {
+            throw new IllegalStateException("DroolController for " + controllerId + " not found");
         }
+
+        return controller;
     }
 
     @Override
@@ -25,10 +25,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.drools.core.ClassObjectFilter;
@@ -44,7 +49,10 @@ import org.onap.policy.common.gson.annotation.GsonJsonProperty;
 import org.onap.policy.drools.controller.DroolsController;
 import org.onap.policy.drools.core.PolicyContainer;
 import org.onap.policy.drools.core.PolicySession;
+import org.onap.policy.drools.core.jmx.MetricStage;
 import org.onap.policy.drools.core.jmx.PdpJmx;
+import org.onap.policy.drools.core.jmx.PdpMetrics;
+import org.onap.policy.drools.core.jmx.ScopeMetrics;
 import org.onap.policy.drools.features.DroolsControllerFeatureAPI;
 import org.onap.policy.drools.protocol.coders.EventProtocolCoder;
 import org.onap.policy.drools.protocol.coders.EventProtocolParams;
@@ -52,7 +60,8 @@ import org.onap.policy.drools.protocol.coders.JsonProtocolFilter;
 import org.onap.policy.drools.protocol.coders.TopicCoderFilterConfiguration;
 import org.onap.policy.drools.protocol.coders.TopicCoderFilterConfiguration.CustomGsonCoder;
 import org.onap.policy.drools.protocol.coders.TopicCoderFilterConfiguration.PotentialCoderFilter;
-import org.onap.policy.drools.utils.ReflectionUtil;
+import org.onap.policy.drools.utils.ClassCache;
+import org.onap.policy.models.tosca.authorative.concepts.ToscaPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -117,6 +126,22 @@ public class MavenDroolsController implements DroolsController {
      */
     protected int modelClassLoaderHash;
 
+    /**
+     * model classes resolved in the model class loader, invalidated when
+     * the model class loader is replaced or the controller shut down.
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    protected final ClassCache modelClasses = new ClassCache();
+
+    /**
+     * latencies of the decode, feature, insert, encode, and deliver stages,
+     * for this controller and each of its topics.
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    protected final ScopeMetrics metrics;
+
     /**
      * Expanded version of the constructor.
      *
@@ -149,6 +174,11 @@ public class MavenDroolsController implements DroolsController {
         }
 
         this.policyContainer = new PolicyContainer(groupId, artifactId, version);
+        this.metrics = PdpMetrics.getInstance().getScope(PdpMetrics.makeScopeName(groupId, artifactId));
+
+        // policies are deleted individually when they are undeployed
+        this.policyContainer.addIndexedClass(ToscaPolicy.class.getName());
+
         this.init(decoderConfigurations, encoderConfigurations);
 
         logger.debug("{}: instantiation completed ", this);
@@ -218,6 +248,7 @@ public class MavenDroolsController implements DroolsController {
 
         /* upgrade */
         String messages = this.policyContainer.updateToVersion(newVersion);
+        this.modelClasses.clear();
         if (logger.isWarnEnabled()) {
             logger.warn("{} UPGRADE results: {}", this, messages);
         }
@@ -265,7 +296,7 @@ public class MavenDroolsController implements DroolsController {
                     && !coderConfig.getCustomGsonCoder().getClassContainer().isEmpty()) {
 
                 String customGsonCoderClass = coderConfig.getCustomGsonCoder().getClassContainer();
-                if (!ReflectionUtil.isClass(this.policyContainer.getClassLoader(),
+                if (!this.modelClasses.isClass(this.policyContainer.getClassLoader(),
                         customGsonCoderClass)) {
                     throw makeRetrieveEx(customGsonCoderClass);
                 } else {
@@ -284,7 +315,7 @@ public class MavenDroolsController implements DroolsController {
                 String potentialCodedClass = coderFilter.getCodedClass();
                 JsonProtocolFilter protocolFilter = coderFilter.getFilter();
 
-                if (!ReflectionUtil.isClass(this.policyContainer.getClassLoader(),
+                if (!this.modelClasses.isClass(this.policyContainer.getClassLoader(),
                         potentialCodedClass)) {
                     throw makeRetrieveEx(potentialCodedClass);
                 } else {
@@ -301,7 +332,8 @@ public class MavenDroolsController implements DroolsController {
                             .eventClass(potentialCodedClass)
                             .protocolFilter(protocolFilter)
                             .customGsonCoder(customGsonCoder)
-                            .modelClassLoaderHash(this.policyContainer.getClassLoader().hashCode()));
+                            .modelClassLoaderHash(this.policyContainer.getClassLoader().hashCode())
+                            .sharedParse(coderConfig.isSharedParse()));
                 } else {
                     EventProtocolCoder.manager.addEncoder(
                             EventProtocolParams.builder().groupId(this.getGroupId())
@@ -374,7 +406,7 @@ public class MavenDroolsController implements DroolsController {
 
     @Override
     public boolean ownsCoder(Class<? extends Object> coderClass, int modelHash) {
-        if (!ReflectionUtil.isClass(this.policyContainer.getClassLoader(), coderClass.getName())) {
+        if (!this.modelClasses.isClass(this.policyContainer.getClassLoader(), coderClass.getName())) {
             logger.error("{}{} cannot be retrieved. ", this, coderClass.getName());
             return false;
         }
@@ -439,6 +471,7 @@ public class MavenDroolsController implements DroolsController {
             logger.error("{} SHUTDOWN FAILED because of {}", this, e.getMessage(), e);
         } finally {
             this.policyContainer.shutdown();
+            this.modelClasses.clear();
         }
 
     }
@@ -454,6 +487,7 @@ public class MavenDroolsController implements DroolsController {
             logger.error("{} HALT FAILED because of {}", this, e.getMessage(), e);
         } finally {
             this.policyContainer.destroy();
+            this.modelClasses.clear();
         }
     }
 
@@ -489,20 +523,10 @@ public class MavenDroolsController implements DroolsController {
             return true;
         }
 
-        // 1. Now, check if this topic has a decoder:
-
-        if (!EventProtocolCoder.manager.isDecodingSupported(this.getGroupId(),
-                this.getArtifactId(),
-                topic)) {
-
-            logger.warn("{}: DECODING-UNSUPPORTED {}:{}:{}", this,
-                    topic, this.getGroupId(), this.getArtifactId());
-            return true;
-        }
-
-        // 2. Decode
+        // Decode, if this topic has no decoder, the coder rejects it without a separate lookup
 
         Object anEvent;
+        long begin = System.nanoTime();
         try {
             anEvent = EventProtocolCoder.manager.decode(this.getGroupId(),
                     this.getArtifactId(),
@@ -511,14 +535,23 @@ public class MavenDroolsController implements DroolsController {
         } catch (UnsupportedOperationException uoe) {
             logger.debug("{}: DECODE FAILED: {} <- {} because of {}", this, topic,
                     event, uoe.getMessage(), uoe);
+            this.metrics.recordError(topic, MetricStage.DECODE);
+            return true;
+        } catch (IllegalArgumentException iae) {
+            logger.warn("{}: DECODING-UNSUPPORTED {}:{}:{} because of {}", this,
+                    topic, this.getGroupId(), this.getArtifactId(), iae.getMessage());
+            this.metrics.recordError(topic, MetricStage.DECODE);
             return true;
         } catch (Exception e) {
             logger.warn("{}: DECODE FAILED: {} <- {} because of {}", this, topic,
                     event, e.getMessage(), e);
+            this.metrics.recordError(topic, MetricStage.DECODE);
             return true;
         }
 
-        return offer(anEvent);
+        this.metrics.record(topic, MetricStage.DECODE, System.nanoTime() - begin);
+
+        return offerEvent(topic, anEvent);
 
     }
 
@@ -526,6 +559,19 @@ public class MavenDroolsController implements DroolsController {
     public <T> boolean offer(T event) {
         logger.debug("{}: OFFER event", this);
 
+        return offerEvent(null, event);
+    }
+
+    /**
+     * Offers an event to the features and inserts it into the sessions.
+     *
+     * @param topic topic on which the event was received, or {@code null} if it was
+     *     not received on a topic
+     * @param event event to be inserted
+     * @return {@code true}, always
+     */
+    private <T> boolean offerEvent(String topic, T event) {
+
         if (this.locked || !this.alive || this.policyContainer.getPolicySessions().isEmpty()) {
             return true;
         }
@@ -538,6 +584,40 @@ public class MavenDroolsController implements DroolsController {
 
         // Broadcast
 
+        long begin = System.nanoTime();
+        boolean handled = beforeInsert(event);
+        long inserting = System.nanoTime();
+
+        if (handled) {
+            this.metrics.record(topic, MetricStage.FEATURES, inserting - begin);
+            return true;
+        }
+
+        boolean successInject = this.policyContainer.insertAll(event);
+        long inserted = System.nanoTime();
+
+        this.metrics.record(topic, MetricStage.INSERT, inserted - inserting);
+
+        if (!successInject) {
+            logger.warn(this + "Failed to inject into PolicyContainer {}", this.getSessionNames());
+            this.metrics.recordError(topic, MetricStage.INSERT);
+        }
+
+        afterInsert(event, successInject);
+
+        this.metrics.record(topic, MetricStage.FEATURES, (inserting - begin) + (System.nanoTime() - inserted));
+
+        return true;
+
+    }
+
+    /**
+     * Runs the before-insert feature hooks.
+     *
+     * @param event event to be inserted
+     * @return {@code true} if a feature handled the event, {@code false} otherwise
+     */
+    private <T> boolean beforeInsert(T event) {
         for (DroolsControllerFeatureAPI feature : DroolsControllerFeatureAPI.providers.getList()) {
             try {
                 if (feature.beforeInsert(this, event)) {
@@ -549,24 +629,76 @@ public class MavenDroolsController implements DroolsController {
             }
         }
 
-        boolean successInject = this.policyContainer.insertAll(event);
+        return false;
+    }
+
+    /**
+     * Runs the after-insert feature hooks.
+     *
+     * @param event event that was inserted
+     * @param successInject {@code true} if the event was successfully inserted
+     */
+    private <T> void afterInsert(T event, boolean successInject) {
+        for (DroolsControllerFeatureAPI feature : DroolsControllerFeatureAPI.providers.getList()) {
+            try {
+                if (feature.afterInsert(this, event, successInject)) {
+                    return;
+                }
+            } catch (Exception e) {
+                logger.error("{}: feature {} after-insert failure because of {}",
+                    this, feature.getClass().getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean offerAll(Collection<?> events) {
+        logger.debug("{}: OFFER {} events", this, events.size());
+
+        if (events.isEmpty() || this.locked || !this.alive || this.policyContainer.getPolicySessions().isEmpty()) {
+            return true;
+        }
+
+        synchronized (this.recentSourceEvents) {
+            this.recentSourceEvents.addAll(events);
+        }
+
+        PdpJmx.getInstance().updatesOccured(events.size());
+
+        // Broadcast
+
+        for (DroolsControllerFeatureAPI feature : DroolsControllerFeatureAPI.providers.getList()) {
+            try {
+                if (feature.beforeInsertAll(this, events)) {
+                    return true;
+                }
+            } catch (Exception e) {
+                logger.error("{}: feature {} before-insert-all failure because of {}",
+                    this, feature.getClass().getName(), e.getMessage(), e);
+            }
+        }
+
+        long begin = System.nanoTime();
+        boolean successInject = this.policyContainer.insertAllFacts(events);
+        this.metrics.record(MetricStage.INSERT, System.nanoTime() - begin);
+
         if (!successInject) {
+            this.metrics.recordError(MetricStage.INSERT);
             logger.warn(this + "Failed to inject into PolicyContainer {}", this.getSessionNames());
         }
 
         for (DroolsControllerFeatureAPI feature : DroolsControllerFeatureAPI.providers.getList()) {
             try {
-                if (feature.afterInsert(this, event, successInject)) {
+                if (feature.afterInsertAll(this, events, successInject)) {
                     return true;
                 }
             } catch (Exception e) {
-                logger.error("{}: feature {} after-insert failure because of {}",
+                logger.error("{}: feature {} after-insert-all failure because of {}",
                     this, feature.getClass().getName(), e.getMessage(), e);
             }
         }
 
         return true;
-
     }
 
     @Override
@@ -604,14 +736,30 @@ public class MavenDroolsController implements DroolsController {
             throw new IllegalStateException(this +  " is stopped");
         }
 
-        String json =
-                EventProtocolCoder.manager.encode(sink.getTopic(), event, this);
+        String topic = sink.getTopic();
+        long begin = System.nanoTime();
+        String json;
+        try {
+            json = EventProtocolCoder.manager.encode(topic, event, this);
+        } catch (RuntimeException e) {
+            this.metrics.recordError(topic, MetricStage.ENCODE);
+            throw e;
+        }
+
+        long encoded = System.nanoTime();
+        this.metrics.record(topic, MetricStage.ENCODE, encoded - begin);
 
         synchronized (this.recentSinkEvents) {
             this.recentSinkEvents.add(json);
         }
 
+        long sending = System.nanoTime();
         boolean success = sink.send(json);
+        this.metrics.record(topic, MetricStage.DELIVER, System.nanoTime() - sending);
+
+        if (!success) {
+            this.metrics.recordError(topic, MetricStage.DELIVER);
+        }
 
         for (DroolsControllerFeatureAPI feature : DroolsControllerFeatureAPI.providers.getList()) {
             try {
@@ -769,22 +917,9 @@ public class MavenDroolsController implements DroolsController {
 
         Map<String,Integer> classNames = new HashMap<>();
 
+        // the session keeps a running count, so working memory need not be scanned
         PolicySession session = getSession(sessionName);
-        KieSession kieSession = session.getKieSession();
-
-        Collection<FactHandle> facts = session.getKieSession().getFactHandles();
-        for (FactHandle fact : facts) {
-            try {
-                String className = kieSession.getObject(fact).getClass().getName();
-                if (classNames.containsKey(className)) {
-                    classNames.put(className, classNames.get(className) + 1);
-                } else {
-                    classNames.put(className, 1);
-                }
-            } catch (Exception e) {
-                logger.warn("Object cannot be retrieved from fact {}", fact, e);
-            }
-        }
+        session.getFactCounts().forEach((className, count) -> classNames.put(className, count.intValue()));
 
         return classNames;
     }
@@ -801,19 +936,7 @@ public class MavenDroolsController implements DroolsController {
 
     @Override
     public List<Object> facts(String sessionName, String className, boolean delete) {
-        if (sessionName == null || sessionName.isEmpty()) {
-            throw invalidSessNameEx(sessionName);
-        }
-
-        if (className == null || className.isEmpty()) {
-            throw new IllegalArgumentException("Invalid Class Name: " + className);
-        }
-
-        Class<?> factClass =
-                ReflectionUtil.fetchClass(this.policyContainer.getClassLoader(), className);
-        if (factClass == null) {
-            throw new IllegalArgumentException("Class cannot be fetched in model's classloader: " + className);
-        }
+        Class<?> factClass = fetchFactClass(sessionName, className);
 
         PolicySession session = getSession(sessionName);
         KieSession kieSession = session.getKieSession();
@@ -835,6 +958,55 @@ public class MavenDroolsController implements DroolsController {
         return factObjects;
     }
 
+    @Override
+    public Stream<Object> factStream(String sessionName, String className) {
+        Class<?> factClass = fetchFactClass(sessionName, className);
+
+        PolicySession session = getSession(sessionName);
+        KieSession kieSession = session.getKieSession();
+
+        // iterate the handles lazily, as asking the collection for its size would scan it
+        Iterator<FactHandle> factHandles = kieSession.getFactHandles(new ClassObjectFilter(factClass)).iterator();
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(factHandles, Spliterator.ORDERED), false)
+            .map(factHandle -> {
+                try {
+                    return kieSession.getObject(factHandle);
+                } catch (Exception e) {
+                    logger.warn("Object cannot be retrieved from fact {}", factHandle, e);
+                    return null;
+                }
+            })
+            .filter(Objects::nonNull);
+    }
+
+    /**
+     * Validates the arguments of a fact request, and fetches the fact class.
+     *
+     * @param sessionName the session identifier
+     * @param className the class type
+     * @return the fact class
+     * @throws IllegalArgumentException if the session or class name is invalid, or if
+     *         the class cannot be fetched
+     */
+    private Class<?> fetchFactClass(String sessionName, String className) {
+        if (sessionName == null || sessionName.isEmpty()) {
+            throw invalidSessNameEx(sessionName);
+        }
+
+        if (className == null || className.isEmpty()) {
+            throw new IllegalArgumentException("Invalid Class Name: " + className);
+        }
+
+        Class<?> factClass =
+                this.modelClasses.fetchClass(this.policyContainer.getClassLoader(), className);
+        if (factClass == null) {
+            throw new IllegalArgumentException("Class cannot be fetched in model's classloader: " + className);
+        }
+
+        return factClass;
+    }
+
     @Override
     public <T> List<T> facts(@NonNull String sessionName, @NonNull Class<T> clazz) {
         return facts(sessionName, clazz.getName(), false)
@@ -847,6 +1019,55 @@ public class MavenDroolsController implements DroolsController {
     @Override
     public List<Object> factQuery(String sessionName, String queryName, String queriedEntity,
             boolean delete, Object... queryParams) {
+        KieSession kieSession = getQuerySession(sessionName, queryName, queriedEntity);
+
+        List<Object> factObjects = new ArrayList<>();
+
+        QueryResults queryResults = kieSession.getQueryResults(queryName, queryParams);
+        for (QueryResultsRow row : queryResults) {
+            try {
+                factObjects.add(row.get(queriedEntity));
+                if (delete) {
+                    kieSession.delete(row.getFactHandle(queriedEntity));
+                }
+            } catch (Exception e) {
+                logger.warn("Object cannot be retrieved from row: {}", row, e);
+            }
+        }
+
+        return factObjects;
+    }
+
+    @Override
+    public Stream<Object> factQueryStream(String sessionName, String queryName, String queriedEntity,
+            Object... queryParams) {
+        KieSession kieSession = getQuerySession(sessionName, queryName, queriedEntity);
+
+        QueryResults queryResults = kieSession.getQueryResults(queryName, queryParams);
+
+        return StreamSupport.stream(queryResults.spliterator(), false)
+            .map(row -> {
+                try {
+                    return row.get(queriedEntity);
+                } catch (Exception e) {
+                    logger.warn("Object cannot be retrieved from row: {}", row, e);
+                    return null;
+                }
+            })
+            .filter(Objects::nonNull);
+    }
+
+    /**
+     * Validates the arguments of a query request, and gets the session to be queried.
+     *
+     * @param sessionName the session
+     * @param queryName the query identifier
+     * @param queriedEntity the queried entity
+     * @return the session to be queried
+     * @throws IllegalArgumentException if an argument is invalid, or the query is not
+     *         defined within the session
+     */
+    private KieSession getQuerySession(String sessionName, String queryName, String queriedEntity) {
         if (sessionName == null || sessionName.isEmpty()) {
             throw invalidSessNameEx(sessionName);
         }
@@ -875,21 +1096,7 @@ public class MavenDroolsController implements DroolsController {
             throw new IllegalArgumentException("Invalid Query Name: " + queryName);
         }
 
-        List<Object> factObjects = new ArrayList<>();
-
-        QueryResults queryResults = kieSession.getQueryResults(queryName, queryParams);
-        for (QueryResultsRow row : queryResults) {
-            try {
-                factObjects.add(row.get(queriedEntity));
-                if (delete) {
-                    kieSession.delete(row.getFactHandle(queriedEntity));
-                }
-            } catch (Exception e) {
-                logger.warn("Object cannot be retrieved from row: {}", row, e);
-            }
-        }
-
-        return factObjects;
+        return kieSession;
     }
 
     @Override
@@ -899,6 +1106,10 @@ public class MavenDroolsController implements DroolsController {
         PolicySession session = getSession(sessionName);
         KieSession kieSession = session.getKieSession();
 
+        if (session.isIndexedClass(factClassName) && deleteIndexed(session, fact)) {
+            return true;
+        }
+
         Collection<FactHandle> factHandles = kieSession.getFactHandles(new ClassObjectFilter(fact.getClass()));
         for (FactHandle factHandle : factHandles) {
             try {
@@ -914,6 +1125,40 @@ public class MavenDroolsController implements DroolsController {
         return false;
     }
 
+    /**
+     * Deletes a fact of an indexed class, locating it via the session's index.
+     *
+     * @param session session containing the fact
+     * @param fact fact to be deleted
+     * @return {@code true} if the fact was deleted, {@code false} if it could not be
+     *         located via the index, in which case working memory must be scanned
+     */
+    private <T> boolean deleteIndexed(PolicySession session, T fact) {
+        String factClassName = fact.getClass().getName();
+
+        FactHandle factHandle = session.getFactHandle(fact);
+        if (factHandle == null) {
+            // not there, or modified in place since it was indexed
+            logger.debug("{}: {} not indexed in {}", this, factClassName, session.getName());
+            return false;
+        }
+
+        KieSession kieSession = session.getKieSession();
+
+        try {
+            if (Objects.equals(fact, kieSession.getObject(factHandle))) {
+                logger.info("Deleting {} from {}", factClassName, session.getName());
+                kieSession.delete(factHandle);
+                return true;
+            }
+        } catch (Exception e) {
+            logger.warn("Object cannot be retrieved from fact {}", factHandle, e);
+        }
+
+        logger.warn("{}: stale index for {} in {}", this, factClassName, session.getName());
+        return false;
+    }
+
     @Override
     public <T> boolean delete(@NonNull T fact) {
         return this.getSessionNames().stream().map((ss) -> delete(ss, fact)).reduce(false, Boolean::logicalOr);
@@ -945,7 +1190,7 @@ public class MavenDroolsController implements DroolsController {
 
     @Override
     public Class<?> fetchModelClass(String className) {
-        return ReflectionUtil.fetchClass(this.policyContainer.getClassLoader(), className);
+        return this.modelClasses.fetchClass(this.policyContainer.getClassLoader(), className);
     }
 
     /**
@@ -21,10 +21,12 @@
 package org.onap.policy.drools.controller.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.onap.policy.common.endpoints.event.comm.TopicSink;
 import org.onap.policy.drools.controller.DroolsController;
@@ -116,6 +118,11 @@ public class NullDroolsController implements DroolsController {
         return false;
     }
 
+    @Override
+    public boolean offerAll(Collection<?> events) {
+        return false;
+    }
+
     @Override
     public boolean deliver(TopicSink sink, Object event) {
         throw new IllegalStateException(makeInvokeMsg());
@@ -186,6 +193,11 @@ public class NullDroolsController implements DroolsController {
         return new ArrayList<>();
     }
 
+    @Override
+    public Stream<Object> factStream(String sessionName, String className) {
+        return Stream.empty();
+    }
+
     @Override
     public List<Object> factQuery(String sessionName, String queryName, 
             String queriedEntity, 
@@ -193,6 +205,12 @@ public class NullDroolsController implements DroolsController {
         return new ArrayList<>();
     }
 
+    @Override
+    public Stream<Object> factQueryStream(String sessionName, String queryName,
+            String queriedEntity, Object... queryParams) {
+        return Stream.empty();
+    }
+
     @Override
     public <T> boolean delete(@NonNull String sessionName, @NonNull T fact) {
         return false;
@@ -20,6 +20,7 @@
 
 package org.onap.policy.drools.features;
 
+import java.util.Collection;
 import org.onap.policy.common.endpoints.event.comm.TopicSink;
 import org.onap.policy.common.utils.services.OrderedService;
 import org.onap.policy.common.utils.services.OrderedServiceImpl;
@@ -53,6 +54,30 @@ public interface DroolsControllerFeatureAPI extends OrderedService {
         return false;
     }
 
+    /**
+     * intercepts before the Drools Controller gives the Policy Container a batch of facts
+     * to insert into its Policy Sessions.  The per fact insert hooks are not invoked for
+     * the facts in a batch.
+     *
+     * @return true if this feature intercepts and takes ownership
+     *     of the operation preventing the invocation of
+     *     lower priority features.   False, otherwise.
+     */
+    default boolean beforeInsertAll(DroolsController controller, Collection<?> facts) {
+        return false;
+    }
+
+    /**
+     * called after a batch of facts is injected into the Policy Container.
+     *
+     * @return true if this feature intercepts and takes ownership
+     *     of the operation preventing the invocation of
+     *     lower priority features.   False, otherwise.
+     */
+    default boolean afterInsertAll(DroolsController controller, Collection<?> facts, boolean successInsert) {
+        return false;
+    }
+
     /**
      * Intercept before the Drools Controller delivers (posts) an event.
      *
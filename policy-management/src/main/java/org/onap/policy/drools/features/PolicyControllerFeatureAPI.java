@@ -223,6 +223,9 @@ public interface PolicyControllerFeatureAPI extends OrderedService {
 
     /**
      * called after the Policy Controller processes an event offer.
+     * This is called however the offer ends, with success set to false
+     * if the event was not offered to the drools layer, for instance,
+     * because the controller is locked or a feature intercepted it.
      *
      * @return true if this feature intercepts and takes ownership
      *     of the operation preventing the invocation of
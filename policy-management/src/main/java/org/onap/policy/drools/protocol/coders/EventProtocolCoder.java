@@ -22,10 +22,11 @@
 package org.onap.policy.drools.protocol.coders;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.onap.policy.drools.controller.DroolsController;
 import org.onap.policy.drools.protocol.coders.EventProtocolCoder.CoderFilters;
 import org.slf4j.Logger;
@@ -621,16 +622,17 @@ abstract class GenericEventProtocolCoder {
 
     /**
      * Mapping topic:controller-id -> /<protocol-decoder-toolset/> where protocol-coder-toolset contains
-     * a gson-protocol-coder-toolset.
+     * a gson-protocol-coder-toolset.  Read without locking, updated while holding this coder's monitor.
      */
-    protected final HashMap<String, ProtocolCoderToolset> coders =
-            new HashMap<>();
+    protected final Map<CoderKey, ProtocolCoderToolset> coders =
+            new ConcurrentHashMap<>();
 
     /**
-     * Mapping topic + classname -> Protocol Set.
+     * Mapping topic + classname -> Protocol Set.  Read without locking, updated while holding this
+     * coder's monitor.
      */
-    protected final HashMap<String, List<ProtocolCoderToolset>>
-            reverseCoders = new HashMap<>();
+    protected final Map<ReverseCoderKey, List<ProtocolCoderToolset>>
+            reverseCoders = new ConcurrentHashMap<>();
 
     GenericEventProtocolCoder() {
         super();
@@ -659,13 +661,15 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException("Invalid Event Class");
         }
 
-        String key = this.codersKey(eventProtocolParams.getGroupId(), eventProtocolParams.getArtifactId(),
+        CoderKey coderKey = new CoderKey(eventProtocolParams.getGroupId(), eventProtocolParams.getArtifactId(),
                 eventProtocolParams.getTopic());
-        String reverseKey = this.reverseCodersKey(eventProtocolParams.getTopic(), eventProtocolParams.getEventClass());
+        String key = coderKey.toString();
+        ReverseCoderKey reverseKey =
+                new ReverseCoderKey(eventProtocolParams.getTopic(), eventProtocolParams.getEventClass());
 
         synchronized (this) {
-            if (coders.containsKey(key)) {
-                ProtocolCoderToolset toolset = coders.get(key);
+            ProtocolCoderToolset toolset = coders.get(coderKey);
+            if (toolset != null) {
 
                 logger.info("{}: adding coders for existing {}: {}", this, key, toolset);
 
@@ -684,7 +688,7 @@ abstract class GenericEventProtocolCoder {
                             toolset);
 
                     List<ProtocolCoderToolset> reverseMappings =
-                            new ArrayList<>();
+                            new CopyOnWriteArrayList<>();
                     reverseMappings.add(toolset);
                     reverseCoders.put(reverseKey, reverseMappings);
                 }
@@ -696,14 +700,13 @@ abstract class GenericEventProtocolCoder {
 
             logger.info("{}: adding coders for new {}: {}", this, key, coderTools);
 
-            coders.put(key, coderTools);
+            coders.put(coderKey, coderTools);
 
-            if (reverseCoders.containsKey(reverseKey)) {
+            List<ProtocolCoderToolset> toolsets = reverseCoders.get(reverseKey);
+            if (toolsets != null) {
                 // There is another controller (different group id/artifact id/topic)
                 // that shares the class and the topic.
 
-                List<ProtocolCoderToolset> toolsets =
-                        reverseCoders.get(reverseKey);
                 boolean present = false;
                 for (ProtocolCoderToolset parserSet : toolsets) {
                     // just doublecheck
@@ -726,7 +729,7 @@ abstract class GenericEventProtocolCoder {
                     toolsets.add(coderTools);
                 }
             } else {
-                List<ProtocolCoderToolset> toolsets = new ArrayList<>();
+                toolsets = new CopyOnWriteArrayList<>();
                 toolsets.add(coderTools);
 
                 logger.info("{}: adding toolset for reverse key {}: {}", this, reverseKey, toolsets);
@@ -747,17 +750,6 @@ abstract class GenericEventProtocolCoder {
         return groupId + ":" + artifactId + ":" + topic;
     }
 
-    /**
-     * produces a key for the reverse index.
-     *
-     * @param topic      topic
-     * @param eventClass coded class
-     * @return reverse index key
-     */
-    protected String reverseCodersKey(String topic, String eventClass) {
-        return topic + ":" + eventClass;
-    }
-
     /**
      * remove coder.
      *
@@ -783,29 +775,22 @@ abstract class GenericEventProtocolCoder {
         String key = this.codersKey(groupId, artifactId, topic);
 
         synchronized (this) {
-            if (coders.containsKey(key)) {
-                ProtocolCoderToolset coderToolset = coders.remove(key);
+            ProtocolCoderToolset coderToolset = coders.remove(new CoderKey(groupId, artifactId, topic));
+            if (coderToolset != null) {
 
                 logger.info("{}: removed toolset for {}: {}", this, key, coderToolset);
 
                 for (CoderFilters codeFilter : coderToolset.getCoders()) {
                     String className = codeFilter.getCodedClass();
-                    String reverseKey = this.reverseCodersKey(topic, className);
-                    if (this.reverseCoders.containsKey(reverseKey)) {
-                        List<ProtocolCoderToolset> toolsets =
-                                this.reverseCoders.get(reverseKey);
-                        Iterator<ProtocolCoderToolset> toolsetsIter =
-                                toolsets.iterator();
-                        while (toolsetsIter.hasNext()) {
-                            ProtocolCoderToolset toolset = toolsetsIter.next();
-                            if (toolset.getControllerId().equals(key)) {
-                                logger.info(
-                                        "{}: removed coder from toolset for {} from reverse mapping", this, reverseKey);
-                                toolsetsIter.remove();
-                            }
+                    ReverseCoderKey reverseKey = new ReverseCoderKey(topic, className);
+                    List<ProtocolCoderToolset> toolsets = this.reverseCoders.get(reverseKey);
+                    if (toolsets != null) {
+                        if (toolsets.removeIf(toolset -> toolset.getControllerId().equals(key))) {
+                            logger.info(
+                                    "{}: removed coder from toolset for {} from reverse mapping", this, reverseKey);
                         }
 
-                        if (this.reverseCoders.get(reverseKey).isEmpty()) {
+                        if (toolsets.isEmpty()) {
                             logger.info("{}: removing reverse mapping for {}: ", this, reverseKey);
                             this.reverseCoders.remove(reverseKey);
                         }
@@ -824,6 +809,20 @@ abstract class GenericEventProtocolCoder {
      * @return true if its is codable
      */
     public boolean isCodingSupported(String groupId, String artifactId, String topic) {
+        return getToolset(groupId, artifactId, topic) != null;
+    }
+
+    /**
+     * gets the toolset for the maven coordinates and topic, this is a single
+     * lookup that does not take any lock.
+     *
+     * @param groupId    group id
+     * @param artifactId artifact id
+     * @param topic      topic
+     * @return the toolset, or null if coding is not supported
+     * @throws IllegalArgumentException if invalid input
+     */
+    protected ProtocolCoderToolset getToolset(String groupId, String artifactId, String topic) {
 
         if (groupId == null || groupId.isEmpty()) {
             throw new IllegalArgumentException(INVALID_GROUP_ID_MSG);
@@ -837,10 +836,7 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException(INVALID_TOPIC_MSG);
         }
 
-        String key = this.codersKey(groupId, artifactId, topic);
-        synchronized (this) {
-            return coders.containsKey(key);
-        }
+        return coders.get(new CoderKey(groupId, artifactId, topic));
     }
 
     /**
@@ -856,13 +852,12 @@ abstract class GenericEventProtocolCoder {
      */
     public Object decode(String groupId, String artifactId, String topic, String json) {
 
-        if (!isCodingSupported(groupId, artifactId, topic)) {
+        ProtocolCoderToolset coderTools = getToolset(groupId, artifactId, topic);
+        if (coderTools == null) {
             throw new IllegalArgumentException(
                     "Unsupported:" + codersKey(groupId, artifactId, topic) + " for encoding");
         }
 
-        String key = this.codersKey(groupId, artifactId, topic);
-        ProtocolCoderToolset coderTools = coders.get(key);
         try {
             Object event = coderTools.decode(json);
             if (event != null) {
@@ -888,7 +883,8 @@ abstract class GenericEventProtocolCoder {
      */
     public String encode(String groupId, String artifactId, String topic, Object event) {
 
-        if (!isCodingSupported(groupId, artifactId, topic)) {
+        ProtocolCoderToolset coderTools = getToolset(groupId, artifactId, topic);
+        if (coderTools == null) {
             throw new IllegalArgumentException("Unsupported:" + codersKey(groupId, artifactId, topic));
         }
 
@@ -897,8 +893,7 @@ abstract class GenericEventProtocolCoder {
         }
 
         // reuse the decoder set, since there must be affinity in the model
-        String key = this.codersKey(groupId, artifactId, topic);
-        return this.encodeInternal(key, event);
+        return this.encodeInternal(coderTools, event);
     }
 
     /**
@@ -920,18 +915,15 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException("Invalid topic");
         }
 
-        String reverseKey = this.reverseCodersKey(topic, event.getClass().getName());
-        if (!this.reverseCoders.containsKey(reverseKey)) {
+        List<ProtocolCoderToolset> toolsets =
+                this.reverseCoders.get(new ReverseCoderKey(topic, event.getClass().getName()));
+        if (toolsets == null || toolsets.isEmpty()) {
             throw new IllegalArgumentException("no reverse coder has been found");
         }
 
-        List<ProtocolCoderToolset> toolsets =
-                this.reverseCoders.get(reverseKey);
-
-        String key =
-                codersKey(
-                        toolsets.get(0).getGroupId(), toolsets.get(0).getArtifactId(), topic);
-        return this.encodeInternal(key, event);
+        ProtocolCoderToolset toolset = toolsets.get(0);
+        return this.encodeInternal(
+                coders.get(new CoderKey(toolset.getGroupId(), toolset.getArtifactId(), topic)), event);
     }
 
     /**
@@ -953,31 +945,36 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException("Invalid topic");
         }
 
-        String key = codersKey(droolsController.getGroupId(), droolsController.getArtifactId(), topic);
-        return this.encodeInternal(key, encodedClass);
+        return this.encodeInternal(
+                coders.get(new CoderKey(droolsController.getGroupId(), droolsController.getArtifactId(), topic)),
+                encodedClass);
     }
 
     /**
      * encode an object into a json string.
      *
-     * @param key   identifier
+     * @param coderTools toolset to encode with
      * @param event object to convert to string
      * @return the json string
      * @throws IllegalArgumentException      if invalid argument is provided
      * @throws UnsupportedOperationException if the operation cannot be performed
      */
-    protected String encodeInternal(String key, Object event) {
+    protected String encodeInternal(ProtocolCoderToolset coderTools, Object event) {
+
+        if (coderTools == null) {
+            logger.warn("{}: no toolset to encode {}", this, event);
+            throw new UnsupportedOperationException("Cannot decode with gson");
+        }
 
-        logger.debug("{}: encode for {}: {}", this, key, event);
+        logger.debug("{}: encode for {}: {}", this, coderTools.getControllerId(), event);
 
-        ProtocolCoderToolset coderTools = coders.get(key);
         try {
             String json = coderTools.encode(event);
             if (json != null && !json.isEmpty()) {
                 return json;
             }
         } catch (Exception e) {
-            logger.warn("{}: cannot encode (first) for {}: {}", this, key, event, e);
+            logger.warn("{}: cannot encode (first) for {}: {}", this, coderTools.getControllerId(), event, e);
         }
 
         throw new UnsupportedOperationException("Cannot decode with gson");
@@ -996,22 +993,20 @@ abstract class GenericEventProtocolCoder {
 
         List<DroolsController> droolsControllers = new ArrayList<>();
 
-        String reverseKey = this.reverseCodersKey(topic, encodedClass.getClass().getName());
-        if (!this.reverseCoders.containsKey(reverseKey)) {
+        ReverseCoderKey reverseKey = new ReverseCoderKey(topic, encodedClass.getClass().getName());
+        List<ProtocolCoderToolset> toolsets = this.reverseCoders.get(reverseKey);
+        if (toolsets == null) {
             logger.warn("{}: no reverse mapping for {}", this, reverseKey);
             return droolsControllers;
         }
 
-        List<ProtocolCoderToolset> toolsets =
-                this.reverseCoders.get(reverseKey);
-
         // There must be multiple toolsets associated with <topic,classname> reverseKey
         // case 2 different controllers use the same models and register the same encoder for
         // the same topic.  This is assumed not to occur often but for the purpose of encoding
         // but there should be no side-effects.  Ownership is crosscheck against classname and
         // classloader reference.
 
-        if (toolsets == null || toolsets.isEmpty()) {
+        if (toolsets.isEmpty()) {
             throw new IllegalStateException(
                     "No Encoders toolsets available for topic "
                             + topic
@@ -1057,12 +1052,11 @@ abstract class GenericEventProtocolCoder {
      */
     public List<CoderFilters> getFilters(String groupId, String artifactId, String topic) {
 
-        if (!isCodingSupported(groupId, artifactId, topic)) {
+        ProtocolCoderToolset coderTools = getToolset(groupId, artifactId, topic);
+        if (coderTools == null) {
             throw new IllegalArgumentException("Unsupported:" + codersKey(groupId, artifactId, topic));
         }
 
-        String key = this.codersKey(groupId, artifactId, topic);
-        ProtocolCoderToolset coderTools = coders.get(key);
         return coderTools.getCoders();
     }
 
@@ -1084,12 +1078,10 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException(INVALID_ARTIFACT_ID_MSG);
         }
 
-        String key = this.codersKey(groupId, artifactId, "");
-
         List<CoderFilters> codersFilters = new ArrayList<>();
-        for (Map.Entry<String, ProtocolCoderToolset> entry :
+        for (Map.Entry<CoderKey, ProtocolCoderToolset> entry :
                 coders.entrySet()) {
-            if (entry.getKey().startsWith(key)) {
+            if (entry.getKey().isController(groupId, artifactId)) {
                 codersFilters.addAll(entry.getValue().getCoders());
             }
         }
@@ -1110,7 +1102,8 @@ abstract class GenericEventProtocolCoder {
     public CoderFilters getFilters(
             String groupId, String artifactId, String topic, String classname) {
 
-        if (!isCodingSupported(groupId, artifactId, topic)) {
+        ProtocolCoderToolset coderTools = getToolset(groupId, artifactId, topic);
+        if (coderTools == null) {
             throw new IllegalArgumentException("Unsupported:" + codersKey(groupId, artifactId, topic));
         }
 
@@ -1118,8 +1111,6 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException("classname must be provided");
         }
 
-        String key = this.codersKey(groupId, artifactId, topic);
-        ProtocolCoderToolset coderTools = coders.get(key);
         return coderTools.getCoder(classname);
     }
 
@@ -1135,12 +1126,12 @@ abstract class GenericEventProtocolCoder {
     public ProtocolCoderToolset getCoders(
             String groupId, String artifactId, String topic) {
 
-        if (!isCodingSupported(groupId, artifactId, topic)) {
+        ProtocolCoderToolset coderTools = getToolset(groupId, artifactId, topic);
+        if (coderTools == null) {
             throw new IllegalArgumentException("Unsupported:" + codersKey(groupId, artifactId, topic));
         }
 
-        String key = this.codersKey(groupId, artifactId, topic);
-        return coders.get(key);
+        return coderTools;
     }
 
     /**
@@ -1162,12 +1153,10 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException(INVALID_ARTIFACT_ID_MSG);
         }
 
-        String key = this.codersKey(groupId, artifactId, "");
-
         List<ProtocolCoderToolset> coderToolset = new ArrayList<>();
-        for (Map.Entry<String, ProtocolCoderToolset> entry :
+        for (Map.Entry<CoderKey, ProtocolCoderToolset> entry :
                 coders.entrySet()) {
-            if (entry.getKey().startsWith(key)) {
+            if (entry.getKey().isController(groupId, artifactId)) {
                 coderToolset.add(entry.getValue());
             }
         }
@@ -1192,7 +1181,7 @@ abstract class GenericEventProtocolCoder {
             throw new IllegalArgumentException(MISSING_CLASS);
         }
 
-        String key = this.reverseCodersKey(topic, codedClass);
+        ReverseCoderKey key = new ReverseCoderKey(topic, codedClass);
         List<ProtocolCoderToolset> toolsets = this.reverseCoders.get(key);
         if (toolsets == null) {
             throw new IllegalArgumentException("No Coder found for " + key);
@@ -1280,6 +1269,92 @@ abstract class GenericEventProtocolCoder {
                 + reverseCoders.keySet()
                 + "]";
     }
+
+    /**
+     * Toolset index key: maven coordinates and topic, compared field by field
+     * so lookups do not need to build a string.
+     */
+    protected static final class CoderKey {
+        private final String groupId;
+        private final String artifactId;
+        private final String topic;
+        private final int hash;
+
+        CoderKey(String groupId, String artifactId, String topic) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.topic = topic;
+            this.hash = Objects.hash(groupId, artifactId, topic);
+        }
+
+        boolean isController(String groupId, String artifactId) {
+            return this.groupId.equals(groupId) && this.artifactId.equals(artifactId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof CoderKey)) {
+                return false;
+            }
+
+            CoderKey other = (CoderKey) obj;
+            return hash == other.hash && topic.equals(other.topic) && artifactId.equals(other.artifactId)
+                    && groupId.equals(other.groupId);
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + topic;
+        }
+    }
+
+    /**
+     * Reverse index key: topic and coded class.
+     */
+    protected static final class ReverseCoderKey {
+        private final String topic;
+        private final String codedClass;
+        private final int hash;
+
+        ReverseCoderKey(String topic, String codedClass) {
+            this.topic = topic;
+            this.codedClass = codedClass;
+            this.hash = Objects.hash(topic, codedClass);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ReverseCoderKey)) {
+                return false;
+            }
+
+            ReverseCoderKey other = (ReverseCoderKey) obj;
+            return hash == other.hash && codedClass.equals(other.codedClass) && topic.equals(other.topic);
+        }
+
+        @Override
+        public String toString() {
+            return topic + ":" + codedClass;
+        }
+    }
 }
 
 class EventProtocolDecoder extends GenericEventProtocolCoder {
@@ -31,6 +31,7 @@ public class EventProtocolParams {
     private JsonProtocolFilter protocolFilter;
     private TopicCoderFilterConfiguration.CustomGsonCoder customGsonCoder;
     private int modelClassLoaderHash;
+    private boolean sharedParse;
 
     public String getGroupId() {
         return groupId;
@@ -60,6 +61,10 @@ public class EventProtocolParams {
         return modelClassLoaderHash;
     }
 
+    public boolean isSharedParse() {
+        return sharedParse;
+    }
+
     public static EventProtocolParams builder() {
         return new EventProtocolParams();
     }
@@ -142,6 +147,18 @@ public class EventProtocolParams {
         return this;
     }
 
+    /**
+     * Setter method.
+     *
+     * @param sharedParse true to parse events once into a tree shared by
+     *                    the filters and the decoder
+     * @return EventProtocolParams
+     */
+    public EventProtocolParams sharedParse(boolean sharedParse) {
+        this.sharedParse = sharedParse;
+        return this;
+    }
+
     public CustomCoder getCustomCoder() {
         return this.customGsonCoder;
     }
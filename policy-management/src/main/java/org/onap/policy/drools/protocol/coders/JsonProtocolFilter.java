@@ -20,12 +20,19 @@
 
 package org.onap.policy.drools.protocol.coders;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.gson.JsonElement;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.spi.json.GsonJsonProvider;
+import com.jayway.jsonpath.spi.json.JsonProvider;
+import com.jayway.jsonpath.spi.mapper.GsonMappingProvider;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import org.onap.policy.common.gson.annotation.GsonJsonIgnore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,9 +45,23 @@ public class JsonProtocolFilter {
     /** Logger. */
     private static final Logger logger = LoggerFactory.getLogger(JsonProtocolFilter.class);
 
+    /** JsonPath configuration shared by all filters, it is immutable and thread-safe. */
+    private static final Configuration JSON_PATH_CONF =
+                    Configuration.defaultConfiguration().addOptions(Option.ALWAYS_RETURN_LIST);
+
+    /** JsonPath configuration to evaluate filters over Gson trees. */
+    private static final Configuration JSON_PATH_GSON_CONF = Configuration.builder()
+                    .jsonProvider(new GsonJsonProvider()).mappingProvider(new GsonMappingProvider())
+                    .options(Option.ALWAYS_RETURN_LIST).build();
+
     /** A rule based on a JsonPath expression that is used for filtering. */
     private String rule;
 
+    /** The rule compiled into a JsonPath, so it is not reparsed on every evaluation. */
+    @JsonIgnore
+    @GsonJsonIgnore
+    private transient volatile CompiledRule compiledRule;
+
     /**
      * Default constructor (for serialization only).
      */
@@ -79,6 +100,38 @@ public class JsonProtocolFilter {
             ruleExpression = MATCH_ANY;
         }
         this.rule = ruleExpression;
+        this.compiledRule = compile(ruleExpression);
+    }
+
+    /**
+     * Parses a JSON string into a document that can be evaluated by any number of filters.
+     *
+     * @param json the JSON string to be parsed
+     * @return the parsed JSON document
+     * @throws IllegalArgumentException an invalid input has been provided
+     */
+    public static DocumentContext parse(String json) {
+        if (json == null || json.isEmpty()) {
+            throw new IllegalArgumentException("a json string must be provided");
+        }
+
+        return JsonPath.using(JSON_PATH_CONF).parse(json);
+    }
+
+    /**
+     * Wraps an already parsed Gson tree into a document that can be evaluated by any number
+     * of filters, so the same tree can be later bound to an object with Gson.
+     *
+     * @param tree the parsed Gson tree
+     * @return the JSON document
+     * @throws IllegalArgumentException an invalid input has been provided
+     */
+    public static DocumentContext parse(JsonElement tree) {
+        if (tree == null || tree.isJsonNull()) {
+            throw new IllegalArgumentException("a json tree must be provided");
+        }
+
+        return JsonPath.using(JSON_PATH_GSON_CONF).parse(tree);
     }
 
     /**
@@ -93,6 +146,31 @@ public class JsonProtocolFilter {
         return !filter(json).isEmpty();
     }
 
+    /**
+     * Accepts an already parsed JSON document if there is a match on the filter expression.
+     *
+     * @param document the parsed JSON document, see {@link #parse(String)}
+     * @return true if a match is found or the rule uses the match any policy, false otherwise
+     */
+    public boolean accept(DocumentContext document) {
+        if (MATCH_ANY.equals(this.rule)) {
+            return true;
+        }
+        return !filter(document).isEmpty();
+    }
+
+    /**
+     * Indicates if this filter accepts any JSON document, in which case there is
+     * no need to parse it.
+     *
+     * @return true if the rule uses the match any policy
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    public boolean isMatchAny() {
+        return MATCH_ANY.equals(this.rule);
+    }
+
     /**
      * Finds a field based on a path or a subset of the JSON if using an expression.
      *
@@ -100,7 +178,26 @@ public class JsonProtocolFilter {
      * @return a list of strings that match the expression
      */
     public List<String> filter(String json) {
-        return filter(json, this.rule);
+        CompiledRule compiled = this.compiled();
+        if (compiled.path == null) {
+            return filter(json, this.rule);
+        }
+
+        return read(parse(json), compiled);
+    }
+
+    /**
+     * Finds a field based on a path or a subset of an already parsed JSON document.
+     *
+     * @param document the parsed JSON document, see {@link #parse(String)}
+     * @return a list of strings that match the expression
+     */
+    public List<String> filter(DocumentContext document) {
+        if (document == null) {
+            throw new IllegalArgumentException("a json document must be provided");
+        }
+
+        return read(document, this.compiled());
     }
 
     /**
@@ -120,8 +217,7 @@ public class JsonProtocolFilter {
             throw new IllegalArgumentException("an expression must be provided");
         }
 
-        Configuration conf = Configuration.defaultConfiguration().addOptions(Option.ALWAYS_RETURN_LIST);
-        DocumentContext document = JsonPath.using(conf).parse(json);
+        DocumentContext document = parse(json);
 
         List<String> matches = new ArrayList<>();
         try {
@@ -136,4 +232,108 @@ public class JsonProtocolFilter {
 
         return matches;
     }
+
+    /**
+     * Evaluates a compiled rule against a parsed document.
+     *
+     * @param document parsed JSON document
+     * @param compiled compiled rule
+     * @return a list of matches from the JSON document
+     */
+    private static List<String> read(DocumentContext document, CompiledRule compiled) {
+        List<String> matches = new ArrayList<>();
+        try {
+            Object result;
+            if (compiled.path != null) {
+                result = document.read(compiled.path);
+            } else {
+                result = document.read(compiled.expression);
+            }
+            matches = toList(document, result);
+        } catch (Exception e) {
+            logger.error("JsonPath couldn't read {} because of {}", compiled.expression, e.getMessage(), e);
+        }
+
+        if (matches.isEmpty()) {
+            logger.debug("Could not find any matches for rule {} in json {}", compiled.expression, document.json());
+        }
+
+        return matches;
+    }
+
+    /**
+     * Converts a JsonPath result into a list, unwrapping the elements of
+     * non-native providers (ie. Gson arrays).
+     *
+     * @param document document the result was read from
+     * @param result the JsonPath result
+     * @return a list of matches
+     */
+    @SuppressWarnings("unchecked")
+    private static List<String> toList(DocumentContext document, Object result) {
+        if (result == null) {
+            return new ArrayList<>();
+        }
+
+        if (result instanceof List) {
+            return (List<String>) result;
+        }
+
+        JsonProvider provider = document.configuration().jsonProvider();
+        List<Object> matches = new ArrayList<>();
+        for (Object match : provider.toIterable(result)) {
+            matches.add(provider.unwrap(match));
+        }
+        return (List<String>) (List<?>) matches;
+    }
+
+    /**
+     * Gets the compiled form of the current rule, recompiling it when the rule
+     * has been set without going through {@link #setRule(String)} (ie. by field
+     * level deserialization).
+     *
+     * @return the compiled rule
+     */
+    private CompiledRule compiled() {
+        CompiledRule compiled = this.compiledRule;
+        if (compiled != null && Objects.equals(compiled.expression, this.rule)) {
+            return compiled;
+        }
+
+        compiled = compile(this.rule);
+        this.compiledRule = compiled;
+        return compiled;
+    }
+
+    /**
+     * Compiles a rule expression.
+     *
+     * @param expression the JsonPath expression
+     * @return the compiled rule, with no path if it matches anything or cannot be compiled
+     */
+    private static CompiledRule compile(String expression) {
+        if (expression == null || MATCH_ANY.equals(expression)) {
+            return new CompiledRule(expression, null);
+        }
+
+        try {
+            return new CompiledRule(expression, JsonPath.compile(expression));
+        } catch (RuntimeException e) {
+            logger.warn("JsonPath couldn't compile {} because of {}", expression, e.getMessage(), e);
+            return new CompiledRule(expression, null);
+        }
+    }
+
+    /**
+     * A rule expression and its compiled JsonPath.
+     */
+    private static class CompiledRule {
+        private final String expression;
+        private final JsonPath path;
+
+        private CompiledRule(String expression, JsonPath path) {
+            this.expression = expression;
+            this.path = path;
+        }
+    }
 }
@@ -31,6 +31,9 @@ import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.jayway.jsonpath.DocumentContext;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -40,8 +43,10 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
 import org.onap.policy.common.gson.annotation.GsonJsonIgnore;
 import org.onap.policy.drools.controller.DroolsController;
+import org.onap.policy.drools.core.PolicyContainer;
 import org.onap.policy.drools.protocol.coders.EventProtocolCoder.CoderFilters;
 import org.onap.policy.drools.protocol.coders.TopicCoderFilterConfiguration.CustomCoder;
 import org.slf4j.Logger;
@@ -92,6 +97,11 @@ public abstract class ProtocolCoderToolset {
      */
     protected CustomCoder customCoder;
 
+    /**
+     * parse events once into a tree shared by the filters and the decoder.
+     */
+    protected boolean sharedParse;
+
     /**
      * Constructor.
      *
@@ -114,6 +124,7 @@ public abstract class ProtocolCoderToolset {
                 eventProtocolParams.getProtocolFilter(),
                 eventProtocolParams.getModelClassLoaderHash()));
         this.customCoder = eventProtocolParams.getCustomCoder();
+        this.sharedParse = eventProtocolParams.isSharedParse();
     }
 
     /**
@@ -239,6 +250,24 @@ public abstract class ProtocolCoderToolset {
         this.customCoder = customCoder;
     }
 
+    /**
+     * Is shared parse enabled.
+     *
+     * @return true if events are parsed once for both filtering and decoding
+     */
+    public boolean isSharedParse() {
+        return this.sharedParse;
+    }
+
+    /**
+     * Set shared parse.
+     *
+     * @param sharedParse true to parse events once for both filtering and decoding
+     */
+    public void setSharedParse(boolean sharedParse) {
+        this.sharedParse = sharedParse;
+    }
+
     /**
      * performs filtering on a json string.
      *
@@ -248,27 +277,59 @@ public abstract class ProtocolCoderToolset {
      * @throws IllegalArgumentException invalid input
      */
     protected CoderFilters filter(String json) {
+        return filter(json, () -> JsonProtocolFilter.parse(json));
+    }
+
+    /**
+     * performs filtering on an already parsed json tree.
+     *
+     * @param tree json tree
+     * @return the decoder that passes the filter, otherwise null
+     * @throws UnsupportedOperationException can't filter
+     * @throws IllegalArgumentException invalid input
+     */
+    protected CoderFilters filter(JsonElement tree) {
+        return filter(tree, () -> JsonProtocolFilter.parse(tree));
+    }
 
+    /**
+     * performs filtering on an event.
+     *
+     * @param event json event, for logging purposes
+     * @param parser parses the event into a document on demand
+     * @return the decoder that passes the filter, otherwise null
+     */
+    private CoderFilters filter(Object event, Supplier<DocumentContext> parser) {
 
         // 1. Get list of decoding classes for this controller Id and topic
         // 2. If there are no classes, return error
         // 3. Otherwise, from the available classes for decoding, pick the first one that
         // passes the filters
 
-        // Don't parse if it is not necessary
+        // Don't parse if it is not necessary, and when it is, parse only once
+        // for all the candidate filters
 
         if (this.coders.isEmpty()) {
             throw new IllegalStateException("No coders available");
         }
 
+        DocumentContext document = null;
         for (final CoderFilters decoder : this.coders) {
             try {
-                boolean accepted = decoder.getFilter().accept(json);
-                if (accepted) {
+                JsonProtocolFilter filter = decoder.getFilter();
+                if (filter.isMatchAny()) {
+                    return decoder;
+                }
+
+                if (document == null) {
+                    document = parser.get();
+                }
+
+                if (filter.accept(document)) {
                     return decoder;
                 }
             } catch (final Exception e) {
-                logger.info("{}: unexpected failure accepting {} because of {}", this, json,
+                logger.info("{}: unexpected failure accepting {} because of {}", this, event,
                         e.getMessage(), e);
                 // continue
             }
@@ -305,7 +366,7 @@ public abstract class ProtocolCoderToolset {
         .append(this.controllerId).append(", groupId=").append(this.groupId).append(", artifactId=")
         .append(this.artifactId).append(", coders=").append(this.coders)
         .append(", filteringParser=").append(this.filteringParser).append(", customCoder=")
-        .append(this.customCoder).append("]");
+        .append(this.customCoder).append(", sharedParse=").append(this.sharedParse).append("]");
         return builder.toString();
     }
 }
@@ -385,6 +446,13 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
         .registerTypeAdapter(ZonedDateTime.class, new GsonUTCAdapter())
         .registerTypeAdapter(Instant.class, new GsonInstantAdapter()).create();
 
+    /**
+     * custom coder resolved in the model class loader, reused across events.
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    protected volatile CustomCoderHandle customCoderHandle;
+
     /**
      * Toolset to encode/decode tools associated with a topic.
      *
@@ -395,6 +463,168 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
         super(eventProtocolParams, controllerId);
     }
 
+    /**
+     * gets the custom coder resolved for the current model class loader, the
+     * reflective lookup is only performed when the custom coder or the model
+     * class loader (ie. after an upgrade) changes.
+     *
+     * @param droolsController drools controller owning the model
+     * @return the custom coder handle
+     * @throws ReflectiveOperationException if the custom coder cannot be resolved
+     */
+    protected CustomCoderHandle getCustomCoderHandle(DroolsController droolsController)
+            throws ReflectiveOperationException {
+
+        final CustomCoder coder = this.customCoder;
+        final PolicyContainer container = droolsController.getContainer();
+        final ClassLoader modelClassLoader = (container != null) ? container.getClassLoader() : null;
+
+        CustomCoderHandle handle = this.customCoderHandle;
+        if (handle != null && handle.customCoder == coder && handle.modelClassLoader == modelClassLoader) {
+            return handle;
+        }
+
+        final Class<?> gsonClassContainer = droolsController.fetchModelClass(coder.getClassContainer());
+        final Field gsonField = gsonClassContainer.getField(coder.getStaticCoderField());
+
+        handle = new CustomCoderHandle(coder, modelClassLoader, gsonField.get(null));
+        this.customCoderHandle = handle;
+
+        logger.info("{}: resolved custom coder {}", this, handle);
+        return handle;
+    }
+
+    /**
+     * Custom coder resolved in a model class loader.   When the coder is a Gson
+     * instance visible to the framework it is invoked directly, otherwise through
+     * method handles bound to the coder object.
+     */
+    protected static class CustomCoderHandle {
+
+        /**
+         * custom coder configuration this handle was resolved from.
+         */
+        protected final CustomCoder customCoder;
+
+        /**
+         * model class loader this handle was resolved in.
+         */
+        protected final ClassLoader modelClassLoader;
+
+        /**
+         * coder object.
+         */
+        protected final Object coderObject;
+
+        /**
+         * direct access to the coder when it is a framework Gson instance.
+         */
+        protected final Gson gson;
+
+        /**
+         * fromJson(String, Class) bound to the coder object, when not a framework Gson instance.
+         */
+        protected final MethodHandle fromJsonHandle;
+
+        /**
+         * toJson(Object) bound to the coder object, when not a framework Gson instance.
+         */
+        protected final MethodHandle toJsonHandle;
+
+        /**
+         * Constructor.
+         *
+         * @param customCoder custom coder configuration
+         * @param modelClassLoader model class loader
+         * @param coderObject coder object
+         */
+        protected CustomCoderHandle(CustomCoder customCoder, ClassLoader modelClassLoader, Object coderObject) {
+            this.customCoder = customCoder;
+            this.modelClassLoader = modelClassLoader;
+            this.coderObject = coderObject;
+
+            if (coderObject instanceof Gson) {
+                this.gson = (Gson) coderObject;
+                this.fromJsonHandle = null;
+                this.toJsonHandle = null;
+            } else {
+                this.gson = null;
+                this.fromJsonHandle = bind(coderObject, "fromJson", String.class, Class.class);
+                this.toJsonHandle = bind(coderObject, "toJson", Object.class);
+            }
+        }
+
+        /**
+         * binds a coder method to the coder object.
+         *
+         * @param coderObject coder object
+         * @param name method name
+         * @param parameterTypes method parameter types
+         * @return the bound method handle, or null if the coder object does not have the method
+         */
+        private static MethodHandle bind(Object coderObject, String name, Class<?>... parameterTypes) {
+            try {
+                final Method method = coderObject.getClass().getDeclaredMethod(name, parameterTypes);
+                return MethodHandles.publicLookup().unreflect(method).bindTo(coderObject);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                logger.warn("custom coder {} cannot {} because of {}", coderObject.getClass().getName(), name,
+                        e.getMessage(), e);
+                return null;
+            }
+        }
+
+        /**
+         * decodes a json string with the custom coder.
+         *
+         * @param json json string
+         * @param decoderClass class to decode into
+         * @return the decoded object
+         */
+        public Object fromJson(String json, Class<?> decoderClass) {
+            if (this.gson != null) {
+                return this.gson.fromJson(json, decoderClass);
+            }
+
+            if (this.fromJsonHandle == null) {
+                throw new UnsupportedOperationException("custom coder cannot decode");
+            }
+
+            try {
+                return this.fromJsonHandle.invoke(json, decoderClass);
+            } catch (Throwable e) {
+                throw new UnsupportedOperationException("custom coder failed to decode", e);
+            }
+        }
+
+        /**
+         * encodes an object with the custom coder.
+         *
+         * @param event object to encode
+         * @return the json string
+         */
+        public String toJson(Object event) {
+            if (this.gson != null) {
+                return this.gson.toJson(event);
+            }
+
+            if (this.toJsonHandle == null) {
+                throw new UnsupportedOperationException("custom coder cannot encode");
+            }
+
+            try {
+                return (String) this.toJsonHandle.invoke(event);
+            } catch (Throwable e) {
+                throw new UnsupportedOperationException("custom coder failed to encode", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CustomCoderHandle [customCoder=" + customCoder + ", coderObject="
+                    + coderObject.getClass().getName() + ", direct=" + (gson != null) + "]";
+        }
+    }
+
     /**
      * gets the Gson decoder.
      *
@@ -430,7 +660,19 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
             throw new IllegalStateException("no drools-controller to process event");
         }
 
-        final CoderFilters decoderFilter = this.filter(json);
+        // the custom coder binds from strings, so the tree can only be shared with the framework decoder
+
+        JsonElement tree = null;
+        if (this.sharedParse && this.customCoder == null) {
+            try {
+                tree = this.filteringParser.parse(json);
+            } catch (final Exception e) {
+                logger.warn("{} cannot parse {} because of {}", this, json, e.getMessage(), e);
+                throw new UnsupportedOperationException("cannot parse event", e);
+            }
+        }
+
+        final CoderFilters decoderFilter = (tree != null) ? this.filter(tree) : this.filter(json);
         if (decoderFilter == null) {
             logger.debug("{}: no decoder to process {}", this, json);
             throw new UnsupportedOperationException("no decoder to process event");
@@ -453,13 +695,7 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
 
         if (this.customCoder != null) {
             try {
-                final Class<?> gsonClassContainer =
-                        droolsController.fetchModelClass(this.customCoder.getClassContainer());
-                final Field gsonField = gsonClassContainer.getField(this.customCoder.staticCoderField);
-                final Object gsonObject = gsonField.get(null);
-                final Method fromJsonMethod = gsonObject.getClass().getDeclaredMethod("fromJson",
-                        new Class[] {String.class, Class.class});
-                return fromJsonMethod.invoke(gsonObject, json, decoderClass);
+                return this.getCustomCoderHandle(droolsController).fromJson(json, decoderClass);
             } catch (final Exception e) {
                 logger.warn("{}: cannot fetch application class {} because of {}", this,
                         decoderFilter.getCodedClass(), e.getMessage());
@@ -468,6 +704,9 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
             }
         } else {
             try {
+                if (tree != null) {
+                    return this.decoder.fromJson(tree, decoderClass);
+                }
                 return this.decoder.fromJson(json, decoderClass);
             } catch (final Exception e) {
                 logger.warn("{} cannot decode {} into {} because of {}", this, json, decoderClass.getName(),
@@ -488,13 +727,7 @@ class GsonProtocolCoderToolset extends ProtocolCoderToolset {
             try {
                 final DroolsController droolsController =
                         DroolsController.factory.get(this.groupId, this.artifactId, null);
-                final Class<?> gsonClassContainer =
-                        droolsController.fetchModelClass(this.customCoder.getClassContainer());
-                final Field gsonField = gsonClassContainer.getField(this.customCoder.staticCoderField);
-                final Object gsonObject = gsonField.get(null);
-                final Method toJsonMethod =
-                        gsonObject.getClass().getDeclaredMethod("toJson", new Class[] {Object.class});
-                return (String) toJsonMethod.invoke(gsonObject, event);
+                return this.getCustomCoderHandle(droolsController).toJson(event);
             } catch (final Exception e) {
                 logger.warn("{} cannot custom-encode {} because of {}", this, event, e.getMessage(), e);
                 throw new UnsupportedOperationException("event cannot be encoded", e);
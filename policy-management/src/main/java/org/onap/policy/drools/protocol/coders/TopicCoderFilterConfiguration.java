@@ -225,6 +225,9 @@ public class TopicCoderFilterConfiguration {
     /* custom gson coder that this controller prefers to use instead of the framework ones */
     protected CustomGsonCoder customGsonCoder;
 
+    /* parse events once into a tree shared by the filters and the decoder */
+    protected boolean sharedParse;
+
     /**
      * Constructor.
      *
@@ -275,6 +278,24 @@ public class TopicCoderFilterConfiguration {
         this.customGsonCoder = customGsonCoder;
     }
 
+    /**
+     * Is shared parse enabled.
+     *
+     * @return true if events are parsed once for both filtering and decoding
+     **/
+    public boolean isSharedParse() {
+        return sharedParse;
+    }
+
+    /**
+     * Set shared parse.
+     *
+     * @param sharedParse true to parse events once for both filtering and decoding
+     **/
+    public void setSharedParse(boolean sharedParse) {
+        this.sharedParse = sharedParse;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -285,6 +306,8 @@ public class TopicCoderFilterConfiguration {
             .append(coderFilters)
             .append(", customGsonCoder=")
             .append(customGsonCoder)
+            .append(", sharedParse=")
+            .append(sharedParse)
             .append("]");
         return builder.toString();
     }
@@ -21,6 +21,10 @@
 package org.onap.policy.drools.server.restful;
 
 import ch.qos.logback.classic.LoggerContext;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonWriter;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -29,13 +33,19 @@ import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Info;
 import io.swagger.annotations.SwaggerDefinition;
 import io.swagger.annotations.Tag;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
@@ -49,13 +59,22 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
 import org.onap.policy.common.endpoints.event.comm.Topic;
 import org.onap.policy.common.endpoints.event.comm.Topic.CommInfrastructure;
 import org.onap.policy.common.endpoints.event.comm.TopicEndpoint;
 import org.onap.policy.common.endpoints.event.comm.TopicEndpointManager;
 import org.onap.policy.common.endpoints.event.comm.TopicSink;
 import org.onap.policy.common.endpoints.event.comm.TopicSource;
+import org.onap.policy.common.gson.JacksonExclusionStrategy;
+import org.onap.policy.common.gson.JacksonFieldAdapterFactory;
+import org.onap.policy.common.gson.JacksonMethodAdapterFactory;
 import org.onap.policy.drools.controller.DroolsController;
+import org.onap.policy.drools.core.PolicyContainer;
+import org.onap.policy.drools.core.PolicySession;
+import org.onap.policy.drools.core.jmx.PdpMetrics;
+import org.onap.policy.drools.core.jmx.ScopeSnapshot;
+import org.onap.policy.drools.core.jmx.SessionStatsSnapshot;
 import org.onap.policy.drools.features.PolicyControllerFeatureAPI;
 import org.onap.policy.drools.features.PolicyEngineFeatureAPI;
 import org.onap.policy.drools.properties.DroolsProperties;
@@ -89,6 +108,24 @@ public class RestManager {
      */
     private static Logger logger = LoggerFactory.getLogger(RestManager.class);
 
+    /**
+     * Encodes the facts that are streamed to clients. Configured like the
+     * {@link org.onap.policy.common.gson.JacksonHandler JacksonHandler} serialization
+     * provider, which encoded the facts before they were streamed, so that the gson
+     * annotations are still honored.
+     */
+    private static final Gson FACT_ENCODER = new GsonBuilder()
+            .registerTypeAdapterFactory(new JacksonFieldAdapterFactory())
+            .registerTypeAdapterFactory(new JacksonMethodAdapterFactory())
+            .setExclusionStrategies(new JacksonExclusionStrategy()).create();
+
+    /**
+     * Describes the paging of the fact retrieval operations.
+     */
+    private static final String FACT_PAGING_NOTES = "The requested page of facts is taken from working memory when "
+            + "the request is processed, and then streamed. Large results may be paged with offset and limit, "
+            + "requesting offset+limit next, until fewer than limit facts are returned";
+
     /**
      * GET.
      *
@@ -265,6 +302,35 @@ public class RestManager {
         return Response.status(Response.Status.OK).entity(previousValue).build();
     }
 
+    /**
+     * GET.
+     *
+     * @return response object
+     */
+    @GET
+    @Path("engine/metrics")
+    @ApiOperation(value = "Engine Latency Metrics",
+            notes = "Latency percentiles and error counts, per processing stage, of every controller, "
+                    + "drools controller, session, and topic, accumulated since the last reset",
+            responseContainer = "Map")
+    public Response engineMetrics() {
+        return Response.status(Response.Status.OK).entity(PdpMetrics.getInstance().getScopes()).build();
+    }
+
+    /**
+     * DELETE.
+     *
+     * @return response object
+     */
+    @DELETE
+    @Path("engine/metrics")
+    @ApiOperation(value = "Resets the Engine Latency Metrics",
+            notes = "Clears the metrics of every scope, thus starting a new measurement interval")
+    public Response engineMetricsReset() {
+        PdpMetrics.getInstance().reset();
+        return Response.status(Response.Status.OK).build();
+    }
+
     /**
      * GET.
      *
@@ -766,6 +832,187 @@ public class RestManager {
         }
     }
 
+    /**
+     * GET.
+     *
+     * @return response object
+     */
+    @GET
+    @Path("engine/controllers/{controller}/metrics")
+    @ApiOperation(value = "Policy Controller Latency Metrics",
+            notes = "Latency percentiles and error counts, per processing stage, of the controller, "
+                    + "its drools controller, sessions, and topics, accumulated since the last reset",
+            responseContainer = "Map")
+    @ApiResponses(
+            value = {@ApiResponse(code = 404, message = "The controller cannot be found"), @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response controllerMetrics(@ApiParam(value = "Policy Controller Name",
+            required = true) @PathParam("controller") String controllerName) {
+        try {
+            final PolicyController controller = PolicyController.factory.get(controllerName);
+            final DroolsController drools = controller.getDrools();
+
+            final String coordinates = (drools == null ? null
+                    : PdpMetrics.makeScopeName(drools.getGroupId(), drools.getArtifactId()));
+
+            final Map<String, ScopeSnapshot> metrics = PdpMetrics.getInstance().getScopes(
+                name -> name.equals(controllerName) || (coordinates != null
+                        && (name.equals(coordinates) || name.startsWith(coordinates + ":"))));
+
+            return Response.status(Response.Status.OK).entity(metrics).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get metrics of {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error(controllerName + " not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get metrics of {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE).entity(new Error(controllerName + " not acceptable"))
+                    .build();
+        }
+    }
+
+    /**
+     * GET.
+     *
+     * @return response object
+     */
+    @GET
+    @Path("engine/controllers/{controller}/drools/stats")
+    @ApiOperation(value = "Retrieves the rule and fact statistics of every session of a controller",
+            notes = "Per-rule fire counts and execution times, ordered from the most to the least expensive, "
+                    + "and per-class fact insert, update, and delete counts",
+            responseContainer = "Map")
+    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller or session cannot be found"),
+            @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response droolsStats(@ApiParam(value = "Policy Controller Name",
+            required = true) @PathParam("controller") String controllerName) {
+        try {
+            final Map<String, SessionStatsSnapshot> stats = new HashMap<>();
+            for (final PolicySession session : this.getPolicySessions(controllerName, null)) {
+                stats.put(session.getName(), session.getStats().snapshot());
+            }
+            return Response.status(Response.Status.OK).entity(stats).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error("entity not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE)
+                    .entity(new Error(controllerName + " not acceptable")).build();
+        }
+    }
+
+    /**
+     * GET.
+     *
+     * @return response object
+     */
+    @GET
+    @Path("engine/controllers/{controller}/drools/stats/{session}")
+    @ApiOperation(value = "Retrieves the rule and fact statistics of a session",
+            notes = "Per-rule fire counts and execution times, ordered from the most to the least expensive, "
+                    + "and per-class fact insert, update, and delete counts",
+            response = SessionStatsSnapshot.class)
+    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller or session cannot be found"),
+            @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response droolsStats(
+            @ApiParam(value = "Policy Controller Name", required = true) @PathParam("controller") String controllerName,
+            @ApiParam(value = "Drools Session Name", required = true) @PathParam("session") String sessionName) {
+        try {
+            final PolicySession session = this.getPolicySessions(controllerName, sessionName).iterator().next();
+            return Response.status(Response.Status.OK).entity(session.getStats().snapshot()).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error("entity not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE)
+                    .entity(new Error(controllerName + " not acceptable")).build();
+        }
+    }
+
+    /**
+     * DELETE.
+     *
+     * @return response object
+     */
+    @DELETE
+    @Path("engine/controllers/{controller}/drools/stats")
+    @ApiOperation(value = "Resets the rule and fact statistics of every session of a controller",
+            notes = "Discards the statistics, but does not change whether or not they are being collected")
+    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller or session cannot be found"),
+            @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response droolsStatsReset(@ApiParam(value = "Policy Controller Name",
+            required = true) @PathParam("controller") String controllerName) {
+        try {
+            this.getPolicySessions(controllerName, null).forEach(session -> session.getStats().reset());
+            return Response.status(Response.Status.OK).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error("entity not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE)
+                    .entity(new Error(controllerName + " not acceptable")).build();
+        }
+    }
+
+    /**
+     * PUT.
+     *
+     * @return response object
+     */
+    @PUT
+    @Path("engine/controllers/{controller}/drools/switches/stats")
+    @ApiOperation(value = "Switches on the collection of rule and fact statistics",
+            notes = "Enables the statistics of every session of the controller")
+    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller or session cannot be found"),
+            @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response droolsStatsOn(@ApiParam(value = "Policy Controller Name",
+            required = true) @PathParam("controller") String controllerName) {
+        try {
+            this.getPolicySessions(controllerName, null).forEach(session -> session.getStats().setEnabled(true));
+            return Response.status(Response.Status.OK).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error("entity not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE)
+                    .entity(new Error(controllerName + " not acceptable")).build();
+        }
+    }
+
+    /**
+     * DELETE.
+     *
+     * @return response object
+     */
+    @DELETE
+    @Path("engine/controllers/{controller}/drools/switches/stats")
+    @ApiOperation(value = "Switches off the collection of rule and fact statistics",
+            notes = "Disables the statistics of every session of the controller, retaining those already collected")
+    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller or session cannot be found"),
+            @ApiResponse(code = 406,
+                    message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
+    public Response droolsStatsOff(@ApiParam(value = "Policy Controller Name",
+            required = true) @PathParam("controller") String controllerName) {
+        try {
+            this.getPolicySessions(controllerName, null).forEach(session -> session.getStats().setEnabled(false));
+            return Response.status(Response.Status.OK).build();
+        } catch (final IllegalArgumentException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_FOUND).entity(new Error("entity not found")).build();
+        } catch (final IllegalStateException e) {
+            logger.debug("{}: cannot get drools-controller {} because of {}", this, controllerName, e.getMessage(), e);
+            return Response.status(Response.Status.NOT_ACCEPTABLE)
+                    .entity(new Error(controllerName + " not acceptable")).build();
+        }
+    }
+
     /**
      * GET.
      *
@@ -837,24 +1084,30 @@ public class RestManager {
     @ApiOperation(
             value = "Retrieves fact objects of a given type in the drools working memory"
                     + "for a given controller and session",
-            notes = "The fact types are the classnames of the objects inserted in the drools working memory",
+            notes = "The fact types are the classnames of the objects inserted in the drools working memory. "
+                    + FACT_PAGING_NOTES,
             responseContainer = "List")
-    @ApiResponses(value = {@ApiResponse(code = 404, message = "The controller, session, or fact type cannot be found"),
+    @ApiResponses(value = {@ApiResponse(code = 400, message = "The offset or limit is negative"),
+            @ApiResponse(code = 404, message = "The controller, session, or fact type cannot be found"),
             @ApiResponse(code = 406,
                     message = "The system is an administrative state that prevents " + "this request to be fulfilled")})
     public Response droolsFacts(
             @ApiParam(value = "Fact count", required = false) @DefaultValue("false") @QueryParam("count") boolean count,
+            @ApiParam(value = "Number of facts to skip", required = false) @DefaultValue("0")
+                @QueryParam("offset") long offset,
+            @ApiParam(value = "Maximum number of facts to return, 0 for all", required = false) @DefaultValue("0")
+                @QueryParam("limit") long limit,
             @ApiParam(value = "Policy Controller Name", required = true) @PathParam("controller") String controllerName,
             @ApiParam(value = "Drools Session Name", required = true) @PathParam("session") String sessionName,
             @ApiParam(value = "Drools Fact Type", required = true) @PathParam("factType") String factType) {
+        if (offset < 0 || limit < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new Error("offset and limit must not be negative")).build();
+        }
+
         try {
             final DroolsController drools = this.getDroolsController(controllerName);
-            final List<Object> facts = drools.facts(sessionName, factType, false);
-            if (!count) {
-                return Response.status(Response.Status.OK).entity(facts).build();
-            } else {
-                return Response.status(Response.Status.OK).entity(facts.size()).build();
-            }
+            return this.getFactsResponse(drools.factStream(sessionName, factType), count, offset, limit);
         } catch (final IllegalArgumentException e) {
             logger.debug("{}: cannot get policy-controller {} because of {}", this, controllerName, e.getMessage(), e);
             return Response.status(Response.Status.NOT_FOUND)
@@ -877,27 +1130,34 @@ public class RestManager {
             value = "Gets all the fact objects returned by a DRL query with no parameters "
                     + "from the drools working memory"
                     + "for a given controller and session",
-            notes = "The DRL query must be defined in the DRL file", responseContainer = "List")
+            notes = "The DRL query must be defined in the DRL file. " + FACT_PAGING_NOTES,
+            responseContainer = "List")
     @ApiResponses(value = {
+            @ApiResponse(code = 400, message = "The offset or limit is negative"),
             @ApiResponse(code = 404, message = "The controller, session, or query information, cannot be found"),
             @ApiResponse(code = 406,
                     message = "The system is an administrative state that prevents " + "this request to be fulfilled"),
             @ApiResponse(code = 500, message = "A server error has occurred processing this request")})
     public Response droolsFacts(
             @ApiParam(value = "Fact count", required = false) @DefaultValue("false") @QueryParam("count") boolean count,
+            @ApiParam(value = "Number of facts to skip", required = false) @DefaultValue("0")
+                @QueryParam("offset") long offset,
+            @ApiParam(value = "Maximum number of facts to return, 0 for all", required = false) @DefaultValue("0")
+                @QueryParam("limit") long limit,
             @ApiParam(value = "Policy Controller Name", required = true) @PathParam("controller") String controllerName,
             @ApiParam(value = "Drools Session Name", required = true) @PathParam("session") String sessionName,
             @ApiParam(value = "Query Name Present in DRL", required = true) @PathParam("query") String queryName,
             @ApiParam(value = "Query Identifier Present in the DRL Query",
                     required = true) @PathParam("queriedEntity") String queriedEntity) {
+        if (offset < 0 || limit < 0) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(new Error("offset and limit must not be negative")).build();
+        }
+
         try {
             final DroolsController drools = this.getDroolsController(controllerName);
-            final List<Object> facts = drools.factQuery(sessionName, queryName, queriedEntity, false);
-            if (!count) {
-                return Response.status(Response.Status.OK).entity(facts).build();
-            } else {
-                return Response.status(Response.Status.OK).entity(facts.size()).build();
-            }
+            return this.getFactsResponse(drools.factQueryStream(sessionName, queryName, queriedEntity), count,
+                    offset, limit);
         } catch (final IllegalArgumentException e) {
             logger.debug("{}: cannot get: drools-controller {}, session {}, query {}, entity {} because of {}", this,
                     controllerName, sessionName, queryName, queriedEntity, e.getMessage(), e);
@@ -2157,6 +2417,81 @@ public class RestManager {
         return drools;
     }
 
+    /**
+     * Gets the sessions of a controller.
+     *
+     * @param controllerName controller name
+     * @param sessionName name of the desired session, or {@code null} for all sessions
+     *
+     * @return the selected sessions, which is empty if all sessions were requested and the
+     *     controller has none
+     *
+     * @throws IllegalArgumentException if the controller or session does not exist
+     * @throws IllegalStateException if the controller cannot be accessed
+     */
+    protected Collection<PolicySession> getPolicySessions(String controllerName, String sessionName) {
+        final PolicyContainer container = this.getDroolsController(controllerName).getContainer();
+
+        if (sessionName == null) {
+            return (container == null ? Collections.emptyList() : container.getPolicySessions());
+        }
+
+        final PolicySession session = (container == null ? null : container.getPolicySession(sessionName));
+        if (session == null) {
+            throw new IllegalArgumentException(controllerName + ":" + sessionName + "  does not exist");
+        }
+
+        return Collections.singletonList(session);
+    }
+
+    /**
+     * Builds the response to a fact retrieval request. The requested page is taken from
+     * working memory while the request is processed, so that the session is not traversed
+     * at the pace of the client, and is then streamed to the client as a JSON array, so
+     * that only the encoded form of one fact is held at a time rather than the whole
+     * result. A fact that cannot be encoded is logged and left out, so that the array that
+     * is returned is always well formed.
+     *
+     * @param facts lazily evaluated facts
+     * @param count {@code true} if only the number of facts in the page is desired
+     * @param offset number of facts to skip
+     * @param limit maximum number of facts to return, or 0 for no limit
+     * @return response object
+     */
+    protected Response getFactsResponse(Stream<Object> facts, boolean count, long offset, long limit) {
+        final List<Object> page;
+
+        try (Stream<Object> selected = (limit > 0 ? facts.skip(offset).limit(limit) : facts.skip(offset))) {
+            if (count) {
+                return Response.status(Response.Status.OK).entity(selected.count()).build();
+            }
+
+            page = selected.collect(Collectors.toList());
+        }
+
+        final StreamingOutput output = outputStream -> {
+            final JsonWriter writer = new JsonWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.beginArray();
+            for (final Object fact : page) {
+                final JsonElement encoded;
+                try {
+                    encoded = FACT_ENCODER.toJsonTree(fact, fact.getClass());
+                } catch (RuntimeException e) {
+                    logger.warn("{}: cannot encode fact {} because of {}", this, fact.getClass().getName(),
+                            e.getMessage(), e);
+                    continue;
+                }
+                FACT_ENCODER.toJson(encoded, writer);
+            }
+            writer.endArray();
+
+            // the container owns the output stream, so it is only flushed
+            writer.flush();
+        };
+
+        return Response.status(Response.Status.OK).entity(output).build();
+    }
+
     /*
      * Helper classes for aggregation of results
      */
@@ -36,6 +36,9 @@ import org.onap.policy.common.endpoints.event.comm.TopicSource;
 import org.onap.policy.common.gson.annotation.GsonJsonIgnore;
 import org.onap.policy.drools.controller.DroolsController;
 import org.onap.policy.drools.controller.DroolsControllerFactory;
+import org.onap.policy.drools.core.jmx.MetricStage;
+import org.onap.policy.drools.core.jmx.PdpMetrics;
+import org.onap.policy.drools.core.jmx.ScopeMetrics;
 import org.onap.policy.drools.features.PolicyControllerFeatureAPI;
 import org.onap.policy.drools.persistence.SystemPersistence;
 import org.onap.policy.drools.properties.DroolsProperties;
@@ -95,6 +98,21 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
      */
     private volatile DroolsController droolsController;
 
+    /**
+     * Dispatches topic events to worker threads, {@code null} when topic events are
+     * offered in the topic source thread.
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    private final TopicEventDispatcher dispatcher;
+
+    /**
+     * Latencies of the controller features, for this controller and each of its topics.
+     */
+    @JsonIgnore
+    @GsonJsonIgnore
+    private final ScopeMetrics metrics;
+
     /**
      * Properties used to initialize controller.
      */
@@ -117,6 +135,7 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
     public AggregatedPolicyController(String name, Properties properties) {
 
         this.name = name;
+        this.metrics = PdpMetrics.getInstance().getScope(name);
 
         /*
          * 1. Register read topics with network infrastructure (ueb, dmaap, rest) 2. Register write
@@ -136,6 +155,8 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
         getPersistenceManager().storeController(name, properties);
         this.properties = properties;
 
+        this.dispatcher = makeDispatcher(name, properties);
+
         this.policyTypes = getPolicyTypesFromProperties();
     }
 
@@ -293,6 +314,10 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
 
         final boolean success = this.droolsController.start();
 
+        if (this.dispatcher != null) {
+            this.dispatcher.start();
+        }
+
         // register for events
 
         for (TopicSource source : sources) {
@@ -355,6 +380,10 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
             source.unregister(this);
         }
 
+        if (this.dispatcher != null) {
+            this.dispatcher.stop();
+        }
+
         boolean success = this.droolsController.stop();
 
         for (PolicyControllerFeatureAPI feature : getProviders()) {
@@ -447,13 +476,69 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
         logger.debug("{}: raw event offered from {}:{}: {}", this, commType, topic, event);
 
         if (skipOffer()) {
+            afterOffer(commType, topic, event, false);
+            return;
+        }
+
+        if (this.dispatcher != null && this.dispatcher.isAlive()) {
+            boolean queued = this.dispatcher.dispatch(topic, event, () -> {
+                // the controller may have been stopped or locked while the event was queued
+                if (skipOffer()) {
+                    afterOffer(commType, topic, event, false);
+                } else {
+                    offerTopicEvent(commType, topic, event);
+                }
+            });
+
+            if (!queued) {
+                afterOffer(commType, topic, event, false);
+            }
+
             return;
         }
 
+        offerTopicEvent(commType, topic, event);
+    }
+
+    /**
+     * Runs the features and offers a topic event to the drools layer.
+     *
+     * @param commType communication infrastructure type
+     * @param topic topic the event was received on
+     * @param event the event
+     */
+    private void offerTopicEvent(Topic.CommInfrastructure commType, String topic, String event) {
+        long begin = System.nanoTime();
+        boolean handled = beforeOffer(commType, topic, event);
+        long offering = System.nanoTime();
+
+        if (handled) {
+            afterOffer(commType, topic, event, false);
+            this.metrics.record(topic, MetricStage.FEATURES, System.nanoTime() - begin);
+            return;
+        }
+
+        boolean success = this.droolsController.offer(topic, event);
+        long offered = System.nanoTime();
+
+        afterOffer(commType, topic, event, success);
+
+        this.metrics.record(topic, MetricStage.FEATURES, (offering - begin) + (System.nanoTime() - offered));
+    }
+
+    /**
+     * Runs the before-offer feature hooks for a topic event.
+     *
+     * @param commType communication infrastructure type
+     * @param topic topic the event was received on
+     * @param event the event
+     * @return {@code true} if a feature handled the event, {@code false} otherwise
+     */
+    private boolean beforeOffer(Topic.CommInfrastructure commType, String topic, String event) {
         for (PolicyControllerFeatureAPI feature : getProviders()) {
             try {
                 if (feature.beforeOffer(this, commType, topic, event)) {
-                    return;
+                    return true;
                 }
             } catch (Exception e) {
                 logger.error("{}: feature {} before-offer failure because of {}", this, feature.getClass().getName(),
@@ -461,8 +546,21 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
             }
         }
 
-        boolean success = this.droolsController.offer(topic, event);
+        return false;
+    }
 
+    /**
+     * Runs the after-offer feature hooks for a topic event. These are run however the
+     * offer ends, including when the event is skipped or intercepted by a feature, so
+     * that features can release anything they hold for the event.
+     *
+     * @param commType communication infrastructure type
+     * @param topic topic the event was received on
+     * @param event the event
+     * @param success {@code true} if the event was successfully offered to the drools
+     *        layer, {@code false} if the offer failed or the event was not offered
+     */
+    private void afterOffer(Topic.CommInfrastructure commType, String topic, String event, boolean success) {
         for (PolicyControllerFeatureAPI feature : getProviders()) {
             try {
                 if (feature.afterOffer(this, commType, topic, event, success)) {
@@ -733,5 +831,9 @@ public class AggregatedPolicyController implements PolicyController, TopicListen
     protected List<PolicyControllerFeatureAPI> getProviders() {
         return PolicyControllerFeatureAPI.providers.getList();
     }
+
+    protected TopicEventDispatcher makeDispatcher(String name, Properties properties) {
+        return TopicEventDispatcher.build(name, properties);
+    }
 }
 
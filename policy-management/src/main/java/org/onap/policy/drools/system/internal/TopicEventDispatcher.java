@@ -0,0 +1,361 @@
+/*
+ * ============LICENSE_START=======================================================
+ * policy-management
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.system.internal;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.onap.policy.drools.properties.DroolsProperties;
+import org.onap.policy.drools.protocol.coders.JsonProtocolFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Dispatches topic events to a fixed number of worker lanes.  Each lane is served by
+ * a single thread, and the partition key of an event selects its lane, so events with
+ * the same key are processed in arrival order, while events with different keys may
+ * be processed in parallel.  Lanes have bounded queues; a full queue blocks the
+ * dispatching (topic source) thread.
+ */
+public class TopicEventDispatcher {
+
+    /**
+     * Logger.
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TopicEventDispatcher.class);
+
+    /**
+     * How long, in milliseconds, a blocked dispatcher waits before checking again
+     * if the lanes are still running.
+     */
+    private static final long OFFER_WAIT_MS = 1000L;
+
+    /**
+     * Queued to wake a lane that is waiting for work, so that it notices it was stopped.
+     */
+    private static final Runnable STOP_TASK = () -> { };
+
+    /**
+     * Name of the owner, used to name the worker threads.
+     */
+    private final String name;
+
+    /**
+     * Number of lanes.
+     */
+    private final int nlanes;
+
+    /**
+     * Maximum number of pending events per lane.
+     */
+    private final int queueSize;
+
+    /**
+     * Partition key extractors, by topic.
+     */
+    private final Map<String, JsonProtocolFilter> keyExtractors;
+
+    /**
+     * Worker lanes, {@code null} when not running.
+     */
+    private volatile Lane[] lanes;
+
+    /**
+     * Constructs the object.
+     *
+     * @param name owner name
+     * @param nlanes number of worker lanes (threads)
+     * @param queueSize maximum number of pending events per lane
+     * @param keyExpressions JsonPath expressions, by topic, that extract the partition key
+     *        of an event. Events from topics without an expression are keyed by topic
+     * @throws IllegalArgumentException if invalid parameters are passed in
+     */
+    public TopicEventDispatcher(String name, int nlanes, int queueSize, Map<String, String> keyExpressions) {
+        if (nlanes <= 0) {
+            throw new IllegalArgumentException("invalid number of dispatch threads: " + nlanes);
+        }
+
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("invalid dispatch queue size: " + queueSize);
+        }
+
+        this.name = name;
+        this.nlanes = nlanes;
+        this.queueSize = queueSize;
+
+        this.keyExtractors = new HashMap<>();
+        for (Map.Entry<String, String> entry : keyExpressions.entrySet()) {
+            this.keyExtractors.put(entry.getKey(), new JsonProtocolFilter(entry.getValue()));
+        }
+    }
+
+    /**
+     * Builds a dispatcher from controller properties.
+     *
+     * @param name controller name
+     * @param properties controller properties
+     * @return a new dispatcher, or {@code null} if dispatching is not configured
+     * @throws IllegalArgumentException if the properties are invalid
+     */
+    public static TopicEventDispatcher build(String name, Properties properties) {
+        int nthreads = getInt(properties, DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_THREADS, 0);
+        if (nthreads <= 0) {
+            return null;
+        }
+
+        int queueSize = getInt(properties, DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_QUEUE_SIZE,
+                        DroolsProperties.DEFAULT_CONTROLLER_DISPATCH_QUEUE_SIZE);
+
+        Map<String, String> keyExpressions = new HashMap<>();
+        for (String propName : properties.stringPropertyNames()) {
+            if (propName.startsWith(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_KEY_PREFIX)) {
+                String topic = propName.substring(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_KEY_PREFIX.length());
+                String expression = properties.getProperty(propName).trim();
+                if (!topic.isEmpty() && !expression.isEmpty()) {
+                    keyExpressions.put(topic, expression);
+                }
+            }
+        }
+
+        return new TopicEventDispatcher(name, nthreads, queueSize, keyExpressions);
+    }
+
+    private static int getInt(Properties properties, String propName, int defaultValue) {
+        String value = properties.getProperty(propName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid " + propName + ": " + value, e);
+        }
+    }
+
+    /**
+     * Starts the worker lanes.
+     */
+    public synchronized void start() {
+        if (this.lanes != null) {
+            return;
+        }
+
+        Lane[] newLanes = new Lane[nlanes];
+        for (int index = 0; index < nlanes; ++index) {
+            newLanes[index] = new Lane(name + "-dispatch-" + index, queueSize);
+        }
+
+        for (Lane lane : newLanes) {
+            lane.start();
+        }
+
+        this.lanes = newLanes;
+    }
+
+    /**
+     * Stops the worker lanes.  Events being processed are allowed to complete, while
+     * pending events are discarded.
+     */
+    public synchronized void stop() {
+        Lane[] oldLanes = this.lanes;
+        if (oldLanes == null) {
+            return;
+        }
+
+        this.lanes = null;
+
+        for (Lane lane : oldLanes) {
+            lane.stop();
+        }
+    }
+
+    /**
+     * Indicates if the worker lanes are running.
+     *
+     * @return {@code true} if running, {@code false} otherwise
+     */
+    public boolean isAlive() {
+        return (this.lanes != null);
+    }
+
+    /**
+     * Gets the number of events waiting to be processed.
+     *
+     * @return the number of pending events
+     */
+    public int getPending() {
+        Lane[] current = this.lanes;
+        if (current == null) {
+            return 0;
+        }
+
+        int total = 0;
+        for (Lane lane : current) {
+            total += lane.queue.size();
+        }
+
+        return total;
+    }
+
+    /**
+     * Queues an event's processing into the lane selected by the event's partition key,
+     * blocking while that lane is full.
+     *
+     * @param topic topic the event was received on
+     * @param event the event
+     * @param task processes the event
+     * @return {@code true} if the task was queued, {@code false} if the dispatcher is not
+     *         running or the thread was interrupted while waiting
+     */
+    public boolean dispatch(String topic, String event, Runnable task) {
+        String key = getPartitionKey(topic, event);
+
+        try {
+            Lane[] current;
+            while ((current = this.lanes) != null) {
+                Lane lane = current[Math.floorMod(spread(key.hashCode()), current.length)];
+                if (lane.queue.offer(task, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+
+                logger.debug("{}: dispatch lane {} is full, waiting", this, lane.thread.getName());
+            }
+
+        } catch (InterruptedException e) {
+            logger.warn("{}: interrupted while dispatching event from {}", this, topic);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        logger.warn("{}: not running, discarding event from {}", this, topic);
+        return false;
+    }
+
+    /**
+     * Gets an event's partition key.
+     *
+     * @param topic topic the event was received on
+     * @param event the event
+     * @return the partition key of the event, or the topic if none can be extracted
+     */
+    protected String getPartitionKey(String topic, String event) {
+        JsonProtocolFilter extractor = keyExtractors.get(topic);
+        if (extractor == null) {
+            return topic;
+        }
+
+        try {
+            List<String> keys = extractor.filter(event);
+            if (!keys.isEmpty() && keys.get(0) != null) {
+                return keys.get(0);
+            }
+
+        } catch (RuntimeException e) {
+            logger.debug("{}: cannot extract partition key from {} event because of {}", this, topic,
+                            e.getMessage(), e);
+        }
+
+        return topic;
+    }
+
+    /**
+     * Spreads the bits of a hash code, so that keys differing only in their high order
+     * bits are not mapped to the same lane.
+     *
+     * @param hash hash code
+     * @return the spread hash code
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return "TopicEventDispatcher [name=" + name + ", lanes=" + nlanes + ", queueSize=" + queueSize
+                        + ", keyed-topics=" + keyExtractors.keySet() + "]";
+    }
+
+    /**
+     * A worker lane, a single thread serving a bounded queue.
+     */
+    private static class Lane implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Lane(String threadName, int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(queueSize);
+            this.thread = new Thread(this, threadName);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            this.thread.start();
+        }
+
+        private void stop() {
+            this.running = false;
+
+            /*
+             * wake the thread if it is waiting for work. Not interrupted, as it may be
+             * running a task. If the queue is full, the thread is not waiting, and it
+             * will see that it was stopped once the current task completes
+             */
+            this.queue.offer(STOP_TASK);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                Runnable task;
+                try {
+                    task = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+
+                if (task == STOP_TASK) {
+                    break;
+                }
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("{}: event processing failure because of {}", thread.getName(),
+                                    e.getMessage(), e);
+                }
+            }
+
+            queue.remove(STOP_TASK);
+            int discarded = queue.size();
+            queue.clear();
+            if (discarded > 0) {
+                logger.warn("{}: stopped, discarded {} pending events", thread.getName(), discarded);
+            }
+        }
+    }
+}
@@ -20,15 +20,36 @@
 
 package org.onap.policy.drools.controller.internal;
 
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.kie.api.KieBase;
 import org.kie.api.builder.ReleaseId;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Query;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.ObjectFilter;
+import org.kie.api.runtime.rule.FactHandle;
+import org.kie.api.runtime.rule.QueryResults;
+import org.kie.api.runtime.rule.QueryResultsRow;
 import org.onap.policy.common.utils.gson.GsonTestUtils;
 import org.onap.policy.drools.controller.DroolsController;
+import org.onap.policy.drools.core.PolicySession;
 import org.onap.policy.drools.util.KieUtils;
+import org.onap.policy.models.tosca.authorative.concepts.ToscaPolicy;
 
 public class MavenDroolsControllerTest {
 
@@ -82,6 +103,154 @@ public class MavenDroolsControllerTest {
         new GsonTestUtils().compareGson(controller, MavenDroolsControllerTest.class);
     }
 
+    @Test
+    public void testDeleteIndexed_Hit() {
+        PolicySession session = makeIndexedSession();
+        KieSession kieSession = session.getKieSession();
+        MavenDroolsController controller = makeIndexedController(session);
+
+        FactHandle handle = mock(FactHandle.class);
+        when(session.getFactHandle(makePolicy("policy-a"))).thenReturn(handle);
+        when(kieSession.getObject(handle)).thenReturn(makePolicy("policy-a"));
+
+        Assert.assertTrue(controller.delete(JUNIT_ECHO_KSESSION, makePolicy("policy-a")));
+        verify(kieSession).delete(handle);
+
+        // found without scanning working memory
+        verify(kieSession, never()).getFactHandles(any(ObjectFilter.class));
+    }
+
+    @Test
+    public void testDeleteIndexed_Miss() {
+        PolicySession session = makeIndexedSession();
+        KieSession kieSession = session.getKieSession();
+        MavenDroolsController controller = makeIndexedController(session);
+
+        // not in working memory at all
+        when(kieSession.getFactHandles(any(ObjectFilter.class))).thenReturn(Collections.emptyList());
+        Assert.assertFalse(controller.delete(JUNIT_ECHO_KSESSION, makePolicy("policy-a")));
+
+        // modified in place, thus not in the index, but still found by scanning
+        FactHandle handle = mock(FactHandle.class);
+        when(kieSession.getFactHandles(any(ObjectFilter.class))).thenReturn(Arrays.asList(handle));
+        when(kieSession.getObject(handle)).thenReturn(makePolicy("policy-a"));
+
+        Assert.assertTrue(controller.delete(JUNIT_ECHO_KSESSION, makePolicy("policy-a")));
+        verify(kieSession).delete(handle);
+    }
+
+    @Test
+    public void testDeleteIndexed_StaleHit() {
+        PolicySession session = makeIndexedSession();
+        KieSession kieSession = session.getKieSession();
+        MavenDroolsController controller = makeIndexedController(session);
+
+        // the index refers to a fact that no longer matches
+        FactHandle stale = mock(FactHandle.class);
+        when(session.getFactHandle(makePolicy("policy-a"))).thenReturn(stale);
+        when(kieSession.getObject(stale)).thenReturn(makePolicy("policy-b"));
+
+        FactHandle handle = mock(FactHandle.class);
+        when(kieSession.getFactHandles(any(ObjectFilter.class))).thenReturn(Arrays.asList(stale, handle));
+        when(kieSession.getObject(handle)).thenReturn(makePolicy("policy-a"));
+
+        Assert.assertTrue(controller.delete(JUNIT_ECHO_KSESSION, makePolicy("policy-a")));
+        verify(kieSession, never()).delete(stale);
+        verify(kieSession).delete(handle);
+    }
+
+    @Test
+    public void testFactStream() {
+        PolicySession session = makeIndexedSession();
+        KieSession kieSession = session.getKieSession();
+        MavenDroolsController controller = makeIndexedController(session);
+
+        FactHandle handleA = mock(FactHandle.class);
+        FactHandle handleBad = mock(FactHandle.class);
+        FactHandle handleC = mock(FactHandle.class);
+        when(kieSession.getFactHandles(any(ObjectFilter.class)))
+            .thenReturn(Arrays.asList(handleA, handleBad, handleC));
+        when(kieSession.getObject(handleA)).thenReturn(makePolicy("policy-a"));
+        when(kieSession.getObject(handleBad)).thenThrow(new IllegalStateException("expected exception"));
+        when(kieSession.getObject(handleC)).thenReturn(makePolicy("policy-c"));
+
+        Stream<Object> facts = controller.factStream(JUNIT_ECHO_KSESSION, ToscaPolicy.class.getName());
+
+        // nothing is retrieved until the stream is consumed
+        verify(kieSession, never()).getObject(any(FactHandle.class));
+
+        // facts that cannot be retrieved are skipped
+        Assert.assertEquals(Arrays.asList(makePolicy("policy-a"), makePolicy("policy-c")),
+            facts.collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFactQueryStream() {
+        PolicySession session = makeIndexedSession();
+        KieSession kieSession = session.getKieSession();
+        MavenDroolsController controller = makeIndexedController(session);
+
+        Query query = mock(Query.class);
+        when(query.getName()).thenReturn("policies");
+        KiePackage kiePackage = mock(KiePackage.class);
+        when(kiePackage.getQueries()).thenReturn(Collections.singletonList(query));
+        KieBase kieBase = mock(KieBase.class);
+        when(kieBase.getKiePackages()).thenReturn(Collections.singletonList(kiePackage));
+        when(kieSession.getKieBase()).thenReturn(kieBase);
+
+        QueryResultsRow rowA = mock(QueryResultsRow.class);
+        when(rowA.get("policy")).thenReturn(makePolicy("policy-a"));
+        QueryResultsRow rowBad = mock(QueryResultsRow.class);
+        when(rowBad.get("policy")).thenThrow(new IllegalStateException("expected exception"));
+        QueryResultsRow rowC = mock(QueryResultsRow.class);
+        when(rowC.get("policy")).thenReturn(makePolicy("policy-c"));
+
+        QueryResults results = mock(QueryResults.class);
+        when(results.spliterator()).thenReturn(Arrays.asList(rowA, rowBad, rowC).spliterator());
+        when(kieSession.getQueryResults("policies", "my-param")).thenReturn(results);
+
+        // rows that cannot be retrieved are skipped
+        Assert.assertEquals(Arrays.asList(makePolicy("policy-a"), makePolicy("policy-c")),
+            controller.factQueryStream(JUNIT_ECHO_KSESSION, "policies", "policy", "my-param")
+                .collect(Collectors.toList()));
+
+        // unknown query
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> controller.factQueryStream(JUNIT_ECHO_KSESSION, "unknown", "policy"));
+    }
+
+    private PolicySession makeIndexedSession() {
+        PolicySession session = mock(PolicySession.class);
+        KieSession kieSession = mock(KieSession.class);
+
+        when(session.getName()).thenReturn(JUNIT_ECHO_KSESSION);
+        when(session.getKieSession()).thenReturn(kieSession);
+        when(session.isIndexedClass(ToscaPolicy.class.getName())).thenReturn(true);
+
+        return session;
+    }
+
+    private MavenDroolsController makeIndexedController(PolicySession session) {
+        if (releaseId == null) {
+            throw new IllegalStateException("no prereq artifact installed in maven repository");
+        }
+
+        return new MavenDroolsController(releaseId.getGroupId(), releaseId.getArtifactId(),
+                        releaseId.getVersion(), null, null) {
+            @Override
+            protected PolicySession getSession(String sessionName) {
+                return session;
+            }
+        };
+    }
+
+    private ToscaPolicy makePolicy(String name) {
+        ToscaPolicy policy = new ToscaPolicy();
+        policy.setName(name);
+        policy.setVersion("1.0.0");
+        return policy;
+    }
+
     private DroolsController createDroolsController(long courtesyStartTimeMs) throws InterruptedException {
         if (releaseId == null) {
             throw new IllegalStateException("no prereq artifact installed in maven repository");
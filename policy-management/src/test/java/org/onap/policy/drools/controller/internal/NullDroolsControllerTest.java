@@ -20,6 +20,7 @@
 
 package org.onap.policy.drools.controller.internal;
 
+import java.util.Collections;
 import org.junit.Assert;
 import org.junit.Test;
 import org.onap.policy.common.utils.gson.GsonTestUtils;
@@ -84,6 +85,11 @@ public class NullDroolsControllerTest {
         Assert.assertFalse(new NullDroolsController().offer(null, null));
     }
 
+    @Test
+    public void offerAll() {
+        Assert.assertFalse(new NullDroolsController().offerAll(Collections.emptyList()));
+    }
+
     @Test(expected = IllegalStateException.class)
     public void deliver() {
         new NullDroolsController().deliver(null, null);
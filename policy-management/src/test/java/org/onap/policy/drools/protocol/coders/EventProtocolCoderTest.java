@@ -21,6 +21,9 @@
 
 package org.onap.policy.drools.protocol.coders;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Properties;
@@ -97,4 +100,29 @@ public class EventProtocolCoderTest {
 
         EventProtocolCoder.manager.removeEncoders(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC);
     }
+
+    @Test
+    public void testCoderRegistry() {
+        assertFalse(EventProtocolCoder.manager.isDecodingSupported(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC));
+
+        JsonProtocolFilter filter = new JsonProtocolFilter();
+        EventProtocolCoder.manager.addDecoder(
+                EventProtocolParams.builder().groupId(ENCODER_GROUP).artifactId(ENCODER_ARTIFACT)
+                        .topic(NOOP_TOPIC).eventClass(DroolsConfiguration.class.getName())
+                        .protocolFilter(filter).customGsonCoder(null)
+                        .modelClassLoaderHash(DroolsConfiguration.class.getName().hashCode()));
+
+        assertTrue(EventProtocolCoder.manager.isDecodingSupported(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC));
+        assertFalse(EventProtocolCoder.manager.isDecodingSupported(ENCODER_GROUP, ENCODER_ARTIFACT, "other"));
+
+        ProtocolCoderToolset toolset = EventProtocolCoder.manager.getDecoders(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC);
+        assertEquals(ENCODER_GROUP + ":" + ENCODER_ARTIFACT + ":" + NOOP_TOPIC, toolset.getControllerId());
+        assertEquals(1, EventProtocolCoder.manager.getDecoders(ENCODER_GROUP, ENCODER_ARTIFACT).size());
+        assertSame(filter, EventProtocolCoder.manager.getDecoderFilters(ENCODER_GROUP, ENCODER_ARTIFACT)
+                        .get(0).getFilter());
+
+        EventProtocolCoder.manager.removeDecoders(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC);
+        assertFalse(EventProtocolCoder.manager.isDecodingSupported(ENCODER_GROUP, ENCODER_ARTIFACT, NOOP_TOPIC));
+        assertTrue(EventProtocolCoder.manager.getDecoders(ENCODER_GROUP, ENCODER_ARTIFACT).isEmpty());
+    }
 }
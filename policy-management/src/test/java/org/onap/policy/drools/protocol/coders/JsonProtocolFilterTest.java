@@ -24,6 +24,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import com.google.gson.JsonParser;
+import com.jayway.jsonpath.DocumentContext;
 import org.junit.Test;
 
 public class JsonProtocolFilterTest {
@@ -160,4 +162,87 @@ public class JsonProtocolFilterTest {
     public void staticFilterEmptyExpressionTest() {
         JsonProtocolFilter.filter("{\"hello\":\"world\"}", "");
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that several filters can be evaluated against a single parsed document.
+     */
+    @Test
+    public void acceptDocumentTest() {
+        DocumentContext document = JsonProtocolFilter.parse(JSON);
+
+        assertTrue(new JsonProtocolFilter(null).accept(document));
+        assertTrue(new JsonProtocolFilter(
+                        "$.controllers[?(@.drools.version =~ /\\d\\.\\d\\.\\d/ && @.operation == 'update')]")
+                                        .accept(document));
+        assertFalse(new JsonProtocolFilter("$.test").accept(document));
+    }
+
+    /**
+     * Tests that filters can be evaluated against a parsed Gson tree.
+     */
+    @Test
+    public void acceptTreeTest() {
+        DocumentContext document = JsonProtocolFilter.parse(new JsonParser().parse(JSON));
+
+        assertTrue(new JsonProtocolFilter(
+                        "$.controllers[?(@.drools.version =~ /\\d\\.\\d\\.\\d/ && @.operation == 'update')]")
+                                        .accept(document));
+        assertFalse(new JsonProtocolFilter("$.test").accept(document));
+        assertEquals("controller", new JsonProtocolFilter("$.entity").filter(document).get(0));
+    }
+
+    /**
+     * Tests finding field matches in a parsed document.
+     */
+    @Test
+    public void filterDocumentTest() {
+        DocumentContext document = JsonProtocolFilter.parse(JSON);
+
+        assertEquals("38adde30-cc22-11e8-a8d5-f2801f1b9fd1",
+                        new JsonProtocolFilter("$.requestID").filter(document).get(0));
+        assertTrue(new JsonProtocolFilter("$.test").filter(document).isEmpty());
+    }
+
+    /**
+     * Tests that the compiled rule follows changes to the rule expression.
+     */
+    @Test
+    public void setRuleRecompilesTest() {
+        JsonProtocolFilter filter = new JsonProtocolFilter("$.requestID");
+        assertEquals("38adde30-cc22-11e8-a8d5-f2801f1b9fd1", filter.filter(JSON).get(0));
+
+        filter.setRule("$.entity");
+        assertEquals("controller", filter.filter(JSON).get(0));
+
+        filter.setRule(null);
+        assertTrue(filter.isMatchAny());
+        assertTrue(filter.accept(JSON));
+    }
+
+    /**
+     * Tests that an invalid rule rejects messages rather than failing.
+     */
+    @Test
+    public void invalidRuleTest() {
+        JsonProtocolFilter filter = new JsonProtocolFilter("$.controllers[?(@.operation == ");
+        assertFalse(filter.isMatchAny());
+        assertFalse(filter.accept(JSON));
+        assertFalse(filter.accept(JsonProtocolFilter.parse(JSON)));
+    }
+
+    /**
+     * Tests that an exception is thrown if a null document is passed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void filterNullDocumentTest() {
+        new JsonProtocolFilter("$.test").filter((DocumentContext) null);
+    }
+
+    /**
+     * Tests that an exception is thrown if an empty JSON string is parsed.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseEmptyJsonTest() {
+        JsonProtocolFilter.parse("");
+    }
+}
@@ -90,6 +90,7 @@ public class ProtocolCoderToolsetTest {
     public void testToolsets() {
         createController();
         testGsonToolset(createFilterSet());
+        testSharedParseToolset();
     }
 
     /**
@@ -116,6 +117,53 @@ public class ProtocolCoderToolsetTest {
         gsonToolset.setCustomCoder(new CustomGsonCoder(this.getClass().getName(), "customCoder"));
         String tripleEncoded = encode(gsonToolset, triple);
         decode(protocolFilter, gsonToolset, triple, tripleEncoded);
+
+        /* the custom coder is resolved once and reused until it is changed */
+        GsonProtocolCoderToolset.CustomCoderHandle handle = gsonToolset.customCoderHandle;
+        Assert.assertNotNull(handle);
+        Assert.assertSame(customCoder, handle.gson);
+        encode(gsonToolset, triple);
+        Assert.assertSame(handle, gsonToolset.customCoderHandle);
+
+        gsonToolset.setCustomCoder(new CustomGsonCoder(this.getClass().getName(), "customCoder"));
+        encode(gsonToolset, triple);
+        Assert.assertNotSame(handle, gsonToolset.customCoderHandle);
+    }
+
+    /**
+     * Test the Gson toolset when the parsed tree is shared by the filters and the decoder.
+     */
+    @SuppressWarnings("unchecked")
+    public void testSharedParseToolset() {
+        JsonProtocolFilter protocolFilter = new JsonProtocolFilter("[?($.second =~ /^v2$/ && $.third =~ /.*v3.*/)]");
+        GsonProtocolCoderToolset gsonToolset = new GsonProtocolCoderToolset(
+                EventProtocolParams.builder().topic(JUNIT_PROTOCOL_CODER_TOPIC)
+                        .groupId(this.releaseId.getGroupId())
+                        .artifactId(this.releaseId.getArtifactId())
+                        .eventClass(Triple.class.getName())
+                        .protocolFilter(protocolFilter)
+                        .customGsonCoder(null)
+                        .modelClassLoaderHash(12345678)
+                        .sharedParse(true), CONTROLLER_ID);
+
+        Assert.assertTrue(gsonToolset.isSharedParse());
+
+        Triple<String, String, String> triple = createTriple();
+        String tripleEncoded = encode(gsonToolset, triple);
+
+        Triple<String, String, String> tripleDecoded =
+                (Triple<String, String, String>) gsonToolset.decode(tripleEncoded);
+        Assert.assertEquals(triple.first(), tripleDecoded.first());
+        Assert.assertEquals(triple.second(), tripleDecoded.second());
+        Assert.assertEquals(triple.third(), tripleDecoded.third());
+
+        protocolFilter.setRule("[?($.second =~ /^blah.*/)]");
+        try {
+            gsonToolset.decode(tripleEncoded);
+            Assert.fail("decode does not pass filtering");
+        } catch (UnsupportedOperationException e) {
+            logger.trace("Junit expected exception - decode does not pass filtering", e);
+        }
     }
 
     private Triple<String, String, String> createTriple() {
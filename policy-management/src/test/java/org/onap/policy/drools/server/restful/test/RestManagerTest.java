@@ -21,12 +21,27 @@
 package org.onap.policy.drools.server.restful.test;
 
 import static org.junit.Assert.assertEquals;
-
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.stream.Stream;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import org.apache.http.HttpEntity;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
@@ -47,8 +62,11 @@ import org.junit.Test;
 import org.junit.runners.MethodSorters;
 import org.onap.policy.common.endpoints.event.comm.TopicEndpointManager;
 import org.onap.policy.common.endpoints.properties.PolicyEndPointProperties;
+import org.onap.policy.common.gson.annotation.GsonJsonIgnore;
+import org.onap.policy.common.gson.annotation.GsonJsonProperty;
 import org.onap.policy.common.utils.network.NetworkUtil;
 import org.onap.policy.drools.persistence.SystemPersistence;
+import org.onap.policy.drools.server.restful.RestManager;
 import org.onap.policy.drools.system.PolicyController;
 import org.onap.policy.drools.system.PolicyEngine;
 import org.slf4j.Logger;
@@ -204,11 +222,48 @@ public class RestManagerTest {
         assertEquals(404, response.getStatusLine().getStatusCode());
         httpDelete.releaseConnection();
 
+        /*
+         * PUT: /engine/controllers/controllerName/drools/switches/stats DELETE:
+         * /engine/controllers/controllerName/drools/switches/stats /engine/controllers/controllerName/drools/stats
+         */
+        HttpPut httpPut = new HttpPut(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/switches/stats");
+        response = client.execute(httpPut);
+        logger.info(httpPut.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpPut.releaseConnection();
+
+        httpDelete = new HttpDelete(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/switches/stats");
+        response = client.execute(httpDelete);
+        logger.info(httpDelete.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpDelete.releaseConnection();
+
+        httpDelete = new HttpDelete(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/stats");
+        response = client.execute(httpDelete);
+        logger.info(httpDelete.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpDelete.releaseConnection();
+
+        httpDelete = new HttpDelete(HOST_URL + "/engine/controllers/nonexistantcontroller/drools/stats");
+        response = client.execute(httpDelete);
+        logger.info(httpDelete.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(404, response.getStatusLine().getStatusCode());
+        httpDelete.releaseConnection();
+
+        /*
+         * DELETE: /engine/metrics
+         */
+        httpDelete = new HttpDelete(HOST_URL + "/engine/metrics");
+        response = client.execute(httpDelete);
+        logger.info(httpDelete.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpDelete.releaseConnection();
+
         /*
          * PUT: /engine/switches/lock /engine/controllers/controllername/switches/lock DELETE:
          * /engine/switches/lock /engine/controllers/controllername
          */
-        HttpPut httpPut = new HttpPut(HOST_URL + "/engine/switches/lock");
+        httpPut = new HttpPut(HOST_URL + "/engine/switches/lock");
         response = client.execute(httpPut);
         logger.info(httpPut.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
         assertEquals(406, response.getStatusLine().getStatusCode());
@@ -457,6 +512,12 @@ public class RestManagerTest {
         assertEquals(200, response.getStatusLine().getStatusCode());
         httpGet.releaseConnection();
 
+        httpGet = new HttpGet(HOST_URL + "/engine/metrics");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
         httpGet = new HttpGet(HOST_URL + "/engine/controllers");
         response = client.execute(httpGet);
         responseBody = this.getResponseBody(response);
@@ -552,6 +613,18 @@ public class RestManagerTest {
         assertEquals(404, response.getStatusLine().getStatusCode());
         httpGet.releaseConnection();
 
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/metrics");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/nonexistantcontroller/metrics");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(404, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
         /*
          * GET: /engine/controllers/controllerName/drools/facts
          * /engine/controllers/controllerName/drools/facts/session
@@ -571,6 +644,28 @@ public class RestManagerTest {
         assertEquals(404, response.getStatusLine().getStatusCode());
         httpGet.releaseConnection();
 
+        /*
+         * GET: /engine/controllers/controllerName/drools/stats
+         * /engine/controllers/controllerName/drools/stats/session
+         */
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/stats");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/nonexistantcontroller/drools/stats");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(404, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/stats/session");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(404, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
         httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER + "/drools/facts/session");
         response = client.execute(httpGet);
         logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
@@ -596,6 +691,42 @@ public class RestManagerTest {
         assertEquals(404, response.getStatusLine().getStatusCode());
         httpGet.releaseConnection();
 
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER
+                + "/drools/facts/session/factType?offset=10&limit=10");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        assertEquals("[]", EntityUtils.toString(response.getEntity()));
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER
+                + "/drools/facts/session/factType?count=true&limit=10");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER
+                + "/drools/facts/session/factType?limit=-1");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(400, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER
+                + "/drools/facts/session/query/queriedEntity?offset=0&limit=10");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(200, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
+        httpGet = new HttpGet(HOST_URL + "/engine/controllers/" + FOO_CONTROLLER
+                + "/drools/facts/session/query/queriedEntity?offset=-1");
+        response = client.execute(httpGet);
+        logger.info(httpGet.getRequestLine() + " response code: {}", response.getStatusLine().getStatusCode());
+        assertEquals(400, response.getStatusLine().getStatusCode());
+        httpGet.releaseConnection();
+
 
         /*
          * GET: /engine/controllers/controllerName/decoders
@@ -961,6 +1092,81 @@ public class RestManagerTest {
         return null;
     }
 
+    @Test
+    public void getFactsEncodingTest() throws IOException {
+        Response response = new FactsRestManager().getFacts(Stream.of(new Fact()));
+        assertEquals(200, response.getStatus());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+
+        // encoded as the serialization provider would, honoring the gson annotations
+        String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        assertTrue(json, json.contains("\"fact-name\":\"my-name\""));
+        assertFalse(json, json.contains("ignored"));
+    }
+
+    @Test
+    public void getFactsPagingTest() throws IOException {
+        List<Object> facts = new ArrayList<>();
+        for (int index = 0; index < 5; index++) {
+            facts.add(new Fact("fact-" + index));
+        }
+
+        FactsRestManager manager = new FactsRestManager();
+
+        assertEquals("[fact-0, fact-1, fact-2, fact-3, fact-4]", names(manager.getFacts(facts.stream(), 0, 0)));
+        assertEquals("[fact-1, fact-2]", names(manager.getFacts(facts.stream(), 1, 2)));
+        assertEquals("[fact-4]", names(manager.getFacts(facts.stream(), 4, 2)));
+        assertEquals("[]", names(manager.getFacts(facts.stream(), 5, 2)));
+
+        assertEquals(5L, manager.countFacts(facts.stream(), 0, 0).getEntity());
+        assertEquals(2L, manager.countFacts(facts.stream(), 1, 2).getEntity());
+        assertEquals(1L, manager.countFacts(facts.stream(), 4, 2).getEntity());
+        assertEquals(0L, manager.countFacts(facts.stream(), 5, 2).getEntity());
+    }
+
+    @Test
+    public void getFactsSnapshotTest() throws IOException {
+        List<Object> facts = new ArrayList<>();
+        facts.add(new Fact("fact-0"));
+        facts.add(new Fact("fact-1"));
+
+        Response response = new FactsRestManager().getFacts(facts.stream(), 0, 0);
+
+        // working memory changes before the response is written to the client
+        facts.add(new Fact("fact-2"));
+        facts.remove(0);
+
+        assertEquals("[fact-0, fact-1]", names(response));
+    }
+
+    @Test
+    public void getFactsEncodingFailureTest() throws IOException {
+        Response response = new FactsRestManager()
+                        .getFacts(Stream.of(new Fact("fact-0"), new BadFact(), new Fact("fact-2")), 0, 0);
+
+        // the fact that cannot be encoded is left out, and the array is still complete
+        assertEquals("[fact-0, fact-2]", names(response));
+    }
+
+    /**
+     * Writes the facts of a response, and decodes their names.
+     */
+    private static String names(Response response) throws IOException {
+        assertEquals(200, response.getStatus());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+
+        String json = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        JsonArray facts = new Gson().fromJson(json, JsonArray.class);
+
+        List<String> names = new ArrayList<>();
+        facts.forEach(fact -> names.add(fact.getAsJsonObject().get("fact-name").getAsString()));
+        return names.toString();
+    }
+
     private static void cleanUpWorkingDirs() throws IOException {
         final Path testControllerPath =
                 Paths.get(SystemPersistence.manager.getConfigurationPath().toString(), FOO_CONTROLLER_FILE);
@@ -971,4 +1177,62 @@ public class RestManagerTest {
         Files.deleteIfExists(testControllerBakPath);
     }
 
+    /**
+     * Exposes the streaming of facts.
+     */
+    private static class FactsRestManager extends RestManager {
+        public Response getFacts(Stream<Object> facts) {
+            return getFacts(facts, 0, 0);
+        }
+
+        public Response getFacts(Stream<Object> facts, long offset, long limit) {
+            return getFactsResponse(facts, false, offset, limit);
+        }
+
+        public Response countFacts(Stream<Object> facts, long offset, long limit) {
+            return getFactsResponse(facts, true, offset, limit);
+        }
+    }
+
+    /**
+     * Fact with gson annotations.
+     */
+    public static class Fact {
+        @GsonJsonProperty("fact-name")
+        private String name;
+
+        @GsonJsonIgnore
+        private String ignored = "ignored";
+
+        public Fact() {
+            this("my-name");
+        }
+
+        public Fact(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Fact that cannot be encoded.
+     */
+    @JsonAdapter(BadFactAdapter.class)
+    public static class BadFact {
+    }
+
+    /**
+     * Fails to encode a {@link BadFact}.
+     */
+    public static class BadFactAdapter extends TypeAdapter<BadFact> {
+        @Override
+        public void write(JsonWriter out, BadFact value) {
+            throw new IllegalStateException("expected exception");
+        }
+
+        @Override
+        public BadFact read(JsonReader in) {
+            throw new UnsupportedOperationException("read");
+        }
+    }
+
 }
@@ -29,6 +29,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,6 +49,7 @@ import org.onap.policy.drools.controller.DroolsController;
 import org.onap.policy.drools.controller.DroolsControllerFactory;
 import org.onap.policy.drools.features.PolicyControllerFeatureAPI;
 import org.onap.policy.drools.persistence.SystemPersistence;
+import org.onap.policy.drools.properties.DroolsProperties;
 import org.onap.policy.drools.protocol.configuration.DroolsConfiguration;
 import org.onap.policy.drools.system.GsonMgmtTestBuilder;
 
@@ -534,6 +536,28 @@ public class AggregatedPolicyControllerTest {
         // never gets this far
         verify(drools, never()).offer(SOURCE_TOPIC1, MY_EVENT);
         verify(prov1, never()).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, true);
+
+        // but the features are told that it's done
+        verify(prov1).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, false);
+        verify(prov2).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, false);
+    }
+
+    @Test
+    public void testOnTopicEvent_Intercepted() {
+        when(prov1.beforeOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT)).thenReturn(true);
+
+        // start it
+        apc.start();
+
+        // now offer it
+        apc.onTopicEvent(CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT);
+
+        verify(prov2, never()).beforeOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT);
+        verify(drools, never()).offer(SOURCE_TOPIC1, MY_EVENT);
+
+        // the features are still told that it's done
+        verify(prov1).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, false);
+        verify(prov2).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, false);
     }
 
     @Test
@@ -548,6 +572,33 @@ public class AggregatedPolicyControllerTest {
         // never gets this far
         verify(drools, never()).offer(SOURCE_TOPIC1, MY_EVENT);
         verify(prov1, never()).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, true);
+        verify(prov1).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, false);
+    }
+
+    @Test
+    public void testOnTopicEvent_Dispatch() {
+        properties.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_THREADS, "2");
+        properties.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_KEY_PREFIX + SOURCE_TOPIC1,
+                        "$.requestId");
+        apc = new AggregatedPolicyControllerImpl(AGG_NAME, properties);
+
+        // start it
+        apc.start();
+
+        // now offer it, it is processed by a dispatch thread
+        apc.onTopicEvent(CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT);
+
+        verify(prov1, timeout(5000)).beforeOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT);
+        verify(drools, timeout(5000)).offer(SOURCE_TOPIC1, MY_EVENT);
+        verify(prov2, timeout(5000)).afterOffer(apc, CommInfrastructure.NOOP, SOURCE_TOPIC1, MY_EVENT, true);
+
+        // once stopped, events are discarded
+        apc.stop();
+        apc.start();
+        apc.stop();
+
+        apc.onTopicEvent(CommInfrastructure.NOOP, SOURCE_TOPIC2, MY_EVENT);
+        verify(drools, never()).offer(SOURCE_TOPIC2, MY_EVENT);
     }
 
     @Test
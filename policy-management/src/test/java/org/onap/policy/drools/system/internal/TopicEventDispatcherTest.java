@@ -0,0 +1,262 @@
+/*
+ * ============LICENSE_START=======================================================
+ * ONAP
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.system.internal;
+
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+import org.onap.policy.drools.properties.DroolsProperties;
+
+public class TopicEventDispatcherTest {
+
+    private static final String NAME = "my-controller";
+    private static final String TOPIC1 = "topic-a";
+    private static final String TOPIC2 = "topic-b";
+    private static final String KEY_EXPR = "$.requestId";
+
+    private TopicEventDispatcher dispatcher;
+
+    /**
+     * Stops the dispatcher.
+     */
+    @After
+    public void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+        }
+    }
+
+    @Test
+    public void testBuild() {
+        Properties props = new Properties();
+        assertNull(TopicEventDispatcher.build(NAME, props));
+
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_THREADS, "0");
+        assertNull(TopicEventDispatcher.build(NAME, props));
+
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_THREADS, "two");
+        assertThatIllegalArgumentException().isThrownBy(() -> TopicEventDispatcher.build(NAME, props));
+
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_THREADS, "2");
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_QUEUE_SIZE, "0");
+        assertThatIllegalArgumentException().isThrownBy(() -> TopicEventDispatcher.build(NAME, props));
+
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_QUEUE_SIZE, "10");
+        props.setProperty(DroolsProperties.PROPERTY_CONTROLLER_DISPATCH_KEY_PREFIX + TOPIC1, KEY_EXPR);
+        dispatcher = TopicEventDispatcher.build(NAME, props);
+        assertNotNull(dispatcher);
+        assertFalse(dispatcher.isAlive());
+        assertTrue(dispatcher.toString().contains(TOPIC1));
+    }
+
+    @Test
+    public void testConstructor() {
+        Map<String, String> keys = Collections.emptyMap();
+        assertThatIllegalArgumentException().isThrownBy(() -> new TopicEventDispatcher(NAME, 0, 1, keys));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TopicEventDispatcher(NAME, 1, 0, keys));
+    }
+
+    @Test
+    public void testGetPartitionKey() {
+        dispatcher = new TopicEventDispatcher(NAME, 1, 1, Collections.singletonMap(TOPIC1, KEY_EXPR));
+
+        assertEquals("abc", dispatcher.getPartitionKey(TOPIC1, "{\"requestId\":\"abc\"}"));
+
+        // no key in the event
+        assertEquals(TOPIC1, dispatcher.getPartitionKey(TOPIC1, "{\"otherId\":\"abc\"}"));
+
+        // not json
+        assertEquals(TOPIC1, dispatcher.getPartitionKey(TOPIC1, "{abc"));
+
+        // topic without key expression
+        assertEquals(TOPIC2, dispatcher.getPartitionKey(TOPIC2, "{\"requestId\":\"abc\"}"));
+    }
+
+    @Test
+    public void testStartStop() {
+        dispatcher = new TopicEventDispatcher(NAME, 2, 1, Collections.emptyMap());
+
+        // not running yet
+        assertFalse(dispatcher.dispatch(TOPIC1, "{}", () -> { }));
+        assertEquals(0, dispatcher.getPending());
+
+        dispatcher.start();
+        assertTrue(dispatcher.isAlive());
+
+        // start again - no effect
+        dispatcher.start();
+        assertTrue(dispatcher.isAlive());
+
+        dispatcher.stop();
+        assertFalse(dispatcher.isAlive());
+
+        // stop again - no effect
+        dispatcher.stop();
+        assertFalse(dispatcher.isAlive());
+
+        // can be restarted
+        dispatcher.start();
+        assertTrue(dispatcher.isAlive());
+    }
+
+    @Test
+    public void testDispatchOrdering() throws InterruptedException {
+        final int nkeys = 10;
+        final int nevents = 1000;
+
+        dispatcher = new TopicEventDispatcher(NAME, 4, 16, Collections.singletonMap(TOPIC1, KEY_EXPR));
+        dispatcher.start();
+
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(nevents);
+
+        for (int count = 0; count < nevents; ++count) {
+            String key = "req-" + (count % nkeys);
+            int seq = count;
+
+            assertTrue(dispatcher.dispatch(TOPIC1, "{\"requestId\":\"" + key + "\"}", () -> {
+                processed.computeIfAbsent(key, xxx -> Collections.synchronizedList(new ArrayList<>())).add(seq);
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(nkeys, processed.size());
+        for (List<Integer> seqs : processed.values()) {
+            assertEquals(nevents / nkeys, seqs.size());
+
+            List<Integer> sorted = new ArrayList<>(seqs);
+            Collections.sort(sorted);
+            assertEquals(sorted, seqs);
+        }
+    }
+
+    @Test
+    public void testDispatchBackpressure() throws InterruptedException {
+        dispatcher = new TopicEventDispatcher(NAME, 1, 1, new HashMap<>());
+        dispatcher.start();
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+
+        // occupies the only worker
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", () -> {
+            running.countDown();
+            await(release);
+            done.countDown();
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // fills the queue
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", done::countDown));
+        assertEquals(1, dispatcher.getPending());
+
+        // this one must block until the worker catches up
+        AtomicBoolean dispatched = new AtomicBoolean();
+        Thread source = new Thread(() -> dispatched.set(dispatcher.dispatch(TOPIC1, "{}", done::countDown)));
+        source.setDaemon(true);
+        source.start();
+
+        source.join(200);
+        assertTrue(source.isAlive());
+
+        release.countDown();
+
+        source.join(5000);
+        assertFalse(source.isAlive());
+        assertTrue(dispatched.get());
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testStopWhileRunning() throws InterruptedException {
+        dispatcher = new TopicEventDispatcher(NAME, 1, 10, Collections.emptyMap());
+        dispatcher.start();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean(true);
+        AtomicBoolean ranPending = new AtomicBoolean(false);
+
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", () -> {
+            started.countDown();
+            await(release);
+            interrupted.set(Thread.currentThread().isInterrupted());
+            done.countDown();
+        }));
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", () -> ranPending.set(true)));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        dispatcher.stop();
+        release.countDown();
+
+        // the running task completes without being interrupted, the pending one is discarded
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertFalse(interrupted.get());
+
+        Thread.sleep(100);
+        assertFalse(ranPending.get());
+    }
+
+    @Test
+    public void testDispatchTaskFailure() throws InterruptedException {
+        dispatcher = new TopicEventDispatcher(NAME, 1, 10, Collections.emptyMap());
+        dispatcher.start();
+
+        CountDownLatch done = new CountDownLatch(1);
+
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", () -> {
+            throw new IllegalStateException("expected exception");
+        }));
+        assertTrue(dispatcher.dispatch(TOPIC1, "{}", done::countDown));
+
+        // the worker survives the failure
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * policy-utils
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.utils;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of classes resolved by name in a class loader, including the names
+ * that could not be resolved.  Lookups of cached names do not take any class
+ * loader lock.  The cache holds the classes of a single class loader at a time:
+ * it is reset when asked for a different class loader, or when cleared.
+ */
+public class ClassCache {
+
+    /**
+     * Classes resolved in the current class loader.
+     */
+    private volatile Entry entry = new Entry(null);
+
+    /**
+     * returns (if exists) a class fetched from a given classloader.
+     *
+     * @param classLoader the class loader
+     * @param className the class name
+     * @return the actual class, or null if it does not exist
+     * @throws IllegalArgumentException if an invalid parameter has been passed in
+     */
+    public Class<?> fetchClass(ClassLoader classLoader, String className) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("A class loader must be provided");
+        }
+
+        if (className == null) {
+            throw new IllegalArgumentException("A class name to be fetched in class loader "
+                    + classLoader + " must be provided");
+        }
+
+        Entry current = this.entry;
+        if (current.classLoader != classLoader) {
+            current = new Entry(classLoader);
+            this.entry = current;
+        }
+
+        Optional<Class<?>> clazz = current.classes.get(className);
+        if (clazz == null) {
+            clazz = Optional.ofNullable(ReflectionUtil.fetchClass(classLoader, className));
+            Optional<Class<?>> prev = current.classes.putIfAbsent(className, clazz);
+            if (prev != null) {
+                clazz = prev;
+            }
+        }
+
+        return clazz.orElse(null);
+    }
+
+    /**
+     * Is class.
+     *
+     * @param classLoader target class loader
+     * @param className class name to fetch
+     * @return true if exists
+     * @throws IllegalArgumentException if an invalid parameter has been passed in
+     */
+    public boolean isClass(ClassLoader classLoader, String className) {
+        return fetchClass(classLoader, className) != null;
+    }
+
+    /**
+     * Discards all cached classes.
+     */
+    public void clear() {
+        this.entry = new Entry(null);
+    }
+
+    /**
+     * Gets the number of cached class names, including those that could not be resolved.
+     *
+     * @return the number of cached class names
+     */
+    public int size() {
+        return this.entry.classes.size();
+    }
+
+    /**
+     * Classes resolved in a class loader.
+     */
+    private static class Entry {
+        private final ClassLoader classLoader;
+        private final ConcurrentMap<String, Optional<Class<?>>> classes = new ConcurrentHashMap<>();
+
+        private Entry(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*-
+ * ============LICENSE_START=======================================================
+ * policy-utils
+ * ================================================================================
+ * Copyright (C) 2019 AT&T Intellectual Property. All rights reserved.
+ * ================================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ============LICENSE_END=========================================================
+ */
+
+package org.onap.policy.drools.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ClassCacheTest {
+
+    private static final String CLASS_NAME = ClassCacheTest.class.getName();
+    private static final String UNKNOWN_CLASS_NAME = "org.onap.policy.drools.utils.Unknown";
+
+    private ClassCache cache;
+    private ClassLoader classLoader;
+
+    @Before
+    public void setUp() {
+        cache = new ClassCache();
+        classLoader = ClassCacheTest.class.getClassLoader();
+    }
+
+    @Test
+    public void testFetchClass() {
+        assertSame(ClassCacheTest.class, cache.fetchClass(classLoader, CLASS_NAME));
+        assertEquals(1, cache.size());
+
+        // cached
+        assertSame(ClassCacheTest.class, cache.fetchClass(classLoader, CLASS_NAME));
+        assertTrue(cache.isClass(classLoader, CLASS_NAME));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFetchClassNotFound() {
+        assertNull(cache.fetchClass(classLoader, UNKNOWN_CLASS_NAME));
+        assertEquals(1, cache.size());
+
+        // negative entries are cached too
+        assertFalse(cache.isClass(classLoader, UNKNOWN_CLASS_NAME));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFetchClassOtherClassLoader() {
+        cache.fetchClass(classLoader, CLASS_NAME);
+        cache.fetchClass(classLoader, UNKNOWN_CLASS_NAME);
+        assertEquals(2, cache.size());
+
+        ClassLoader otherClassLoader = new URLClassLoader(new URL[0], classLoader);
+        assertSame(ClassCacheTest.class, cache.fetchClass(otherClassLoader, CLASS_NAME));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testClear() {
+        cache.fetchClass(classLoader, CLASS_NAME);
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+
+        assertSame(ClassCacheTest.class, cache.fetchClass(classLoader, CLASS_NAME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchClassNullClassLoader() {
+        cache.fetchClass(null, CLASS_NAME);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFetchClassNullClassName() {
+        cache.fetchClass(classLoader, null);
+    }
+}